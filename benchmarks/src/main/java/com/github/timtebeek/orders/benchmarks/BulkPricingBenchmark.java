@@ -0,0 +1,115 @@
+package com.github.timtebeek.orders.benchmarks;
+
+import com.github.timtebeek.orders.BatchDiscountCalculator;
+import com.github.timtebeek.orders.CentsDiscountCalculator;
+import com.github.timtebeek.orders.Customer;
+import com.github.timtebeek.orders.DiscountCalculator;
+import com.github.timtebeek.orders.LoyaltyTier;
+import com.github.timtebeek.orders.Order;
+import com.github.timtebeek.orders.OrderBatch;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pricing a realistic order set: per order with each engine, and columnar with the batch calculator.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@State(Scope.Benchmark)
+public class BulkPricingBenchmark {
+
+    private static final LoyaltyTier[] TIERS = LoyaltyTier.values();
+
+    @Param({"100000"})
+    public int orderCount;
+
+    @Param({"false", "true"})
+    public boolean vectorized;
+
+    private final DiscountCalculator calculator = new DiscountCalculator();
+    private final CentsDiscountCalculator centsCalculator = new CentsDiscountCalculator(calculator);
+    private BatchDiscountCalculator batchCalculator;
+
+    private List<Order> orders;
+    private Map<String, Customer> customers;
+    private OrderBatch batch;
+    private LoyaltyTier[] tiersByCustomerCode;
+    private int[] tierOrdinals;
+    private long[] subtotalCents;
+    private long[] discountCents;
+
+    @Setup
+    public void setUp() {
+        int customerCount = 5_000;
+        orders = OrderFixtures.orders(orderCount, customerCount, 0.0, 7);
+        customers = new HashMap<>();
+        for (Customer customer : OrderFixtures.customers(customerCount)) {
+            customers.put(customer.getCustomerId(), customer);
+        }
+        batchCalculator = new BatchDiscountCalculator(centsCalculator, vectorized);
+        batch = OrderBatch.of(orders);
+        tiersByCustomerCode = new LoyaltyTier[batch.getCustomerCount()];
+        for (int code = 0; code < tiersByCustomerCode.length; code++) {
+            tiersByCustomerCode[code] = OrderFixtures.tier(customers.get(batch.getCustomerIdForCode(code)));
+        }
+        tierOrdinals = new int[orderCount];
+        subtotalCents = new long[orderCount];
+        discountCents = new long[orderCount];
+        for (int i = 0; i < orderCount; i++) {
+            tierOrdinals[i] = OrderFixtures.tier(customers.get(batch.getCustomerId(i))).ordinal();
+            subtotalCents[i] = batch.getCents(OrderBatch.Column.SUBTOTAL, i);
+        }
+    }
+
+    @Benchmark
+    public BigDecimal perOrderBigDecimal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (Order order : orders) {
+            total = total.add(calculator.calculateTotalDiscount(customers.get(order.getCustomerId()), order.getSubtotal()));
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long perOrderCents() {
+        long total = 0;
+        for (int i = 0; i < subtotalCents.length; i++) {
+            total += centsCalculator.calculateTotalDiscount(TIERS[tierOrdinals[i]], subtotalCents[i]);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long[] batchDiscounts() {
+        batchCalculator.calculateTotalDiscounts(tierOrdinals, subtotalCents, discountCents);
+        return discountCents;
+    }
+
+    @Benchmark
+    public long repriceBatch() {
+        return batchCalculator.reprice(batch, tiersByCustomerCode).sumTotalCents();
+    }
+
+    @Benchmark
+    public long sumTotals() {
+        return batch.sum(OrderBatch.Column.TOTAL);
+    }
+}
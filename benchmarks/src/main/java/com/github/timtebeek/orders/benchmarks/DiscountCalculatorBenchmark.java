@@ -0,0 +1,71 @@
+package com.github.timtebeek.orders.benchmarks;
+
+import com.github.timtebeek.orders.CentsDiscountCalculator;
+import com.github.timtebeek.orders.Customer;
+import com.github.timtebeek.orders.DiscountCalculator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Total discount of a single order for every loyalty tier, just below, at and above the bulk order threshold,
+ * with the {@code BigDecimal} and the cents engine.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DiscountCalculatorBenchmark {
+
+    @Param({"NONE", "BRONZE", "SILVER", "GOLD", "PLATINUM"})
+    public String tier;
+
+    @Param({"499.99", "500.00", "500.01"})
+    public String subtotal;
+
+    private final DiscountCalculator calculator = new DiscountCalculator();
+    private final CentsDiscountCalculator centsCalculator = new CentsDiscountCalculator(calculator);
+    private Customer customer;
+    private BigDecimal subtotalAmount;
+    private long subtotalCents;
+
+    @Setup
+    public void setUp() {
+        customer = OrderFixtures.customer("NONE".equals(tier) ? null : tier);
+        subtotalAmount = new BigDecimal(subtotal);
+        subtotalCents = subtotalAmount.movePointRight(2).longValueExact();
+    }
+
+    @Benchmark
+    public BigDecimal totalDiscount() {
+        return calculator.calculateTotalDiscount(customer, subtotalAmount);
+    }
+
+    @Benchmark
+    public BigDecimal loyaltyDiscount() {
+        return calculator.calculateLoyaltyDiscount(customer, subtotalAmount);
+    }
+
+    @Benchmark
+    public BigDecimal bulkDiscount() {
+        return calculator.calculateBulkDiscount(subtotalAmount);
+    }
+
+    @Benchmark
+    public long totalDiscountCents() {
+        return centsCalculator.calculateTotalDiscount(customer, subtotalCents);
+    }
+}
@@ -0,0 +1,97 @@
+package com.github.timtebeek.orders.benchmarks;
+
+import com.github.timtebeek.orders.Address;
+import com.github.timtebeek.orders.Customer;
+import com.github.timtebeek.orders.LoyaltyTier;
+import com.github.timtebeek.orders.Order;
+import com.github.timtebeek.orders.OrderItem;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic, realistic order sets: a few thousand customers spread over the loyalty tiers, one to five
+ * items per order, subtotals mostly below and some above the bulk order threshold, and a small share of
+ * invalid orders.
+ */
+final class OrderFixtures {
+
+    static final Address ADDRESS = new Address("123 Main St", "Springfield", "IL", "62701", "USA");
+
+    private static final String[] TIERS = {null, "BRONZE", "SILVER", "GOLD", "PLATINUM"};
+    private static final String[] STATUSES = {"PENDING", "CONFIRMED", "SHIPPED", "DELIVERED", "CANCELLED"};
+    private static final String[][] PRODUCTS = {
+            {"P1", "Laptop", "Electronics", "999.99"},
+            {"P2", "Mouse", "Electronics", "24.99"},
+            {"P3", "Desk", "Furniture", "349.00"},
+            {"P4", "Chair", "Furniture", "189.50"},
+            {"P5", "Notebook", "Stationery", "3.49"},
+            {"P6", "Pen", "Stationery", "1.25"},
+            {"P7", "Novel", "Books", "14.95"},
+            {"P8", "Headphones", "Electronics", "129.00"}};
+
+    private OrderFixtures() {
+    }
+
+    static Customer customer(String tier) {
+        return new Customer("CUST-" + tier, "customer@example.com", "Customer", ADDRESS, tier);
+    }
+
+    static List<Customer> customers(int count) {
+        List<Customer> customers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            customers.add(new Customer("CUST-" + i, "customer" + i + "@example.com", "Customer " + i, ADDRESS,
+                    TIERS[i % TIERS.length]));
+        }
+        return customers;
+    }
+
+    static Order validOrder() {
+        return orders(1, 1, 0.0, 42).get(0);
+    }
+
+    /**
+     * An order failing several rules: a blank customer ID, an unknown status and a zero total.
+     */
+    static Order invalidOrder() {
+        Order valid = validOrder();
+        return new Order(valid.getOrderId(), " ", valid.getOrderDate(), "UNKNOWN", valid.getItems(),
+                valid.getSubtotal(), valid.getTax(), valid.getShippingCost(), valid.getDiscount(), BigDecimal.ZERO);
+    }
+
+    /**
+     * @param invalidShare fraction of orders with an unknown status
+     */
+    static List<Order> orders(int count, int customerCount, double invalidShare, long seed) {
+        Random random = new Random(seed);
+        List<Order> orders = new ArrayList<>(count);
+        LocalDate start = LocalDate.of(2024, 1, 1);
+        for (int i = 0; i < count; i++) {
+            int itemCount = 1 + random.nextInt(5);
+            List<OrderItem> items = new ArrayList<>(itemCount);
+            BigDecimal subtotal = BigDecimal.ZERO;
+            for (int j = 0; j < itemCount; j++) {
+                String[] product = PRODUCTS[random.nextInt(PRODUCTS.length)];
+                int quantity = 1 + random.nextInt(3);
+                BigDecimal unitPrice = new BigDecimal(product[3]);
+                BigDecimal lineTotal = unitPrice.multiply(BigDecimal.valueOf(quantity));
+                items.add(new OrderItem(product[0], product[1], product[2], quantity, unitPrice, lineTotal));
+                subtotal = subtotal.add(lineTotal);
+            }
+            BigDecimal tax = subtotal.multiply(new BigDecimal("0.085")).setScale(2, RoundingMode.HALF_UP);
+            BigDecimal shipping = subtotal.compareTo(new BigDecimal("100.00")) >= 0 ? BigDecimal.ZERO : new BigDecimal("9.99");
+            String status = random.nextDouble() < invalidShare ? "UNKNOWN" : STATUSES[random.nextInt(STATUSES.length)];
+            orders.add(new Order("ORD-" + i, "CUST-" + random.nextInt(customerCount), start.plusDays(random.nextInt(366)),
+                    status, items, subtotal, tax, shipping, BigDecimal.ZERO, subtotal.add(tax).add(shipping)));
+        }
+        return orders;
+    }
+
+    static LoyaltyTier tier(Customer customer) {
+        return LoyaltyTier.of(customer.getLoyaltyTier());
+    }
+}
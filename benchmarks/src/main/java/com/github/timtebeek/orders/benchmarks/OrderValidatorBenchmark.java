@@ -0,0 +1,94 @@
+package com.github.timtebeek.orders.benchmarks;
+
+import com.github.timtebeek.orders.Order;
+import com.github.timtebeek.orders.OrderValidator;
+import com.github.timtebeek.orders.ValidationProfile;
+import com.github.timtebeek.orders.ValidationReport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single order validation, for valid orders and orders failing several rules, and bulk validation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderValidatorBenchmark {
+
+    private final OrderValidator validator = new OrderValidator();
+    private final OrderValidator ingestValidator = new OrderValidator(ValidationProfile.INGEST);
+    private Order valid;
+    private Order invalid;
+    private List<Order> orders;
+
+    @Setup
+    public void setUp() {
+        valid = OrderFixtures.validOrder();
+        invalid = OrderFixtures.invalidOrder();
+        orders = OrderFixtures.orders(100_000, 5_000, 0.05, 1);
+    }
+
+    @Benchmark
+    public List<String> validateValid() {
+        return validator.validate(valid);
+    }
+
+    @Benchmark
+    public List<String> validateInvalid() {
+        return validator.validate(invalid);
+    }
+
+    @Benchmark
+    public boolean isValidValid() {
+        return validator.isValid(valid);
+    }
+
+    @Benchmark
+    public boolean isValidInvalid() {
+        return validator.isValid(invalid);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int isValidAll() {
+        int valid = 0;
+        for (Order order : orders) {
+            if (validator.isValid(order)) {
+                valid++;
+            }
+        }
+        return valid;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int isValidAllIngest() {
+        int valid = 0;
+        for (Order order : orders) {
+            if (ingestValidator.isValid(order)) {
+                valid++;
+            }
+        }
+        return valid;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public ValidationReport validateAll() {
+        return validator.validateAll(orders);
+    }
+}
@@ -0,0 +1,93 @@
+package com.github.timtebeek.orders.benchmarks;
+
+import com.github.timtebeek.orders.Customer;
+import com.github.timtebeek.orders.DiscountCalculator;
+import com.github.timtebeek.orders.DiscountRules;
+import com.github.timtebeek.orders.LoyaltyTier;
+import com.github.timtebeek.orders.Order;
+import com.github.timtebeek.orders.RepricingReport;
+import com.github.timtebeek.orders.RepricingSimulator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Repricing a realistic order set under a growing number of scenarios: a single simulator pass against one
+ * {@link DiscountCalculator} pass per scenario.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RepricingBenchmark {
+
+    @Param({"1", "4", "16"})
+    public int scenarios;
+
+    @Param({"100000"})
+    public int orderCount;
+
+    private List<Order> orders;
+    private Map<String, Customer> customers;
+    private List<DiscountRules> rules;
+    private RepricingSimulator simulator;
+
+    @Setup
+    public void setUp() {
+        int customerCount = 5_000;
+        orders = OrderFixtures.orders(orderCount, customerCount, 0.0, 7);
+        customers = new HashMap<>();
+        for (Customer customer : OrderFixtures.customers(customerCount)) {
+            customers.put(customer.getCustomerId(), customer);
+        }
+        rules = new ArrayList<>();
+        RepricingSimulator.Builder builder = RepricingSimulator.builder(DiscountRules.defaults(), customers::get);
+        for (int i = 0; i < scenarios; i++) {
+            DiscountRules scenario = DiscountRules.builder()
+                    .loyaltyRate(LoyaltyTier.BRONZE, new BigDecimal("0.05"))
+                    .loyaltyRate(LoyaltyTier.SILVER, new BigDecimal("0.10"))
+                    .loyaltyRate(LoyaltyTier.GOLD, BigDecimal.valueOf(15 + i, 2))
+                    .loyaltyRate(LoyaltyTier.PLATINUM, new BigDecimal("0.20"))
+                    .bulkOrder(BigDecimal.valueOf(500 + 100 * i), new BigDecimal("0.05"))
+                    .build();
+            rules.add(scenario);
+            builder.scenario("scenario-" + i, scenario);
+        }
+        simulator = builder.build();
+    }
+
+    @Benchmark
+    public RepricingReport singlePass() {
+        return simulator.simulate(orders);
+    }
+
+    @Benchmark
+    public BigDecimal passPerScenario() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (DiscountRules scenario : rules) {
+            DiscountCalculator calculator = new DiscountCalculator(scenario);
+            total = total.add(orders.parallelStream()
+                    .map(order -> calculator.calculateTotalDiscount(customers.get(order.getCustomerId()),
+                            order.getSubtotal()))
+                    .reduce(BigDecimal.ZERO, BigDecimal::add));
+        }
+        return total;
+    }
+}
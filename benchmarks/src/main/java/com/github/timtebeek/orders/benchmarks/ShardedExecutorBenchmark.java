@@ -0,0 +1,108 @@
+package com.github.timtebeek.orders.benchmarks;
+
+import com.github.timtebeek.orders.Money;
+import com.github.timtebeek.orders.Order;
+import com.github.timtebeek.orders.ShardedOrderExecutor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aggregating spend per customer from several producer threads: submitted to a running executor on a growing
+ * number of shards, against merging into a shared {@link ConcurrentHashMap}, which locks a bin per update.
+ * Sharded throughput should grow with the shard count up to the number of cores left by the producers.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class ShardedExecutorBenchmark {
+
+    private static final int ORDER_COUNT = 100_000;
+
+    @State(Scope.Benchmark)
+    public static class Orders {
+        List<Order> orders;
+
+        @Setup
+        public void setUp() {
+            orders = OrderFixtures.orders(ORDER_COUNT, 5_000, 0.0, 7);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Sharded {
+
+        @Param({"1", "2", "4", "8"})
+        public int shards;
+
+        ShardedOrderExecutor<Map<String, Long>> executor;
+
+        @Setup
+        public void setUp() {
+            executor = ShardedOrderExecutor.<Map<String, Long>>builder(shards,
+                            shard -> new HashMap<>(),
+                            (spend, order) -> spend.merge(order.getCustomerId(), Money.toCents(order.getTotal()), Long::sum))
+                    .build();
+        }
+
+        @TearDown
+        public void tearDown() {
+            executor.close();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Shared {
+        final Map<String, Long> spend = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Walks the orders from a different offset on every producer thread.
+     */
+    @State(Scope.Thread)
+    public static class Producer {
+        int next;
+
+        @Setup
+        public void setUp(ThreadParams threads) {
+            next = threads.getThreadIndex() * (ORDER_COUNT / threads.getThreadCount());
+        }
+
+        Order next(Orders orders) {
+            Order order = orders.orders.get(next);
+            next = next + 1 == ORDER_COUNT ? 0 : next + 1;
+            return order;
+        }
+    }
+
+    @Benchmark
+    public void spendPerCustomer(Orders orders, Sharded sharded, Producer producer) {
+        sharded.executor.submit(producer.next(orders));
+    }
+
+    @Benchmark
+    public Long spendPerCustomerConcurrentMap(Orders orders, Shared shared, Producer producer) {
+        Order order = producer.next(orders);
+        return shared.spend.merge(order.getCustomerId(), Money.toCents(order.getTotal()), Long::sum);
+    }
+}
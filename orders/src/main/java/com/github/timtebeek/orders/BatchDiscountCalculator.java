@@ -0,0 +1,165 @@
+package com.github.timtebeek.orders;
+
+/**
+ * Calculates discounts and totals for whole arrays of orders at once, using the same rules and rounding as
+ * {@link CentsDiscountCalculator#calculateTotalDiscount(LoyaltyTier, long)}.
+ * <p>
+ * The calculations run as scalar loops, which the JIT compiler unrolls and partly auto-vectorizes. With
+ * {@code -Dorders.vector.enabled=true} and {@code --add-modules jdk.incubator.vector} the arrays are processed with
+ * the Vector API instead; measure with {@code BulkPricingBenchmark} before enabling it, as it only pays off on CPUs
+ * with wide vector conversions and multiplications of longs.
+ */
+public class BatchDiscountCalculator {
+
+    private static final boolean VECTOR_API_AVAILABLE = vectorApiAvailable();
+    private static final boolean VECTOR_API_ENABLED = Boolean.getBoolean("orders.vector.enabled");
+
+    private final CentsDiscountCalculator calculator;
+    private final boolean vectorized;
+
+    public BatchDiscountCalculator() {
+        this(new CentsDiscountCalculator());
+    }
+
+    public BatchDiscountCalculator(CentsDiscountCalculator calculator) {
+        this(calculator, VECTOR_API_ENABLED);
+    }
+
+    /**
+     * @param vectorized whether to use the Vector API, if the JVM runs with the {@code jdk.incubator.vector} module
+     */
+    public BatchDiscountCalculator(CentsDiscountCalculator calculator, boolean vectorized) {
+        this.calculator = calculator;
+        this.vectorized = vectorized && VECTOR_API_AVAILABLE;
+    }
+
+    private static boolean vectorApiAvailable() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return false;
+        }
+        try {
+            long[] empty = new long[0];
+            VectorDiscountKernel.totals(empty, empty, empty, empty, empty, 0);
+            return true;
+        } catch (LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * Whether this calculator uses the Vector API.
+     */
+    public boolean isVectorized() {
+        return vectorized;
+    }
+
+    /**
+     * Calculates the total discount for every order.
+     *
+     * @param tierOrdinals  the {@link LoyaltyTier#ordinal()} of each order's customer
+     * @param subtotalCents the subtotal of each order
+     * @param discountCents receives the total discount of each order
+     */
+    public void calculateTotalDiscounts(int[] tierOrdinals, long[] subtotalCents, long[] discountCents) {
+        int length = subtotalCents.length;
+        if (tierOrdinals.length != length || discountCents.length != length) {
+            throw new IllegalArgumentException("Tiers, subtotals and discounts must have the same length");
+        }
+        int tiers = LoyaltyTier.values().length;
+        for (int i = 0; i < length; i++) {
+            if (subtotalCents[i] < 0) {
+                throw new IllegalArgumentException("Subtotal cannot be negative");
+            }
+            if (subtotalCents[i] > CompiledDiscountRules.MAX_SUBTOTAL_CENTS) {
+                throw new ArithmeticException("Subtotal too large: " + subtotalCents[i]);
+            }
+            if (tierOrdinals[i] < 0 || tierOrdinals[i] >= tiers) {
+                throw new IllegalArgumentException("Invalid loyalty tier ordinal: " + tierOrdinals[i]);
+            }
+        }
+
+        CompiledDiscountRules rules = calculator.compiled();
+        int done = vectorized
+                ? VectorDiscountKernel.totalDiscounts(rules, tierOrdinals, subtotalCents, discountCents, length)
+                : 0;
+        for (int i = done; i < length; i++) {
+            discountCents[i] = rules.totalDiscount(tierOrdinals[i], subtotalCents[i]);
+        }
+    }
+
+    /**
+     * Calculates {@code total = subtotal + tax + shipping - discount} for every order.
+     */
+    public void calculateTotals(long[] subtotalCents, long[] taxCents, long[] shippingCents, long[] discountCents,
+                                long[] totalCents) {
+        int length = subtotalCents.length;
+        if (taxCents.length != length || shippingCents.length != length || discountCents.length != length
+                || totalCents.length != length) {
+            throw new IllegalArgumentException("All amount arrays must have the same length");
+        }
+        int done = vectorized
+                ? VectorDiscountKernel.totals(subtotalCents, taxCents, shippingCents, discountCents, totalCents, length)
+                : 0;
+        for (int i = done; i < length; i++) {
+            totalCents[i] = subtotalCents[i] + taxCents[i] + shippingCents[i] - discountCents[i];
+        }
+    }
+
+    /**
+     * Reprices a batch: calculates each order's discount from its customer's tier and the resulting total.
+     *
+     * @param tiersByCustomerCode the loyalty tier for each customer code of the batch
+     */
+    public Repricing reprice(OrderBatch batch, LoyaltyTier[] tiersByCustomerCode) {
+        if (tiersByCustomerCode.length != batch.getCustomerCount()) {
+            throw new IllegalArgumentException("Expected a tier for each of the " + batch.getCustomerCount() + " customers");
+        }
+        int[] tierOrdinals = new int[batch.size()];
+        for (int i = 0; i < tierOrdinals.length; i++) {
+            tierOrdinals[i] = tiersByCustomerCode[batch.customerCode(i)].ordinal();
+        }
+        long[] discountCents = new long[batch.size()];
+        long[] totalCents = new long[batch.size()];
+        calculateTotalDiscounts(tierOrdinals, batch.column(OrderBatch.Column.SUBTOTAL), discountCents);
+        calculateTotals(batch.column(OrderBatch.Column.SUBTOTAL), batch.column(OrderBatch.Column.TAX),
+                batch.column(OrderBatch.Column.SHIPPING_COST), discountCents, totalCents);
+        return new Repricing(discountCents, totalCents);
+    }
+
+    /**
+     * Discounts and totals in cents, indexed like the repriced batch.
+     */
+    public static final class Repricing {
+        private final long[] discountCents;
+        private final long[] totalCents;
+
+        Repricing(long[] discountCents, long[] totalCents) {
+            this.discountCents = discountCents;
+            this.totalCents = totalCents;
+        }
+
+        public long getDiscountCents(int index) {
+            return discountCents[index];
+        }
+
+        public long getTotalCents(int index) {
+            return totalCents[index];
+        }
+
+        public long sumDiscountCents() {
+            long sum = 0;
+            for (long discount : discountCents) {
+                sum += discount;
+            }
+            return sum;
+        }
+
+        public long sumTotalCents() {
+            long sum = 0;
+            for (long total : totalCents) {
+                sum += total;
+            }
+            return sum;
+        }
+    }
+}
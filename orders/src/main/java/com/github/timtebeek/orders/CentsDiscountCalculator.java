@@ -0,0 +1,115 @@
+package com.github.timtebeek.orders;
+
+import java.math.BigDecimal;
+
+/**
+ * Calculates the same discounts as {@link DiscountCalculator} on {@code long} cents instead of {@link BigDecimal}s.
+ * <p>
+ * Rates are held in basis points, so a discount is {@code subtotalCents * basisPoints / 10_000} rounded half up,
+ * which matches {@code subtotal.multiply(rate).setScale(2, RoundingMode.HALF_UP)} for non-negative subtotals.
+ */
+public class CentsDiscountCalculator {
+
+    private final DiscountCalculator source;
+    private volatile CompiledDiscountRules compiled;
+
+    public CentsDiscountCalculator() {
+        this(DiscountRules.defaults());
+    }
+
+    /**
+     * Uses fixed rules.
+     *
+     * @throws ArithmeticException if a rate is finer than a basis point or an amount is finer than a cent
+     */
+    public CentsDiscountCalculator(DiscountRules rules) {
+        this.source = null;
+        this.compiled = new CompiledDiscountRules(rules);
+    }
+
+    /**
+     * Follows the rules of the given calculator, recompiling whenever they are updated.
+     *
+     * @throws ArithmeticException if a rate is finer than a basis point or an amount is finer than a cent
+     */
+    public CentsDiscountCalculator(DiscountCalculator source) {
+        this.source = source;
+        this.compiled = new CompiledDiscountRules(source.getRules());
+    }
+
+    CompiledDiscountRules compiled() {
+        CompiledDiscountRules current = compiled;
+        if (source != null) {
+            DiscountRules rules = source.getRules();
+            if (current.source != rules) {
+                current = new CompiledDiscountRules(rules);
+                compiled = current;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Calculates the discount in cents for a customer based on their loyalty tier.
+     */
+    public long calculateLoyaltyDiscount(Customer customer, long subtotalCents) {
+        checkArguments(customer, subtotalCents);
+        return compiled().loyaltyDiscount(tier(customer).ordinal(), subtotalCents);
+    }
+
+    /**
+     * Calculates the discount in cents for a loyalty tier.
+     */
+    public long calculateLoyaltyDiscount(LoyaltyTier tier, long subtotalCents) {
+        checkArguments(tier, subtotalCents);
+        return compiled().loyaltyDiscount(tier.ordinal(), subtotalCents);
+    }
+
+    /**
+     * Calculates an additional bulk order discount in cents if the subtotal reaches the threshold.
+     */
+    public long calculateBulkDiscount(long subtotalCents) {
+        return compiled().bulkDiscount(subtotalCents, subtotalCents);
+    }
+
+    /**
+     * Calculates the total discount in cents for an order.
+     */
+    public long calculateTotalDiscount(Customer customer, long subtotalCents) {
+        checkArguments(customer, subtotalCents);
+        return compiled().totalDiscount(tier(customer).ordinal(), subtotalCents);
+    }
+
+    /**
+     * Calculates the total discount in cents for a loyalty tier.
+     */
+    public long calculateTotalDiscount(LoyaltyTier tier, long subtotalCents) {
+        checkArguments(tier, subtotalCents);
+        return compiled().totalDiscount(tier.ordinal(), subtotalCents);
+    }
+
+    private static void checkArguments(Customer customer, long subtotalCents) {
+        if (customer == null) {
+            throw new IllegalArgumentException("Customer cannot be null");
+        }
+        checkSubtotal(subtotalCents);
+    }
+
+    private static void checkArguments(LoyaltyTier tier, long subtotalCents) {
+        if (tier == null) {
+            throw new IllegalArgumentException("Loyalty tier cannot be null");
+        }
+        checkSubtotal(subtotalCents);
+    }
+
+    private static void checkSubtotal(long subtotalCents) {
+        if (subtotalCents < 0) {
+            throw new IllegalArgumentException("Subtotal cannot be negative");
+        }
+    }
+
+    private static LoyaltyTier tier(Customer customer) {
+        return LoyaltyTier.of(customer.getLoyaltyTier());
+    }
+
+}
@@ -0,0 +1,86 @@
+package com.github.timtebeek.orders;
+
+import java.math.BigDecimal;
+
+/**
+ * {@link DiscountRules} converted to basis points and cents, shared by the cents and batch discount engines.
+ */
+final class CompiledDiscountRules {
+
+    static final long BASIS_POINTS = 10_000;
+    static final long UNCAPPED = Long.MAX_VALUE;
+
+    /**
+     * Largest subtotal for which applying a rate of at most 100% cannot overflow.
+     */
+    static final long MAX_SUBTOTAL_CENTS = (Long.MAX_VALUE - BASIS_POINTS / 2) / BASIS_POINTS;
+
+    final DiscountRules source;
+    final long[] loyaltyBasisPoints = new long[LoyaltyTier.values().length];
+    final long bulkOrderThresholdCents;
+    final long bulkOrderBasisPoints;
+    final DiscountRules.Rule[] chain;
+    final boolean sequential;
+    final long loyaltyCapCents;
+    final long bulkCapCents;
+    final long maxTotalBasisPoints;
+
+    /**
+     * @throws ArithmeticException if a rate is finer than a basis point or an amount is finer than a cent
+     */
+    CompiledDiscountRules(DiscountRules rules) {
+        this.source = rules;
+        for (LoyaltyTier tier : LoyaltyTier.values()) {
+            loyaltyBasisPoints[tier.ordinal()] = toBasisPoints(rules.getLoyaltyRate(tier));
+        }
+        BigDecimal threshold = rules.getBulkOrderThreshold();
+        this.bulkOrderThresholdCents = threshold == null ? Long.MAX_VALUE : Money.toCents(threshold);
+        this.bulkOrderBasisPoints = threshold == null ? 0 : toBasisPoints(rules.getBulkOrderRate());
+        this.chain = rules.getOrder();
+        this.sequential = rules.getStacking() == DiscountRules.Stacking.SEQUENTIAL;
+        this.loyaltyCapCents = capCents(rules.getCap(DiscountRules.Rule.LOYALTY));
+        this.bulkCapCents = capCents(rules.getCap(DiscountRules.Rule.BULK));
+        this.maxTotalBasisPoints = rules.getMaxTotalRate() == null ? -1 : toBasisPoints(rules.getMaxTotalRate());
+    }
+
+    private static long toBasisPoints(BigDecimal rate) {
+        return rate.movePointRight(4).longValueExact();
+    }
+
+    private static long capCents(BigDecimal cap) {
+        return cap == null ? UNCAPPED : Money.toCents(cap);
+    }
+
+    /**
+     * Rounds half up, which for non-negative amounts is adding half the divisor before truncating.
+     */
+    static long applyRate(long cents, long basisPoints) {
+        return Math.addExact(Math.multiplyExact(cents, basisPoints), BASIS_POINTS / 2) / BASIS_POINTS;
+    }
+
+    long loyaltyDiscount(int tierOrdinal, long baseCents) {
+        return Math.min(applyRate(baseCents, loyaltyBasisPoints[tierOrdinal]), loyaltyCapCents);
+    }
+
+    long bulkDiscount(long subtotalCents, long baseCents) {
+        if (subtotalCents >= bulkOrderThresholdCents) {
+            return Math.min(applyRate(baseCents, bulkOrderBasisPoints), bulkCapCents);
+        }
+        return 0;
+    }
+
+    long totalDiscount(int tierOrdinal, long subtotalCents) {
+        long total = 0;
+        for (DiscountRules.Rule rule : chain) {
+            long base = sequential ? subtotalCents - total : subtotalCents;
+            total += switch (rule) {
+                case LOYALTY -> loyaltyDiscount(tierOrdinal, base);
+                case BULK -> bulkDiscount(subtotalCents, base);
+            };
+        }
+        if (maxTotalBasisPoints >= 0) {
+            return Math.min(total, applyRate(subtotalCents, maxTotalBasisPoints));
+        }
+        return total;
+    }
+}
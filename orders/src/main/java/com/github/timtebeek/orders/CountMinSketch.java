@@ -0,0 +1,176 @@
+package com.github.timtebeek.orders;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Count-Min sketch of weighted counts per string key, in constant memory.
+ * <p>
+ * Estimates never undercount; with probability {@code 1 - delta} they overcount by at most {@code epsilon} times the
+ * total weight added. Sketches of the same dimensions merge by adding their counters, so partial sketches built on
+ * separate threads or nodes combine into the sketch of all their keys. Not thread-safe.
+ */
+public final class CountMinSketch {
+
+    private static final int MAGIC = 0x4F52434D;
+    private static final int VERSION = 1;
+
+    private final int depth;
+    private final int width;
+    private final long[] counts;
+    private long totalWeight;
+
+    /**
+     * @param epsilon overcount bound as a fraction of the total weight, between 0 and 1
+     * @param delta   probability of exceeding the bound, between 0 and 1
+     */
+    public CountMinSketch(double epsilon, double delta) {
+        this(depth(delta), width(epsilon));
+    }
+
+    private CountMinSketch(int depth, int width) {
+        this.depth = depth;
+        this.width = width;
+        this.counts = new long[Math.multiplyExact(depth, width)];
+    }
+
+    private static int depth(double delta) {
+        if (!(delta > 0 && delta < 1)) {
+            throw new IllegalArgumentException("Delta must be between 0 and 1: " + delta);
+        }
+        return Math.max(1, (int) Math.ceil(Math.log(1 / delta)));
+    }
+
+    /**
+     * Rounds the optimal width up to a power of two, so a column is a mask of the hash.
+     */
+    private static int width(double epsilon) {
+        if (!(epsilon > 0 && epsilon < 1)) {
+            throw new IllegalArgumentException("Epsilon must be between 0 and 1: " + epsilon);
+        }
+        int optimal = (int) Math.min(1 << 30, Math.ceil(Math.E / epsilon));
+        return Integer.highestOneBit(Math.max(optimal - 1, 1)) << 1;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the key is {@code null} or the weight is negative
+     */
+    public void add(String key, long weight) {
+        if (key == null || weight < 0) {
+            throw new IllegalArgumentException("Key cannot be null and weight cannot be negative");
+        }
+        long hash = Hashing.hash(key);
+        long step = Hashing.step(hash);
+        for (int row = 0; row < depth; row++) {
+            counts[row * width + (int) (hash & (width - 1))] += weight;
+            hash += step;
+        }
+        totalWeight += weight;
+    }
+
+    public long estimate(String key) {
+        if (key == null) {
+            return 0;
+        }
+        long hash = Hashing.hash(key);
+        long step = Hashing.step(hash);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counts[row * width + (int) (hash & (width - 1))]);
+            hash += step;
+        }
+        return estimate;
+    }
+
+    public long getTotalWeight() {
+        return totalWeight;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Adds the counts of the other sketch to this one.
+     *
+     * @throws IllegalArgumentException if the sketches differ in dimensions
+     */
+    public void merge(CountMinSketch other) {
+        if (!hasDimensionsOf(other)) {
+            throw new IllegalArgumentException("Cannot merge a " + other.depth + "x" + other.width
+                    + " sketch into a " + depth + "x" + width + " sketch");
+        }
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalWeight += other.totalWeight;
+    }
+
+    boolean hasDimensionsOf(CountMinSketch other) {
+        return other.depth == depth && other.width == width;
+    }
+
+    public byte[] toBytes() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 + counts.length * 8);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writeTo(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @throws IllegalArgumentException if the bytes do not hold a serialized sketch
+     */
+    public static CountMinSketch fromBytes(byte[] bytes) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            return readFrom(in);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Truncated Count-Min sketch", e);
+        }
+    }
+
+    void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(depth);
+        out.writeInt(width);
+        out.writeLong(totalWeight);
+        for (long count : counts) {
+            out.writeLong(count);
+        }
+    }
+
+    /**
+     * Reads a sketch from a stream over bytes in memory; counts beyond the available bytes are rejected up front.
+     */
+    static CountMinSketch readFrom(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            throw new IllegalArgumentException("Not a supported Count-Min sketch");
+        }
+        int depth = in.readInt();
+        int width = in.readInt();
+        if (depth <= 0 || width <= 0 || Integer.bitCount(width) != 1) {
+            throw new IllegalArgumentException("Invalid Count-Min sketch dimensions " + depth + "x" + width);
+        }
+        if ((long) depth * width > in.available() / Long.BYTES) {
+            throw new EOFException("Truncated Count-Min sketch of " + depth + "x" + width);
+        }
+        CountMinSketch sketch = new CountMinSketch(depth, width);
+        sketch.totalWeight = in.readLong();
+        for (int i = 0; i < sketch.counts.length; i++) {
+            sketch.counts[i] = in.readLong();
+        }
+        return sketch;
+    }
+}
@@ -0,0 +1,300 @@
+package com.github.timtebeek.orders;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Size-bounded cache of customers by customer ID, loading missing customers through a loader function.
+ * <p>
+ * Entries are spread over lock-striped segments, each evicting its least recently used entry once it holds its
+ * share of the maximum size, so lookups of different customers rarely contend. Entries optionally expire a fixed
+ * time after they were loaded. Customers are loaded outside the segment lock, so a slow fetch does not block
+ * other lookups; concurrent misses for the same ID may each call the loader, and the first result is kept.
+ * <p>
+ * The directory is itself a customer lookup function, so it can be passed to {@link OrderIngestion} or
+ * {@link OrderReconciler} to cache their customer fetches.
+ */
+public class CustomerDirectory implements Function<String, Customer> {
+
+    public static final int DEFAULT_MAXIMUM_SIZE = 10_000;
+    public static final int DEFAULT_SEGMENTS = 16;
+
+    private final Function<String, Customer> loader;
+    private final Segment[] segments;
+    private final long expireAfterNanos;
+    private final LongSupplier clock;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    private CustomerDirectory(Builder builder) {
+        this.loader = builder.loader;
+        this.segments = new Segment[Math.min(builder.segments, Integer.highestOneBit(builder.maximumSize))];
+        int segmentSize = builder.maximumSize / segments.length;
+        int remainder = builder.maximumSize % segments.length;
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = new Segment(i < remainder ? segmentSize + 1 : segmentSize);
+        }
+        this.expireAfterNanos = builder.expireAfter == null ? Long.MAX_VALUE : builder.expireAfter.toNanos();
+        this.clock = builder.clock;
+    }
+
+    /**
+     * @param loader fetches the customer for a customer ID, returning {@code null} when unknown
+     */
+    public static Builder builder(Function<String, Customer> loader) {
+        return new Builder(loader);
+    }
+
+    /**
+     * Returns the customer with the ID, loading and caching it when it is not cached or has expired,
+     * or {@code null} when the loader does not know the customer.
+     */
+    public Customer get(String customerId) {
+        if (customerId == null) {
+            throw new IllegalArgumentException("Customer ID cannot be null");
+        }
+        Segment segment = segment(customerId);
+        Customer customer = segment.get(customerId);
+        if (customer != null) {
+            hits.increment();
+            return customer;
+        }
+        misses.increment();
+        customer = loader.apply(customerId);
+        return customer == null ? null : segment.putIfAbsent(customerId, customer);
+    }
+
+    @Override
+    public Customer apply(String customerId) {
+        return get(customerId);
+    }
+
+    /**
+     * Caches the customer, replacing any cached customer with the same ID.
+     */
+    public void put(Customer customer) {
+        if (customer == null || customer.getCustomerId() == null) {
+            throw new IllegalArgumentException("Customer and customer ID cannot be null");
+        }
+        segment(customer.getCustomerId()).put(customer.getCustomerId(), customer);
+    }
+
+    public void invalidate(String customerId) {
+        segment(customerId).remove(customerId);
+    }
+
+    public void invalidateAll() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    /**
+     * Number of cached customers, possibly including expired entries not yet removed.
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Number of entries removed to stay within the maximum size.
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Number of entries removed because they expired.
+     */
+    public long getExpirations() {
+        return expirations.sum();
+    }
+
+    /**
+     * Fraction of lookups served from the cache, or zero before the first lookup.
+     */
+    public double getHitRate() {
+        long hitCount = hits.sum();
+        long lookups = hitCount + misses.sum();
+        return lookups == 0 ? 0 : (double) hitCount / lookups;
+    }
+
+    private Segment segment(String customerId) {
+        int hash = customerId.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (segments.length - 1)];
+    }
+
+    private static final class CachedCustomer {
+        final Customer customer;
+        final long loadedAt;
+
+        CachedCustomer(Customer customer, long loadedAt) {
+            this.customer = customer;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    private final class Segment {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LinkedHashMap<String, CachedCustomer> entries;
+
+        Segment(int maximumSize) {
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedCustomer> eldest) {
+                    if (size() > maximumSize) {
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        Customer get(String customerId) {
+            lock.lock();
+            try {
+                CachedCustomer entry = entries.get(customerId);
+                if (entry == null) {
+                    return null;
+                }
+                if (clock.getAsLong() - entry.loadedAt >= expireAfterNanos) {
+                    entries.remove(customerId);
+                    expirations.increment();
+                    return null;
+                }
+                return entry.customer;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        Customer putIfAbsent(String customerId, Customer customer) {
+            lock.lock();
+            try {
+                CachedCustomer entry = entries.get(customerId);
+                if (entry != null && clock.getAsLong() - entry.loadedAt < expireAfterNanos) {
+                    return entry.customer;
+                }
+                entries.put(customerId, new CachedCustomer(customer, clock.getAsLong()));
+                return customer;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void put(String customerId, Customer customer) {
+            lock.lock();
+            try {
+                entries.put(customerId, new CachedCustomer(customer, clock.getAsLong()));
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void remove(String customerId) {
+            lock.lock();
+            try {
+                entries.remove(customerId);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void clear() {
+            lock.lock();
+            try {
+                entries.clear();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int size() {
+            lock.lock();
+            try {
+                return entries.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    public static final class Builder {
+        private final Function<String, Customer> loader;
+        private int maximumSize = DEFAULT_MAXIMUM_SIZE;
+        private int segments = DEFAULT_SEGMENTS;
+        private Duration expireAfter;
+        private LongSupplier clock = System::nanoTime;
+
+        private Builder(Function<String, Customer> loader) {
+            if (loader == null) {
+                throw new IllegalArgumentException("Loader cannot be null");
+            }
+            this.loader = loader;
+        }
+
+        /**
+         * Maximum number of cached customers, split evenly over the segments.
+         * A smaller maximum than segments reduces the number of segments, so each holds at least one customer.
+         */
+        public Builder maximumSize(int maximumSize) {
+            if (maximumSize <= 0) {
+                throw new IllegalArgumentException("Maximum size must be positive");
+            }
+            this.maximumSize = maximumSize;
+            return this;
+        }
+
+        /**
+         * Number of independently locked segments; must be a power of two.
+         */
+        public Builder segments(int segments) {
+            if (segments <= 0 || Integer.bitCount(segments) != 1) {
+                throw new IllegalArgumentException("Segments must be a positive power of two: " + segments);
+            }
+            this.segments = segments;
+            return this;
+        }
+
+        /**
+         * Expires customers this long after they were loaded; {@code null} keeps them until evicted.
+         */
+        public Builder expireAfter(Duration expireAfter) {
+            if (expireAfter != null && (expireAfter.isNegative() || expireAfter.isZero())) {
+                throw new IllegalArgumentException("Expiry must be positive");
+            }
+            this.expireAfter = expireAfter;
+            return this;
+        }
+
+        Builder clock(LongSupplier clock) {
+            this.clock = clock;
+            return this;
+        }
+
+        public CustomerDirectory build() {
+            return new CustomerDirectory(this);
+        }
+    }
+}
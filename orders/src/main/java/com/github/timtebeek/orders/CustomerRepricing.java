@@ -0,0 +1,52 @@
+package com.github.timtebeek.orders;
+
+/**
+ * Total discount a customer received under the baseline and would have received under a scenario of a
+ * {@link RepricingReport}.
+ */
+public final class CustomerRepricing {
+
+    private final String customerId;
+    private final LoyaltyTier tier;
+    private final long baselineCents;
+    private final long scenarioCents;
+
+    CustomerRepricing(String customerId, LoyaltyTier tier, long baselineCents, long scenarioCents) {
+        this.customerId = customerId;
+        this.tier = tier;
+        this.baselineCents = baselineCents;
+        this.scenarioCents = scenarioCents;
+    }
+
+    public String getCustomerId() {
+        return customerId;
+    }
+
+    /**
+     * Returns the tier the customer's orders were priced at, {@link LoyaltyTier#NONE} for unknown customers.
+     */
+    public LoyaltyTier getTier() {
+        return tier;
+    }
+
+    public long getBaselineCents() {
+        return baselineCents;
+    }
+
+    public long getScenarioCents() {
+        return scenarioCents;
+    }
+
+    /**
+     * Returns how much more discount the scenario grants than the baseline; negative when it grants less.
+     */
+    public long getDeltaCents() {
+        return scenarioCents - baselineCents;
+    }
+
+    @Override
+    public String toString() {
+        return customerId + " (" + tier + "): " + Money.fromCents(baselineCents) + " -> "
+               + Money.fromCents(scenarioCents);
+    }
+}
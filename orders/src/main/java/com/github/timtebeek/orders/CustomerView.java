@@ -0,0 +1,83 @@
+package com.github.timtebeek.orders;
+
+import java.nio.ByteBuffer;
+
+import static com.github.timtebeek.orders.OrderCodec.*;
+
+/**
+ * Flyweight over a customer message encoded by {@link OrderCodec}, reading fields straight from the buffer.
+ * A view is not thread-safe; wrap it again to move it to another message.
+ */
+public final class CustomerView {
+
+    private static final LoyaltyTier[] TIERS = LoyaltyTier.values();
+
+    private ByteBuffer buffer;
+    private int offset;
+
+    /**
+     * @throws IllegalArgumentException if the buffer does not hold a complete customer message of a supported version
+     */
+    public CustomerView wrap(ByteBuffer buffer, int offset) {
+        checkHeader(buffer, offset, TYPE_CUSTOMER);
+        this.buffer = buffer;
+        this.offset = offset;
+        return this;
+    }
+
+    public int getEncodedLength() {
+        return buffer.getInt(offset + LENGTH);
+    }
+
+    /**
+     * Returns the resolved loyalty tier with a single byte read.
+     */
+    public LoyaltyTier getTier() {
+        return TIERS[buffer.get(offset + CUSTOMER_TIER)];
+    }
+
+    public String getCustomerId() {
+        return string(buffer, field(0));
+    }
+
+    public String getEmail() {
+        return string(buffer, field(1));
+    }
+
+    public String getName() {
+        return string(buffer, field(2));
+    }
+
+    public String getLoyaltyTier() {
+        return string(buffer, field(3));
+    }
+
+    public boolean hasShippingAddress() {
+        return buffer.get(field(4)) != 0;
+    }
+
+    public Address getShippingAddress() {
+        int position = field(4);
+        if (buffer.get(position++) == 0) {
+            return null;
+        }
+        String[] fields = new String[5];
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = string(buffer, position);
+            position = skipString(buffer, position);
+        }
+        return new Address(fields[0], fields[1], fields[2], fields[3], fields[4]);
+    }
+
+    private int field(int index) {
+        int position = offset + CUSTOMER_STRINGS;
+        for (int i = 0; i < index; i++) {
+            position = skipString(buffer, position);
+        }
+        return position;
+    }
+
+    public Customer toCustomer() {
+        return new Customer(getCustomerId(), getEmail(), getName(), getShippingAddress(), getLoyaltyTier());
+    }
+}
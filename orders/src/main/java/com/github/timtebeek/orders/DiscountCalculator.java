@@ -1,47 +1,61 @@
 package com.github.timtebeek.orders;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Calculates discounts based on customer loyalty tier and order value.
+ * <p>
+ * The {@link DiscountRules} in effect can be replaced at runtime with {@link #updateRules(DiscountRules)};
+ * every calculation reads a single rules snapshot, so it never mixes old and new rules.
  */
 public class DiscountCalculator {
 
-    private static final BigDecimal BRONZE_DISCOUNT = new BigDecimal("0.05"); // 5%
-    private static final BigDecimal SILVER_DISCOUNT = new BigDecimal("0.10"); // 10%
-    private static final BigDecimal GOLD_DISCOUNT = new BigDecimal("0.15");   // 15%
-    private static final BigDecimal PLATINUM_DISCOUNT = new BigDecimal("0.20"); // 20%
-    
-    private static final BigDecimal BULK_ORDER_THRESHOLD = new BigDecimal("500.00");
-    private static final BigDecimal BULK_ORDER_DISCOUNT = new BigDecimal("0.05"); // Additional 5%
+    private final AtomicReference<DiscountRules> rules;
+    private final OrderMetrics metrics;
+
+    public DiscountCalculator() {
+        this(DiscountRules.defaults());
+    }
+
+    public DiscountCalculator(DiscountRules rules) {
+        this(rules, OrderMetrics.NOOP);
+    }
 
     /**
-     * Calculates the discount amount for a customer based on their loyalty tier.
+     * Creates a calculator reporting every total discount calculation to the metrics.
      */
-    public BigDecimal calculateLoyaltyDiscount(Customer customer, BigDecimal subtotal) {
-        if (customer == null || subtotal == null) {
-            throw new IllegalArgumentException("Customer and subtotal cannot be null");
+    public DiscountCalculator(DiscountRules rules, OrderMetrics metrics) {
+        if (rules == null) {
+            throw new IllegalArgumentException("Discount rules cannot be null");
         }
-
-        if (subtotal.compareTo(BigDecimal.ZERO) < 0) {
-            throw new IllegalArgumentException("Subtotal cannot be negative");
+        if (metrics == null) {
+            throw new IllegalArgumentException("Metrics cannot be null");
         }
+        this.rules = new AtomicReference<>(rules);
+        this.metrics = metrics;
+    }
 
-        String tier = customer.getLoyaltyTier();
-        if (tier == null) {
-            return BigDecimal.ZERO;
-        }
+    public DiscountRules getRules() {
+        return rules.get();
+    }
 
-        BigDecimal discountRate = switch (tier.toUpperCase()) {
-            case "BRONZE" -> BRONZE_DISCOUNT;
-            case "SILVER" -> SILVER_DISCOUNT;
-            case "GOLD" -> GOLD_DISCOUNT;
-            case "PLATINUM" -> PLATINUM_DISCOUNT;
-            default -> BigDecimal.ZERO;
-        };
+    /**
+     * Atomically replaces the rules used for subsequent calculations, returning the previous rules.
+     */
+    public DiscountRules updateRules(DiscountRules newRules) {
+        if (newRules == null) {
+            throw new IllegalArgumentException("Discount rules cannot be null");
+        }
+        return rules.getAndSet(newRules);
+    }
 
-        return subtotal.multiply(discountRate).setScale(2, RoundingMode.HALF_UP);
+    /**
+     * Calculates the discount amount for a customer based on their loyalty tier.
+     */
+    public BigDecimal calculateLoyaltyDiscount(Customer customer, BigDecimal subtotal) {
+        checkArguments(customer, subtotal);
+        return rules.get().loyaltyDiscount(tier(customer), subtotal);
     }
 
     /**
@@ -51,20 +65,39 @@ public class DiscountCalculator {
         if (subtotal == null) {
             throw new IllegalArgumentException("Subtotal cannot be null");
         }
+        return rules.get().bulkDiscount(subtotal, subtotal);
+    }
 
-        if (subtotal.compareTo(BULK_ORDER_THRESHOLD) >= 0) {
-            return subtotal.multiply(BULK_ORDER_DISCOUNT).setScale(2, RoundingMode.HALF_UP);
+    /**
+     * Calculates the total discount for an order.
+     */
+    public BigDecimal calculateTotalDiscount(Customer customer, BigDecimal subtotal) {
+        checkArguments(customer, subtotal);
+        LoyaltyTier tier = tier(customer);
+        if (metrics == OrderMetrics.NOOP) {
+            return rules.get().totalDiscount(tier, subtotal);
         }
+        long start = System.nanoTime();
+        BigDecimal discount = rules.get().totalDiscount(tier, subtotal);
+        metrics.orderPriced(tier == null ? LoyaltyTier.NONE : tier, System.nanoTime() - start);
+        return discount;
+    }
 
-        return BigDecimal.ZERO;
+    private static void checkArguments(Customer customer, BigDecimal subtotal) {
+        if (customer == null || subtotal == null) {
+            throw new IllegalArgumentException("Customer and subtotal cannot be null");
+        }
+
+        if (subtotal.compareTo(BigDecimal.ZERO) < 0) {
+            throw new IllegalArgumentException("Subtotal cannot be negative");
+        }
     }
 
     /**
-     * Calculates the total discount for an order.
+     * Resolves the customer tier, or {@code null} when the customer has none.
      */
-    public BigDecimal calculateTotalDiscount(Customer customer, BigDecimal subtotal) {
-        BigDecimal loyaltyDiscount = calculateLoyaltyDiscount(customer, subtotal);
-        BigDecimal bulkDiscount = calculateBulkDiscount(subtotal);
-        return loyaltyDiscount.add(bulkDiscount);
+    private static LoyaltyTier tier(Customer customer) {
+        String tier = customer.getLoyaltyTier();
+        return tier == null ? null : LoyaltyTier.of(tier);
     }
 }
@@ -0,0 +1,297 @@
+package com.github.timtebeek.orders;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * Immutable, pre-resolved snapshot of the discount rules used by the {@link DiscountCalculator}.
+ * <p>
+ * Rules are loaded from configuration once and compiled into a rate table indexed by {@link LoyaltyTier}
+ * and an ordered rule chain, so pricing does no parsing or string comparison. Supported properties:
+ * <pre>
+ * tier.BRONZE=0.05          # loyalty rate per tier, tiers without a rate get no loyalty discount
+ * bulk.threshold=500.00     # subtotal from which the bulk discount applies
+ * bulk.rate=0.05
+ * order=LOYALTY,BULK        # order in which discounts are applied
+ * stacking=ADDITIVE         # ADDITIVE: every rule applies to the subtotal
+ *                           # SEQUENTIAL: every rule applies to what is left after earlier rules
+ * cap.LOYALTY=100.00        # optional maximum amount per rule
+ * cap.total.rate=0.25       # optional maximum total discount as a fraction of the subtotal
+ * </pre>
+ */
+public final class DiscountRules {
+
+    /**
+     * Discounts that can be chained.
+     */
+    public enum Rule {
+        LOYALTY,
+        BULK
+    }
+
+    /**
+     * How chained discounts combine.
+     */
+    public enum Stacking {
+        ADDITIVE,
+        SEQUENTIAL
+    }
+
+    private static final DiscountRules DEFAULTS = builder()
+            .loyaltyRate(LoyaltyTier.BRONZE, new BigDecimal("0.05"))
+            .loyaltyRate(LoyaltyTier.SILVER, new BigDecimal("0.10"))
+            .loyaltyRate(LoyaltyTier.GOLD, new BigDecimal("0.15"))
+            .loyaltyRate(LoyaltyTier.PLATINUM, new BigDecimal("0.20"))
+            .bulkOrder(new BigDecimal("500.00"), new BigDecimal("0.05"))
+            .build();
+
+    private final BigDecimal[] loyaltyRates;
+    private final BigDecimal bulkOrderThreshold;
+    private final BigDecimal bulkOrderRate;
+    private final Rule[] chain;
+    private final Stacking stacking;
+    private final BigDecimal[] caps;
+    private final BigDecimal maxTotalRate;
+
+    private DiscountRules(Builder builder) {
+        this.loyaltyRates = builder.loyaltyRates.clone();
+        this.bulkOrderThreshold = builder.bulkOrderThreshold;
+        this.bulkOrderRate = builder.bulkOrderRate;
+        this.chain = builder.chain.clone();
+        this.stacking = builder.stacking;
+        this.caps = builder.caps.clone();
+        this.maxTotalRate = builder.maxTotalRate;
+    }
+
+    /**
+     * Returns the standard rules: 5/10/15/20% for bronze to platinum, and an additional 5% from 500.00.
+     */
+    public static DiscountRules defaults() {
+        return DEFAULTS;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static DiscountRules load(Path file) throws IOException {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            Properties properties = new Properties();
+            properties.load(reader);
+            return load(properties);
+        }
+    }
+
+    public static DiscountRules load(Properties properties) {
+        Builder builder = builder();
+        for (String key : properties.stringPropertyNames()) {
+            String value = properties.getProperty(key).trim();
+            if (key.startsWith("tier.")) {
+                builder.loyaltyRate(parse(LoyaltyTier.class, key.substring("tier.".length())), decimal(key, value));
+            } else if (key.equals("cap.total.rate")) {
+                builder.maxTotalRate(decimal(key, value));
+            } else if (key.startsWith("cap.")) {
+                builder.cap(parse(Rule.class, key.substring("cap.".length())), decimal(key, value));
+            } else if (key.equals("order")) {
+                builder.order(Arrays.stream(value.split(","))
+                        .map(rule -> parse(Rule.class, rule.trim()))
+                        .toArray(Rule[]::new));
+            } else if (key.equals("stacking")) {
+                builder.stacking(parse(Stacking.class, value));
+            } else if (!key.equals("bulk.threshold") && !key.equals("bulk.rate")) {
+                throw new IllegalArgumentException("Unknown discount rule property: " + key);
+            }
+        }
+        String threshold = properties.getProperty("bulk.threshold");
+        String rate = properties.getProperty("bulk.rate");
+        if (threshold != null || rate != null) {
+            if (threshold == null || rate == null) {
+                throw new IllegalArgumentException("Both bulk.threshold and bulk.rate are required for a bulk discount");
+            }
+            builder.bulkOrder(decimal("bulk.threshold", threshold.trim()), decimal("bulk.rate", rate.trim()));
+        }
+        return builder.build();
+    }
+
+    private static <E extends Enum<E>> E parse(Class<E> type, String name) {
+        try {
+            return Enum.valueOf(type, name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown " + type.getSimpleName() + ": " + name, e);
+        }
+    }
+
+    private static BigDecimal decimal(String key, String value) {
+        try {
+            return new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid decimal for " + key + ": " + value, e);
+        }
+    }
+
+    public BigDecimal getLoyaltyRate(LoyaltyTier tier) {
+        return loyaltyRates[tier.ordinal()];
+    }
+
+    /**
+     * Returns the subtotal from which the bulk discount applies, or {@code null} when there is no bulk discount.
+     */
+    public BigDecimal getBulkOrderThreshold() {
+        return bulkOrderThreshold;
+    }
+
+    public BigDecimal getBulkOrderRate() {
+        return bulkOrderRate;
+    }
+
+    public Rule[] getOrder() {
+        return chain.clone();
+    }
+
+    public Stacking getStacking() {
+        return stacking;
+    }
+
+    /**
+     * Returns the maximum amount for a rule, or {@code null} when uncapped.
+     */
+    public BigDecimal getCap(Rule rule) {
+        return caps[rule.ordinal()];
+    }
+
+    /**
+     * Returns the maximum total discount as a fraction of the subtotal, or {@code null} when uncapped.
+     */
+    public BigDecimal getMaxTotalRate() {
+        return maxTotalRate;
+    }
+
+    /**
+     * Calculates the loyalty discount on the given base amount; {@code tier} is {@code null} for customers without one.
+     */
+    BigDecimal loyaltyDiscount(LoyaltyTier tier, BigDecimal base) {
+        if (tier == null) {
+            return BigDecimal.ZERO;
+        }
+        return capped(Rule.LOYALTY, base.multiply(loyaltyRates[tier.ordinal()]).setScale(2, RoundingMode.HALF_UP));
+    }
+
+    BigDecimal bulkDiscount(BigDecimal subtotal, BigDecimal base) {
+        if (bulkOrderThreshold != null && subtotal.compareTo(bulkOrderThreshold) >= 0) {
+            return capped(Rule.BULK, base.multiply(bulkOrderRate).setScale(2, RoundingMode.HALF_UP));
+        }
+        return BigDecimal.ZERO;
+    }
+
+    /**
+     * Applies the rule chain in order and caps the result.
+     */
+    BigDecimal totalDiscount(LoyaltyTier tier, BigDecimal subtotal) {
+        BigDecimal total = null;
+        for (Rule rule : chain) {
+            BigDecimal base = stacking == Stacking.SEQUENTIAL && total != null ? subtotal.subtract(total) : subtotal;
+            BigDecimal discount = switch (rule) {
+                case LOYALTY -> loyaltyDiscount(tier, base);
+                case BULK -> bulkDiscount(subtotal, base);
+            };
+            total = total == null ? discount : total.add(discount);
+        }
+        if (total == null) {
+            return BigDecimal.ZERO;
+        }
+        if (maxTotalRate != null) {
+            BigDecimal max = subtotal.multiply(maxTotalRate).setScale(2, RoundingMode.HALF_UP);
+            if (total.compareTo(max) > 0) {
+                return max;
+            }
+        }
+        return total;
+    }
+
+    private BigDecimal capped(Rule rule, BigDecimal discount) {
+        BigDecimal cap = caps[rule.ordinal()];
+        return cap != null && discount.compareTo(cap) > 0 ? cap : discount;
+    }
+
+    /**
+     * Collects discount rules; {@link #build()} validates and compiles them into an immutable snapshot.
+     */
+    public static final class Builder {
+        private final BigDecimal[] loyaltyRates = new BigDecimal[LoyaltyTier.values().length];
+        private BigDecimal bulkOrderThreshold;
+        private BigDecimal bulkOrderRate;
+        private Rule[] chain = Rule.values();
+        private Stacking stacking = Stacking.ADDITIVE;
+        private final BigDecimal[] caps = new BigDecimal[Rule.values().length];
+        private BigDecimal maxTotalRate;
+
+        private Builder() {
+            Arrays.fill(loyaltyRates, BigDecimal.ZERO);
+        }
+
+        public Builder loyaltyRate(LoyaltyTier tier, BigDecimal rate) {
+            if (tier == LoyaltyTier.NONE) {
+                throw new IllegalArgumentException("Customers without a loyalty tier cannot get a loyalty discount");
+            }
+            loyaltyRates[tier.ordinal()] = rate(rate);
+            return this;
+        }
+
+        public Builder bulkOrder(BigDecimal threshold, BigDecimal rate) {
+            if (threshold == null || threshold.signum() < 0) {
+                throw new IllegalArgumentException("Bulk order threshold cannot be null or negative");
+            }
+            this.bulkOrderThreshold = threshold;
+            this.bulkOrderRate = rate(rate);
+            return this;
+        }
+
+        public Builder order(Rule... rules) {
+            if (Arrays.stream(rules).distinct().count() != rules.length) {
+                throw new IllegalArgumentException("Discount rules cannot be repeated: " + Arrays.toString(rules));
+            }
+            this.chain = rules.clone();
+            return this;
+        }
+
+        public Builder stacking(Stacking stacking) {
+            if (stacking == null) {
+                throw new IllegalArgumentException("Stacking cannot be null");
+            }
+            this.stacking = stacking;
+            return this;
+        }
+
+        public Builder cap(Rule rule, BigDecimal maximum) {
+            if (maximum != null && maximum.signum() < 0) {
+                throw new IllegalArgumentException("Discount cap cannot be negative");
+            }
+            caps[rule.ordinal()] = maximum;
+            return this;
+        }
+
+        public Builder maxTotalRate(BigDecimal rate) {
+            this.maxTotalRate = rate == null ? null : rate(rate);
+            return this;
+        }
+
+        private static BigDecimal rate(BigDecimal rate) {
+            if (rate == null || rate.signum() < 0 || rate.compareTo(BigDecimal.ONE) > 0) {
+                throw new IllegalArgumentException("Discount rate must be between 0 and 1: " + rate);
+            }
+            return rate;
+        }
+
+        public DiscountRules build() {
+            return new DiscountRules(this);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.github.timtebeek.orders;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Prices orders with the {@link DiscountCalculator}, and on a sample of calls also with the
+ * {@link CentsDiscountCalculator}, recording any divergence between the two engines.
+ * Callers always receive the {@link DiscountCalculator} result.
+ */
+public class DiscountVerifier {
+
+    public static final int DEFAULT_MAX_DIVERGENCES = 100;
+
+    private final DiscountCalculator reference;
+    private final CentsDiscountCalculator candidate;
+    private final int sampleEvery;
+    private final int maxDivergences;
+
+    private final AtomicLong calls = new AtomicLong();
+    private final LongAdder sampled = new LongAdder();
+    private final LongAdder unsupported = new LongAdder();
+    private final LongAdder divergenceCount = new LongAdder();
+    private final List<Divergence> divergences = new ArrayList<>();
+
+    /**
+     * @param sampleEvery compare both engines on every {@code sampleEvery}-th call; {@code 1} compares every call
+     */
+    public DiscountVerifier(DiscountCalculator reference, int sampleEvery) {
+        this(reference, new CentsDiscountCalculator(reference), sampleEvery, DEFAULT_MAX_DIVERGENCES);
+    }
+
+    public DiscountVerifier(DiscountCalculator reference, CentsDiscountCalculator candidate, int sampleEvery,
+                            int maxDivergences) {
+        if (sampleEvery <= 0) {
+            throw new IllegalArgumentException("Sample interval must be positive");
+        }
+        this.reference = reference;
+        this.candidate = candidate;
+        this.sampleEvery = sampleEvery;
+        this.maxDivergences = maxDivergences;
+    }
+
+    /**
+     * Calculates the total discount for an order, verifying it against the cents engine when sampled.
+     */
+    public BigDecimal calculateTotalDiscount(Customer customer, BigDecimal subtotal) {
+        BigDecimal expected = reference.calculateTotalDiscount(customer, subtotal);
+        if (calls.getAndIncrement() % sampleEvery == 0) {
+            verify(customer, subtotal, expected);
+        }
+        return expected;
+    }
+
+    private void verify(Customer customer, BigDecimal subtotal, BigDecimal expected) {
+        sampled.increment();
+        long actualCents;
+        long expectedCents;
+        try {
+            actualCents = candidate.calculateTotalDiscount(customer, Money.toCents(subtotal));
+            expectedCents = Money.toCents(expected);
+        } catch (ArithmeticException e) {
+            unsupported.increment();
+            return;
+        }
+        if (actualCents != expectedCents) {
+            divergenceCount.increment();
+            synchronized (divergences) {
+                if (divergences.size() < maxDivergences) {
+                    divergences.add(new Divergence(customer.getCustomerId(), customer.getLoyaltyTier(), subtotal,
+                            expected, Money.fromCents(actualCents)));
+                }
+            }
+        }
+    }
+
+    /**
+     * Number of calls on which both engines were compared.
+     */
+    public long getSampled() {
+        return sampled.sum();
+    }
+
+    /**
+     * Number of sampled calls the cents engine could not handle, such as subtotals with fractional cents, rates
+     * finer than a basis point or amounts overflowing a long in cents; these are not compared.
+     */
+    public long getUnsupported() {
+        return unsupported.sum();
+    }
+
+    public long getDivergenceCount() {
+        return divergenceCount.sum();
+    }
+
+    /**
+     * Returns the first divergences found, up to the configured maximum.
+     */
+    public List<Divergence> getDivergences() {
+        synchronized (divergences) {
+            return List.copyOf(divergences);
+        }
+    }
+
+    /**
+     * A sampled call on which the cents engine disagreed with the {@link DiscountCalculator}.
+     */
+    public static final class Divergence {
+        private final String customerId;
+        private final String loyaltyTier;
+        private final BigDecimal subtotal;
+        private final BigDecimal expected;
+        private final BigDecimal actual;
+
+        Divergence(String customerId, String loyaltyTier, BigDecimal subtotal, BigDecimal expected, BigDecimal actual) {
+            this.customerId = customerId;
+            this.loyaltyTier = loyaltyTier;
+            this.subtotal = subtotal;
+            this.expected = expected;
+            this.actual = actual;
+        }
+
+        public String getCustomerId() {
+            return customerId;
+        }
+
+        public String getLoyaltyTier() {
+            return loyaltyTier;
+        }
+
+        public BigDecimal getSubtotal() {
+            return subtotal;
+        }
+
+        public BigDecimal getExpected() {
+            return expected;
+        }
+
+        public BigDecimal getActual() {
+            return actual;
+        }
+
+        public BigDecimal getDelta() {
+            return actual.subtract(expected);
+        }
+
+        @Override
+        public String toString() {
+            return "Divergence[customer=" + customerId + ", tier=" + loyaltyTier + ", subtotal=" + subtotal
+                    + ", expected=" + expected + ", actual=" + actual + "]";
+        }
+    }
+}
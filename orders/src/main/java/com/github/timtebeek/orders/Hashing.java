@@ -0,0 +1,39 @@
+package com.github.timtebeek.orders;
+
+/**
+ * Allocation-free 64 bit hashing of strings, for probabilistic structures that need well mixed bits.
+ */
+final class Hashing {
+
+    static final long SEED = 0x9E3779B97F4A7C15L;
+
+    private Hashing() {
+    }
+
+    /**
+     * 64 bit FNV-1a over the string's characters, finished with the MurmurHash3 mix so all bits depend on all input.
+     */
+    static long hash(String value) {
+        long hash = SEED ^ value.length();
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * 0x100000001B3L;
+        }
+        return mix(hash);
+    }
+
+    /**
+     * Second hash for double hashing, remixed from the first and odd, so stepping by it never cycles early in a
+     * power of two sized table.
+     */
+    static long step(long hash) {
+        return mix(hash + SEED) | 1;
+    }
+
+    static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        return hash ^ (hash >>> 33);
+    }
+}
@@ -0,0 +1,121 @@
+package com.github.timtebeek.orders;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics recording latencies in HdrHistograms and counting per-rule failures and the loyalty tier distribution.
+ * <p>
+ * Recording never takes a shared lock: latencies go to {@link Recorder}s, whose writers are wait-free, and
+ * counts to striped {@link LongAdder}s. Readers take cumulative histogram snapshots; latencies are in nanoseconds.
+ */
+public class HdrHistogramOrderMetrics implements OrderMetrics {
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+    private static final ValidationRule[] RULES = ValidationRule.rules();
+    private static final LoyaltyTier[] TIERS = LoyaltyTier.values();
+
+    private final LongAdder validated = new LongAdder();
+    private final LongAdder invalid = new LongAdder();
+    private final LongAdder[] ruleFailures = adders(RULES.length);
+    private final LongAdder[] pricedByTier = adders(TIERS.length);
+    private final Recorder validationRecorder = new Recorder(SIGNIFICANT_DIGITS);
+    private final Recorder pricingRecorder = new Recorder(SIGNIFICANT_DIGITS);
+    private final Histogram validationLatency = new Histogram(SIGNIFICANT_DIGITS);
+    private final Histogram pricingLatency = new Histogram(SIGNIFICANT_DIGITS);
+
+    private static LongAdder[] adders(int count) {
+        LongAdder[] adders = new LongAdder[count];
+        for (int i = 0; i < count; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    @Override
+    public void orderValidated(int failureMask, long elapsedNanos) {
+        validated.increment();
+        if (failureMask != 0) {
+            invalid.increment();
+            for (ValidationRule rule : RULES) {
+                if ((failureMask & rule.mask()) != 0) {
+                    ruleFailures[rule.ordinal()].increment();
+                }
+            }
+        }
+        validationRecorder.recordValue(Math.max(elapsedNanos, 0));
+    }
+
+    @Override
+    public void orderPriced(LoyaltyTier tier, long elapsedNanos) {
+        pricedByTier[tier.ordinal()].increment();
+        pricingRecorder.recordValue(Math.max(elapsedNanos, 0));
+    }
+
+    public long getOrdersValidated() {
+        return validated.sum();
+    }
+
+    public long getInvalidOrders() {
+        return invalid.sum();
+    }
+
+    public long getFailureCount(ValidationRule rule) {
+        return ruleFailures[rule.ordinal()].sum();
+    }
+
+    /**
+     * Returns the failure count for every rule that failed at least once.
+     */
+    public Map<ValidationRule, Long> getFailureCounts() {
+        Map<ValidationRule, Long> counts = new EnumMap<>(ValidationRule.class);
+        for (ValidationRule rule : RULES) {
+            long count = ruleFailures[rule.ordinal()].sum();
+            if (count > 0) {
+                counts.put(rule, count);
+            }
+        }
+        return counts;
+    }
+
+    public long getPricedCount(LoyaltyTier tier) {
+        return pricedByTier[tier.ordinal()].sum();
+    }
+
+    /**
+     * Returns the number of priced orders for every tier priced at least once.
+     */
+    public Map<LoyaltyTier, Long> getTierDistribution() {
+        Map<LoyaltyTier, Long> counts = new EnumMap<>(LoyaltyTier.class);
+        for (LoyaltyTier tier : TIERS) {
+            long count = pricedByTier[tier.ordinal()].sum();
+            if (count > 0) {
+                counts.put(tier, count);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Returns a copy of the validation latencies recorded so far.
+     */
+    public Histogram getValidationLatency() {
+        return snapshot(validationRecorder, validationLatency);
+    }
+
+    /**
+     * Returns a copy of the total discount calculation latencies recorded so far.
+     */
+    public Histogram getPricingLatency() {
+        return snapshot(pricingRecorder, pricingLatency);
+    }
+
+    private synchronized Histogram snapshot(Recorder recorder, Histogram cumulative) {
+        cumulative.add(recorder.getIntervalHistogram());
+        return cumulative.copy();
+    }
+}
@@ -0,0 +1,28 @@
+package com.github.timtebeek.orders;
+
+/**
+ * A key tracked by {@link HeavyHitters} with its estimated weight, which may overcount but never undercounts.
+ */
+public final class HeavyHitter {
+
+    private final String key;
+    private final long estimate;
+
+    HeavyHitter(String key, long estimate) {
+        this.key = key;
+        this.estimate = estimate;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public long getEstimate() {
+        return estimate;
+    }
+
+    @Override
+    public String toString() {
+        return key + "=" + estimate;
+    }
+}
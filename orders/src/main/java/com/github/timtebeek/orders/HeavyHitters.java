@@ -0,0 +1,164 @@
+package com.github.timtebeek.orders;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tracks the {@code k} keys of largest total weight in a stream, in constant memory.
+ * <p>
+ * Weights are counted in a {@link CountMinSketch}; the keys whose estimates are currently largest are kept as
+ * candidates, replacing the smallest candidate when a key's estimate overtakes it. Merging adds the sketches and
+ * re-ranks the candidates of both sides against the merged sketch. Not thread-safe.
+ */
+public final class HeavyHitters {
+
+    private static final Comparator<HeavyHitter> BY_ESTIMATE_DESCENDING =
+            Comparator.comparingLong(HeavyHitter::getEstimate).reversed().thenComparing(HeavyHitter::getKey);
+
+    private final int k;
+    private final CountMinSketch sketch;
+    private final Map<String, Long> candidates;
+    private String smallestKey;
+    private long smallestEstimate;
+
+    /**
+     * @param k       number of keys to track
+     * @param epsilon overcount bound of the estimates as a fraction of the total weight
+     * @param delta   probability of exceeding the bound
+     */
+    public HeavyHitters(int k, double epsilon, double delta) {
+        this(k, new CountMinSketch(epsilon, delta), k);
+    }
+
+    private HeavyHitters(int k, CountMinSketch sketch, int expectedCandidates) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("Number of heavy hitters must be positive");
+        }
+        this.k = k;
+        this.sketch = sketch;
+        this.candidates = new HashMap<>(expectedCandidates * 2);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the key is {@code null} or the weight is negative
+     */
+    public void add(String key, long weight) {
+        sketch.add(key, weight);
+        offer(key, sketch.estimate(key));
+    }
+
+    private void offer(String key, long estimate) {
+        if (candidates.containsKey(key)) {
+            candidates.put(key, estimate);
+            if (key.equals(smallestKey)) {
+                smallestKey = null;
+            }
+            return;
+        }
+        if (candidates.size() < k) {
+            candidates.put(key, estimate);
+            if (smallestKey != null && estimate < smallestEstimate) {
+                smallestKey = key;
+                smallestEstimate = estimate;
+            }
+            return;
+        }
+        if (smallestKey == null) {
+            findSmallest();
+        }
+        if (estimate > smallestEstimate) {
+            candidates.remove(smallestKey);
+            candidates.put(key, estimate);
+            smallestKey = null;
+        }
+    }
+
+    private void findSmallest() {
+        smallestEstimate = Long.MAX_VALUE;
+        for (Map.Entry<String, Long> candidate : candidates.entrySet()) {
+            if (candidate.getValue() < smallestEstimate) {
+                smallestKey = candidate.getKey();
+                smallestEstimate = candidate.getValue();
+            }
+        }
+    }
+
+    public long estimate(String key) {
+        return sketch.estimate(key);
+    }
+
+    /**
+     * Returns the tracked keys, largest estimate first.
+     */
+    public List<HeavyHitter> top() {
+        List<HeavyHitter> top = new ArrayList<>(candidates.size());
+        candidates.forEach((key, estimate) -> top.add(new HeavyHitter(key, estimate)));
+        top.sort(BY_ESTIMATE_DESCENDING);
+        return top;
+    }
+
+    public long getTotalWeight() {
+        return sketch.getTotalWeight();
+    }
+
+    public int getK() {
+        return k;
+    }
+
+    /**
+     * Adds the other heavy hitters to these.
+     *
+     * @throws IllegalArgumentException if the sketches differ in dimensions
+     */
+    public void merge(HeavyHitters other) {
+        sketch.merge(other.sketch);
+        List<String> keys = new ArrayList<>(candidates.keySet());
+        keys.addAll(other.candidates.keySet());
+        candidates.clear();
+        smallestKey = null;
+        for (String key : keys) {
+            offer(key, sketch.estimate(key));
+        }
+    }
+
+    /**
+     * Whether the other tracks as many keys in a sketch of the same dimensions.
+     */
+    boolean hasSettingsOf(HeavyHitters other) {
+        return other.k == k && sketch.hasDimensionsOf(other.sketch);
+    }
+
+    void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(k);
+        sketch.writeTo(out);
+        out.writeInt(candidates.size());
+        for (String key : candidates.keySet()) {
+            out.writeUTF(key);
+        }
+    }
+
+    static HeavyHitters readFrom(DataInputStream in) throws IOException {
+        int k = in.readInt();
+        CountMinSketch sketch = CountMinSketch.readFrom(in);
+        int count = in.readInt();
+        if (count < 0 || count > k) {
+            throw new IllegalArgumentException("Invalid number of heavy hitters " + count + " of " + k);
+        }
+        if (count > in.available() / 2) {
+            throw new EOFException("Truncated heavy hitters");
+        }
+        HeavyHitters heavyHitters = new HeavyHitters(k, sketch, count);
+        for (int i = 0; i < count; i++) {
+            String key = in.readUTF();
+            heavyHitters.offer(key, heavyHitters.sketch.estimate(key));
+        }
+        return heavyHitters;
+    }
+}
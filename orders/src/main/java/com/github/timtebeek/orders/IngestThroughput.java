@@ -0,0 +1,80 @@
+package com.github.timtebeek.orders;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Counts bytes and orders read during ingestion, and reports throughput since the first record.
+ * Safe to read from a monitoring thread while a reader records.
+ */
+public class IngestThroughput {
+
+    private static final double NANOS_PER_SECOND = 1_000_000_000d;
+    private static final double BYTES_PER_MEGABYTE = 1_000_000d;
+
+    private final LongSupplier nanoClock;
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder orders = new LongAdder();
+    private final AtomicLong startNanos = new AtomicLong(Long.MIN_VALUE);
+
+    public IngestThroughput() {
+        this(System::nanoTime);
+    }
+
+    IngestThroughput(LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+    }
+
+    void recordBytes(long count) {
+        start();
+        bytes.add(count);
+    }
+
+    void recordOrder() {
+        start();
+        orders.increment();
+    }
+
+    private void start() {
+        if (startNanos.get() == Long.MIN_VALUE) {
+            startNanos.compareAndSet(Long.MIN_VALUE, nanoClock.getAsLong());
+        }
+    }
+
+    public long getBytes() {
+        return bytes.sum();
+    }
+
+    public long getOrders() {
+        return orders.sum();
+    }
+
+    public Duration getElapsed() {
+        long start = startNanos.get();
+        return start == Long.MIN_VALUE ? Duration.ZERO : Duration.ofNanos(nanoClock.getAsLong() - start);
+    }
+
+    /**
+     * Throughput in megabytes (10^6 bytes) per second.
+     */
+    public double getMegabytesPerSecond() {
+        return perSecond(getBytes()) / BYTES_PER_MEGABYTE;
+    }
+
+    public double getOrdersPerSecond() {
+        return perSecond(getOrders());
+    }
+
+    private double perSecond(long count) {
+        long elapsedNanos = getElapsed().toNanos();
+        return elapsedNanos == 0 ? 0d : count * NANOS_PER_SECOND / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d orders, %d bytes in %s (%.1f MB/s, %.0f orders/s)",
+                getOrders(), getBytes(), getElapsed(), getMegabytesPerSecond(), getOrdersPerSecond());
+    }
+}
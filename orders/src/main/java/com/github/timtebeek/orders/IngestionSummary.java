@@ -0,0 +1,68 @@
+package com.github.timtebeek.orders;
+
+import java.math.BigDecimal;
+
+/**
+ * Outcome of an {@link OrderIngestion} run.
+ */
+public class IngestionSummary {
+
+    private final ValidationReport validation;
+    private final long pricedOrders;
+    private final long unpricedOrders;
+    private final BigDecimal totalDiscount;
+    private final IngestThroughput throughput;
+
+    private IngestionSummary(ValidationReport validation, long pricedOrders, long unpricedOrders,
+                             BigDecimal totalDiscount, IngestThroughput throughput) {
+        this.validation = validation;
+        this.pricedOrders = pricedOrders;
+        this.unpricedOrders = unpricedOrders;
+        this.totalDiscount = totalDiscount;
+        this.throughput = throughput;
+    }
+
+    public ValidationReport getValidation() {
+        return validation;
+    }
+
+    /**
+     * Number of valid orders that were priced.
+     */
+    public long getPricedOrders() {
+        return pricedOrders;
+    }
+
+    /**
+     * Number of valid orders that could not be priced because their customer is unknown or their subtotal is
+     * missing or negative.
+     */
+    public long getUnpricedOrders() {
+        return unpricedOrders;
+    }
+
+    public BigDecimal getTotalDiscount() {
+        return totalDiscount;
+    }
+
+    public IngestThroughput getThroughput() {
+        return throughput;
+    }
+
+    static class Accumulator {
+        final ValidationReport.Accumulator validation =
+                new ValidationReport.Accumulator(ValidationReport.DEFAULT_MAX_FAILED_ORDER_IDS);
+        final IngestThroughput throughput;
+        long pricedOrders;
+        long unpricedOrders;
+        BigDecimal totalDiscount = BigDecimal.ZERO;
+
+        Accumulator(IngestThroughput throughput) {
+            this.throughput = throughput;
+        }
+
+        IngestionSummary toSummary() {
+            return new IngestionSummary(validation.toReport(), pricedOrders, unpricedOrders, totalDiscount, throughput);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.github.timtebeek.orders;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Customer loyalty tiers that earn a discount; customers without a known tier map to {@link #NONE}.
+ */
+public enum LoyaltyTier {
+    NONE,
+    BRONZE,
+    SILVER,
+    GOLD,
+    PLATINUM;
+
+    private static final LoyaltyTier[] TIERS = values();
+    private static final Map<String, LoyaltyTier> SPELLINGS = new HashMap<>();
+
+    static {
+        for (int i = 1; i < TIERS.length; i++) {
+            String name = TIERS[i].name();
+            SPELLINGS.put(name, TIERS[i]);
+            SPELLINGS.put(name.toLowerCase(Locale.ROOT), TIERS[i]);
+            SPELLINGS.put(name.charAt(0) + name.substring(1).toLowerCase(Locale.ROOT), TIERS[i]);
+        }
+    }
+
+    /**
+     * Resolves a tier name case-insensitively, returning {@link #NONE} for {@code null} or unknown names.
+     * Common spellings resolve through a single hash lookup on the cached string hash code.
+     */
+    public static LoyaltyTier of(String name) {
+        if (name == null) {
+            return NONE;
+        }
+        LoyaltyTier tier = SPELLINGS.get(name);
+        if (tier != null) {
+            return tier;
+        }
+        for (int i = 1; i < TIERS.length; i++) {
+            if (TIERS[i].name().equalsIgnoreCase(name)) {
+                return TIERS[i];
+            }
+        }
+        return NONE;
+    }
+}
@@ -0,0 +1,59 @@
+package com.github.timtebeek.orders;
+
+import java.math.BigDecimal;
+
+/**
+ * An amount that differs from the value the {@link OrderReconciler} expected.
+ */
+public final class Mismatch {
+
+    private final String orderId;
+    private final ReconciliationCheck check;
+    private final int itemIndex;
+    private final BigDecimal expected;
+    private final BigDecimal actual;
+
+    Mismatch(String orderId, ReconciliationCheck check, int itemIndex, BigDecimal expected, BigDecimal actual) {
+        this.orderId = orderId;
+        this.check = check;
+        this.itemIndex = itemIndex;
+        this.expected = expected;
+        this.actual = actual;
+    }
+
+    public String getOrderId() {
+        return orderId;
+    }
+
+    public ReconciliationCheck getCheck() {
+        return check;
+    }
+
+    /**
+     * Index of the mismatching item for {@link ReconciliationCheck#LINE_TOTAL}, or {@code -1} for order amounts.
+     */
+    public int getItemIndex() {
+        return itemIndex;
+    }
+
+    public BigDecimal getExpected() {
+        return expected;
+    }
+
+    public BigDecimal getActual() {
+        return actual;
+    }
+
+    /**
+     * Actual minus expected amount.
+     */
+    public BigDecimal getDelta() {
+        return actual.subtract(expected);
+    }
+
+    @Override
+    public String toString() {
+        return orderId + (itemIndex < 0 ? "" : " item " + itemIndex) + " " + check
+                + ": expected " + expected + " but was " + actual;
+    }
+}
@@ -0,0 +1,28 @@
+package com.github.timtebeek.orders;
+
+import java.math.BigDecimal;
+
+/**
+ * Conversions between monetary {@link BigDecimal} amounts and {@code long} minor units (cents).
+ */
+public final class Money {
+
+    private Money() {
+    }
+
+    /**
+     * Converts an amount to cents.
+     *
+     * @throws ArithmeticException if the amount has more than two decimals or does not fit in a {@code long}
+     */
+    public static long toCents(BigDecimal amount) {
+        return amount.movePointRight(2).longValueExact();
+    }
+
+    /**
+     * Converts cents to an amount with a scale of two.
+     */
+    public static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+}
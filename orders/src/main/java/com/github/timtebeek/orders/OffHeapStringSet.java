@@ -0,0 +1,247 @@
+package com.github.timtebeek.orders;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Exact set of strings kept outside the Java heap, as UTF-8 bytes in direct buffers.
+ * <p>
+ * The set is split into segments by hash. Each segment appends its keys to growing arena chunks and indexes
+ * them in an open addressing table of 16 byte slots, holding the key hash and a reference to its bytes, so
+ * probing compares hashes before touching key bytes, and resizing rehashes without reading keys.
+ * <p>
+ * Direct buffers count against {@code -XX:MaxDirectMemorySize}, which defaults to the maximum heap size, so sets
+ * of hundreds of millions of keys need that limit raised explicitly; at 21 to 43 bytes of table and 4 bytes of
+ * length per key plus the key bytes, 100 million 12 byte IDs take around 5 GB. The table a segment discards when
+ * it doubles stays reserved until the garbage collector finds it unreachable and runs its cleaner, so a growing
+ * set briefly needs up to half its table size more.
+ * Not thread-safe.
+ */
+final class OffHeapStringSet {
+
+    private static final int SEGMENT_BITS = 6;
+    private static final int SLOT_SIZE = 16;
+    private static final int INITIAL_SLOTS = 1 << 10;
+    private static final int INITIAL_CHUNK_SIZE = 1 << 16;
+    private static final int MAX_CHUNK_SIZE = 1 << 24;
+
+    private final Segment[] segments = new Segment[1 << SEGMENT_BITS];
+    private long size;
+
+    OffHeapStringSet() {
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = new Segment(INITIAL_SLOTS);
+        }
+    }
+
+    /**
+     * @param hash a well mixed hash of the key, used to pick the segment and slot
+     */
+    boolean contains(byte[] key, long hash) {
+        return segments[segment(hash)].find(key, nonZero(hash)) >= 0;
+    }
+
+    /**
+     * Adds the key, returning {@code false} if it was already present.
+     */
+    boolean add(byte[] key, long hash) {
+        boolean added = segments[segment(hash)].add(key, nonZero(hash));
+        if (added) {
+            size++;
+        }
+        return added;
+    }
+
+    /**
+     * Adds a key known to be absent, for example because a Bloom filter ruled it out, looking only for an empty
+     * slot rather than comparing hashes and key bytes along the way. Adding a present key this way duplicates it.
+     */
+    void insertAbsent(byte[] key, long hash) {
+        segments[segment(hash)].insertAbsent(key, nonZero(hash));
+        size++;
+    }
+
+    long size() {
+        return size;
+    }
+
+    private static int segment(long hash) {
+        return (int) (hash >>> (64 - SEGMENT_BITS));
+    }
+
+    private static long nonZero(long hash) {
+        return hash == 0 ? 1 : hash;
+    }
+
+    void writeTo(DataOutputStream out) throws IOException {
+        out.writeLong(size);
+        for (Segment segment : segments) {
+            segment.writeTo(out);
+        }
+    }
+
+    static OffHeapStringSet readFrom(DataInputStream in) throws IOException {
+        OffHeapStringSet set = new OffHeapStringSet();
+        set.size = in.readLong();
+        for (int i = 0; i < set.segments.length; i++) {
+            set.segments[i] = Segment.readFrom(in);
+        }
+        return set;
+    }
+
+    private static final class Segment {
+        private ByteBuffer table;
+        private int slots;
+        private int used;
+        private final List<ByteBuffer> chunks = new ArrayList<>();
+
+        Segment(int slots) {
+            this.slots = slots;
+            this.table = ByteBuffer.allocateDirect(slots * SLOT_SIZE);
+        }
+
+        /**
+         * Returns the slot holding the key, or minus one minus the empty slot where it belongs.
+         */
+        int find(byte[] key, long hash) {
+            int mask = slots - 1;
+            for (int slot = (int) hash & mask; ; slot = (slot + 1) & mask) {
+                long slotHash = table.getLong(slot * SLOT_SIZE);
+                if (slotHash == 0) {
+                    return -1 - slot;
+                }
+                if (slotHash == hash && keyEquals(table.getLong(slot * SLOT_SIZE + 8), key)) {
+                    return slot;
+                }
+            }
+        }
+
+        boolean add(byte[] key, long hash) {
+            int slot = find(key, hash);
+            if (slot >= 0) {
+                return false;
+            }
+            if ((used + 1) * 4L > slots * 3L) {
+                resize();
+                slot = find(key, hash);
+            }
+            put(-1 - slot, key, hash);
+            return true;
+        }
+
+        void insertAbsent(byte[] key, long hash) {
+            if ((used + 1) * 4L > slots * 3L) {
+                resize();
+            }
+            int mask = slots - 1;
+            int slot = (int) hash & mask;
+            while (table.getLong(slot * SLOT_SIZE) != 0) {
+                slot = (slot + 1) & mask;
+            }
+            put(slot, key, hash);
+        }
+
+        private void put(int slot, byte[] key, long hash) {
+            table.putLong(slot * SLOT_SIZE, hash);
+            table.putLong(slot * SLOT_SIZE + 8, store(key));
+            used++;
+        }
+
+        private void resize() {
+            ByteBuffer old = table;
+            int oldSlots = slots;
+            slots = Math.multiplyExact(slots, 2);
+            table = ByteBuffer.allocateDirect(Math.multiplyExact(slots, SLOT_SIZE));
+            int mask = slots - 1;
+            for (int i = 0; i < oldSlots; i++) {
+                long hash = old.getLong(i * SLOT_SIZE);
+                if (hash != 0) {
+                    int slot = (int) hash & mask;
+                    while (table.getLong(slot * SLOT_SIZE) != 0) {
+                        slot = (slot + 1) & mask;
+                    }
+                    table.putLong(slot * SLOT_SIZE, hash);
+                    table.putLong(slot * SLOT_SIZE + 8, old.getLong(i * SLOT_SIZE + 8));
+                }
+            }
+        }
+
+        /**
+         * Appends the key to the arena, returning its reference: chunk index in the high, offset in the low half.
+         */
+        private long store(byte[] key) {
+            int needed = 4 + key.length;
+            ByteBuffer chunk = chunks.isEmpty() ? null : chunks.get(chunks.size() - 1);
+            if (chunk == null || chunk.remaining() < needed) {
+                int capacity = chunk == null ? INITIAL_CHUNK_SIZE : Math.min(chunk.capacity() * 2, MAX_CHUNK_SIZE);
+                chunk = ByteBuffer.allocateDirect(Math.max(capacity, needed));
+                chunks.add(chunk);
+            }
+            long reference = ((long) (chunks.size() - 1) << 32) | chunk.position();
+            chunk.putInt(key.length).put(key);
+            return reference;
+        }
+
+        private boolean keyEquals(long reference, byte[] key) {
+            ByteBuffer chunk = chunks.get((int) (reference >>> 32));
+            int offset = (int) reference;
+            if (chunk.getInt(offset) != key.length) {
+                return false;
+            }
+            for (int i = 0; i < key.length; i++) {
+                if (chunk.get(offset + 4 + i) != key[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void writeTo(DataOutputStream out) throws IOException {
+            out.writeInt(slots);
+            out.writeInt(used);
+            write(out, table, table.capacity());
+            out.writeInt(chunks.size());
+            for (ByteBuffer chunk : chunks) {
+                out.writeInt(chunk.capacity());
+                out.writeInt(chunk.position());
+                write(out, chunk, chunk.position());
+            }
+        }
+
+        static Segment readFrom(DataInputStream in) throws IOException {
+            Segment segment = new Segment(in.readInt());
+            segment.used = in.readInt();
+            read(in, segment.table, segment.table.capacity());
+            int chunkCount = in.readInt();
+            for (int i = 0; i < chunkCount; i++) {
+                ByteBuffer chunk = ByteBuffer.allocateDirect(in.readInt());
+                read(in, chunk, in.readInt());
+                segment.chunks.add(chunk);
+            }
+            return segment;
+        }
+
+        private static void write(DataOutputStream out, ByteBuffer buffer, int length) throws IOException {
+            byte[] copy = new byte[Math.min(length, 1 << 16)];
+            for (int offset = 0; offset < length; offset += copy.length) {
+                int count = Math.min(copy.length, length - offset);
+                buffer.get(offset, copy, 0, count);
+                out.write(copy, 0, count);
+            }
+        }
+
+        private static void read(DataInputStream in, ByteBuffer buffer, int length) throws IOException {
+            byte[] copy = new byte[Math.min(length, 1 << 16)];
+            for (int offset = 0; offset < length; offset += copy.length) {
+                int count = Math.min(copy.length, length - offset);
+                in.readFully(copy, 0, count);
+                buffer.put(offset, copy, 0, count);
+            }
+            buffer.position(length);
+        }
+    }
+}
@@ -3,12 +3,16 @@ package com.github.timtebeek.orders;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 public class Order {
+    private static final AtomicReferenceFieldUpdater<Order, String> STATUS =
+            AtomicReferenceFieldUpdater.newUpdater(Order.class, String.class, "status");
+
     private final String orderId;
     private final String customerId;
     private final LocalDate orderDate;
-    private final String status;
+    private volatile String status;
     private final List<OrderItem> items;
     private final BigDecimal subtotal;
     private final BigDecimal tax;
@@ -46,6 +50,36 @@ public class Order {
         return status;
     }
 
+    /**
+     * Returns the status as an {@link OrderStatus}, or {@code null} when it is missing or unknown.
+     */
+    public OrderStatus getOrderStatus() {
+        return OrderStatus.parse(status);
+    }
+
+    /**
+     * Atomically moves the order from the expected status to the next, without locking.
+     * Of several threads attempting a transition from the same status, exactly one succeeds.
+     * Orders held in an {@link OrderStore} should be transitioned through the store, to keep its indexes current.
+     *
+     * @return {@code false} if the order is no longer in the expected status
+     * @throws IllegalArgumentException if the transition is not allowed
+     */
+    public boolean transitionStatus(OrderStatus expected, OrderStatus next) {
+        if (!expected.canTransitionTo(next)) {
+            throw new IllegalArgumentException("Order cannot move from " + expected + " to " + next);
+        }
+        while (true) {
+            String current = status;
+            if (OrderStatus.parse(current) != expected) {
+                return false;
+            }
+            if (STATUS.compareAndSet(this, current, next.name())) {
+                return true;
+            }
+        }
+    }
+
     public List<OrderItem> getItems() {
         return items;
     }
@@ -0,0 +1,298 @@
+package com.github.timtebeek.orders;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Column-oriented, immutable batch of orders for bulk analytics.
+ * <p>
+ * Amounts are stored as {@code long} cents, order dates as epoch days, statuses as {@link OrderStatus#code()} bytes
+ * and customer IDs as codes into a per-batch dictionary, so aggregations and filters run as tight loops over
+ * primitive arrays.
+ * Items are kept by reference, so orders convert back without loss other than amounts getting a scale of two.
+ */
+public final class OrderBatch {
+
+    /**
+     * Amount columns.
+     */
+    public enum Column {
+        SUBTOTAL,
+        TAX,
+        SHIPPING_COST,
+        DISCOUNT,
+        TOTAL
+    }
+
+    private final int size;
+    private final String[] orderIds;
+    private final int[] customerCodes;
+    private final String[] customerDictionary;
+    private final Map<String, Integer> customerLookup;
+    private final int[] orderEpochDays;
+    private final byte[] statusCodes;
+    private final long[][] amounts;
+    private final List<OrderItem>[] items;
+
+    private OrderBatch(Builder builder) {
+        this.size = builder.size;
+        this.orderIds = Arrays.copyOf(builder.orderIds, size);
+        this.customerCodes = Arrays.copyOf(builder.customerCodes, size);
+        this.customerDictionary = builder.customerDictionary.toArray(new String[0]);
+        this.customerLookup = Map.copyOf(builder.customerLookup);
+        this.orderEpochDays = Arrays.copyOf(builder.orderEpochDays, size);
+        this.statusCodes = Arrays.copyOf(builder.statusCodes, size);
+        this.amounts = new long[Column.values().length][];
+        for (Column column : Column.values()) {
+            amounts[column.ordinal()] = Arrays.copyOf(builder.amounts[column.ordinal()], size);
+        }
+        this.items = Arrays.copyOf(builder.items, size);
+    }
+
+    public static OrderBatch of(Collection<Order> orders) {
+        Builder builder = builder(orders.size());
+        orders.forEach(builder::add);
+        return builder.build();
+    }
+
+    public static Builder builder(int expectedSize) {
+        return new Builder(expectedSize);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public String getOrderId(int index) {
+        return orderIds[checkIndex(index)];
+    }
+
+    public String getCustomerId(int index) {
+        return customerDictionary[customerCodes[checkIndex(index)]];
+    }
+
+    public LocalDate getOrderDate(int index) {
+        return LocalDate.ofEpochDay(orderEpochDays[checkIndex(index)]);
+    }
+
+    public OrderStatus getStatus(int index) {
+        return OrderStatus.fromCode(statusCodes[checkIndex(index)]);
+    }
+
+    public long getCents(Column column, int index) {
+        return amounts[column.ordinal()][checkIndex(index)];
+    }
+
+    /**
+     * Number of distinct customers; customer codes run from zero up to this count.
+     */
+    public int getCustomerCount() {
+        return customerDictionary.length;
+    }
+
+    public String getCustomerIdForCode(int customerCode) {
+        return customerDictionary[customerCode];
+    }
+
+    public Order toOrder(int index) {
+        checkIndex(index);
+        return new Order(orderIds[index], customerDictionary[customerCodes[index]],
+                LocalDate.ofEpochDay(orderEpochDays[index]), OrderStatus.fromCode(statusCodes[index]).name(), items[index],
+                Money.fromCents(amounts[Column.SUBTOTAL.ordinal()][index]),
+                Money.fromCents(amounts[Column.TAX.ordinal()][index]),
+                Money.fromCents(amounts[Column.SHIPPING_COST.ordinal()][index]),
+                Money.fromCents(amounts[Column.DISCOUNT.ordinal()][index]),
+                Money.fromCents(amounts[Column.TOTAL.ordinal()][index]));
+    }
+
+    public List<Order> toOrders() {
+        List<Order> orders = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            orders.add(toOrder(i));
+        }
+        return orders;
+    }
+
+    /**
+     * Selects the orders with the given status.
+     */
+    public BitSet whereStatus(OrderStatus status) {
+        BitSet selection = new BitSet(size);
+        byte code = status.code();
+        for (int i = 0; i < size; i++) {
+            if (statusCodes[i] == code) {
+                selection.set(i);
+            }
+        }
+        return selection;
+    }
+
+    /**
+     * Selects the orders of the given customer.
+     */
+    public BitSet whereCustomer(String customerId) {
+        BitSet selection = new BitSet(size);
+        Integer code = customerLookup.get(customerId);
+        if (code != null) {
+            for (int i = 0; i < size; i++) {
+                if (customerCodes[i] == code) {
+                    selection.set(i);
+                }
+            }
+        }
+        return selection;
+    }
+
+    /**
+     * Selects the orders placed between {@code from} and {@code to}, both inclusive.
+     */
+    public BitSet whereOrderDateBetween(LocalDate from, LocalDate to) {
+        BitSet selection = new BitSet(size);
+        long first = from.toEpochDay();
+        long last = to.toEpochDay();
+        for (int i = 0; i < size; i++) {
+            if (orderEpochDays[i] >= first && orderEpochDays[i] <= last) {
+                selection.set(i);
+            }
+        }
+        return selection;
+    }
+
+    /**
+     * Sums an amount column over all orders, in cents.
+     */
+    public long sum(Column column) {
+        long[] values = amounts[column.ordinal()];
+        long sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += values[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Sums an amount column over the selected orders, in cents.
+     */
+    public long sum(Column column, BitSet selection) {
+        long[] values = amounts[column.ordinal()];
+        long sum = 0;
+        for (int i = selection.nextSetBit(0); i >= 0 && i < size; i = selection.nextSetBit(i + 1)) {
+            sum += values[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Sums an amount column per customer, in cents, indexed by customer code.
+     */
+    public long[] sumByCustomer(Column column) {
+        long[] values = amounts[column.ordinal()];
+        long[] sums = new long[customerDictionary.length];
+        for (int i = 0; i < size; i++) {
+            sums[customerCodes[i]] += values[i];
+        }
+        return sums;
+    }
+
+    long[] column(Column column) {
+        return amounts[column.ordinal()];
+    }
+
+    int customerCode(int index) {
+        return customerCodes[index];
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for batch of " + size + " orders");
+        }
+        return index;
+    }
+
+    /**
+     * Appends orders to growing columns; orders need a customer, date, known status and all amounts in whole cents.
+     */
+    public static final class Builder {
+        private int size;
+        private String[] orderIds;
+        private int[] customerCodes;
+        private final List<String> customerDictionary = new ArrayList<>();
+        private final Map<String, Integer> customerLookup = new HashMap<>();
+        private int[] orderEpochDays;
+        private byte[] statusCodes;
+        private final long[][] amounts = new long[Column.values().length][];
+        private List<OrderItem>[] items;
+
+        @SuppressWarnings("unchecked")
+        private Builder(int expectedSize) {
+            int capacity = Math.max(expectedSize, 16);
+            orderIds = new String[capacity];
+            customerCodes = new int[capacity];
+            orderEpochDays = new int[capacity];
+            statusCodes = new byte[capacity];
+            for (Column column : Column.values()) {
+                amounts[column.ordinal()] = new long[capacity];
+            }
+            items = new List[capacity];
+        }
+
+        /**
+         * @throws IllegalArgumentException if a required field is missing
+         * @throws ArithmeticException      if an amount has fractional cents
+         */
+        public Builder add(Order order) {
+            OrderStatus status = order.getOrderStatus();
+            if (order.getCustomerId() == null || order.getOrderDate() == null || status == null) {
+                throw new IllegalArgumentException("Order " + order.getOrderId() + " needs a customer, date and known status");
+            }
+            if (size == orderIds.length) {
+                grow();
+            }
+            orderIds[size] = order.getOrderId();
+            customerCodes[size] = customerLookup.computeIfAbsent(order.getCustomerId(), customerId -> {
+                customerDictionary.add(customerId);
+                return customerDictionary.size() - 1;
+            });
+            orderEpochDays[size] = Math.toIntExact(order.getOrderDate().toEpochDay());
+            statusCodes[size] = status.code();
+            amounts[Column.SUBTOTAL.ordinal()][size] = cents(order, order.getSubtotal());
+            amounts[Column.TAX.ordinal()][size] = cents(order, order.getTax());
+            amounts[Column.SHIPPING_COST.ordinal()][size] = cents(order, order.getShippingCost());
+            amounts[Column.DISCOUNT.ordinal()][size] = cents(order, order.getDiscount());
+            amounts[Column.TOTAL.ordinal()][size] = cents(order, order.getTotal());
+            items[size] = order.getItems();
+            size++;
+            return this;
+        }
+
+        private static long cents(Order order, BigDecimal amount) {
+            if (amount == null) {
+                throw new IllegalArgumentException("Order " + order.getOrderId() + " is missing an amount");
+            }
+            return Money.toCents(amount);
+        }
+
+        private void grow() {
+            int capacity = orderIds.length * 2;
+            orderIds = Arrays.copyOf(orderIds, capacity);
+            customerCodes = Arrays.copyOf(customerCodes, capacity);
+            orderEpochDays = Arrays.copyOf(orderEpochDays, capacity);
+            statusCodes = Arrays.copyOf(statusCodes, capacity);
+            for (Column column : Column.values()) {
+                amounts[column.ordinal()] = Arrays.copyOf(amounts[column.ordinal()], capacity);
+            }
+            items = Arrays.copyOf(items, capacity);
+        }
+
+        public OrderBatch build() {
+            return new OrderBatch(this);
+        }
+    }
+}
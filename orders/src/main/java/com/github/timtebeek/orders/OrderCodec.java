@@ -0,0 +1,323 @@
+package com.github.timtebeek.orders;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Compact binary encoding of {@link Order} and {@link Customer} messages, read back either in full or through
+ * the flyweight {@link OrderView} and {@link CustomerView} without materializing objects.
+ * <p>
+ * Every message starts with an 8 byte header: a {@link #MAGIC} short, the format {@link #VERSION} byte, a message
+ * type byte and the int length of the whole message. Numbers are big-endian. Fixed-width fields follow the header
+ * at fixed offsets, so reading them costs a few absolute reads:
+ * <ul>
+ * <li>dates are int epoch days, with {@link Integer#MIN_VALUE} for {@code null};</li>
+ * <li>amounts are a long unscaled value followed by a byte scale, with scale {@link Byte#MIN_VALUE} for
+ * {@code null};</li>
+ * <li>strings are an int UTF-8 byte length, {@code -1} for {@code null}, followed by the bytes.</li>
+ * </ul>
+ * An order holds its date, status code, the five amounts and the item count, then an int offset per item,
+ * then its ID, customer ID and status strings, then the items. An item holds its quantity, unit price and line
+ * total, then its product ID, name and category. A customer holds its loyalty tier code, then its ID, email,
+ * name and loyalty tier strings, then a byte flagging a shipping address with its five strings.
+ */
+public final class OrderCodec {
+
+    public static final short MAGIC = 0x4F52;
+    public static final byte VERSION = 1;
+
+    static final byte TYPE_ORDER = 1;
+    static final byte TYPE_CUSTOMER = 2;
+
+    static final int HEADER_SIZE = 8;
+    static final int LENGTH = 4;
+    static final int AMOUNT_SIZE = 9;
+    static final int NULL_DATE = Integer.MIN_VALUE;
+    static final byte NULL_SCALE = Byte.MIN_VALUE;
+    static final byte NO_CODE = -1;
+
+    private static final long[] POWERS_OF_TEN = new long[19];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    static final int ORDER_DATE = HEADER_SIZE;
+    static final int ORDER_STATUS = ORDER_DATE + 4;
+    static final int ORDER_AMOUNTS = ORDER_STATUS + 1;
+    static final int ORDER_ITEM_COUNT = ORDER_AMOUNTS + OrderBatch.Column.values().length * AMOUNT_SIZE;
+    static final int ORDER_ITEM_OFFSETS = ORDER_ITEM_COUNT + 4;
+
+    static final int ITEM_QUANTITY = 0;
+    static final int ITEM_UNIT_PRICE = ITEM_QUANTITY + 4;
+    static final int ITEM_LINE_TOTAL = ITEM_UNIT_PRICE + AMOUNT_SIZE;
+    static final int ITEM_STRINGS = ITEM_LINE_TOTAL + AMOUNT_SIZE;
+
+    static final int CUSTOMER_TIER = HEADER_SIZE;
+    static final int CUSTOMER_STRINGS = CUSTOMER_TIER + 1;
+
+    private OrderCodec() {
+    }
+
+    public static int encodedSize(Order order) {
+        int size = ORDER_ITEM_OFFSETS + 4 * items(order).size()
+                + stringSize(order.getOrderId()) + stringSize(order.getCustomerId()) + stringSize(order.getStatus());
+        for (OrderItem item : items(order)) {
+            size += ITEM_STRINGS + stringSize(item.getProductId()) + stringSize(item.getProductName())
+                    + stringSize(item.getCategory());
+        }
+        return size;
+    }
+
+    public static int encodedSize(Customer customer) {
+        int size = CUSTOMER_STRINGS + stringSize(customer.getCustomerId()) + stringSize(customer.getEmail())
+                + stringSize(customer.getName()) + stringSize(customer.getLoyaltyTier()) + 1;
+        Address address = customer.getShippingAddress();
+        if (address != null) {
+            size += stringSize(address.getStreet()) + stringSize(address.getCity()) + stringSize(address.getState())
+                    + stringSize(address.getZipCode()) + stringSize(address.getCountry());
+        }
+        return size;
+    }
+
+    /**
+     * Encodes the order into a new buffer, ready to be read.
+     *
+     * @throws IllegalArgumentException if an amount does not fit a long unscaled value and a byte scale
+     */
+    public static ByteBuffer encode(Order order) {
+        ByteBuffer buffer = ByteBuffer.allocate(encodedSize(order));
+        encode(order, buffer);
+        return buffer.flip();
+    }
+
+    /**
+     * Encodes the order at the position of the buffer, advancing it past the message.
+     *
+     * @throws IllegalArgumentException         if an amount does not fit a long unscaled value and a byte scale
+     * @throws java.nio.BufferOverflowException if the buffer has less than {@link #encodedSize(Order)} remaining
+     */
+    public static void encode(Order order, ByteBuffer buffer) {
+        checkOrder(buffer);
+        int start = buffer.position();
+        List<OrderItem> items = items(order);
+        putHeader(buffer, TYPE_ORDER);
+        buffer.putInt(order.getOrderDate() == null ? NULL_DATE : Math.toIntExact(order.getOrderDate().toEpochDay()));
+        OrderStatus status = order.getOrderStatus();
+        buffer.put(status == null ? NO_CODE : status.code());
+        putAmount(buffer, order.getSubtotal());
+        putAmount(buffer, order.getTax());
+        putAmount(buffer, order.getShippingCost());
+        putAmount(buffer, order.getDiscount());
+        putAmount(buffer, order.getTotal());
+        buffer.putInt(items.size());
+        int offsets = buffer.position();
+        buffer.position(offsets + 4 * items.size());
+        putString(buffer, order.getOrderId());
+        putString(buffer, order.getCustomerId());
+        putString(buffer, order.getStatus());
+        for (int i = 0; i < items.size(); i++) {
+            OrderItem item = items.get(i);
+            buffer.putInt(offsets + 4 * i, buffer.position() - start);
+            buffer.putInt(item.getQuantity());
+            putAmount(buffer, item.getUnitPrice());
+            putAmount(buffer, item.getLineTotal());
+            putString(buffer, item.getProductId());
+            putString(buffer, item.getProductName());
+            putString(buffer, item.getCategory());
+        }
+        buffer.putInt(start + LENGTH, buffer.position() - start);
+    }
+
+    public static ByteBuffer encode(Customer customer) {
+        ByteBuffer buffer = ByteBuffer.allocate(encodedSize(customer));
+        encode(customer, buffer);
+        return buffer.flip();
+    }
+
+    /**
+     * Encodes the customer at the position of the buffer, advancing it past the message.
+     *
+     * @throws java.nio.BufferOverflowException if the buffer has less than {@link #encodedSize(Customer)} remaining
+     */
+    public static void encode(Customer customer, ByteBuffer buffer) {
+        checkOrder(buffer);
+        int start = buffer.position();
+        putHeader(buffer, TYPE_CUSTOMER);
+        buffer.put((byte) LoyaltyTier.of(customer.getLoyaltyTier()).ordinal());
+        putString(buffer, customer.getCustomerId());
+        putString(buffer, customer.getEmail());
+        putString(buffer, customer.getName());
+        putString(buffer, customer.getLoyaltyTier());
+        Address address = customer.getShippingAddress();
+        buffer.put((byte) (address == null ? 0 : 1));
+        if (address != null) {
+            putString(buffer, address.getStreet());
+            putString(buffer, address.getCity());
+            putString(buffer, address.getState());
+            putString(buffer, address.getZipCode());
+            putString(buffer, address.getCountry());
+        }
+        buffer.putInt(start + LENGTH, buffer.position() - start);
+    }
+
+    /**
+     * Decodes the order message at the position of the buffer, advancing it past the message.
+     *
+     * @throws IllegalArgumentException if the buffer does not hold a complete order message of a supported version
+     */
+    public static Order decodeOrder(ByteBuffer buffer) {
+        OrderView view = new OrderView().wrap(buffer, buffer.position());
+        buffer.position(buffer.position() + view.getEncodedLength());
+        return view.toOrder();
+    }
+
+    /**
+     * Decodes the customer message at the position of the buffer, advancing it past the message.
+     *
+     * @throws IllegalArgumentException if the buffer does not hold a complete customer message of a supported version
+     */
+    public static Customer decodeCustomer(ByteBuffer buffer) {
+        CustomerView view = new CustomerView().wrap(buffer, buffer.position());
+        buffer.position(buffer.position() + view.getEncodedLength());
+        return view.toCustomer();
+    }
+
+    private static List<OrderItem> items(Order order) {
+        return order.getItems() == null ? List.of() : order.getItems();
+    }
+
+    private static void checkOrder(ByteBuffer buffer) {
+        if (buffer.order() != ByteOrder.BIG_ENDIAN) {
+            throw new IllegalArgumentException("Buffer must be big-endian");
+        }
+    }
+
+    private static void putHeader(ByteBuffer buffer, byte type) {
+        buffer.putShort(MAGIC).put(VERSION).put(type).putInt(0);
+    }
+
+    private static void putAmount(ByteBuffer buffer, BigDecimal amount) {
+        if (amount == null) {
+            buffer.putLong(0).put(NULL_SCALE);
+            return;
+        }
+        if (amount.scale() <= NULL_SCALE || amount.scale() > Byte.MAX_VALUE || amount.unscaledValue().bitLength() > 63) {
+            throw new IllegalArgumentException("Amount " + amount + " does not fit a long unscaled value and byte scale");
+        }
+        buffer.putLong(amount.unscaledValue().longValue()).put((byte) amount.scale());
+    }
+
+    static void putString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putInt(bytes.length).put(bytes);
+    }
+
+    static int stringSize(String value) {
+        if (value == null) {
+            return 4;
+        }
+        int size = 4;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                size++;
+            } else if (c < 0x800) {
+                size += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                size += 4;
+                i++;
+            } else {
+                size += 3;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Checks the header of the message at the offset and returns its length.
+     */
+    static int checkHeader(ByteBuffer buffer, int offset, byte type) {
+        checkOrder(buffer);
+        if (offset < 0 || buffer.limit() - offset < HEADER_SIZE) {
+            throw new IllegalArgumentException("No message header at offset " + offset);
+        }
+        if (buffer.getShort(offset) != MAGIC) {
+            throw new IllegalArgumentException("No message at offset " + offset);
+        }
+        if (buffer.get(offset + 2) != VERSION) {
+            throw new IllegalArgumentException("Unsupported message version: " + buffer.get(offset + 2));
+        }
+        if (buffer.get(offset + 3) != type) {
+            throw new IllegalArgumentException("Unexpected message type: " + buffer.get(offset + 3));
+        }
+        int length = buffer.getInt(offset + LENGTH);
+        if (length < HEADER_SIZE || length > buffer.limit() - offset) {
+            throw new IllegalArgumentException("Message at offset " + offset + " is truncated");
+        }
+        return length;
+    }
+
+    static BigDecimal amount(ByteBuffer buffer, int offset) {
+        byte scale = buffer.get(offset + 8);
+        return scale == NULL_SCALE ? null : BigDecimal.valueOf(buffer.getLong(offset), scale);
+    }
+
+    /**
+     * Returns the amount in cents, like {@link Money#toCents(BigDecimal)}. Only amounts with a scale more than 18
+     * away from two allocate, as they are converted through a {@link BigDecimal}.
+     *
+     * @throws IllegalArgumentException if the amount is missing
+     * @throws ArithmeticException      if the amount has fractional cents or does not fit a long in cents
+     */
+    static long cents(ByteBuffer buffer, int offset) {
+        byte scale = buffer.get(offset + 8);
+        if (scale == NULL_SCALE) {
+            throw new IllegalArgumentException("Amount is missing");
+        }
+        long unscaled = buffer.getLong(offset);
+        int shift = 2 - scale;
+        if (shift >= 0 && shift < POWERS_OF_TEN.length) {
+            return Math.multiplyExact(unscaled, POWERS_OF_TEN[shift]);
+        }
+        if (shift < 0 && -shift < POWERS_OF_TEN.length) {
+            long divisor = POWERS_OF_TEN[-shift];
+            if (unscaled % divisor != 0) {
+                throw new ArithmeticException("Amount has fractional cents: " + BigDecimal.valueOf(unscaled, scale));
+            }
+            return unscaled / divisor;
+        }
+        return Money.toCents(BigDecimal.valueOf(unscaled, scale));
+    }
+
+    static String string(ByteBuffer buffer, int offset) {
+        int length = buffer.getInt(offset);
+        if (length < 0) {
+            return null;
+        }
+        if (buffer.hasArray()) {
+            return new String(buffer.array(), buffer.arrayOffset() + offset + 4, length, StandardCharsets.UTF_8);
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(offset + 4, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the offset just past the string at the offset.
+     */
+    static int skipString(ByteBuffer buffer, int offset) {
+        return offset + 4 + Math.max(buffer.getInt(offset), 0);
+    }
+}
@@ -0,0 +1,174 @@
+package com.github.timtebeek.orders;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Detects replayed orders by order ID, for example as {@code orders.filter(deduplicator::markSeen)}.
+ * <p>
+ * Every ID is first checked against a scalable Bloom filter, which answers most first sightings without further
+ * work. Only when the filter reports a possible match is the ID looked up in an exact set, which keeps the ID bytes
+ * outside the heap, so a false positive never drops an order and heap use does not grow with the number of IDs.
+ * Both structures can be saved to a file and loaded back after a restart.
+ * <p>
+ * The exact set lives in direct buffers, limited by {@code -XX:MaxDirectMemorySize}; deduplicating hundreds of
+ * millions of IDs needs that limit raised above its default of the maximum heap size.
+ */
+public final class OrderDeduplicator {
+
+    public static final long DEFAULT_EXPECTED_ORDERS = 1_000_000;
+    public static final double DEFAULT_FALSE_POSITIVE_RATE = 0.01;
+
+    private static final int MAGIC = 0x4F524444;
+    private static final int VERSION = 1;
+
+    private final ScalableBloomFilter filter;
+    private final OffHeapStringSet seen;
+    private final LongAdder filterRejections = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+    private final LongAdder duplicates = new LongAdder();
+
+    public OrderDeduplicator() {
+        this(DEFAULT_EXPECTED_ORDERS, DEFAULT_FALSE_POSITIVE_RATE);
+    }
+
+    /**
+     * @param expectedOrders    number of IDs the filter is sized for up front; it grows beyond this as needed
+     * @param falsePositiveRate target false positive rate of the filter as a whole, trading memory for exact lookups
+     * @throws IllegalArgumentException if the number is not positive or the rate is not between 0 and 1
+     */
+    public OrderDeduplicator(long expectedOrders, double falsePositiveRate) {
+        this(new ScalableBloomFilter(expectedOrders, falsePositiveRate), new OffHeapStringSet());
+    }
+
+    private OrderDeduplicator(ScalableBloomFilter filter, OffHeapStringSet seen) {
+        this.filter = filter;
+        this.seen = seen;
+    }
+
+    /**
+     * Records the order's ID, returning {@code true} the first time it is seen and {@code false} for a replay.
+     *
+     * @throws IllegalArgumentException if the order has no ID
+     */
+    public boolean markSeen(Order order) {
+        return markSeen(order.getOrderId());
+    }
+
+    /**
+     * @throws IllegalArgumentException if the ID is {@code null}
+     */
+    public synchronized boolean markSeen(String orderId) {
+        if (orderId == null) {
+            throw new IllegalArgumentException("Order ID is required");
+        }
+        long hash1 = Hashing.hash(orderId);
+        long hash2 = Hashing.step(hash1);
+        byte[] key = orderId.getBytes(StandardCharsets.UTF_8);
+        if (!filter.mightContain(hash1, hash2)) {
+            filterRejections.increment();
+            filter.put(hash1, hash2);
+            seen.insertAbsent(key, hash1);
+            return true;
+        }
+        if (seen.add(key, hash1)) {
+            falsePositives.increment();
+            return true;
+        }
+        duplicates.increment();
+        return false;
+    }
+
+    public synchronized boolean contains(String orderId) {
+        if (orderId == null) {
+            return false;
+        }
+        long hash1 = Hashing.hash(orderId);
+        return filter.mightContain(hash1, Hashing.step(hash1))
+                && seen.contains(orderId.getBytes(StandardCharsets.UTF_8), hash1);
+    }
+
+    /**
+     * Number of distinct order IDs seen.
+     */
+    public synchronized long size() {
+        return seen.size();
+    }
+
+    /**
+     * Number of new IDs the Bloom filter ruled out without an exact lookup.
+     */
+    public long getFilterRejections() {
+        return filterRejections.sum();
+    }
+
+    /**
+     * Number of new IDs the Bloom filter reported as possibly seen, which the exact lookup then cleared.
+     */
+    public long getFalsePositives() {
+        return falsePositives.sum();
+    }
+
+    /**
+     * Number of replayed IDs detected.
+     */
+    public long getDuplicates() {
+        return duplicates.sum();
+    }
+
+    public double getFalsePositiveRate() {
+        return filter.getFalsePositiveRate();
+    }
+
+    /**
+     * Size of the Bloom filter in bits.
+     */
+    public synchronized long getFilterBits() {
+        return filter.bitSize();
+    }
+
+    /**
+     * Writes the filter and the seen IDs to the file, replacing it only once fully written.
+     * Counters are not saved.
+     */
+    public synchronized void save(Path file) throws IOException {
+        Path temp = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                filter.writeTo(out);
+                seen.writeTo(out);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Restores a deduplicator written by {@link #save(Path)}.
+     *
+     * @throws IOException if the file is not a saved deduplicator
+     */
+    public static OrderDeduplicator load(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(file + " is not a saved order deduplicator");
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported deduplicator version " + version + " in " + file);
+            }
+            return new OrderDeduplicator(ScalableBloomFilter.readFrom(in), OffHeapStringSet.readFrom(in));
+        }
+    }
+}
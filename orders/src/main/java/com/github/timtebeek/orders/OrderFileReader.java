@@ -0,0 +1,397 @@
+package com.github.timtebeek.orders;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Streams orders from a memory-mapped CSV file, mapping a bounded window of the file at a time.
+ * <p>
+ * Each line holds one order item, with the order columns repeated on every line:
+ * <pre>
+ * orderId,customerId,orderDate,status,subtotal,tax,shippingCost,discount,total,productId,productName,category,quantity,unitPrice,lineTotal
+ * </pre>
+ * Consecutive lines with the same order ID form a single {@link Order}. Empty fields are read as {@code null},
+ * an order without items leaves the item columns empty, and fields may be double-quoted to contain commas.
+ * A leading header line starting with {@code orderId} is skipped.
+ * <p>
+ * Item products are interned in a {@link ProductCatalog}, so repeated products share their strings.
+ */
+public class OrderFileReader implements Closeable {
+
+    static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+
+    private static final int COLUMNS = 15;
+    private static final byte[] HEADER_PREFIX = "orderId".getBytes(StandardCharsets.US_ASCII);
+
+    private final FileChannel channel;
+    private final long fileSize;
+    private final int windowSize;
+    private final IngestThroughput throughput;
+    private final ProductCatalog catalog;
+
+    private MappedByteBuffer window;
+    private long windowStart;
+    private int windowPosition;
+    private long lineNumber;
+
+    private byte[] line = new byte[512];
+    private int lineLength;
+    private final int[] fieldStart = new int[COLUMNS];
+    private final int[] fieldEnd = new int[COLUMNS];
+
+    private PendingOrder pending;
+
+    public OrderFileReader(Path file) throws IOException {
+        this(file, DEFAULT_WINDOW_SIZE, new IngestThroughput());
+    }
+
+    public OrderFileReader(Path file, IngestThroughput throughput) throws IOException {
+        this(file, DEFAULT_WINDOW_SIZE, throughput);
+    }
+
+    /**
+     * Creates a reader interning products in the given catalog, which may be shared across readers.
+     */
+    public OrderFileReader(Path file, ProductCatalog catalog) throws IOException {
+        this(file, DEFAULT_WINDOW_SIZE, new IngestThroughput(), catalog);
+    }
+
+    OrderFileReader(Path file, int windowSize, IngestThroughput throughput) throws IOException {
+        this(file, windowSize, throughput, new ProductCatalog());
+    }
+
+    OrderFileReader(Path file, int windowSize, IngestThroughput throughput, ProductCatalog catalog)
+            throws IOException {
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("Window size must be positive");
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.fileSize = channel.size();
+        this.windowSize = windowSize;
+        this.throughput = throughput;
+        this.catalog = catalog;
+    }
+
+    public IngestThroughput getThroughput() {
+        return throughput;
+    }
+
+    public ProductCatalog getCatalog() {
+        return catalog;
+    }
+
+    /**
+     * Reads the next order, or returns {@code null} at the end of the file.
+     */
+    public Order next() throws IOException {
+        while (nextLine()) {
+            if (lineLength == 0 || (lineNumber == 1 && startsWith(HEADER_PREFIX))) {
+                continue;
+            }
+            splitFields();
+            if (pending != null && !pending.hasOrderId(line, fieldStart[0], fieldEnd[0])) {
+                Order order = pending.toOrder();
+                pending = new PendingOrder(this);
+                pending.addItem(this);
+                return emit(order);
+            }
+            if (pending == null) {
+                pending = new PendingOrder(this);
+            }
+            pending.addItem(this);
+        }
+        if (pending != null) {
+            Order order = pending.toOrder();
+            pending = null;
+            return emit(order);
+        }
+        return null;
+    }
+
+    private Order emit(Order order) {
+        throughput.recordOrder();
+        return order;
+    }
+
+    /**
+     * Clears the chunk and fills it with up to {@code maxOrders} orders, returning the number read.
+     */
+    public int readChunk(List<Order> chunk, int maxOrders) throws IOException {
+        chunk.clear();
+        Order order;
+        while (chunk.size() < maxOrders && (order = next()) != null) {
+            chunk.add(order);
+        }
+        return chunk.size();
+    }
+
+    /**
+     * Passes the orders in the file to the consumer in chunks of at most {@code chunkSize} orders.
+     * The same list is reused for every chunk, so consumers should not hold on to it.
+     */
+    public void forEachChunk(int chunkSize, Consumer<List<Order>> consumer) throws IOException {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        List<Order> chunk = new ArrayList<>(chunkSize);
+        while (readChunk(chunk, chunkSize) > 0) {
+            consumer.accept(chunk);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+    }
+
+    /**
+     * Copies the next line into the line buffer, remapping the window when a line crosses its end.
+     */
+    private boolean nextLine() throws IOException {
+        if (window == null) {
+            if (fileSize == 0) {
+                return false;
+            }
+            map(0);
+        }
+        while (true) {
+            int limit = window.limit();
+            if (windowPosition >= limit && windowStart + limit >= fileSize) {
+                return false;
+            }
+            int end = windowPosition;
+            while (end < limit && window.get(end) != '\n') {
+                end++;
+            }
+            boolean endOfFile = windowStart + end >= fileSize;
+            if (end == limit && !endOfFile) {
+                if (windowPosition == 0) {
+                    throw new IOException("Line " + (lineNumber + 1) + " exceeds the window size of " + windowSize + " bytes");
+                }
+                map(windowStart + windowPosition);
+                continue;
+            }
+            int length = end - windowPosition;
+            if (line.length < length) {
+                line = new byte[Math.max(length, line.length * 2)];
+            }
+            window.get(windowPosition, line, 0, length);
+            lineLength = length > 0 && line[length - 1] == '\r' ? length - 1 : length;
+            int consumed = Math.min(length + 1, limit - windowPosition);
+            windowPosition += consumed;
+            lineNumber++;
+            throughput.recordBytes(consumed);
+            return true;
+        }
+    }
+
+    private void map(long position) throws IOException {
+        long size = Math.min(windowSize, fileSize - position);
+        window = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+        windowStart = position;
+        windowPosition = 0;
+    }
+
+    private boolean startsWith(byte[] prefix) {
+        return lineLength >= prefix.length && Arrays.equals(line, 0, prefix.length, prefix, 0, prefix.length);
+    }
+
+    /**
+     * Records the bounds of each field in the line buffer, unquoting quoted fields in place.
+     */
+    private void splitFields() throws IOException {
+        int position = 0;
+        for (int column = 0; column < COLUMNS; column++) {
+            if (position > lineLength) {
+                throw new IOException("Line " + lineNumber + " has " + column + " columns, expected " + COLUMNS);
+            }
+            if (position < lineLength && line[position] == '"') {
+                int write = position;
+                int read = position + 1;
+                fieldStart[column] = write;
+                while (true) {
+                    if (read >= lineLength) {
+                        throw new IOException("Line " + lineNumber + " has an unterminated quoted field");
+                    }
+                    if (line[read] == '"') {
+                        if (read + 1 < lineLength && line[read + 1] == '"') {
+                            line[write++] = '"';
+                            read += 2;
+                            continue;
+                        }
+                        read++;
+                        break;
+                    }
+                    line[write++] = line[read++];
+                }
+                fieldEnd[column] = write;
+                position = read;
+            } else {
+                fieldStart[column] = position;
+                while (position < lineLength && line[position] != ',') {
+                    position++;
+                }
+                fieldEnd[column] = position;
+            }
+            if (position < lineLength && line[position] != ',') {
+                throw new IOException("Line " + lineNumber + " has unexpected content after column " + (column + 1));
+            }
+            position++;
+        }
+        if (position <= lineLength) {
+            throw new IOException("Line " + lineNumber + " has more than " + COLUMNS + " columns");
+        }
+    }
+
+    private boolean isEmpty(int column) {
+        return fieldStart[column] == fieldEnd[column];
+    }
+
+    String string(int column) {
+        if (isEmpty(column)) {
+            return null;
+        }
+        return new String(line, fieldStart[column], fieldEnd[column] - fieldStart[column], StandardCharsets.UTF_8);
+    }
+
+    LocalDate date(int column) throws IOException {
+        if (isEmpty(column)) {
+            return null;
+        }
+        int start = fieldStart[column];
+        if (fieldEnd[column] - start != 10 || line[start + 4] != '-' || line[start + 7] != '-') {
+            throw new IOException("Line " + lineNumber + " has an invalid date in column " + (column + 1));
+        }
+        try {
+            return LocalDate.of(digits(column, start, 4), digits(column, start + 5, 2), digits(column, start + 8, 2));
+        } catch (DateTimeException e) {
+            throw new IOException("Line " + lineNumber + " has an invalid date in column " + (column + 1), e);
+        }
+    }
+
+    int integer(int column) throws IOException {
+        if (isEmpty(column)) {
+            return 0;
+        }
+        int start = fieldStart[column];
+        boolean negative = line[start] == '-';
+        int value = digits(column, negative ? start + 1 : start, fieldEnd[column] - start - (negative ? 1 : 0));
+        return negative ? -value : value;
+    }
+
+    private int digits(int column, int start, int count) throws IOException {
+        if (count <= 0 || count > 9) {
+            throw new IOException("Line " + lineNumber + " has an invalid number in column " + (column + 1));
+        }
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            int digit = line[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw new IOException("Line " + lineNumber + " has an invalid number in column " + (column + 1));
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    /**
+     * Parses a plain decimal such as {@code -12.50} without creating an intermediate string.
+     */
+    BigDecimal decimal(int column) throws IOException {
+        if (isEmpty(column)) {
+            return null;
+        }
+        int start = fieldStart[column];
+        int end = fieldEnd[column];
+        boolean negative = line[start] == '-';
+        long unscaled = 0;
+        int scale = -1;
+        int digits = 0;
+        for (int i = negative ? start + 1 : start; i < end; i++) {
+            byte b = line[i];
+            if (b == '.' && scale < 0) {
+                scale = 0;
+                continue;
+            }
+            if (b < '0' || b > '9' || ++digits > 18) {
+                return parseDecimal(column);
+            }
+            unscaled = unscaled * 10 + (b - '0');
+            if (scale >= 0) {
+                scale++;
+            }
+        }
+        if (digits == 0) {
+            throw new IOException("Line " + lineNumber + " has an invalid decimal in column " + (column + 1));
+        }
+        return BigDecimal.valueOf(negative ? -unscaled : unscaled, Math.max(scale, 0));
+    }
+
+    private BigDecimal parseDecimal(int column) throws IOException {
+        try {
+            return new BigDecimal(string(column));
+        } catch (NumberFormatException e) {
+            throw new IOException("Line " + lineNumber + " has an invalid decimal in column " + (column + 1), e);
+        }
+    }
+
+    /**
+     * Order columns of the order currently being read, collecting items until the order ID changes.
+     */
+    private static class PendingOrder {
+        private final byte[] orderIdBytes;
+        private final String orderId;
+        private final String customerId;
+        private final LocalDate orderDate;
+        private final String status;
+        private final BigDecimal subtotal;
+        private final BigDecimal tax;
+        private final BigDecimal shippingCost;
+        private final BigDecimal discount;
+        private final BigDecimal total;
+        private final List<OrderItem> items = new ArrayList<>(4);
+
+        PendingOrder(OrderFileReader reader) throws IOException {
+            this.orderIdBytes = Arrays.copyOfRange(reader.line, reader.fieldStart[0], reader.fieldEnd[0]);
+            this.orderId = reader.string(0);
+            this.customerId = reader.string(1);
+            this.orderDate = reader.date(2);
+            this.status = reader.string(3);
+            this.subtotal = reader.decimal(4);
+            this.tax = reader.decimal(5);
+            this.shippingCost = reader.decimal(6);
+            this.discount = reader.decimal(7);
+            this.total = reader.decimal(8);
+        }
+
+        boolean hasOrderId(byte[] line, int start, int end) {
+            return Arrays.equals(orderIdBytes, 0, orderIdBytes.length, line, start, end);
+        }
+
+        void addItem(OrderFileReader reader) throws IOException {
+            if (reader.isEmpty(9)) {
+                return;
+            }
+            items.add(reader.catalog.item(reader.string(9), reader.string(10), reader.string(11),
+                    reader.integer(12), reader.decimal(13), reader.decimal(14)));
+        }
+
+        Order toOrder() {
+            return new Order(orderId, customerId, orderDate, status, items,
+                    subtotal, tax, shippingCost, discount, total);
+        }
+    }
+}
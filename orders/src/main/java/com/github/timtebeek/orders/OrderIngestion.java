@@ -0,0 +1,64 @@
+package com.github.timtebeek.orders;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Feeds orders streamed by an {@link OrderFileReader} through the {@link OrderValidator} and
+ * {@link DiscountCalculator} chunk by chunk, so memory use does not grow with the size of the file.
+ */
+public class OrderIngestion {
+
+    public static final int DEFAULT_CHUNK_SIZE = 10_000;
+
+    private final OrderValidator validator;
+    private final DiscountCalculator calculator;
+    private final Function<String, Customer> customers;
+
+    /**
+     * @param customers looks up the customer for a customer ID, returning {@code null} when unknown
+     */
+    public OrderIngestion(OrderValidator validator, DiscountCalculator calculator, Function<String, Customer> customers) {
+        this.validator = validator;
+        this.calculator = calculator;
+        this.customers = customers;
+    }
+
+    public IngestionSummary ingest(OrderFileReader reader, BiConsumer<Order, BigDecimal> pricedOrders) throws IOException {
+        return ingest(reader, DEFAULT_CHUNK_SIZE, pricedOrders);
+    }
+
+    /**
+     * Validates every order in the file and prices the valid orders of known customers with a subtotal,
+     * passing each priced order with its total discount to {@code pricedOrders}.
+     */
+    public IngestionSummary ingest(OrderFileReader reader, int chunkSize, BiConsumer<Order, BigDecimal> pricedOrders)
+            throws IOException {
+        IngestionSummary.Accumulator summary = new IngestionSummary.Accumulator(reader.getThroughput());
+        reader.forEachChunk(chunkSize, chunk -> process(chunk, summary, pricedOrders));
+        return summary.toSummary();
+    }
+
+    private void process(List<Order> chunk, IngestionSummary.Accumulator summary, BiConsumer<Order, BigDecimal> pricedOrders) {
+        for (Order order : chunk) {
+            int failures = validator.failures(order);
+            summary.validation.add(order, failures);
+            if (failures != 0) {
+                continue;
+            }
+            Customer customer = customers.apply(order.getCustomerId());
+            BigDecimal subtotal = order.getSubtotal();
+            if (customer == null || subtotal == null || subtotal.signum() < 0) {
+                summary.unpricedOrders++;
+                continue;
+            }
+            BigDecimal discount = calculator.calculateTotalDiscount(customer, subtotal);
+            summary.pricedOrders++;
+            summary.totalDiscount = summary.totalDiscount.add(discount);
+            pricedOrders.accept(order, discount);
+        }
+    }
+}
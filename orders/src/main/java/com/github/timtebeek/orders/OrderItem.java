@@ -3,32 +3,42 @@ package com.github.timtebeek.orders;
 import java.math.BigDecimal;
 
 public class OrderItem {
-    private final String productId;
-    private final String productName;
-    private final String category;
+    private final Product product;
     private final int quantity;
     private final BigDecimal unitPrice;
     private final BigDecimal lineTotal;
 
     public OrderItem(String productId, String productName, String category, int quantity, BigDecimal unitPrice, BigDecimal lineTotal) {
-        this.productId = productId;
-        this.productName = productName;
-        this.category = category;
+        this(new Product(Product.UNCATALOGED, productId, productName, category), quantity, unitPrice, lineTotal);
+    }
+
+    /**
+     * Creates an item referencing shared product data, usually interned by a {@link ProductCatalog}.
+     */
+    public OrderItem(Product product, int quantity, BigDecimal unitPrice, BigDecimal lineTotal) {
+        if (product == null) {
+            throw new IllegalArgumentException("Product cannot be null");
+        }
+        this.product = product;
         this.quantity = quantity;
         this.unitPrice = unitPrice;
         this.lineTotal = lineTotal;
     }
 
+    public Product getProduct() {
+        return product;
+    }
+
     public String getProductId() {
-        return productId;
+        return product.getProductId();
     }
 
     public String getProductName() {
-        return productName;
+        return product.getProductName();
     }
 
     public String getCategory() {
-        return category;
+        return product.getCategory();
     }
 
     public int getQuantity() {
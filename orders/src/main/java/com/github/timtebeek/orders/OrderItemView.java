@@ -0,0 +1,68 @@
+package com.github.timtebeek.orders;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+
+import static com.github.timtebeek.orders.OrderCodec.*;
+
+/**
+ * Flyweight over an item of an order message, positioned by {@link OrderView#getItem(int, OrderItemView)}.
+ */
+public final class OrderItemView {
+
+    private ByteBuffer buffer;
+    private int offset;
+
+    OrderItemView wrap(ByteBuffer buffer, int offset) {
+        this.buffer = buffer;
+        this.offset = offset;
+        return this;
+    }
+
+    public int getQuantity() {
+        return buffer.getInt(offset + ITEM_QUANTITY);
+    }
+
+    public BigDecimal getUnitPrice() {
+        return amount(buffer, offset + ITEM_UNIT_PRICE);
+    }
+
+    public BigDecimal getLineTotal() {
+        return amount(buffer, offset + ITEM_LINE_TOTAL);
+    }
+
+    /**
+     * Reads the line total in cents without allocating.
+     *
+     * @throws IllegalArgumentException if the line total is missing
+     * @throws ArithmeticException      if the line total has fractional cents
+     */
+    public long getLineTotalCents() {
+        return cents(buffer, offset + ITEM_LINE_TOTAL);
+    }
+
+    public String getProductId() {
+        return string(buffer, offset + ITEM_STRINGS);
+    }
+
+    public String getProductName() {
+        return string(buffer, skipString(buffer, offset + ITEM_STRINGS));
+    }
+
+    public String getCategory() {
+        return string(buffer, skipString(buffer, skipString(buffer, offset + ITEM_STRINGS)));
+    }
+
+    public OrderItem toOrderItem() {
+        return new OrderItem(getProductId(), getProductName(), getCategory(), getQuantity(),
+                getUnitPrice(), getLineTotal());
+    }
+
+    /**
+     * Creates the item with its product interned in the catalog.
+     */
+    public OrderItem toOrderItem(ProductCatalog catalog) {
+        return catalog.item(getProductId(), getProductName(), getCategory(), getQuantity(),
+                getUnitPrice(), getLineTotal());
+    }
+}
@@ -0,0 +1,637 @@
+package com.github.timtebeek.orders;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Durable, append-only journal of order events, with the orders it describes kept in memory.
+ * <p>
+ * Events are appended to memory-mapped segment files of a fixed size as records of a length, a CRC32C checksum,
+ * a sequence number, an event type and a payload; created orders are stored as {@link OrderCodec} messages.
+ * An append returns once its record is flushed to disk. Appends from concurrent threads share flushes: while one
+ * thread flushes, others keep appending, and the next flush covers all of them.
+ * <p>
+ * {@link #snapshot()} writes all orders to a snapshot file and deletes the segments it covers, so opening a
+ * journal loads the latest snapshot and replays only the events appended after it. Replay stops at the first
+ * torn or corrupt record, which is then overwritten by the next append.
+ * <p>
+ * Orders returned by the journal should only change status through it, so the journal stays in step.
+ */
+public final class OrderJournal implements AutoCloseable {
+
+    /**
+     * Kinds of journaled events.
+     */
+    public enum EventType {
+        CREATED,
+        STATUS_CHANGED,
+        CANCELLED
+    }
+
+    public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+    public static final long DEFAULT_SNAPSHOT_INTERVAL = 1_000_000;
+
+    static final int RECORD_LENGTH = 0;
+    static final int RECORD_CRC = 4;
+    static final int RECORD_SEQUENCE = 8;
+    static final int RECORD_TYPE = 16;
+    static final int RECORD_HEADER_SIZE = 17;
+
+    private static final EventType[] EVENT_TYPES = EventType.values();
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final String SNAPSHOT_SUFFIX = ".snapshot";
+    private static final int SNAPSHOT_MAGIC = 0x4F524A53;
+    private static final int SNAPSHOT_VERSION = 1;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final long snapshotInterval;
+    private final Runnable beforeFlush;
+    private final Map<String, Order> orders = new ConcurrentHashMap<>();
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final Object flushLock = new Object();
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+    private final CRC32C crc = new CRC32C();
+    private final LongAdder flushes = new LongAdder();
+    private final long recoveredEvents;
+    private Segment segment;
+    private long sequence;
+    private volatile long durableSequence;
+    private volatile long snapshotSequence;
+    private volatile long nextSnapshotSequence;
+    private volatile IOException snapshotFailure;
+    private volatile boolean closed;
+
+    private OrderJournal(Builder builder) throws IOException {
+        this.directory = builder.directory;
+        this.segmentSize = builder.segmentSize;
+        this.snapshotInterval = builder.snapshotInterval;
+        this.beforeFlush = builder.beforeFlush;
+        Files.createDirectories(directory);
+        this.snapshotSequence = loadSnapshot();
+        this.sequence = snapshotSequence;
+        this.nextSnapshotSequence = nextSnapshotAfter(snapshotSequence);
+        long replayed = 0;
+        List<Path> segments = files(SEGMENT_SUFFIX);
+        for (int i = 0; i < segments.size(); i++) {
+            Segment replaying = Segment.open(segments.get(i), segmentSize);
+            replayed += replay(replaying);
+            if (i < segments.size() - 1) {
+                replaying.close();
+            } else {
+                segment = replaying;
+            }
+        }
+        if (segment == null) {
+            segment = Segment.create(directory, sequence + 1, segmentSize);
+        }
+        this.recoveredEvents = replayed;
+        this.durableSequence = sequence;
+    }
+
+    public static Builder builder(Path directory) {
+        return new Builder(directory);
+    }
+
+    /**
+     * Opens the journal in the directory with default settings, recovering the orders it holds.
+     */
+    public static OrderJournal open(Path directory) throws IOException {
+        return builder(directory).open();
+    }
+
+    /**
+     * Journals a new order.
+     *
+     * @return the sequence number of the event
+     * @throws IllegalArgumentException if the order has no ID, or an order with the ID was already journaled
+     */
+    public long orderCreated(Order order) {
+        if (order == null || order.getOrderId() == null) {
+            throw new IllegalArgumentException("Order and order ID cannot be null");
+        }
+        int payloadSize = OrderCodec.encodedSize(order);
+        return append(EventType.CREATED, payloadSize, buffer -> {
+            if (orders.containsKey(order.getOrderId())) {
+                throw new IllegalArgumentException("Order " + order.getOrderId() + " was already journaled");
+            }
+            OrderCodec.encode(order, buffer);
+            orders.put(order.getOrderId(), order);
+        });
+    }
+
+    /**
+     * Journals a status change of a journaled order, and applies it.
+     *
+     * @return the sequence number of the event
+     * @throws IllegalArgumentException if the order is unknown, the transition is not allowed, or the order is no
+     *                                  longer in the expected status
+     */
+    public long statusChanged(String orderId, OrderStatus expected, OrderStatus next) {
+        if (next == OrderStatus.CANCELLED) {
+            return orderCancelled(orderId, expected);
+        }
+        return transition(EventType.STATUS_CHANGED, orderId, expected, next);
+    }
+
+    /**
+     * Journals the cancellation of a journaled order, and applies it.
+     *
+     * @return the sequence number of the event
+     * @throws IllegalArgumentException if the order is unknown, or cannot be cancelled from the expected status
+     */
+    public long orderCancelled(String orderId, OrderStatus expected) {
+        return transition(EventType.CANCELLED, orderId, expected, OrderStatus.CANCELLED);
+    }
+
+    private long transition(EventType type, String orderId, OrderStatus expected, OrderStatus next) {
+        if (orderId == null || expected == null || next == null) {
+            throw new IllegalArgumentException("Order ID and statuses cannot be null");
+        }
+        if (!expected.canTransitionTo(next)) {
+            throw new IllegalArgumentException("Order cannot move from " + expected + " to " + next);
+        }
+        int payloadSize = 2 + OrderCodec.stringSize(orderId);
+        return append(type, payloadSize, buffer -> {
+            Order order = orders.get(orderId);
+            if (order == null || order.getOrderStatus() != expected) {
+                throw new IllegalArgumentException("Order " + orderId + " is not journaled with status " + expected);
+            }
+            buffer.put(expected.code()).put(next.code());
+            OrderCodec.putString(buffer, orderId);
+            order.transitionStatus(expected, next);
+        });
+    }
+
+    /**
+     * Writes the record and applies the event under the append lock, then waits for the record to be flushed.
+     */
+    private long append(EventType type, int payloadSize, PayloadWriter writer) {
+        int recordSize = RECORD_HEADER_SIZE + payloadSize;
+        if (recordSize > segmentSize - 4) {
+            throw new IllegalArgumentException("Event of " + recordSize + " bytes exceeds the segment size of " + segmentSize);
+        }
+        long appended;
+        appendLock.lock();
+        try {
+            checkOpen();
+            if (segment.position + recordSize > segmentSize - 4) {
+                roll();
+            }
+            ByteBuffer buffer = segment.buffer;
+            int start = segment.position;
+            buffer.position(start + RECORD_HEADER_SIZE);
+            try {
+                writer.write(buffer);
+            } catch (RuntimeException e) {
+                clear(buffer, start, start + recordSize);
+                throw e;
+            }
+            appended = sequence + 1;
+            buffer.putLong(start + RECORD_SEQUENCE, appended);
+            buffer.put(start + RECORD_TYPE, (byte) type.ordinal());
+            buffer.putInt(start + RECORD_CRC, checksum(buffer, start, recordSize));
+            buffer.putInt(start + RECORD_LENGTH, recordSize);
+            segment.position = start + recordSize;
+            sequence = appended;
+        } finally {
+            appendLock.unlock();
+        }
+        awaitDurable(appended);
+        if (appended >= nextSnapshotSequence && snapshotLock.tryLock()) {
+            try {
+                if (appended >= nextSnapshotSequence && !closed) {
+                    snapshot();
+                }
+            } catch (IOException e) {
+                snapshotFailed(appended, e);
+            } catch (UncheckedIOException e) {
+                snapshotFailed(appended, e.getCause());
+            } finally {
+                snapshotLock.unlock();
+            }
+        }
+        return appended;
+    }
+
+    /**
+     * Flushes everything appended so far unless another flush already covered the sequence number.
+     */
+    private void awaitDurable(long appended) {
+        if (durableSequence >= appended) {
+            return;
+        }
+        synchronized (flushLock) {
+            if (durableSequence >= appended) {
+                return;
+            }
+            beforeFlush.run();
+            Segment flushing;
+            long target;
+            appendLock.lock();
+            try {
+                flushing = segment;
+                target = sequence;
+            } finally {
+                appendLock.unlock();
+            }
+            flushing.buffer.force();
+            flushes.increment();
+            durableSequence = target;
+        }
+    }
+
+    /**
+     * Flushes and closes the current segment and starts a new one with the next sequence number.
+     */
+    private void roll() {
+        try {
+            segment.buffer.force();
+            segment.close();
+            segment = Segment.create(directory, sequence + 1, segmentSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private int checksum(ByteBuffer buffer, int start, int recordSize) {
+        crc.reset();
+        crc.update(buffer.duplicate().limit(start + recordSize).position(start + RECORD_SEQUENCE));
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Writes all orders to a new snapshot, then deletes the older snapshot and the segments it covers.
+     * Appends wait while the orders are copied, not while the snapshot is written.
+     */
+    public void snapshot() throws IOException {
+        snapshotLock.lock();
+        try {
+            long covered;
+            List<ByteBuffer> messages = new ArrayList<>(orders.size());
+            List<Path> obsolete;
+            appendLock.lock();
+            try {
+                checkOpen();
+                covered = sequence;
+                for (Order order : orders.values()) {
+                    messages.add(OrderCodec.encode(order));
+                }
+                roll();
+                obsolete = new ArrayList<>(files(SEGMENT_SUFFIX));
+                obsolete.remove(segment.path);
+            } finally {
+                appendLock.unlock();
+            }
+            writeSnapshot(covered, messages);
+            obsolete.addAll(files(SNAPSHOT_SUFFIX));
+            obsolete.remove(file(covered, SNAPSHOT_SUFFIX));
+            for (Path path : obsolete) {
+                Files.deleteIfExists(path);
+            }
+            snapshotSequence = covered;
+            nextSnapshotSequence = nextSnapshotAfter(covered);
+            snapshotFailure = null;
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    /**
+     * Records the failure instead of throwing it, as the event that triggered the snapshot is already durable and
+     * a caller retrying it would append it twice.
+     */
+    private void snapshotFailed(long appended, IOException failure) {
+        snapshotFailure = failure;
+        nextSnapshotSequence = nextSnapshotAfter(appended);
+    }
+
+    private long nextSnapshotAfter(long covered) {
+        return covered > Long.MAX_VALUE - snapshotInterval ? Long.MAX_VALUE : covered + snapshotInterval;
+    }
+
+    private void writeSnapshot(long covered, List<ByteBuffer> messages) throws IOException {
+        Path target = file(covered, SNAPSHOT_SUFFIX);
+        Path temp = Files.createTempFile(directory, target.getFileName().toString(), ".tmp");
+        try {
+            CRC32C checksum = new CRC32C();
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                         Channels.newOutputStream(channel), 1 << 16))) {
+                out.writeInt(SNAPSHOT_MAGIC);
+                out.writeInt(SNAPSHOT_VERSION);
+                out.writeLong(covered);
+                out.writeInt(messages.size());
+                for (ByteBuffer message : messages) {
+                    checksum.update(message.duplicate());
+                    out.write(message.array(), message.arrayOffset(), message.remaining());
+                }
+                out.writeInt((int) checksum.getValue());
+                out.flush();
+                channel.force(true);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Loads the latest snapshot into the orders, returning the sequence number it covers, or zero without one.
+     */
+    private long loadSnapshot() throws IOException {
+        List<Path> snapshots = files(SNAPSHOT_SUFFIX);
+        if (snapshots.isEmpty()) {
+            return 0;
+        }
+        Path file = snapshots.get(snapshots.size() - 1);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+                throw new IOException(file + " is not a supported order journal snapshot");
+            }
+            long covered = in.readLong();
+            int count = in.readInt();
+            CRC32C checksum = new CRC32C();
+            byte[] header = new byte[OrderCodec.HEADER_SIZE];
+            for (int i = 0; i < count; i++) {
+                in.readFully(header);
+                int length = ByteBuffer.wrap(header).getInt(OrderCodec.LENGTH);
+                if (length < OrderCodec.HEADER_SIZE) {
+                    throw new IOException("Snapshot " + file + " is corrupt");
+                }
+                byte[] message = new byte[length];
+                System.arraycopy(header, 0, message, 0, header.length);
+                in.readFully(message, header.length, length - header.length);
+                checksum.update(message);
+                Order order = OrderCodec.decodeOrder(ByteBuffer.wrap(message));
+                orders.put(order.getOrderId(), order);
+            }
+            if (in.readInt() != (int) checksum.getValue()) {
+                throw new IOException("Snapshot " + file + " is corrupt");
+            }
+            return covered;
+        }
+    }
+
+    /**
+     * Applies the valid records of the segment that follow the current sequence number, and positions the
+     * segment after the last of them, clearing anything beyond so it cannot be mistaken for a record later.
+     */
+    private long replay(Segment replaying) {
+        ByteBuffer buffer = replaying.buffer;
+        int position = 0;
+        long replayed = 0;
+        while (position + RECORD_HEADER_SIZE <= segmentSize) {
+            int length = buffer.getInt(position + RECORD_LENGTH);
+            if (length < RECORD_HEADER_SIZE || length > segmentSize - position
+                    || buffer.getInt(position + RECORD_CRC) != checksum(buffer, position, length)) {
+                break;
+            }
+            long recordSequence = buffer.getLong(position + RECORD_SEQUENCE);
+            if (recordSequence > sequence + 1) {
+                throw new IllegalStateException("Journal is missing events " + (sequence + 1) + " to " + (recordSequence - 1));
+            }
+            if (recordSequence == sequence + 1) {
+                apply(buffer, position, length);
+                sequence = recordSequence;
+                replayed++;
+            }
+            position += length;
+        }
+        clear(buffer, position, segmentSize);
+        replaying.position = position;
+        return replayed;
+    }
+
+    private static void clear(ByteBuffer buffer, int from, int to) {
+        int i = from;
+        for (; i < to && i % 8 != 0; i++) {
+            buffer.put(i, (byte) 0);
+        }
+        for (; i + 8 <= to; i += 8) {
+            if (buffer.getLong(i) != 0) {
+                buffer.putLong(i, 0);
+            }
+        }
+        for (; i < to; i++) {
+            buffer.put(i, (byte) 0);
+        }
+    }
+
+    private void apply(ByteBuffer buffer, int position, int length) {
+        int payload = position + RECORD_HEADER_SIZE;
+        EventType type = EVENT_TYPES[buffer.get(position + RECORD_TYPE)];
+        if (type == EventType.CREATED) {
+            Order order = OrderCodec.decodeOrder(buffer.duplicate().limit(position + length).position(payload));
+            orders.put(order.getOrderId(), order);
+            return;
+        }
+        OrderStatus expected = OrderStatus.fromCode(buffer.get(payload));
+        OrderStatus next = OrderStatus.fromCode(buffer.get(payload + 1));
+        String orderId = OrderCodec.string(buffer, payload + 2);
+        Order order = orders.get(orderId);
+        if (order == null || !order.transitionStatus(expected, next)) {
+            throw new IllegalStateException("Journal cannot apply " + type + " of order " + orderId);
+        }
+    }
+
+    private List<Path> files(String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(suffix))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path file(long firstSequence, String suffix) {
+        return file(directory, firstSequence, suffix);
+    }
+
+    private static Path file(Path directory, long firstSequence, String suffix) {
+        return directory.resolve(String.format("%020d%s", firstSequence, suffix));
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Journal is closed");
+        }
+    }
+
+    public Optional<Order> get(String orderId) {
+        return Optional.ofNullable(orders.get(orderId));
+    }
+
+    /**
+     * Returns a live, read-only view of the journaled orders.
+     */
+    public Collection<Order> getOrders() {
+        return Collections.unmodifiableCollection(orders.values());
+    }
+
+    public int size() {
+        return orders.size();
+    }
+
+    /**
+     * Sequence number of the last appended event.
+     */
+    public long getSequence() {
+        appendLock.lock();
+        try {
+            return sequence;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Sequence number of the last event covered by a snapshot, or zero before the first snapshot.
+     */
+    public long getSnapshotSequence() {
+        return snapshotSequence;
+    }
+
+    /**
+     * Returns why the last automatic snapshot failed, unless a snapshot has succeeded since. Appends never fail
+     * because of an automatic snapshot; a failed one is retried once another snapshot interval of events was
+     * appended.
+     */
+    public Optional<IOException> getSnapshotFailure() {
+        return Optional.ofNullable(snapshotFailure);
+    }
+
+    /**
+     * Number of events replayed from segments when the journal was opened.
+     */
+    public long getRecoveredEvents() {
+        return recoveredEvents;
+    }
+
+    /**
+     * Number of flushes to disk; lower than the number of appends when concurrent appends share flushes.
+     */
+    public long getFlushes() {
+        return flushes.sum();
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (flushLock) {
+            appendLock.lock();
+            try {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                segment.buffer.force();
+                segment.close();
+            } finally {
+                appendLock.unlock();
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface PayloadWriter {
+        void write(ByteBuffer buffer);
+    }
+
+    private static final class Segment {
+        final Path path;
+        final FileChannel channel;
+        final MappedByteBuffer buffer;
+        int position;
+
+        private Segment(Path path, int size) throws IOException {
+            this.path = path;
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+
+        static Segment open(Path path, int size) throws IOException {
+            return new Segment(path, size);
+        }
+
+        static Segment create(Path directory, long firstSequence, int size) throws IOException {
+            return new Segment(file(directory, firstSequence, SEGMENT_SUFFIX), size);
+        }
+
+        void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    public static final class Builder {
+        private final Path directory;
+        private int segmentSize = DEFAULT_SEGMENT_SIZE;
+        private long snapshotInterval = DEFAULT_SNAPSHOT_INTERVAL;
+        private Runnable beforeFlush = () -> {
+        };
+
+        private Builder(Path directory) {
+            if (directory == null) {
+                throw new IllegalArgumentException("Directory cannot be null");
+            }
+            this.directory = directory;
+        }
+
+        /**
+         * Size of each segment file; events must fit a single segment. Existing segments keep their size, so
+         * reopen a journal with the size it was created with.
+         */
+        public Builder segmentSize(int segmentSize) {
+            if (segmentSize < 1024) {
+                throw new IllegalArgumentException("Segment size must be at least 1024 bytes");
+            }
+            this.segmentSize = segmentSize;
+            return this;
+        }
+
+        /**
+         * Number of events after which an appending thread takes a snapshot, retrying as many events later if it
+         * fails; {@link Long#MAX_VALUE} disables automatic snapshots.
+         */
+        public Builder snapshotInterval(long events) {
+            if (events <= 0) {
+                throw new IllegalArgumentException("Snapshot interval must be positive");
+            }
+            this.snapshotInterval = events;
+            return this;
+        }
+
+        /**
+         * Runs in the flushing thread before it decides which appends a flush covers.
+         */
+        Builder beforeFlush(Runnable beforeFlush) {
+            this.beforeFlush = beforeFlush;
+            return this;
+        }
+
+        public OrderJournal open() throws IOException {
+            return new OrderJournal(this);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.github.timtebeek.orders;
+
+/**
+ * Receives measurements from {@link OrderValidator} and {@link DiscountCalculator}.
+ * <p>
+ * Calls are made on the validating or pricing thread, so implementations must be thread-safe and cheap.
+ * Components skip timing altogether when given {@link #NOOP}, the default.
+ */
+public interface OrderMetrics {
+
+    /**
+     * Metrics that discard all measurements.
+     */
+    OrderMetrics NOOP = new OrderMetrics() {
+        @Override
+        public void orderValidated(int failureMask, long elapsedNanos) {
+        }
+
+        @Override
+        public void orderPriced(LoyaltyTier tier, long elapsedNanos) {
+        }
+    };
+
+    /**
+     * Called after validating an order.
+     *
+     * @param failureMask bits of the failed rules, see {@link ValidationRule#mask()}; zero for a valid order
+     */
+    void orderValidated(int failureMask, long elapsedNanos);
+
+    /**
+     * Called after calculating the total discount of an order.
+     *
+     * @param tier loyalty tier of the customer, {@link LoyaltyTier#NONE} when the customer has none
+     */
+    void orderPriced(LoyaltyTier tier, long elapsedNanos);
+}
@@ -0,0 +1,406 @@
+package com.github.timtebeek.orders;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Processes orders through the stages validate, price and finalize, each stage running its own workers and
+ * feeding the next through a bounded queue.
+ * <p>
+ * Workers run on virtual threads when the runtime supports them, so stages blocked on I/O, such as customer
+ * lookups while pricing, overlap with CPU-bound work without tying up platform threads. When a queue is full,
+ * the stage feeding it blocks, which propagates backpressure to {@link #submit(Order)}.
+ * <p>
+ * Invalid orders go to the rejection handler and orders of unknown customers are counted as unpriced; priced
+ * orders are passed with their total discount to the finalizer. An exception or error thrown by a stage is
+ * counted, the order dropped, and the first one rethrown by {@link #close()}.
+ * <p>
+ * Workers only stop once {@link #close()} has ended their queue. They clear and ignore interrupts, so interrupting
+ * a worker, for example through a custom thread factory's executor, never drops queued orders or leaves
+ * {@link #submit(Order)} blocked on a stage without workers.
+ */
+public class OrderPipeline implements AutoCloseable {
+
+    public static final int DEFAULT_QUEUE_CAPACITY = 1_024;
+
+    /**
+     * Pipeline stages, in processing order.
+     */
+    public enum Stage {
+        VALIDATE,
+        PRICE,
+        FINALIZE
+    }
+
+    private static final Object END = new Object();
+    private static final Stage[] STAGES = Stage.values();
+
+    private final OrderValidator validator;
+    private final DiscountCalculator calculator;
+    private final Function<String, Customer> customers;
+    private final BiConsumer<Order, BigDecimal> finalizer;
+    private final BiConsumer<Order, ValidationResult> rejections;
+    private final boolean virtualThreads;
+
+    private final StageRunner[] stages = new StageRunner[STAGES.length];
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder unpriced = new LongAdder();
+    private final AtomicReference<Throwable> firstFailure = new AtomicReference<>();
+    private volatile boolean closed;
+
+    private OrderPipeline(Builder builder) {
+        this.validator = builder.validator;
+        this.calculator = builder.calculator;
+        this.customers = builder.customers;
+        this.finalizer = builder.finalizer;
+        this.rejections = builder.rejections;
+        ThreadFactory threads = builder.threads != null ? builder.threads : virtualThreadFactory();
+        this.virtualThreads = builder.threads == null && threads != null;
+        if (threads == null) {
+            threads = runnable -> {
+                Thread thread = new Thread(runnable, "order-pipeline");
+                thread.setDaemon(true);
+                return thread;
+            };
+        }
+        for (Stage stage : STAGES) {
+            stages[stage.ordinal()] = new StageRunner(stage, builder.queueCapacity, builder.concurrency[stage.ordinal()]);
+        }
+        for (StageRunner stage : stages) {
+            stage.start(threads);
+        }
+    }
+
+    /**
+     * @param customers looks up the customer for a customer ID, returning {@code null} when unknown
+     * @param finalizer receives each priced order with its total discount
+     */
+    public static Builder builder(OrderValidator validator, DiscountCalculator calculator,
+                                  Function<String, Customer> customers, BiConsumer<Order, BigDecimal> finalizer) {
+        return new Builder(validator, calculator, customers, finalizer);
+    }
+
+    /**
+     * Queues the order for processing, blocking while the validate queue is full.
+     *
+     * @throws IllegalStateException if the pipeline is closed
+     */
+    public void submit(Order order) throws InterruptedException {
+        if (order == null) {
+            throw new IllegalArgumentException("Order cannot be null");
+        }
+        if (closed) {
+            throw new IllegalStateException("Pipeline is closed");
+        }
+        submitted.increment();
+        stages[0].queue.put(order);
+    }
+
+    /**
+     * Stops accepting orders and waits until every submitted order has been processed.
+     * Call it once all submitting threads are done.
+     *
+     * @throws IllegalStateException if a stage failed, with the first failure as cause
+     */
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            stages[0].end();
+        }
+        try {
+            stages[stages.length - 1].finished.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        Throwable failure = firstFailure.get();
+        if (failure != null) {
+            throw new IllegalStateException("Order pipeline stage failed", failure);
+        }
+    }
+
+    /**
+     * Whether workers run on virtual threads; {@code false} on runtimes without them or with a custom thread factory.
+     */
+    public boolean usesVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public long getSubmitted() {
+        return submitted.sum();
+    }
+
+    /**
+     * Number of orders that failed validation.
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * Number of valid orders that could not be priced because their customer is unknown.
+     */
+    public long getUnpriced() {
+        return unpriced.sum();
+    }
+
+    /**
+     * Number of orders passed to the finalizer.
+     */
+    public long getCompleted() {
+        return stages[Stage.FINALIZE.ordinal()].processed.sum();
+    }
+
+    public long getProcessed(Stage stage) {
+        return stages[stage.ordinal()].processed.sum();
+    }
+
+    public long getFailed(Stage stage) {
+        return stages[stage.ordinal()].failed.sum();
+    }
+
+    /**
+     * Number of orders waiting in the queue in front of the stage.
+     */
+    public int getQueueDepth(Stage stage) {
+        return stages[stage.ordinal()].queue.size();
+    }
+
+    public Duration getAverageLatency(Stage stage) {
+        StageRunner runner = stages[stage.ordinal()];
+        long count = runner.processed.sum() + runner.failed.sum();
+        return Duration.ofNanos(count == 0 ? 0 : runner.latencyNanos.sum() / count);
+    }
+
+    public Duration getMaxLatency(Stage stage) {
+        return Duration.ofNanos(stages[stage.ordinal()].maxLatencyNanos.get());
+    }
+
+    private void process(Stage stage, Object item) {
+        switch (stage) {
+            case VALIDATE:
+                Order order = (Order) item;
+                int failures = validator.failures(order);
+                if (failures != 0) {
+                    rejected.increment();
+                    rejections.accept(order, ValidationResult.of(failures, order));
+                } else {
+                    stages[Stage.PRICE.ordinal()].putUninterruptibly(order);
+                }
+                break;
+            case PRICE:
+                Order valid = (Order) item;
+                Customer customer = customers.apply(valid.getCustomerId());
+                if (customer == null) {
+                    unpriced.increment();
+                } else {
+                    BigDecimal discount = calculator.calculateTotalDiscount(customer, valid.getSubtotal());
+                    stages[Stage.FINALIZE.ordinal()].putUninterruptibly(new PricedOrder(valid, discount));
+                }
+                break;
+            case FINALIZE:
+                PricedOrder priced = (PricedOrder) item;
+                finalizer.accept(priced.order, priced.discount);
+                break;
+        }
+    }
+
+    /**
+     * Looks up {@code Thread.ofVirtual()} reflectively, as it is only available from Java 21.
+     */
+    private static ThreadFactory virtualThreadFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, "order-pipeline-", 0L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static final class PricedOrder {
+        final Order order;
+        final BigDecimal discount;
+
+        PricedOrder(Order order, BigDecimal discount) {
+            this.order = order;
+            this.discount = discount;
+        }
+    }
+
+    private final class StageRunner {
+        private final Stage stage;
+        private final BlockingQueue<Object> queue;
+        private final int concurrency;
+        private final AtomicInteger running;
+        private final CountDownLatch finished = new CountDownLatch(1);
+        private final LongAdder processed = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder latencyNanos = new LongAdder();
+        private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+        StageRunner(Stage stage, int queueCapacity, int concurrency) {
+            this.stage = stage;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+            this.concurrency = concurrency;
+            this.running = new AtomicInteger(concurrency);
+        }
+
+        void start(ThreadFactory threads) {
+            List<Thread> workers = new ArrayList<>(concurrency);
+            for (int i = 0; i < concurrency; i++) {
+                workers.add(threads.newThread(this::run));
+            }
+            workers.forEach(Thread::start);
+        }
+
+        /**
+         * Signals every worker of this stage to stop once the orders queued before have been processed.
+         */
+        void end() {
+            for (int i = 0; i < concurrency; i++) {
+                putUninterruptibly(END);
+            }
+        }
+
+        private void run() {
+            try {
+                Object item;
+                while ((item = takeUninterruptibly()) != END) {
+                    long start = System.nanoTime();
+                    try {
+                        process(stage, item);
+                        processed.increment();
+                    } catch (Throwable e) {
+                        failed.increment();
+                        firstFailure.compareAndSet(null, e);
+                    }
+                    long latency = System.nanoTime() - start;
+                    latencyNanos.add(latency);
+                    maxLatencyNanos.accumulateAndGet(latency, Math::max);
+                }
+            } finally {
+                if (running.decrementAndGet() == 0) {
+                    if (stage.ordinal() + 1 < stages.length) {
+                        stages[stage.ordinal() + 1].end();
+                    }
+                    finished.countDown();
+                }
+            }
+        }
+
+        private Object takeUninterruptibly() {
+            while (true) {
+                try {
+                    return queue.take();
+                } catch (InterruptedException e) {
+                    // Workers stop at END only
+                }
+            }
+        }
+
+        private void putUninterruptibly(Object item) {
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    queue.put(item);
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    public static final class Builder {
+        private final OrderValidator validator;
+        private final DiscountCalculator calculator;
+        private final Function<String, Customer> customers;
+        private final BiConsumer<Order, BigDecimal> finalizer;
+        private BiConsumer<Order, ValidationResult> rejections = (order, result) -> {
+        };
+        private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+        private final int[] concurrency = new int[STAGES.length];
+        private ThreadFactory threads;
+
+        private Builder(OrderValidator validator, DiscountCalculator calculator, Function<String, Customer> customers,
+                        BiConsumer<Order, BigDecimal> finalizer) {
+            if (validator == null || calculator == null || customers == null || finalizer == null) {
+                throw new IllegalArgumentException("Validator, calculator, customer lookup and finalizer cannot be null");
+            }
+            this.validator = validator;
+            this.calculator = calculator;
+            this.customers = customers;
+            this.finalizer = finalizer;
+            for (Stage stage : STAGES) {
+                concurrency[stage.ordinal()] = 1;
+            }
+        }
+
+        /**
+         * Receives each order that fails validation, with the failed rules.
+         */
+        public Builder rejections(BiConsumer<Order, ValidationResult> rejections) {
+            if (rejections == null) {
+                throw new IllegalArgumentException("Rejection handler cannot be null");
+            }
+            this.rejections = rejections;
+            return this;
+        }
+
+        /**
+         * Capacity of the queue in front of each stage.
+         */
+        public Builder queueCapacity(int queueCapacity) {
+            if (queueCapacity <= 0) {
+                throw new IllegalArgumentException("Queue capacity must be positive");
+            }
+            this.queueCapacity = queueCapacity;
+            return this;
+        }
+
+        /**
+         * Number of workers processing the stage concurrently; one by default.
+         */
+        public Builder concurrency(Stage stage, int workers) {
+            if (workers <= 0) {
+                throw new IllegalArgumentException("Stage concurrency must be positive");
+            }
+            concurrency[stage.ordinal()] = workers;
+            return this;
+        }
+
+        /**
+         * Runs workers on threads from the factory instead of virtual threads.
+         */
+        public Builder threadFactory(ThreadFactory threads) {
+            this.threads = threads;
+            return this;
+        }
+
+        /**
+         * Builds the pipeline and starts its workers.
+         */
+        public OrderPipeline build() {
+            return new OrderPipeline(this);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.github.timtebeek.orders;
+
+import java.time.LocalDate;
+
+/**
+ * Immutable criteria for {@link OrderStore#find(OrderQuery)}; unset criteria match every order.
+ */
+public final class OrderQuery {
+
+    private static final OrderQuery ALL = new OrderQuery(null, null, null, null);
+
+    private final String customerId;
+    private final OrderStatus status;
+    private final LocalDate from;
+    private final LocalDate to;
+
+    private OrderQuery(String customerId, OrderStatus status, LocalDate from, LocalDate to) {
+        this.customerId = customerId;
+        this.status = status;
+        this.from = from;
+        this.to = to;
+    }
+
+    public static OrderQuery all() {
+        return ALL;
+    }
+
+    public OrderQuery customer(String customerId) {
+        return new OrderQuery(customerId, status, from, to);
+    }
+
+    public OrderQuery status(OrderStatus status) {
+        return new OrderQuery(customerId, status, from, to);
+    }
+
+    /**
+     * Restricts to orders placed between {@code from} and {@code to}, both inclusive.
+     */
+    public OrderQuery orderedBetween(LocalDate from, LocalDate to) {
+        if (from == null || to == null || from.isAfter(to)) {
+            throw new IllegalArgumentException("Date range must have a start on or before its end");
+        }
+        return new OrderQuery(customerId, status, from, to);
+    }
+
+    public String getCustomerId() {
+        return customerId;
+    }
+
+    public OrderStatus getStatus() {
+        return status;
+    }
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+
+    boolean hasDateRange() {
+        return from != null;
+    }
+
+    boolean matches(Order order) {
+        return (customerId == null || customerId.equals(order.getCustomerId()))
+                && (status == null || status == order.getOrderStatus())
+                && (from == null || order.getOrderDate() != null
+                    && !order.getOrderDate().isBefore(from) && !order.getOrderDate().isAfter(to));
+    }
+}
@@ -0,0 +1,156 @@
+package com.github.timtebeek.orders;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+
+/**
+ * Checks that order amounts add up, reporting every {@link ReconciliationCheck} mismatch with its delta.
+ * Amounts are compared exactly, ignoring scale. With a {@link DiscountCalculator} and customer lookup, the
+ * discount of orders of known customers is also recomputed and compared.
+ * <p>
+ * Orders are reconciled in parallel on the common fork-join pool. Memory use only grows with the number of
+ * listed mismatches, so reading from an {@link OrderFileReader} handles files of any size in a single pass.
+ */
+public class OrderReconciler {
+
+    public static final int DEFAULT_CHUNK_SIZE = 100_000;
+
+    private final DiscountCalculator calculator;
+    private final Function<String, Customer> customers;
+
+    /**
+     * Creates a reconciler that does not check discounts.
+     */
+    public OrderReconciler() {
+        this.calculator = null;
+        this.customers = null;
+    }
+
+    /**
+     * @param customers looks up the customer for a customer ID, returning {@code null} when unknown
+     */
+    public OrderReconciler(DiscountCalculator calculator, Function<String, Customer> customers) {
+        if (calculator == null || customers == null) {
+            throw new IllegalArgumentException("Calculator and customer lookup cannot be null");
+        }
+        this.calculator = calculator;
+        this.customers = customers;
+    }
+
+    public ReconciliationReport reconcile(Collection<Order> orders) {
+        return reconcile(orders.stream());
+    }
+
+    public ReconciliationReport reconcile(Stream<Order> orders) {
+        return reconcile(orders, ReconciliationReport.DEFAULT_MAX_MISMATCHES);
+    }
+
+    /**
+     * Reconciles all orders in parallel, listing at most {@code maxMismatches} mismatches in the report.
+     */
+    public ReconciliationReport reconcile(Stream<Order> orders, int maxMismatches) {
+        return orders.parallel().collect(collector(maxMismatches)).toReport();
+    }
+
+    public ReconciliationReport reconcile(OrderFileReader reader) throws IOException {
+        return reconcile(reader, DEFAULT_CHUNK_SIZE, ReconciliationReport.DEFAULT_MAX_MISMATCHES);
+    }
+
+    /**
+     * Reconciles every order in the file, each chunk of {@code chunkSize} orders in parallel.
+     */
+    public ReconciliationReport reconcile(OrderFileReader reader, int chunkSize, int maxMismatches) throws IOException {
+        ReconciliationReport.Accumulator report = new ReconciliationReport.Accumulator(maxMismatches);
+        reader.forEachChunk(chunkSize, chunk -> report.combine(chunk.parallelStream().collect(collector(maxMismatches))));
+        return report.toReport();
+    }
+
+    private Collector<Order, ReconciliationReport.Accumulator, ReconciliationReport.Accumulator> collector(
+            int maxMismatches) {
+        return Collector.of(
+                () -> new ReconciliationReport.Accumulator(maxMismatches),
+                this::reconcile,
+                ReconciliationReport.Accumulator::combine);
+    }
+
+    private void reconcile(ReconciliationReport.Accumulator report, Order order) {
+        if (order == null) {
+            report.orderReconciled(false);
+            return;
+        }
+        boolean mismatched = checkTotal(report, order);
+        mismatched |= checkItems(report, order);
+        mismatched |= checkDiscount(report, order);
+        report.orderReconciled(mismatched);
+    }
+
+    private static boolean checkTotal(ReconciliationReport.Accumulator report, Order order) {
+        if (order.getTotal() == null || order.getSubtotal() == null || order.getTax() == null
+                || order.getShippingCost() == null || order.getDiscount() == null) {
+            report.skipped(ReconciliationCheck.ORDER_TOTAL);
+            return false;
+        }
+        BigDecimal expected = order.getSubtotal().add(order.getTax()).add(order.getShippingCost())
+                .subtract(order.getDiscount());
+        return compare(report, order, ReconciliationCheck.ORDER_TOTAL, -1, expected, order.getTotal());
+    }
+
+    private static boolean checkItems(ReconciliationReport.Accumulator report, Order order) {
+        List<OrderItem> items = order.getItems();
+        if (items == null) {
+            report.skipped(ReconciliationCheck.SUBTOTAL);
+            return false;
+        }
+        boolean mismatched = false;
+        boolean lineTotalsComplete = true;
+        BigDecimal lineTotals = BigDecimal.ZERO;
+        for (int i = 0; i < items.size(); i++) {
+            OrderItem item = items.get(i);
+            if (item == null || item.getLineTotal() == null) {
+                report.skipped(ReconciliationCheck.LINE_TOTAL);
+                lineTotalsComplete = false;
+                continue;
+            }
+            lineTotals = lineTotals.add(item.getLineTotal());
+            if (item.getUnitPrice() == null) {
+                report.skipped(ReconciliationCheck.LINE_TOTAL);
+                continue;
+            }
+            BigDecimal expected = item.getUnitPrice().multiply(BigDecimal.valueOf(item.getQuantity()));
+            mismatched |= compare(report, order, ReconciliationCheck.LINE_TOTAL, i, expected, item.getLineTotal());
+        }
+        if (!lineTotalsComplete || order.getSubtotal() == null) {
+            report.skipped(ReconciliationCheck.SUBTOTAL);
+            return mismatched;
+        }
+        return compare(report, order, ReconciliationCheck.SUBTOTAL, -1, lineTotals, order.getSubtotal()) | mismatched;
+    }
+
+    private boolean checkDiscount(ReconciliationReport.Accumulator report, Order order) {
+        if (calculator == null) {
+            return false;
+        }
+        Customer customer = order.getCustomerId() == null ? null : customers.apply(order.getCustomerId());
+        if (customer == null || order.getSubtotal() == null || order.getSubtotal().signum() < 0
+                || order.getDiscount() == null) {
+            report.skipped(ReconciliationCheck.DISCOUNT);
+            return false;
+        }
+        BigDecimal expected = calculator.calculateTotalDiscount(customer, order.getSubtotal());
+        return compare(report, order, ReconciliationCheck.DISCOUNT, -1, expected, order.getDiscount());
+    }
+
+    private static boolean compare(ReconciliationReport.Accumulator report, Order order, ReconciliationCheck check,
+                                   int itemIndex, BigDecimal expected, BigDecimal actual) {
+        if (expected.compareTo(actual) == 0) {
+            return false;
+        }
+        report.add(new Mismatch(order.getOrderId(), check, itemIndex, expected, actual));
+        return true;
+    }
+}
@@ -0,0 +1,356 @@
+package com.github.timtebeek.orders;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collector;
+import java.util.zip.DataFormatException;
+
+/**
+ * Streaming summaries of orders in constant memory: top customers by spend, and percentiles of order totals and of
+ * line totals per product category.
+ * <p>
+ * Spend per customer is counted in cents by {@link HeavyHitters}, and amounts are recorded in cents in
+ * HdrHistograms with a fixed range, clamping larger amounts to the range. Up to a maximum number of categories
+ * get their own histogram; lines of further categories, or without a category, count towards
+ * {@link #OTHER_CATEGORY}, which has a histogram on top of that maximum. Sketches built on separate threads or nodes merge, for example through
+ * {@link Builder#collector()} on a parallel stream, and serialize to bytes with {@link #toBytes()}.
+ * Not thread-safe.
+ */
+public final class OrderSketches {
+
+    public static final String OTHER_CATEGORY = "(other)";
+
+    private static final int MAGIC = 0x4F52534B;
+    private static final int VERSION = 2;
+
+    private final int maxCategories;
+    private final long highestTrackableCents;
+    private final int significantDigits;
+    private final HeavyHitters customerSpend;
+    private final Histogram totals;
+    private final Map<String, Histogram> lineTotals = new HashMap<>();
+    private long orders;
+    private long skippedAmounts;
+
+    private OrderSketches(Builder builder) {
+        this(builder.maxCategories, builder.highestTrackableCents, builder.significantDigits,
+                new HeavyHitters(builder.topCustomers, builder.epsilon, builder.delta),
+                new Histogram(builder.highestTrackableCents, builder.significantDigits));
+    }
+
+    private OrderSketches(int maxCategories, long highestTrackableCents, int significantDigits,
+                          HeavyHitters customerSpend, Histogram totals) {
+        this.maxCategories = maxCategories;
+        this.highestTrackableCents = highestTrackableCents;
+        this.significantDigits = significantDigits;
+        this.customerSpend = customerSpend;
+        this.totals = totals;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Adds the order. Orders without a total, and negative amounts, are not counted towards spend and percentiles;
+     * amounts with fractional cents or too large for a long in cents are skipped and counted by
+     * {@link #getSkippedAmounts()}.
+     */
+    public void accept(Order order) {
+        orders++;
+        long totalCents = cents(order.getTotal());
+        if (totalCents >= 0) {
+            if (order.getCustomerId() != null) {
+                customerSpend.add(order.getCustomerId(), totalCents);
+            }
+            totals.recordValue(Math.min(totalCents, highestTrackableCents));
+        }
+        if (order.getItems() == null) {
+            return;
+        }
+        for (OrderItem item : order.getItems()) {
+            long lineTotalCents = cents(item.getLineTotal());
+            if (lineTotalCents >= 0) {
+                lineTotals(item.getCategory()).recordValue(Math.min(lineTotalCents, highestTrackableCents));
+            }
+        }
+    }
+
+    /**
+     * Returns the amount in cents, or {@code -1} when it is missing, negative or cannot be converted.
+     */
+    private long cents(BigDecimal amount) {
+        if (amount == null || amount.signum() < 0) {
+            return -1;
+        }
+        try {
+            return Money.toCents(amount);
+        } catch (ArithmeticException e) {
+            skippedAmounts++;
+            return -1;
+        }
+    }
+
+    private Histogram lineTotals(String category) {
+        Histogram histogram = lineTotals.get(category == null ? OTHER_CATEGORY : category);
+        if (histogram == null) {
+            if (category == null || lineTotals.size() >= maxCategories) {
+                category = OTHER_CATEGORY;
+                histogram = lineTotals.get(OTHER_CATEGORY);
+            }
+            if (histogram == null) {
+                histogram = new Histogram(highestTrackableCents, significantDigits);
+                lineTotals.put(category, histogram);
+            }
+        }
+        return histogram;
+    }
+
+    /**
+     * Adds the other sketches to these, leaving these unchanged if the settings differ.
+     *
+     * @throws IllegalArgumentException if the sketches were built with different settings
+     */
+    public void merge(OrderSketches other) {
+        if (other.maxCategories != maxCategories || other.highestTrackableCents != highestTrackableCents
+                || other.significantDigits != significantDigits || !customerSpend.hasSettingsOf(other.customerSpend)) {
+            throw new IllegalArgumentException("Cannot merge order sketches with different settings");
+        }
+        orders += other.orders;
+        skippedAmounts += other.skippedAmounts;
+        customerSpend.merge(other.customerSpend);
+        totals.add(other.totals);
+        other.lineTotals.forEach((category, histogram) ->
+                lineTotals(category.equals(OTHER_CATEGORY) ? null : category).add(histogram));
+    }
+
+    /**
+     * Number of orders added.
+     */
+    public long getOrders() {
+        return orders;
+    }
+
+    /**
+     * Number of order and line totals left out because they have fractional cents or are too large.
+     */
+    public long getSkippedAmounts() {
+        return skippedAmounts;
+    }
+
+    /**
+     * Returns the customers with the largest estimated spend in cents, largest first.
+     */
+    public List<HeavyHitter> getTopCustomers() {
+        return customerSpend.top();
+    }
+
+    /**
+     * Estimates the spend of any customer in cents; never below the actual spend.
+     */
+    public long estimateSpendCents(String customerId) {
+        return customerSpend.estimate(customerId);
+    }
+
+    /**
+     * Returns the order total at the percentile, between 0 and 100, to the precision of the histogram,
+     * or {@code null} before any total was recorded.
+     */
+    public BigDecimal getTotalPercentile(double percentile) {
+        return percentile(totals, percentile);
+    }
+
+    /**
+     * Returns the line total at the percentile for the category, or {@code null} if no line of it was recorded.
+     */
+    public BigDecimal getLineTotalPercentile(String category, double percentile) {
+        return percentile(lineTotals.get(category), percentile);
+    }
+
+    /**
+     * Returns the categories with recorded line totals, including {@link #OTHER_CATEGORY} if any line counted
+     * towards it.
+     */
+    public Set<String> getCategories() {
+        return Collections.unmodifiableSet(lineTotals.keySet());
+    }
+
+    private static BigDecimal percentile(Histogram histogram, double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100: " + percentile);
+        }
+        if (histogram == null || histogram.getTotalCount() == 0) {
+            return null;
+        }
+        return Money.fromCents(histogram.getValueAtPercentile(percentile));
+    }
+
+    public byte[] toBytes() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(maxCategories);
+            out.writeLong(highestTrackableCents);
+            out.writeInt(significantDigits);
+            out.writeLong(orders);
+            out.writeLong(skippedAmounts);
+            customerSpend.writeTo(out);
+            write(out, totals);
+            out.writeInt(lineTotals.size());
+            for (Map.Entry<String, Histogram> category : lineTotals.entrySet()) {
+                out.writeUTF(category.getKey());
+                write(out, category.getValue());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @throws IllegalArgumentException if the bytes do not hold serialized order sketches
+     */
+    public static OrderSketches fromBytes(byte[] bytes) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IllegalArgumentException("Not supported order sketches");
+            }
+            int maxCategories = in.readInt();
+            long highestTrackableCents = in.readLong();
+            int significantDigits = in.readInt();
+            if (maxCategories <= 0 || highestTrackableCents < 2 || significantDigits < 0 || significantDigits > 5) {
+                throw new IllegalArgumentException("Corrupt order sketch settings");
+            }
+            long orders = in.readLong();
+            long skippedAmounts = in.readLong();
+            HeavyHitters customerSpend = HeavyHitters.readFrom(in);
+            OrderSketches sketches = new OrderSketches(maxCategories, highestTrackableCents, significantDigits,
+                    customerSpend, read(in, highestTrackableCents, significantDigits));
+            sketches.orders = orders;
+            sketches.skippedAmounts = skippedAmounts;
+            int categories = in.readInt();
+            if (categories < 0 || categories > maxCategories + 1L) {
+                throw new IllegalArgumentException("Corrupt number of categories " + categories);
+            }
+            for (int i = 0; i < categories; i++) {
+                sketches.lineTotals.put(in.readUTF(), read(in, highestTrackableCents, significantDigits));
+            }
+            return sketches;
+        } catch (IOException | DataFormatException e) {
+            throw new IllegalArgumentException("Corrupt order sketches", e);
+        }
+    }
+
+    private static void write(DataOutputStream out, Histogram histogram) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+        int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+        out.writeInt(length);
+        out.write(buffer.array(), 0, length);
+    }
+
+    private static Histogram read(DataInputStream in, long highestTrackableCents, int significantDigits)
+            throws IOException, DataFormatException {
+        int length = in.readInt();
+        if (length < 0 || length > in.available()) {
+            throw new DataFormatException("Invalid histogram length " + length);
+        }
+        byte[] encoded = new byte[length];
+        in.readFully(encoded);
+        Histogram histogram;
+        try {
+            histogram = Histogram.decodeFromCompressedByteBuffer(ByteBuffer.wrap(encoded), 0);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Corrupt order sketches", e);
+        }
+        if (histogram.getHighestTrackableValue() < highestTrackableCents
+                || histogram.getNumberOfSignificantValueDigits() != significantDigits) {
+            throw new DataFormatException("Histogram does not match the order sketch settings");
+        }
+        return histogram;
+    }
+
+    public static final class Builder {
+        private int topCustomers = 100;
+        private double epsilon = 0.0001;
+        private double delta = 0.001;
+        private int maxCategories = 64;
+        private long highestTrackableCents = 100_000_000_00L;
+        private int significantDigits = 2;
+
+        private Builder() {
+        }
+
+        public Builder topCustomers(int count) {
+            if (count <= 0) {
+                throw new IllegalArgumentException("Number of top customers must be positive");
+            }
+            this.topCustomers = count;
+            return this;
+        }
+
+        /**
+         * Accuracy of spend estimates: with probability {@code 1 - delta} they overcount by at most {@code epsilon}
+         * times the total spend.
+         */
+        public Builder spendAccuracy(double epsilon, double delta) {
+            if (!(epsilon > 0 && epsilon < 1) || !(delta > 0 && delta < 1)) {
+                throw new IllegalArgumentException("Epsilon and delta must be between 0 and 1");
+            }
+            this.epsilon = epsilon;
+            this.delta = delta;
+            return this;
+        }
+
+        /**
+         * Number of categories with their own line total histogram, not counting {@link #OTHER_CATEGORY}.
+         */
+        public Builder maxCategories(int maxCategories) {
+            if (maxCategories <= 0) {
+                throw new IllegalArgumentException("Maximum number of categories must be positive");
+            }
+            this.maxCategories = maxCategories;
+            return this;
+        }
+
+        /**
+         * Range and precision of the amount histograms; larger amounts are recorded as the highest trackable amount.
+         */
+        public Builder histogram(BigDecimal highestTrackableAmount, int significantDigits) {
+            long cents = Money.toCents(highestTrackableAmount);
+            if (cents < 2 || significantDigits < 0 || significantDigits > 5) {
+                throw new IllegalArgumentException("Histogram needs an amount of at least 0.02 and 0 to 5 significant digits");
+            }
+            this.highestTrackableCents = cents;
+            this.significantDigits = significantDigits;
+            return this;
+        }
+
+        public OrderSketches build() {
+            return new OrderSketches(this);
+        }
+
+        /**
+         * Collects orders into sketches, merging the partial sketches of a parallel stream.
+         */
+        public Collector<Order, OrderSketches, OrderSketches> collector() {
+            return Collector.of(this::build, OrderSketches::accept, (left, right) -> {
+                left.merge(right);
+                return left;
+            });
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.github.timtebeek.orders;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Lifecycle of an order, with the allowed transitions between statuses:
+ * <pre>
+ * PENDING -> CONFIRMED -> SHIPPED -> DELIVERED
+ *    |           |
+ *    +-----------+-> CANCELLED
+ * </pre>
+ * Bulk structures store a status as its single byte {@link #code()}.
+ */
+public enum OrderStatus {
+    PENDING,
+    CONFIRMED,
+    SHIPPED,
+    DELIVERED,
+    CANCELLED;
+
+    private static final OrderStatus[] STATUSES = values();
+    private static final Map<String, OrderStatus> BY_NAME = new HashMap<>();
+    private static final int[] NEXT = new int[STATUSES.length];
+
+    static {
+        for (OrderStatus status : STATUSES) {
+            BY_NAME.put(status.name(), status);
+        }
+        allow(PENDING, CONFIRMED, CANCELLED);
+        allow(CONFIRMED, SHIPPED, CANCELLED);
+        allow(SHIPPED, DELIVERED);
+    }
+
+    private static void allow(OrderStatus from, OrderStatus... to) {
+        for (OrderStatus next : to) {
+            NEXT[from.ordinal()] |= 1 << next.ordinal();
+        }
+    }
+
+    /**
+     * Resolves an exact status name, returning {@code null} for {@code null} or unknown names.
+     */
+    public static OrderStatus parse(String name) {
+        return name == null ? null : BY_NAME.get(name);
+    }
+
+    public static OrderStatus fromCode(byte code) {
+        return STATUSES[code];
+    }
+
+    public byte code() {
+        return (byte) ordinal();
+    }
+
+    public boolean canTransitionTo(OrderStatus next) {
+        return (NEXT[ordinal()] & 1 << next.ordinal()) != 0;
+    }
+
+    public boolean isTerminal() {
+        return NEXT[ordinal()] == 0;
+    }
+}
@@ -0,0 +1,233 @@
+package com.github.timtebeek.orders;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * In-memory order store with secondary indexes on customer, status and order date.
+ * Orders with a missing or unknown status are stored, but not indexed by status.
+ * <p>
+ * Writes are serialized by a {@link StampedLock}. Queries run as optimistic reads over the concurrent index
+ * collections and are only retried under the read lock when a write overlapped them, so reads do not block
+ * in the common case and always see the store either before or after any write.
+ */
+public class OrderStore {
+
+    private static final Comparator<Order> BY_DATE_AND_ID = Comparator
+            .comparing(Order::getOrderDate, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(Order::getOrderId);
+
+    private final ConcurrentMap<String, Order> byId = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Set<Order>> byCustomer = new ConcurrentHashMap<>();
+    private final Map<OrderStatus, Set<Order>> byStatus = new EnumMap<>(OrderStatus.class);
+    private final ConcurrentSkipListMap<LocalDate, Set<Order>> byOrderDate = new ConcurrentSkipListMap<>();
+    private final StampedLock lock = new StampedLock();
+    private final List<OrderStoreListener> listeners = new CopyOnWriteArrayList<>();
+
+    public OrderStore() {
+        for (OrderStatus status : OrderStatus.values()) {
+            byStatus.put(status, ConcurrentHashMap.newKeySet());
+        }
+    }
+
+    /**
+     * Registers a listener, first passing it every stored order as added, so it starts from the current contents
+     * without missing or double counting concurrent writes.
+     */
+    public void addListener(OrderStoreListener listener) {
+        long stamp = lock.writeLock();
+        try {
+            byId.values().forEach(listener::orderAdded);
+            listeners.add(listener);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void removeListener(OrderStoreListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Adds an order, replacing any stored order with the same ID; returns the replaced order, if any.
+     */
+    public Optional<Order> put(Order order) {
+        if (order == null || order.getOrderId() == null) {
+            throw new IllegalArgumentException("Order and order ID cannot be null");
+        }
+        long stamp = lock.writeLock();
+        try {
+            Order previous = byId.put(order.getOrderId(), order);
+            if (previous != null && previous != order) {
+                unindex(previous);
+            }
+            index(order);
+            for (OrderStoreListener listener : listeners) {
+                if (previous == null) {
+                    listener.orderAdded(order);
+                } else {
+                    listener.orderReplaced(previous, order);
+                }
+            }
+            return Optional.ofNullable(previous);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void putAll(Collection<Order> orders) {
+        orders.forEach(this::put);
+    }
+
+    public Optional<Order> remove(String orderId) {
+        long stamp = lock.writeLock();
+        try {
+            Order removed = byId.remove(orderId);
+            if (removed != null) {
+                unindex(removed);
+                listeners.forEach(listener -> listener.orderRemoved(removed));
+            }
+            return Optional.ofNullable(removed);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Moves a stored order from the expected status to the next, keeping the status index current and
+     * notifying listeners; see {@link Order#transitionStatus(OrderStatus, OrderStatus)}.
+     *
+     * @return {@code false} if no order with the ID is stored, or it is no longer in the expected status
+     * @throws IllegalArgumentException if the transition is not allowed
+     */
+    public boolean transitionStatus(String orderId, OrderStatus expected, OrderStatus next) {
+        long stamp = lock.writeLock();
+        try {
+            Order order = byId.get(orderId);
+            if (order == null || !order.transitionStatus(expected, next)) {
+                return false;
+            }
+            byStatus.get(expected).remove(order);
+            byStatus.get(next).add(order);
+            listeners.forEach(listener -> listener.orderStatusChanged(order, expected, next));
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public Optional<Order> get(String orderId) {
+        return Optional.ofNullable(byId.get(orderId));
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    public List<Order> findByCustomer(String customerId) {
+        return find(OrderQuery.all().customer(customerId));
+    }
+
+    public List<Order> findByStatus(OrderStatus status) {
+        return find(OrderQuery.all().status(status));
+    }
+
+    public List<Order> findByOrderDateBetween(LocalDate from, LocalDate to) {
+        return find(OrderQuery.all().orderedBetween(from, to));
+    }
+
+    /**
+     * Finds the orders matching all criteria of the query, ordered by order date and ID.
+     * Starts from the smaller of the customer and status indexes, or the date index when neither applies,
+     * and filters the candidates on the remaining criteria.
+     */
+    public List<Order> find(OrderQuery query) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            List<Order> matches = query(query);
+            if (lock.validate(stamp)) {
+                return matches;
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return query(query);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private List<Order> query(OrderQuery query) {
+        Collection<Order> candidates = null;
+        if (query.getCustomerId() != null) {
+            candidates = byCustomer.getOrDefault(query.getCustomerId(), Set.of());
+        }
+        if (query.getStatus() != null) {
+            Set<Order> withStatus = byStatus.get(query.getStatus());
+            if (candidates == null || withStatus.size() < candidates.size()) {
+                candidates = withStatus;
+            }
+        }
+        if (query.hasDateRange() && candidates == null) {
+            List<Order> inRange = new ArrayList<>();
+            NavigableMap<LocalDate, Set<Order>> days = byOrderDate.subMap(query.getFrom(), true, query.getTo(), true);
+            days.values().forEach(inRange::addAll);
+            candidates = inRange;
+        }
+        if (candidates == null) {
+            candidates = byId.values();
+        }
+
+        List<Order> matches = new ArrayList<>();
+        for (Order order : candidates) {
+            if (query.matches(order)) {
+                matches.add(order);
+            }
+        }
+        matches.sort(BY_DATE_AND_ID);
+        return matches;
+    }
+
+    private void index(Order order) {
+        add(byCustomer, order.getCustomerId(), order);
+        OrderStatus status = order.getOrderStatus();
+        if (status != null) {
+            byStatus.get(status).add(order);
+        }
+        add(byOrderDate, order.getOrderDate(), order);
+    }
+
+    private void unindex(Order order) {
+        remove(byCustomer, order.getCustomerId(), order);
+        OrderStatus status = order.getOrderStatus();
+        if (status != null) {
+            byStatus.get(status).remove(order);
+        }
+        remove(byOrderDate, order.getOrderDate(), order);
+    }
+
+    private static <K> void add(Map<K, Set<Order>> index, K key, Order order) {
+        if (key != null) {
+            index.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(order);
+        }
+    }
+
+    private static <K> void remove(Map<K, Set<Order>> index, K key, Order order) {
+        if (key != null) {
+            index.computeIfPresent(key, (k, orders) -> orders.remove(order) && orders.isEmpty() ? null : orders);
+        }
+    }
+}
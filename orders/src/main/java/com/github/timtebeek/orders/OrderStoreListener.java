@@ -0,0 +1,27 @@
+package com.github.timtebeek.orders;
+
+/**
+ * Receives changes to an {@link OrderStore}. Callbacks run on the writing thread while the store's write lock
+ * is held, one change at a time and in the order the changes were made, so they should be quick.
+ */
+public interface OrderStoreListener {
+
+    default void orderAdded(Order order) {
+    }
+
+    /**
+     * Called when an order is replaced by a new version with the same ID, such as after a status change.
+     */
+    default void orderReplaced(Order previous, Order current) {
+    }
+
+    default void orderRemoved(Order order) {
+    }
+
+    /**
+     * Called when a stored order moves between statuses through {@link OrderStore#transitionStatus}.
+     * The order already has its new status.
+     */
+    default void orderStatusChanged(Order order, OrderStatus previous, OrderStatus current) {
+    }
+}
@@ -1,69 +1,309 @@
 package com.github.timtebeek.orders;
 
-import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
 
 /**
  * Validates orders to ensure they meet business rules before processing.
+ * <p>
+ * Only the rules of the validator's {@link ValidationProfile} are evaluated. On a random sample of orders every
+ * enabled rule is timed and its outcome counted. After a number of samples, the rules that fail often and cost
+ * least per rejected order are moved to the front, so {@link #isValid(Order)} rejects most invalid orders on its
+ * first check. The other rules keep their declaration order, which lets the JIT compile them as straight-line code.
+ * The failure mask of an order, and so {@link #check(Order)} and {@link #validate(Order)}, does not depend on the
+ * rule order.
  */
 public class OrderValidator {
 
+    public static final int DEFAULT_SAMPLE_INTERVAL = 1_024;
+    public static final int DEFAULT_REORDER_INTERVAL = 64;
+
     /**
-     * Validates an order and returns a list of validation errors.
-     * An empty list means the order is valid.
+     * Maximum number of rules moved to the front; each adds a separate check that valid orders pay for.
      */
-    public List<String> validate(Order order) {
-        List<String> errors = new ArrayList<>();
+    static final int MAX_LEADING_RULES = 2;
+    static final double MIN_LEADING_FAILURE_RATE = 0.01;
 
-        if (order == null) {
-            errors.add("Order cannot be null");
-            return errors;
-        }
+    private final ValidationProfile profile;
+    private final OrderMetrics metrics;
+    private final int sampleMask;
+    private final int reorderInterval;
+    private final ValidationRule[] rules;
+    private final int enabled;
+    private final RuleStatistics[] statistics = new RuleStatistics[ValidationRule.rules().length];
+    private final AtomicLong samples = new AtomicLong();
+    private volatile FailFastOrder failFastOrder;
+
+    public OrderValidator() {
+        this(ValidationProfile.AUDIT, OrderMetrics.NOOP);
+    }
+
+    /**
+     * Creates a validator reporting every validated order to the metrics.
+     */
+    public OrderValidator(OrderMetrics metrics) {
+        this(ValidationProfile.AUDIT, metrics);
+    }
 
-        if (order.getOrderId() == null || order.getOrderId().trim().isEmpty()) {
-            errors.add("Order ID is required");
+    public OrderValidator(ValidationProfile profile) {
+        this(profile, OrderMetrics.NOOP);
+    }
+
+    public OrderValidator(ValidationProfile profile, OrderMetrics metrics) {
+        this(profile, metrics, DEFAULT_SAMPLE_INTERVAL, DEFAULT_REORDER_INTERVAL);
+    }
+
+    /**
+     * @param sampleInterval  measures one in this many orders on average, rounded up to a power of two
+     * @param reorderInterval reorders the rules after this many measured orders
+     */
+    OrderValidator(ValidationProfile profile, OrderMetrics metrics, int sampleInterval, int reorderInterval) {
+        if (profile == null || metrics == null) {
+            throw new IllegalArgumentException("Profile and metrics cannot be null");
         }
+        if (sampleInterval <= 0 || reorderInterval <= 0) {
+            throw new IllegalArgumentException("Sample and reorder intervals must be positive");
+        }
+        this.profile = profile;
+        this.metrics = metrics;
+        this.sampleMask = sampleInterval == 1 ? 0 : Integer.highestOneBit(sampleInterval - 1) * 2 - 1;
+        this.reorderInterval = reorderInterval;
+        List<ValidationRule> rules = new ArrayList<>();
+        int enabled = 0;
+        for (ValidationRule rule : ValidationRule.rules()) {
+            if (rule != ValidationRule.ORDER_REQUIRED && profile.isEnabled(rule)) {
+                rules.add(rule);
+                enabled |= rule.mask();
+                statistics[rule.ordinal()] = new RuleStatistics();
+            }
+        }
+        this.rules = rules.toArray(new ValidationRule[0]);
+        this.enabled = enabled;
+        this.failFastOrder = new FailFastOrder(List.of(), enabled);
+    }
+
+    public ValidationProfile getProfile() {
+        return profile;
+    }
 
-        if (order.getCustomerId() == null || order.getCustomerId().trim().isEmpty()) {
-            errors.add("Customer ID is required");
+    /**
+     * Returns the order in which {@link #isValid(Order)} currently evaluates the rules after checking for a
+     * {@code null} order.
+     */
+    public List<ValidationRule> getRuleOrder() {
+        FailFastOrder current = failFastOrder;
+        List<ValidationRule> order = new ArrayList<>(List.of(current.leading));
+        for (ValidationRule rule : rules) {
+            if ((current.remaining & rule.mask()) != 0) {
+                order.add(rule);
+            }
         }
+        return order;
+    }
 
-        if (order.getOrderDate() == null) {
-            errors.add("Order date is required");
+    /**
+     * Returns the measured cost and failure rate of every enabled rule but {@link ValidationRule#ORDER_REQUIRED}.
+     */
+    public List<ValidationRuleStatistics> getRuleStatistics() {
+        List<ValidationRuleStatistics> result = new ArrayList<>();
+        for (ValidationRule rule : rules) {
+            result.add(statistics[rule.ordinal()].snapshot(rule));
         }
+        return result;
+    }
+
+    /**
+     * Validates an order and returns a list of validation errors.
+     * An empty list means the order is valid.
+     */
+    public List<String> validate(Order order) {
+        return check(order).getMessages();
+    }
+
+    /**
+     * Validates an order and returns the failed rules, without building any messages.
+     * Valid orders and most invalid orders share a cached result, so this does not allocate.
+     */
+    public ValidationResult check(Order order) {
+        return ValidationResult.of(measure(order, false), order);
+    }
+
+    /**
+     * Checks if an order is valid, stopping at the first failed rule in the current {@link #getRuleOrder() rule
+     * order}; metrics only see that first failure.
+     */
+    public boolean isValid(Order order) {
+        return measure(order, true) == 0;
+    }
 
-        if (order.getItems() == null || order.getItems().isEmpty()) {
-            errors.add("Order must contain at least one item");
+    /**
+     * Validates all orders in parallel on the common fork-join pool and combines the outcome into a single report.
+     */
+    public ValidationReport validateAll(Collection<Order> orders) {
+        return validateAll(orders.stream());
+    }
+
+    /**
+     * Validates all orders in parallel on the common fork-join pool and combines the outcome into a single report.
+     */
+    public ValidationReport validateAll(Stream<Order> orders) {
+        return validateAll(orders, ValidationReport.DEFAULT_MAX_FAILED_ORDER_IDS);
+    }
+
+    /**
+     * Validates all orders in parallel, listing at most {@code maxFailedOrderIds} failing order IDs in the report.
+     */
+    public ValidationReport validateAll(Stream<Order> orders, int maxFailedOrderIds) {
+        return orders.parallel().collect(Collector.of(
+                () -> new ValidationReport.Accumulator(maxFailedOrderIds),
+                (accumulator, order) -> accumulator.add(order, failures(order)),
+                ValidationReport.Accumulator::combine,
+                ValidationReport.Accumulator::toReport));
+    }
+
+    /**
+     * Returns a bit mask of the {@link ValidationRule}s the order fails.
+     */
+    int failures(Order order) {
+        return measure(order, false);
+    }
+
+    private int measure(Order order, boolean failFast) {
+        if (metrics == OrderMetrics.NOOP) {
+            return failures(order, failFast);
         }
+        long start = System.nanoTime();
+        int failures = failures(order, failFast);
+        metrics.orderValidated(failures, System.nanoTime() - start);
+        return failures;
+    }
 
-        if (order.getTotal() == null) {
-            errors.add("Order total is required");
-        } else if (order.getTotal().compareTo(BigDecimal.ZERO) <= 0) {
-            errors.add("Order total must be greater than zero");
+    /**
+     * Returns a bit mask of the {@link ValidationRule}s the order fails; with {@code failFast} only the first failure.
+     */
+    private int failures(Order order, boolean failFast) {
+        if (order == null) {
+            return ValidationRule.ORDER_REQUIRED.mask();
+        }
+        if ((ThreadLocalRandom.current().nextInt() & sampleMask) == 0) {
+            return sample(order, failFast);
+        }
+        if (!failFast) {
+            return ValidationRule.failures(order, enabled, false);
+        }
+        FailFastOrder current = failFastOrder;
+        for (ValidationRule rule : current.leading) {
+            if (rule.fails(order)) {
+                return rule.mask();
+            }
         }
+        return ValidationRule.failures(order, current.remaining, true);
+    }
 
-        if (order.getStatus() == null || order.getStatus().trim().isEmpty()) {
-            errors.add("Order status is required");
-        } else if (!isValidStatus(order.getStatus())) {
-            errors.add("Invalid order status: " + order.getStatus());
+    /**
+     * Evaluates every rule, even when failing fast, so failure rates are not skewed by the rules before it.
+     */
+    private int sample(Order order, boolean failFast) {
+        int failures = 0;
+        for (ValidationRule rule : rules) {
+            long start = System.nanoTime();
+            boolean failed = rule.fails(order);
+            statistics[rule.ordinal()].record(failed, System.nanoTime() - start);
+            if (failed) {
+                failures |= rule.mask();
+            }
         }
+        if (samples.incrementAndGet() % reorderInterval == 0) {
+            reorder();
+        }
+        return failFast ? failFastOrder.first(failures) : failures;
+    }
 
-        return errors;
+    /**
+     * Moves the rules failing at least {@link #MIN_LEADING_FAILURE_RATE} of the sampled orders with the lowest cost
+     * per rejected order to the front, up to {@link #MAX_LEADING_RULES} of them.
+     */
+    void reorder() {
+        List<ValidationRule> candidates = new ArrayList<>();
+        for (ValidationRule rule : rules) {
+            if (statistics[rule.ordinal()].failureRate() >= MIN_LEADING_FAILURE_RATE) {
+                candidates.add(rule);
+            }
+        }
+        double[] costs = new double[statistics.length];
+        for (ValidationRule rule : candidates) {
+            costs[rule.ordinal()] = statistics[rule.ordinal()].costPerRejection();
+        }
+        candidates.sort(Comparator.comparingDouble(rule -> costs[rule.ordinal()]));
+        failFastOrder = new FailFastOrder(candidates.subList(0, Math.min(candidates.size(), MAX_LEADING_RULES)), enabled);
     }
 
     /**
-     * Checks if an order is valid (has no validation errors).
+     * Rules checked one by one before the remaining rules, which are checked in declaration order.
      */
-    public boolean isValid(Order order) {
-        return validate(order).isEmpty();
+    private static final class FailFastOrder {
+        final ValidationRule[] leading;
+        final int remaining;
+
+        FailFastOrder(List<ValidationRule> leading, int enabled) {
+            this.leading = leading.toArray(new ValidationRule[0]);
+            int remaining = enabled;
+            for (ValidationRule rule : leading) {
+                remaining &= ~rule.mask();
+            }
+            this.remaining = remaining;
+        }
+
+        /**
+         * Returns the mask of the failure a fail-fast validation in this order stops at.
+         */
+        int first(int failures) {
+            for (ValidationRule rule : leading) {
+                if ((failures & rule.mask()) != 0) {
+                    return rule.mask();
+                }
+            }
+            return Integer.lowestOneBit(failures & remaining);
+        }
     }
 
-    private boolean isValidStatus(String status) {
-        return status.equals("PENDING") || 
-               status.equals("CONFIRMED") || 
-               status.equals("SHIPPED") || 
-               status.equals("DELIVERED") || 
-               status.equals("CANCELLED");
+    private static final class RuleStatistics {
+        final LongAdder evaluations = new LongAdder();
+        final LongAdder failures = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+
+        void record(boolean failed, long elapsedNanos) {
+            evaluations.increment();
+            if (failed) {
+                failures.increment();
+            }
+            nanos.add(elapsedNanos);
+        }
+
+        double failureRate() {
+            long evaluated = evaluations.sum();
+            return evaluated == 0 ? 0 : (double) failures.sum() / evaluated;
+        }
+
+        /**
+         * Average cost divided by the failure rate, both smoothed so rules that were rarely sampled still compare.
+         */
+        double costPerRejection() {
+            long evaluated = evaluations.sum();
+            double cost = (nanos.sum() + 1.0) / (evaluated + 1);
+            double failureRate = (failures.sum() + 1.0) / (evaluated + 2);
+            return cost / failureRate;
+        }
+
+        ValidationRuleStatistics snapshot(ValidationRule rule) {
+            return new ValidationRuleStatistics(rule, evaluations.sum(), failures.sum(), nanos.sum());
+        }
     }
 }
@@ -0,0 +1,129 @@
+package com.github.timtebeek.orders;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.github.timtebeek.orders.OrderCodec.*;
+
+/**
+ * Flyweight over an order message encoded by {@link OrderCodec}, reading fields straight from the buffer.
+ * Dates, the status code and amounts are read at fixed offsets; strings are decoded on access.
+ * A view is not thread-safe; wrap it again to move it to another message.
+ */
+public final class OrderView {
+
+    private ByteBuffer buffer;
+    private int offset;
+
+    /**
+     * @throws IllegalArgumentException if the buffer does not hold a complete order message of a supported version
+     */
+    public OrderView wrap(ByteBuffer buffer, int offset) {
+        checkHeader(buffer, offset, TYPE_ORDER);
+        this.buffer = buffer;
+        this.offset = offset;
+        return this;
+    }
+
+    /**
+     * Length of the message in bytes; the next message in the buffer starts right after it.
+     */
+    public int getEncodedLength() {
+        return buffer.getInt(offset + LENGTH);
+    }
+
+    public LocalDate getOrderDate() {
+        int epochDay = buffer.getInt(offset + ORDER_DATE);
+        return epochDay == NULL_DATE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+
+    /**
+     * Returns the status, or {@code null} when it is missing or unknown.
+     */
+    public OrderStatus getOrderStatus() {
+        byte code = buffer.get(offset + ORDER_STATUS);
+        return code == NO_CODE ? null : OrderStatus.fromCode(code);
+    }
+
+    public BigDecimal getSubtotal() {
+        return getAmount(OrderBatch.Column.SUBTOTAL);
+    }
+
+    public BigDecimal getTax() {
+        return getAmount(OrderBatch.Column.TAX);
+    }
+
+    public BigDecimal getShippingCost() {
+        return getAmount(OrderBatch.Column.SHIPPING_COST);
+    }
+
+    public BigDecimal getDiscount() {
+        return getAmount(OrderBatch.Column.DISCOUNT);
+    }
+
+    public BigDecimal getTotal() {
+        return getAmount(OrderBatch.Column.TOTAL);
+    }
+
+    public BigDecimal getAmount(OrderBatch.Column column) {
+        return amount(buffer, amountOffset(column));
+    }
+
+    /**
+     * Reads an amount in cents without allocating.
+     *
+     * @throws IllegalArgumentException if the amount is missing
+     * @throws ArithmeticException      if the amount has fractional cents
+     */
+    public long getCents(OrderBatch.Column column) {
+        return cents(buffer, amountOffset(column));
+    }
+
+    private int amountOffset(OrderBatch.Column column) {
+        return offset + ORDER_AMOUNTS + column.ordinal() * AMOUNT_SIZE;
+    }
+
+    public int getItemCount() {
+        return buffer.getInt(offset + ORDER_ITEM_COUNT);
+    }
+
+    /**
+     * Moves the given item view to the item at the index, returning it.
+     */
+    public OrderItemView getItem(int index, OrderItemView item) {
+        if (index < 0 || index >= getItemCount()) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for " + getItemCount() + " items");
+        }
+        return item.wrap(buffer, offset + buffer.getInt(offset + ORDER_ITEM_OFFSETS + 4 * index));
+    }
+
+    public String getOrderId() {
+        return string(buffer, stringsOffset());
+    }
+
+    public String getCustomerId() {
+        return string(buffer, skipString(buffer, stringsOffset()));
+    }
+
+    public String getStatus() {
+        return string(buffer, skipString(buffer, skipString(buffer, stringsOffset())));
+    }
+
+    private int stringsOffset() {
+        return offset + ORDER_ITEM_OFFSETS + 4 * getItemCount();
+    }
+
+    public Order toOrder() {
+        int count = getItemCount();
+        List<OrderItem> items = new ArrayList<>(count);
+        OrderItemView item = new OrderItemView();
+        for (int i = 0; i < count; i++) {
+            items.add(getItem(i, item).toOrderItem());
+        }
+        return new Order(getOrderId(), getCustomerId(), getOrderDate(), getStatus(), items,
+                getSubtotal(), getTax(), getShippingCost(), getDiscount(), getTotal());
+    }
+}
@@ -0,0 +1,49 @@
+package com.github.timtebeek.orders;
+
+/**
+ * Product data shared by every {@link OrderItem} of the product. Products interned by a {@link ProductCatalog}
+ * carry a compact ID that is unique within that catalog.
+ */
+public final class Product {
+
+    /**
+     * ID of products that were not interned by a catalog.
+     */
+    public static final int UNCATALOGED = -1;
+
+    private final int id;
+    private final String productId;
+    private final String productName;
+    private final String category;
+
+    Product(int id, String productId, String productName, String category) {
+        this.id = id;
+        this.productId = productId;
+        this.productName = productName;
+        this.category = category;
+    }
+
+    /**
+     * Catalog ID, from zero up to the catalog size, or {@link #UNCATALOGED}.
+     */
+    public int getId() {
+        return id;
+    }
+
+    public String getProductId() {
+        return productId;
+    }
+
+    public String getProductName() {
+        return productName;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    @Override
+    public String toString() {
+        return "Product{" + productId + ", " + productName + ", " + category + "}";
+    }
+}
@@ -0,0 +1,113 @@
+package com.github.timtebeek.orders;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Interns product data, so all items of a product share a single {@link Product} and the same category
+ * string is stored once across products.
+ * <p>
+ * Lookups of known products are lock-free; registering a new product is synchronized and assigns it the next
+ * compact ID. A product whose name or category changes is interned as a new product.
+ */
+public class ProductCatalog {
+
+    private final ConcurrentMap<Key, Product> products = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, String> categories = new ConcurrentHashMap<>();
+    private volatile Product[] byId = new Product[64];
+    private volatile int size;
+
+    /**
+     * Returns the product with the given data, registering it when it is new.
+     */
+    public Product intern(String productId, String productName, String category) {
+        Key key = new Key(productId, productName, category);
+        Product product = products.get(key);
+        return product != null ? product : register(key);
+    }
+
+    private synchronized Product register(Key key) {
+        Product product = products.get(key);
+        if (product == null) {
+            if (size == byId.length) {
+                byId = Arrays.copyOf(byId, size * 2);
+            }
+            String category = key.category == null ? null : categories.computeIfAbsent(key.category, c -> c);
+            product = new Product(size, key.productId, key.productName, category);
+            byId[size] = product;
+            size++;
+            products.put(key, product);
+        }
+        return product;
+    }
+
+    /**
+     * Creates an item referencing the interned product.
+     */
+    public OrderItem item(String productId, String productName, String category, int quantity,
+                          BigDecimal unitPrice, BigDecimal lineTotal) {
+        return new OrderItem(intern(productId, productName, category), quantity, unitPrice, lineTotal);
+    }
+
+    /**
+     * Returns the item itself when it already references a product of this catalog, or else an equal item
+     * referencing the interned product.
+     */
+    public OrderItem dedupe(OrderItem item) {
+        Product product = item.getProduct();
+        if (product.getId() != Product.UNCATALOGED && product.getId() < size && byId[product.getId()] == product) {
+            return item;
+        }
+        return new OrderItem(intern(product.getProductId(), product.getProductName(), product.getCategory()),
+                item.getQuantity(), item.getUnitPrice(), item.getLineTotal());
+    }
+
+    /**
+     * @throws IllegalArgumentException if no product has the ID
+     */
+    public Product get(int id) {
+        int count = size;
+        if (id < 0 || id >= count) {
+            throw new IllegalArgumentException("Unknown product ID: " + id);
+        }
+        return byId[id];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private static final class Key {
+        private final String productId;
+        private final String productName;
+        private final String category;
+        private final int hash;
+
+        Key(String productId, String productName, String category) {
+            this.productId = productId;
+            this.productName = productName;
+            this.category = category;
+            this.hash = Objects.hash(productId, productName, category);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return hash == other.hash
+                    && Objects.equals(productId, other.productId)
+                    && Objects.equals(productName, other.productName)
+                    && Objects.equals(category, other.category);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.github.timtebeek.orders;
+
+/**
+ * Consistency checks run by the {@link OrderReconciler}.
+ */
+public enum ReconciliationCheck {
+    ORDER_TOTAL("total = subtotal + tax + shippingCost - discount"),
+    SUBTOTAL("subtotal = sum of item line totals"),
+    LINE_TOTAL("lineTotal = unitPrice * quantity"),
+    DISCOUNT("discount = calculated discount for the customer");
+
+    private final String description;
+
+    ReconciliationCheck(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
@@ -0,0 +1,161 @@
+package com.github.timtebeek.orders;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Combined outcome of reconciling a set of orders: mismatch counts and summed absolute deltas per check,
+ * and a bounded list of mismatches.
+ */
+public class ReconciliationReport {
+
+    public static final int DEFAULT_MAX_MISMATCHES = 1_000;
+
+    private static final ReconciliationCheck[] CHECKS = ReconciliationCheck.values();
+
+    private final long ordersReconciled;
+    private final long ordersWithMismatches;
+    private final long[] mismatchCounts;
+    private final long[] skippedCounts;
+    private final BigDecimal[] absoluteDeltas;
+    private final List<Mismatch> mismatches;
+    private final boolean truncated;
+
+    private ReconciliationReport(Accumulator accumulator) {
+        this.ordersReconciled = accumulator.ordersReconciled;
+        this.ordersWithMismatches = accumulator.ordersWithMismatches;
+        this.mismatchCounts = accumulator.mismatchCounts.clone();
+        this.skippedCounts = accumulator.skippedCounts.clone();
+        this.absoluteDeltas = accumulator.absoluteDeltas.clone();
+        this.mismatches = Collections.unmodifiableList(new ArrayList<>(accumulator.mismatches));
+        this.truncated = accumulator.truncated;
+    }
+
+    public long getOrdersReconciled() {
+        return ordersReconciled;
+    }
+
+    public long getOrdersWithMismatches() {
+        return ordersWithMismatches;
+    }
+
+    /**
+     * Number of mismatches found by the check; an order can mismatch several items.
+     */
+    public long getMismatchCount(ReconciliationCheck check) {
+        return mismatchCounts[check.ordinal()];
+    }
+
+    /**
+     * Returns the mismatch count for every check that found at least one mismatch.
+     */
+    public Map<ReconciliationCheck, Long> getMismatchCounts() {
+        Map<ReconciliationCheck, Long> counts = new EnumMap<>(ReconciliationCheck.class);
+        for (ReconciliationCheck check : CHECKS) {
+            if (mismatchCounts[check.ordinal()] > 0) {
+                counts.put(check, mismatchCounts[check.ordinal()]);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Number of times the check could not run because an amount, or for discounts the customer, was missing.
+     */
+    public long getSkippedCount(ReconciliationCheck check) {
+        return skippedCounts[check.ordinal()];
+    }
+
+    /**
+     * Sum of the absolute deltas of all mismatches found by the check.
+     */
+    public BigDecimal getAbsoluteDelta(ReconciliationCheck check) {
+        return absoluteDeltas[check.ordinal()];
+    }
+
+    /**
+     * Returns mismatches up to the configured maximum; the order between parallel tasks is unspecified.
+     */
+    public List<Mismatch> getMismatches() {
+        return mismatches;
+    }
+
+    /**
+     * Whether more mismatches were found than could be listed in {@link #getMismatches()}.
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    /**
+     * Mutable container used to collect a report; one per fork-join task, combined afterwards.
+     */
+    static class Accumulator {
+        private final int maxMismatches;
+        private final long[] mismatchCounts = new long[CHECKS.length];
+        private final long[] skippedCounts = new long[CHECKS.length];
+        private final BigDecimal[] absoluteDeltas = new BigDecimal[CHECKS.length];
+        private final List<Mismatch> mismatches = new ArrayList<>();
+        private long ordersReconciled;
+        private long ordersWithMismatches;
+        private boolean truncated;
+
+        Accumulator(int maxMismatches) {
+            if (maxMismatches < 0) {
+                throw new IllegalArgumentException("Maximum mismatches cannot be negative");
+            }
+            this.maxMismatches = maxMismatches;
+            Arrays.fill(absoluteDeltas, BigDecimal.ZERO);
+        }
+
+        void orderReconciled(boolean mismatched) {
+            ordersReconciled++;
+            if (mismatched) {
+                ordersWithMismatches++;
+            }
+        }
+
+        void skipped(ReconciliationCheck check) {
+            skippedCounts[check.ordinal()]++;
+        }
+
+        void add(Mismatch mismatch) {
+            int check = mismatch.getCheck().ordinal();
+            mismatchCounts[check]++;
+            absoluteDeltas[check] = absoluteDeltas[check].add(mismatch.getDelta().abs());
+            addMismatch(mismatch);
+        }
+
+        private void addMismatch(Mismatch mismatch) {
+            if (mismatches.size() < maxMismatches) {
+                mismatches.add(mismatch);
+            } else {
+                truncated = true;
+            }
+        }
+
+        Accumulator combine(Accumulator other) {
+            ordersReconciled += other.ordersReconciled;
+            ordersWithMismatches += other.ordersWithMismatches;
+            for (int i = 0; i < CHECKS.length; i++) {
+                mismatchCounts[i] += other.mismatchCounts[i];
+                skippedCounts[i] += other.skippedCounts[i];
+                absoluteDeltas[i] = absoluteDeltas[i].add(other.absoluteDeltas[i]);
+            }
+            truncated |= other.truncated;
+            for (Mismatch mismatch : other.mismatches) {
+                addMismatch(mismatch);
+            }
+            return this;
+        }
+
+        ReconciliationReport toReport() {
+            return new ReconciliationReport(this);
+        }
+    }
+}
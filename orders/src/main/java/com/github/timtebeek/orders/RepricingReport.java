@@ -0,0 +1,293 @@
+package com.github.timtebeek.orders;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Outcome of a {@link RepricingSimulator} run: total discount per scenario and loyalty tier, the number of orders
+ * priced differently than under the baseline and, when tracked, the total discount per customer.
+ */
+public final class RepricingReport {
+
+    private static final LoyaltyTier[] TIERS = LoyaltyTier.values();
+    private static final Comparator<CustomerRepricing> LARGEST_CHANGE = Comparator
+            .comparingLong((CustomerRepricing change) -> Math.abs(change.getDeltaCents()))
+            .thenComparing(CustomerRepricing::getCustomerId, Comparator.reverseOrder());
+
+    private final List<String> scenarios;
+    private final long ordersSimulated;
+    private final long ordersSkipped;
+    private final long unknownCustomerOrders;
+    private final long[] tierOrders;
+    private final long[] tierSubtotalCents;
+    private final long[] discountCents;
+    private final long[] changedOrders;
+    private final Map<String, CustomerTotals> customers;
+
+    private RepricingReport(Accumulator accumulator) {
+        this.scenarios = accumulator.scenarios;
+        this.ordersSimulated = accumulator.ordersSimulated;
+        this.ordersSkipped = accumulator.ordersSkipped;
+        this.unknownCustomerOrders = accumulator.unknownCustomerOrders;
+        this.tierOrders = accumulator.tierOrders.clone();
+        this.tierSubtotalCents = accumulator.tierSubtotalCents.clone();
+        this.discountCents = accumulator.discountCents.clone();
+        this.changedOrders = accumulator.changedOrders.clone();
+        this.customers = accumulator.customers;
+    }
+
+    /**
+     * Returns the names of the baseline and all scenarios.
+     */
+    public List<String> getScenarios() {
+        return scenarios;
+    }
+
+    public long getOrdersSimulated() {
+        return ordersSimulated;
+    }
+
+    /**
+     * Number of orders that could not be priced because their subtotal was missing, negative or finer than a cent.
+     */
+    public long getOrdersSkipped() {
+        return ordersSkipped;
+    }
+
+    /**
+     * Number of simulated orders whose customer could not be found, priced as {@link LoyaltyTier#NONE}.
+     */
+    public long getUnknownCustomerOrders() {
+        return unknownCustomerOrders;
+    }
+
+    public long getOrderCount(LoyaltyTier tier) {
+        return tierOrders[tier.ordinal()];
+    }
+
+    public long getSubtotalCents(LoyaltyTier tier) {
+        return tierSubtotalCents[tier.ordinal()];
+    }
+
+    /**
+     * Returns the total discount the scenario grants over all simulated orders.
+     *
+     * @throws IllegalArgumentException if there is no such scenario
+     */
+    public long getDiscountCents(String scenario) {
+        int base = scenarioIndex(scenario) * TIERS.length;
+        long total = 0;
+        for (int tier = 0; tier < TIERS.length; tier++) {
+            total += discountCents[base + tier];
+        }
+        return total;
+    }
+
+    /**
+     * Returns the total discount the scenario grants over all simulated orders of customers in the tier.
+     *
+     * @throws IllegalArgumentException if there is no such scenario
+     */
+    public long getDiscountCents(String scenario, LoyaltyTier tier) {
+        return discountCents[scenarioIndex(scenario) * TIERS.length + tier.ordinal()];
+    }
+
+    /**
+     * Returns how much more discount the scenario grants than the baseline; negative when it grants less.
+     */
+    public long getDeltaCents(String scenario) {
+        return getDiscountCents(scenario) - getDiscountCents(RepricingSimulator.BASELINE);
+    }
+
+    public long getDeltaCents(String scenario, LoyaltyTier tier) {
+        return getDiscountCents(scenario, tier) - getDiscountCents(RepricingSimulator.BASELINE, tier);
+    }
+
+    /**
+     * Number of orders that get a different discount under the scenario than under the baseline.
+     */
+    public long getOrdersChanged(String scenario) {
+        return changedOrders[scenarioIndex(scenario)];
+    }
+
+    /**
+     * Whether totals were kept per customer.
+     */
+    public boolean hasCustomerTotals() {
+        return customers != null;
+    }
+
+    public int getCustomerCount() {
+        checkCustomerTotals();
+        return customers.size();
+    }
+
+    /**
+     * Returns the total discount the scenario grants the customer, zero for customers without simulated orders.
+     *
+     * @throws IllegalStateException if totals were not kept per customer
+     */
+    public long getCustomerDiscountCents(String scenario, String customerId) {
+        int index = scenarioIndex(scenario);
+        checkCustomerTotals();
+        CustomerTotals totals = customers.get(customerId);
+        return totals == null ? 0 : totals.discountCents[index];
+    }
+
+    /**
+     * Returns the customers whose total discount changes most under the scenario, largest absolute change first.
+     * Customers whose discount does not change are not listed.
+     *
+     * @throws IllegalStateException if totals were not kept per customer
+     */
+    public List<CustomerRepricing> getLargestChanges(String scenario, int limit) {
+        int index = scenarioIndex(scenario);
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit cannot be negative");
+        }
+        checkCustomerTotals();
+        if (limit == 0) {
+            return List.of();
+        }
+        PriorityQueue<CustomerRepricing> largest = new PriorityQueue<>(LARGEST_CHANGE);
+        for (Map.Entry<String, CustomerTotals> entry : customers.entrySet()) {
+            CustomerTotals totals = entry.getValue();
+            if (totals.discountCents[index] == totals.discountCents[0]) {
+                continue;
+            }
+            CustomerRepricing change = new CustomerRepricing(entry.getKey(), TIERS[totals.tier],
+                    totals.discountCents[0], totals.discountCents[index]);
+            if (largest.size() < limit) {
+                largest.add(change);
+            } else if (LARGEST_CHANGE.compare(change, largest.peek()) > 0) {
+                largest.poll();
+                largest.add(change);
+            }
+        }
+        List<CustomerRepricing> changes = new ArrayList<>(largest);
+        changes.sort(LARGEST_CHANGE.reversed());
+        return changes;
+    }
+
+    private int scenarioIndex(String scenario) {
+        int index = scenarios.indexOf(scenario);
+        if (index < 0) {
+            throw new IllegalArgumentException("Unknown scenario: " + scenario);
+        }
+        return index;
+    }
+
+    private void checkCustomerTotals() {
+        if (customers == null) {
+            throw new IllegalStateException("Totals were not kept per customer");
+        }
+    }
+
+    private static final class CustomerTotals {
+        final long[] discountCents;
+        int tier;
+
+        CustomerTotals(int scenarios) {
+            this.discountCents = new long[scenarios];
+        }
+    }
+
+    /**
+     * Mutable container used to collect a report; one per fork-join task, combined afterwards.
+     */
+    static class Accumulator {
+        private final List<String> scenarios;
+        private final long[] tierOrders = new long[TIERS.length];
+        private final long[] tierSubtotalCents = new long[TIERS.length];
+        private final long[] discountCents;
+        private final long[] changedOrders;
+        private final long[] orderDiscounts;
+        private Map<String, CustomerTotals> customers;
+        private long ordersSimulated;
+        private long ordersSkipped;
+        private long unknownCustomerOrders;
+
+        Accumulator(List<String> scenarios, boolean perCustomer) {
+            this.scenarios = scenarios;
+            this.discountCents = new long[scenarios.size() * TIERS.length];
+            this.changedOrders = new long[scenarios.size()];
+            this.orderDiscounts = new long[scenarios.size()];
+            this.customers = perCustomer ? new HashMap<>() : null;
+        }
+
+        /**
+         * Returns a scratch array for the discounts of a single order per scenario, baseline first.
+         */
+        long[] orderDiscounts() {
+            return orderDiscounts;
+        }
+
+        void skipped() {
+            ordersSkipped++;
+        }
+
+        void add(String customerId, boolean knownCustomer, int tier, long subtotalCents, long[] discounts) {
+            ordersSimulated++;
+            if (!knownCustomer) {
+                unknownCustomerOrders++;
+            }
+            tierOrders[tier]++;
+            tierSubtotalCents[tier] += subtotalCents;
+            for (int i = 0; i < discounts.length; i++) {
+                discountCents[i * TIERS.length + tier] += discounts[i];
+                if (discounts[i] != discounts[0]) {
+                    changedOrders[i]++;
+                }
+            }
+            if (customers != null && customerId != null) {
+                CustomerTotals totals = customers.computeIfAbsent(customerId, id -> new CustomerTotals(discounts.length));
+                totals.tier = tier;
+                for (int i = 0; i < discounts.length; i++) {
+                    totals.discountCents[i] += discounts[i];
+                }
+            }
+        }
+
+        Accumulator combine(Accumulator other) {
+            ordersSimulated += other.ordersSimulated;
+            ordersSkipped += other.ordersSkipped;
+            unknownCustomerOrders += other.unknownCustomerOrders;
+            for (int i = 0; i < TIERS.length; i++) {
+                tierOrders[i] += other.tierOrders[i];
+                tierSubtotalCents[i] += other.tierSubtotalCents[i];
+            }
+            for (int i = 0; i < discountCents.length; i++) {
+                discountCents[i] += other.discountCents[i];
+            }
+            for (int i = 0; i < changedOrders.length; i++) {
+                changedOrders[i] += other.changedOrders[i];
+            }
+            if (customers != null) {
+                Map<String, CustomerTotals> into = customers;
+                Map<String, CustomerTotals> from = other.customers;
+                if (from.size() > into.size()) {
+                    into = other.customers;
+                    from = customers;
+                    customers = into;
+                }
+                for (Map.Entry<String, CustomerTotals> entry : from.entrySet()) {
+                    into.merge(entry.getKey(), entry.getValue(), (totals, more) -> {
+                        for (int i = 0; i < totals.discountCents.length; i++) {
+                            totals.discountCents[i] += more.discountCents[i];
+                        }
+                        return totals;
+                    });
+                }
+            }
+            return this;
+        }
+
+        RepricingReport toReport() {
+            return new RepricingReport(this);
+        }
+    }
+}
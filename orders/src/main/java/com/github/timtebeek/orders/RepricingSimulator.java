@@ -0,0 +1,166 @@
+package com.github.timtebeek.orders;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+
+/**
+ * Replays orders under alternative {@link DiscountRules} to see what discounts they would have granted, compared
+ * with a baseline.
+ * <p>
+ * All scenarios are evaluated in a single parallel pass on the common fork-join pool: every order is read, its
+ * subtotal converted to cents and its customer's tier looked up once, after which each scenario only costs a
+ * {@link CentsDiscountCalculator} style calculation on compiled rules. Totals are kept in {@code long} cents per
+ * scenario and tier, and optionally per customer; memory then grows with the number of customers, not orders.
+ * Orders without a subtotal, with a negative subtotal or with one finer than a cent are skipped.
+ */
+public final class RepricingSimulator {
+
+    public static final String BASELINE = "baseline";
+    public static final int DEFAULT_CHUNK_SIZE = 100_000;
+
+    private final Function<String, Customer> customers;
+    private final List<String> scenarios;
+    private final CompiledDiscountRules[] rules;
+    private final boolean perCustomer;
+
+    private RepricingSimulator(Builder builder) {
+        this.customers = builder.customers;
+        this.scenarios = List.copyOf(builder.scenarios.keySet());
+        this.rules = new CompiledDiscountRules[scenarios.size()];
+        for (int i = 0; i < rules.length; i++) {
+            rules[i] = new CompiledDiscountRules(builder.scenarios.get(scenarios.get(i)));
+        }
+        this.perCustomer = builder.perCustomer;
+    }
+
+    /**
+     * @param baseline  the rules every scenario is compared with, reported as {@link #BASELINE}
+     * @param customers looks up the customer for a customer ID, returning {@code null} when unknown; orders of
+     *                  unknown customers are priced as {@link LoyaltyTier#NONE}
+     */
+    public static Builder builder(DiscountRules baseline, Function<String, Customer> customers) {
+        return new Builder(baseline, customers);
+    }
+
+    /**
+     * Returns the names of the baseline and all scenarios, in the order they were added.
+     */
+    public List<String> getScenarios() {
+        return scenarios;
+    }
+
+    public RepricingReport simulate(Collection<Order> orders) {
+        return simulate(orders.stream());
+    }
+
+    /**
+     * Prices all orders under every scenario in parallel.
+     */
+    public RepricingReport simulate(Stream<Order> orders) {
+        return orders.parallel().collect(collector()).toReport();
+    }
+
+    public RepricingReport simulate(OrderFileReader reader) throws IOException {
+        return simulate(reader, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Prices every order in the file under every scenario, each chunk of {@code chunkSize} orders in parallel.
+     */
+    public RepricingReport simulate(OrderFileReader reader, int chunkSize) throws IOException {
+        RepricingReport.Accumulator report = new RepricingReport.Accumulator(scenarios, perCustomer);
+        reader.forEachChunk(chunkSize, chunk -> report.combine(chunk.parallelStream().collect(collector())));
+        return report.toReport();
+    }
+
+    private Collector<Order, RepricingReport.Accumulator, RepricingReport.Accumulator> collector() {
+        return Collector.of(
+                () -> new RepricingReport.Accumulator(scenarios, perCustomer),
+                this::simulate,
+                RepricingReport.Accumulator::combine);
+    }
+
+    private void simulate(RepricingReport.Accumulator report, Order order) {
+        long subtotalCents = subtotalCents(order);
+        if (subtotalCents < 0) {
+            report.skipped();
+            return;
+        }
+        String customerId = order.getCustomerId();
+        Customer customer = customerId == null ? null : customers.apply(customerId);
+        int tier = customer == null ? LoyaltyTier.NONE.ordinal() : LoyaltyTier.of(customer.getLoyaltyTier()).ordinal();
+        long[] discounts = report.orderDiscounts();
+        for (int i = 0; i < rules.length; i++) {
+            discounts[i] = rules[i].totalDiscount(tier, subtotalCents);
+        }
+        report.add(customerId, customer != null, tier, subtotalCents, discounts);
+    }
+
+    /**
+     * Returns the subtotal in cents, or {@code -1} when the order cannot be priced.
+     */
+    private static long subtotalCents(Order order) {
+        if (order == null || order.getSubtotal() == null || order.getSubtotal().signum() < 0) {
+            return -1;
+        }
+        try {
+            long cents = Money.toCents(order.getSubtotal());
+            return cents <= CompiledDiscountRules.MAX_SUBTOTAL_CENTS ? cents : -1;
+        } catch (ArithmeticException e) {
+            return -1;
+        }
+    }
+
+    public static final class Builder {
+        private final Function<String, Customer> customers;
+        private final Map<String, DiscountRules> scenarios = new LinkedHashMap<>();
+        private boolean perCustomer = true;
+
+        private Builder(DiscountRules baseline, Function<String, Customer> customers) {
+            if (baseline == null || customers == null) {
+                throw new IllegalArgumentException("Baseline rules and customer lookup cannot be null");
+            }
+            this.customers = customers;
+            scenarios.put(BASELINE, baseline);
+        }
+
+        /**
+         * Adds a scenario to compare with the baseline.
+         *
+         * @throws IllegalArgumentException if a scenario with the same name was already added
+         */
+        public Builder scenario(String name, DiscountRules rules) {
+            if (name == null || name.isBlank() || rules == null) {
+                throw new IllegalArgumentException("Scenario name and rules cannot be empty");
+            }
+            if (scenarios.putIfAbsent(name, rules) != null) {
+                throw new IllegalArgumentException("Duplicate scenario: " + name);
+            }
+            return this;
+        }
+
+        /**
+         * Whether to keep totals per customer, on by default; turning it off keeps memory constant.
+         */
+        public Builder perCustomer(boolean perCustomer) {
+            this.perCustomer = perCustomer;
+            return this;
+        }
+
+        /**
+         * @throws ArithmeticException if a rate is finer than a basis point or an amount is finer than a cent
+         */
+        public RepricingSimulator build() {
+            if (scenarios.size() == 1) {
+                throw new IllegalArgumentException("At least one scenario is required");
+            }
+            return new RepricingSimulator(this);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.github.timtebeek.orders;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps running revenue totals per customer, per item category and per order date, updated incrementally
+ * from {@link OrderStore} changes instead of recomputed with full scans.
+ * <p>
+ * Cancelled orders do not count as revenue: cancelling an order reverses its contribution, and replacing an
+ * order first reverses the previous version. Customer and daily revenue use the order total, category revenue the
+ * item line totals, all rounded to cents.
+ * <p>
+ * Totals are {@link LongAdder}s, so reads never block the writer. Each individual total is exact for the changes
+ * applied so far; a snapshot taken while a change is being applied may include it for some keys only.
+ */
+public class RevenueAggregator implements OrderStoreListener {
+
+    private final ConcurrentMap<String, LongAdder> byCustomer = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LongAdder> byCategory = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<LocalDate, LongAdder> byDay = new ConcurrentSkipListMap<>();
+    private final LongAdder total = new LongAdder();
+
+    /**
+     * Creates an aggregator that starts from the current contents of the store and follows its changes.
+     */
+    public static RevenueAggregator attachTo(OrderStore store) {
+        RevenueAggregator aggregator = new RevenueAggregator();
+        store.addListener(aggregator);
+        return aggregator;
+    }
+
+    @Override
+    public void orderAdded(Order order) {
+        apply(order, 1);
+    }
+
+    @Override
+    public void orderReplaced(Order previous, Order current) {
+        apply(previous, -1);
+        apply(current, 1);
+    }
+
+    @Override
+    public void orderRemoved(Order order) {
+        apply(order, -1);
+    }
+
+    @Override
+    public void orderStatusChanged(Order order, OrderStatus previous, OrderStatus current) {
+        if (current == OrderStatus.CANCELLED && previous != OrderStatus.CANCELLED) {
+            add(order, -1);
+        }
+    }
+
+    private void apply(Order order, int sign) {
+        if (order.getOrderStatus() != OrderStatus.CANCELLED) {
+            add(order, sign);
+        }
+    }
+
+    private void add(Order order, int sign) {
+        long orderCents = sign * cents(order.getTotal());
+        total.add(orderCents);
+        add(byCustomer, order.getCustomerId(), orderCents);
+        add(byDay, order.getOrderDate(), orderCents);
+        if (order.getItems() != null) {
+            for (OrderItem item : order.getItems()) {
+                add(byCategory, item.getCategory(), sign * cents(item.getLineTotal()));
+            }
+        }
+    }
+
+    private static <K> void add(Map<K, LongAdder> totals, K key, long cents) {
+        if (key != null && cents != 0) {
+            totals.computeIfAbsent(key, k -> new LongAdder()).add(cents);
+        }
+    }
+
+    private static long cents(BigDecimal amount) {
+        return amount == null ? 0 : Money.toCents(amount.setScale(2, RoundingMode.HALF_UP));
+    }
+
+    public BigDecimal getTotalRevenue() {
+        return Money.fromCents(total.sum());
+    }
+
+    public BigDecimal getCustomerRevenue(String customerId) {
+        return sum(byCustomer.get(customerId));
+    }
+
+    public BigDecimal getCategoryRevenue(String category) {
+        return sum(byCategory.get(category));
+    }
+
+    public BigDecimal getDailyRevenue(LocalDate day) {
+        return sum(byDay.get(day));
+    }
+
+    /**
+     * Revenue of orders placed between {@code from} and {@code to}, both inclusive.
+     */
+    public BigDecimal getRevenueBetween(LocalDate from, LocalDate to) {
+        long cents = 0;
+        for (LongAdder day : byDay.subMap(from, true, to, true).values()) {
+            cents += day.sum();
+        }
+        return Money.fromCents(cents);
+    }
+
+    public Map<String, BigDecimal> getRevenueByCustomer() {
+        return snapshot(byCustomer, new HashMap<>());
+    }
+
+    public Map<String, BigDecimal> getRevenueByCategory() {
+        return snapshot(byCategory, new HashMap<>());
+    }
+
+    /**
+     * Daily revenue in date order.
+     */
+    public Map<LocalDate, BigDecimal> getRevenueByDay() {
+        return snapshot(byDay, new TreeMap<>());
+    }
+
+    private static BigDecimal sum(LongAdder cents) {
+        return Money.fromCents(cents == null ? 0 : cents.sum());
+    }
+
+    private static <K> Map<K, BigDecimal> snapshot(Map<K, LongAdder> totals, Map<K, BigDecimal> snapshot) {
+        totals.forEach((key, cents) -> {
+            long sum = cents.sum();
+            if (sum != 0) {
+                snapshot.put(key, Money.fromCents(sum));
+            }
+        });
+        return snapshot;
+    }
+}
@@ -0,0 +1,133 @@
+package com.github.timtebeek.orders;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bloom filter that grows with its contents by adding filters of doubling capacity and halving false positive
+ * rate, so the combined false positive rate stays below the configured rate however many keys are added.
+ * Keys are given as two independent 64 bit hashes, combined by double hashing. Not thread-safe.
+ */
+final class ScalableBloomFilter {
+
+    private static final double LN2_SQUARED = Math.log(2) * Math.log(2);
+    private static final double TIGHTENING_RATIO = 0.5;
+
+    private final double falsePositiveRate;
+    private final List<Filter> filters = new ArrayList<>();
+
+    ScalableBloomFilter(long initialCapacity, double falsePositiveRate) {
+        if (initialCapacity <= 0) {
+            throw new IllegalArgumentException("Initial capacity must be positive");
+        }
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("False positive rate must be between 0 and 1: " + falsePositiveRate);
+        }
+        this.falsePositiveRate = falsePositiveRate;
+        filters.add(new Filter(initialCapacity, falsePositiveRate * (1 - TIGHTENING_RATIO)));
+    }
+
+    private ScalableBloomFilter(double falsePositiveRate) {
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    boolean mightContain(long hash1, long hash2) {
+        for (int i = filters.size() - 1; i >= 0; i--) {
+            if (filters.get(i).mightContain(hash1, hash2)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    void put(long hash1, long hash2) {
+        Filter current = filters.get(filters.size() - 1);
+        if (current.count >= current.capacity) {
+            current = new Filter(current.capacity * 2, current.falsePositiveRate * TIGHTENING_RATIO);
+            filters.add(current);
+        }
+        current.put(hash1, hash2);
+    }
+
+    double getFalsePositiveRate() {
+        return falsePositiveRate;
+    }
+
+    long bitSize() {
+        long bits = 0;
+        for (Filter filter : filters) {
+            bits += filter.bitCount;
+        }
+        return bits;
+    }
+
+    void writeTo(DataOutputStream out) throws IOException {
+        out.writeDouble(falsePositiveRate);
+        out.writeInt(filters.size());
+        for (Filter filter : filters) {
+            out.writeLong(filter.capacity);
+            out.writeDouble(filter.falsePositiveRate);
+            out.writeLong(filter.count);
+            for (long word : filter.bits) {
+                out.writeLong(word);
+            }
+        }
+    }
+
+    static ScalableBloomFilter readFrom(DataInputStream in) throws IOException {
+        ScalableBloomFilter bloom = new ScalableBloomFilter(in.readDouble());
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            Filter filter = new Filter(in.readLong(), in.readDouble());
+            filter.count = in.readLong();
+            for (int w = 0; w < filter.bits.length; w++) {
+                filter.bits[w] = in.readLong();
+            }
+            bloom.filters.add(filter);
+        }
+        return bloom;
+    }
+
+    private static final class Filter {
+        final long capacity;
+        final double falsePositiveRate;
+        final long bitCount;
+        final int hashCount;
+        final long[] bits;
+        long count;
+
+        Filter(long capacity, double falsePositiveRate) {
+            this.capacity = capacity;
+            this.falsePositiveRate = falsePositiveRate;
+            long optimalBits = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / LN2_SQUARED);
+            this.bits = new long[Math.toIntExact((Math.max(optimalBits, 64) + 63) / 64)];
+            this.bitCount = bits.length * 64L;
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / capacity * Math.log(2)));
+        }
+
+        boolean mightContain(long hash1, long hash2) {
+            long combined = hash1;
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Long.remainderUnsigned(combined, bitCount);
+                if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                    return false;
+                }
+                combined += hash2;
+            }
+            return true;
+        }
+
+        void put(long hash1, long hash2) {
+            long combined = hash1;
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Long.remainderUnsigned(combined, bitCount);
+                bits[(int) (bit >>> 6)] |= 1L << bit;
+                combined += hash2;
+            }
+            count++;
+        }
+    }
+}
@@ -0,0 +1,398 @@
+package com.github.timtebeek.orders;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * Processes orders on a fixed number of shards, each owning its own state and driven by a single thread.
+ * <p>
+ * Orders are routed by a hash of their customer ID, so all orders of a customer are handled one at a time by the
+ * same shard, in the order they were submitted by a thread. Per-customer state such as aggregates, deduplication
+ * or status transitions can then live in plain, unsynchronized structures. Every shard has a bounded lock-free
+ * inbox with many producers and its thread as single consumer; handlers reach other shards through
+ * {@link #execute(String, Consumer)}, which uses the same inboxes. Orders without a customer go to shard zero.
+ * <p>
+ * When an inbox is full, submitting threads wait. Shard threads never wait and never run a handler while another
+ * is still running: what a handler sends to a full inbox is kept in an unbounded outbox owned by its shard, and
+ * delivered in order between handlers, so shards sending to each other cannot deadlock. An exception or error
+ * thrown by a handler is counted, the order or task dropped, and the first one rethrown by {@link #close()}.
+ *
+ * @param <S> the type of the state owned by each shard
+ */
+public final class ShardedOrderExecutor<S> implements AutoCloseable {
+
+    public static final int DEFAULT_QUEUE_CAPACITY = 8_192;
+
+    private static final long PARK_NANOS = 100_000;
+    private static final int SPINS = 100;
+
+    private final BiConsumer<S, Order> handler;
+    private final List<Shard> shards;
+    private final ThreadLocal<Shard> currentShard = new ThreadLocal<>();
+    private final AtomicReference<Throwable> firstFailure = new AtomicReference<>();
+    private final AtomicLong failed = new AtomicLong();
+    private volatile boolean closed;
+    private volatile boolean stopping;
+
+    private ShardedOrderExecutor(Builder<S> builder) {
+        this.handler = builder.handler;
+        this.shards = new ArrayList<>(builder.shards);
+        for (int i = 0; i < builder.shards; i++) {
+            shards.add(new Shard(i, builder.states.apply(i), builder.queueCapacity));
+        }
+        ThreadFactory threads = builder.threads;
+        if (threads == null) {
+            threads = runnable -> {
+                Thread thread = new Thread(runnable);
+                thread.setDaemon(true);
+                return thread;
+            };
+        }
+        for (Shard shard : shards) {
+            shard.thread = threads.newThread(shard::run);
+            if (builder.threads == null) {
+                shard.thread.setName("order-shard-" + shard.index);
+            }
+        }
+        for (Shard shard : shards) {
+            shard.thread.start();
+        }
+    }
+
+    /**
+     * @param shards  number of shards, usually at most the number of available processors
+     * @param states  creates the state of the shard with the given index
+     * @param handler processes an order on the thread of its shard, with the shard's state
+     */
+    public static <S> Builder<S> builder(int shards, IntFunction<S> states, BiConsumer<S, Order> handler) {
+        return new Builder<>(shards, states, handler);
+    }
+
+    /**
+     * Returns the index of the shard owning the customer.
+     */
+    public int shardOf(String customerId) {
+        if (customerId == null) {
+            return 0;
+        }
+        return (int) ((Hashing.hash(customerId) >>> 1) % shards.size());
+    }
+
+    /**
+     * Queues the order on the shard of its customer, waiting while that shard's inbox is full.
+     *
+     * @throws IllegalStateException if the executor is closed
+     */
+    public void submit(Order order) {
+        if (order == null) {
+            throw new IllegalArgumentException("Order cannot be null");
+        }
+        checkOpen();
+        enqueue(shards.get(shardOf(order.getCustomerId())), order);
+    }
+
+    /**
+     * Runs the task with the state of the shard owning the customer, on that shard's thread. Handlers may call this
+     * to update state owned by another shard.
+     *
+     * @throws IllegalStateException if the executor is closed and the caller is not a shard thread
+     */
+    public void execute(String customerId, Consumer<S> task) {
+        if (task == null) {
+            throw new IllegalArgumentException("Task cannot be null");
+        }
+        if (currentShard.get() == null) {
+            checkOpen();
+        }
+        enqueue(shards.get(shardOf(customerId)), task);
+    }
+
+    /**
+     * Reads from the state of the shard owning the customer on that shard's thread.
+     */
+    public <R> CompletableFuture<R> query(String customerId, Function<S, R> query) {
+        CompletableFuture<R> result = new CompletableFuture<>();
+        execute(customerId, state -> {
+            try {
+                result.complete(query.apply(state));
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    private void enqueue(Shard target, Object item) {
+        target.enqueued.incrementAndGet();
+        Shard current = currentShard.get();
+        if (current != null) {
+            current.send(target, item);
+            return;
+        }
+        int attempts = 0;
+        while (!target.inbox.offer(item)) {
+            if (++attempts < SPINS) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(PARK_NANOS);
+            }
+        }
+        target.wake();
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Executor is closed");
+        }
+    }
+
+    /**
+     * Stops accepting orders, waits until every queued order and task has been processed, including tasks shards
+     * send each other meanwhile, and stops the shard threads. Call it once all submitting threads are done.
+     *
+     * @throws IllegalStateException if a handler failed, with the first failure as cause
+     */
+    @Override
+    public void close() {
+        closed = true;
+        awaitQuiescence();
+        stopping = true;
+        for (Shard shard : shards) {
+            LockSupport.unpark(shard.thread);
+        }
+        boolean interrupted = false;
+        for (Shard shard : shards) {
+            while (shard.thread.isAlive()) {
+                try {
+                    shard.thread.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        Throwable failure = firstFailure.get();
+        if (failure != null) {
+            throw new IllegalStateException("Order shard handler failed", failure);
+        }
+    }
+
+    /**
+     * Waits until two consecutive passes find every shard idle with unchanged counts, so no shard was sending
+     * to another between the passes.
+     */
+    private void awaitQuiescence() {
+        long[] previous = null;
+        while (true) {
+            long[] counts = new long[shards.size()];
+            boolean idle = true;
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = shards.get(i).enqueued.get();
+                idle &= shards.get(i).processed == counts[i];
+            }
+            if (idle && Arrays.equals(counts, previous)) {
+                return;
+            }
+            previous = idle ? counts : null;
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+    }
+
+    public int getShardCount() {
+        return shards.size();
+    }
+
+    /**
+     * Number of orders and tasks processed by the shard, including failed ones.
+     */
+    public long getProcessed(int shard) {
+        return shards.get(shard).processed;
+    }
+
+    public int getQueueDepth(int shard) {
+        return shards.get(shard).inbox.size();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+
+    /**
+     * Returns the shard states by shard index; only safe to read once the executor is closed.
+     *
+     * @throws IllegalStateException if the executor is still running
+     */
+    public List<S> getStates() {
+        if (!stopping) {
+            throw new IllegalStateException("Shard states can only be read once the executor is closed");
+        }
+        List<S> states = new ArrayList<>(shards.size());
+        for (Shard shard : shards) {
+            states.add(shard.state);
+        }
+        return states;
+    }
+
+    private final class Shard {
+        final int index;
+        final S state;
+        final MpscQueue<Object> inbox;
+        final ArrayDeque<Pending> outbox = new ArrayDeque<>();
+        final AtomicLong enqueued = new AtomicLong();
+        volatile long processed;
+        volatile boolean parked;
+        Thread thread;
+
+        Shard(int index, S state, int queueCapacity) {
+            this.index = index;
+            this.state = state;
+            this.inbox = new MpscQueue<>(queueCapacity);
+        }
+
+        void run() {
+            currentShard.set(this);
+            int idle = 0;
+            while (true) {
+                boolean delivered = flush();
+                if (processNext() || delivered) {
+                    idle = 0;
+                } else if (stopping) {
+                    return;
+                } else if (++idle < SPINS) {
+                    Thread.onSpinWait();
+                } else {
+                    parked = true;
+                    if (inbox.size() == 0 && !stopping) {
+                        // Sleep briefly when only waiting for room in another shard's inbox
+                        LockSupport.parkNanos(outbox.isEmpty() ? PARK_NANOS * 10 : PARK_NANOS);
+                    }
+                    parked = false;
+                }
+            }
+        }
+
+        void wake() {
+            if (parked) {
+                LockSupport.unpark(thread);
+            }
+        }
+
+        /**
+         * Sends from a handler on this shard without waiting: straight to the target's inbox while nothing is
+         * waiting in the outbox, otherwise behind what is, so items reach every target in the order they were sent.
+         */
+        void send(Shard target, Object item) {
+            if (outbox.isEmpty() && target.inbox.offer(item)) {
+                target.wake();
+                return;
+            }
+            outbox.add(new Pending(target, item));
+        }
+
+        /**
+         * Moves outbox items to their targets until one is still full, returning whether any was delivered.
+         */
+        boolean flush() {
+            boolean delivered = false;
+            Pending pending;
+            while ((pending = outbox.peek()) != null && pending.target.inbox.offer(pending.item)) {
+                outbox.poll();
+                pending.target.wake();
+                delivered = true;
+            }
+            return delivered;
+        }
+
+        /**
+         * Processes the next order or task in the inbox, returning {@code false} if it was empty.
+         */
+        @SuppressWarnings("unchecked")
+        boolean processNext() {
+            Object item = inbox.poll();
+            if (item == null) {
+                return false;
+            }
+            try {
+                if (item instanceof Order) {
+                    handler.accept(state, (Order) item);
+                } else {
+                    ((Consumer<S>) item).accept(state);
+                }
+            } catch (Throwable e) {
+                failed.incrementAndGet();
+                firstFailure.compareAndSet(null, e);
+            }
+            processed = processed + 1;
+            return true;
+        }
+    }
+
+    private final class Pending {
+        final Shard target;
+        final Object item;
+
+        Pending(Shard target, Object item) {
+            this.target = target;
+            this.item = item;
+        }
+    }
+
+    public static final class Builder<S> {
+        private final int shards;
+        private final IntFunction<S> states;
+        private final BiConsumer<S, Order> handler;
+        private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+        private ThreadFactory threads;
+
+        private Builder(int shards, IntFunction<S> states, BiConsumer<S, Order> handler) {
+            if (shards <= 0) {
+                throw new IllegalArgumentException("Number of shards must be positive");
+            }
+            if (states == null || handler == null) {
+                throw new IllegalArgumentException("State factory and handler cannot be null");
+            }
+            this.shards = shards;
+            this.states = states;
+            this.handler = handler;
+        }
+
+        /**
+         * Capacity of each shard's inbox, rounded up to a power of two.
+         */
+        public Builder<S> queueCapacity(int queueCapacity) {
+            if (queueCapacity <= 0) {
+                throw new IllegalArgumentException("Queue capacity must be positive");
+            }
+            this.queueCapacity = queueCapacity;
+            return this;
+        }
+
+        /**
+         * Runs shards on threads from the factory instead of daemon platform threads.
+         */
+        public Builder<S> threadFactory(ThreadFactory threads) {
+            this.threads = threads;
+            return this;
+        }
+
+        /**
+         * Builds the executor and starts its shard threads.
+         */
+        public ShardedOrderExecutor<S> build() {
+            return new ShardedOrderExecutor<>(this);
+        }
+    }
+}
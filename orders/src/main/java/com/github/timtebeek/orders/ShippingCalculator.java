@@ -0,0 +1,351 @@
+package com.github.timtebeek.orders;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Quotes shipping costs from the destination address and parcel weight.
+ * <p>
+ * Addresses map to named zones, most specific match first: the longest configured zip code prefix within the
+ * country, then the state, then the country. Zip code prefixes are kept in a prefix trie flattened into int
+ * arrays and walked character by character, ignoring case, spaces and dashes, so a zone lookup neither
+ * allocates nor hashes the zip code. Rates are precomputed in cents per zone and weight band, where each band
+ * covers weights up to and including its limit.
+ */
+public final class ShippingCalculator {
+
+    /**
+     * Zone index returned for addresses outside every configured zone.
+     */
+    public static final int NO_ZONE = -1;
+
+    private static final int ALPHABET = 36;
+
+    private final String[] zoneNames;
+    private final long[] bandLimitsGrams;
+    private final long[] rateCents;
+    private final Map<String, CountryZones> countries;
+    private final int[] children;
+    private final int[] nodeZones;
+
+    private ShippingCalculator(Builder builder) {
+        this.zoneNames = builder.zones.keySet().toArray(new String[0]);
+        this.bandLimitsGrams = builder.bandLimitsGrams;
+        int bands = bandLimitsGrams.length;
+        this.rateCents = new long[zoneNames.length * bands];
+        int zone = 0;
+        for (long[] rates : builder.zones.values()) {
+            System.arraycopy(rates, 0, rateCents, zone * bands, bands);
+            zone++;
+        }
+
+        Trie trie = new Trie();
+        this.countries = new HashMap<>();
+        for (Map.Entry<String, Builder.CountryRules> entry : builder.countries.entrySet()) {
+            Builder.CountryRules rules = entry.getValue();
+            int root = trie.newNode();
+            for (Map.Entry<String, String> prefix : rules.zipPrefixes.entrySet()) {
+                trie.put(root, prefix.getKey(), zoneIndex(prefix.getValue()));
+            }
+            Map<String, Integer> states = new HashMap<>();
+            rules.states.forEach((state, zoneName) -> states.put(state, zoneIndex(zoneName)));
+            countries.put(entry.getKey(), new CountryZones(root,
+                    rules.defaultZone == null ? NO_ZONE : zoneIndex(rules.defaultZone), states));
+        }
+        this.children = Arrays.copyOf(trie.children, trie.size * ALPHABET);
+        this.nodeZones = Arrays.copyOf(trie.zones, trie.size);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    private int zoneIndex(String zoneName) {
+        int index = Arrays.asList(zoneNames).indexOf(zoneName);
+        if (index < 0) {
+            throw new IllegalArgumentException("Unknown shipping zone: " + zoneName);
+        }
+        return index;
+    }
+
+    /**
+     * Returns the index of the zone of the address, or {@link #NO_ZONE}.
+     * Country and state codes must match the configured codes exactly.
+     */
+    public int zone(Address address) {
+        if (address == null || address.getCountry() == null) {
+            return NO_ZONE;
+        }
+        CountryZones country = countries.get(address.getCountry());
+        if (country == null) {
+            return NO_ZONE;
+        }
+        int zone = address.getZipCode() == null ? NO_ZONE : longestPrefixZone(country.root, address.getZipCode());
+        if (zone == NO_ZONE && address.getState() != null) {
+            Integer stateZone = country.states.get(address.getState());
+            zone = stateZone == null ? NO_ZONE : stateZone;
+        }
+        return zone == NO_ZONE ? country.defaultZone : zone;
+    }
+
+    private int longestPrefixZone(int node, String zipCode) {
+        int zone = nodeZones[node];
+        for (int i = 0; i < zipCode.length(); i++) {
+            int symbol = symbol(zipCode.charAt(i));
+            if (symbol < 0) {
+                continue;
+            }
+            node = children[node * ALPHABET + symbol];
+            if (node == 0) {
+                break;
+            }
+            if (nodeZones[node] != NO_ZONE) {
+                zone = nodeZones[node];
+            }
+        }
+        return zone;
+    }
+
+    /**
+     * Maps digits and letters to 0 to 35, ignoring case, and anything else to -1.
+     */
+    private static int symbol(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'A' && c <= 'Z') {
+            return c - 'A' + 10;
+        }
+        if (c >= 'a' && c <= 'z') {
+            return c - 'a' + 10;
+        }
+        return -1;
+    }
+
+    public String getZoneName(int zone) {
+        return zoneNames[zone];
+    }
+
+    public int getZoneCount() {
+        return zoneNames.length;
+    }
+
+    /**
+     * Quotes shipping a parcel of the given weight to the address, in cents.
+     *
+     * @throws IllegalArgumentException if the address has no zone, or the weight is negative or above the last band
+     */
+    public long quoteCents(Address address, long weightGrams) {
+        int zone = zone(address);
+        if (zone == NO_ZONE) {
+            throw new IllegalArgumentException("No shipping zone for address in " + (address == null ? null : address.getCountry()));
+        }
+        return rateCents[zone * bandLimitsGrams.length + band(weightGrams)];
+    }
+
+    public BigDecimal quote(Address address, long weightGrams) {
+        return Money.fromCents(quoteCents(address, weightGrams));
+    }
+
+    /**
+     * Quotes shipping a parcel to the customer's shipping address.
+     */
+    public BigDecimal quote(Customer customer, long weightGrams) {
+        if (customer == null) {
+            throw new IllegalArgumentException("Customer cannot be null");
+        }
+        return quote(customer.getShippingAddress(), weightGrams);
+    }
+
+    /**
+     * Quotes a batch of parcels, writing the cost in cents of parcel {@code i} to {@code costCents[i]}.
+     * Addresses repeated in consecutive positions are looked up once.
+     *
+     * @throws IllegalArgumentException if the arrays differ in length, or any parcel cannot be quoted
+     */
+    public void quoteCents(Address[] addresses, long[] weightsGrams, long[] costCents) {
+        if (addresses.length != weightsGrams.length || addresses.length != costCents.length) {
+            throw new IllegalArgumentException("Addresses, weights and costs must have the same length");
+        }
+        Address previous = null;
+        int zone = NO_ZONE;
+        for (int i = 0; i < addresses.length; i++) {
+            if (addresses[i] != previous || i == 0) {
+                previous = addresses[i];
+                zone = zone(previous);
+                if (zone == NO_ZONE) {
+                    throw new IllegalArgumentException("No shipping zone for parcel " + i);
+                }
+            }
+            costCents[i] = rateCents[zone * bandLimitsGrams.length + band(weightsGrams[i])];
+        }
+    }
+
+    private int band(long weightGrams) {
+        if (weightGrams < 0) {
+            throw new IllegalArgumentException("Weight cannot be negative");
+        }
+        int band = Arrays.binarySearch(bandLimitsGrams, weightGrams);
+        if (band < 0) {
+            band = -band - 1;
+        }
+        if (band == bandLimitsGrams.length) {
+            throw new IllegalArgumentException("Weight " + weightGrams + "g exceeds the heaviest band of "
+                    + bandLimitsGrams[bandLimitsGrams.length - 1] + "g");
+        }
+        return band;
+    }
+
+    private static final class CountryZones {
+        final int root;
+        final int defaultZone;
+        final Map<String, Integer> states;
+
+        CountryZones(int root, int defaultZone, Map<String, Integer> states) {
+            this.root = root;
+            this.defaultZone = defaultZone;
+            this.states = states;
+        }
+    }
+
+    /**
+     * Growing trie of zip code prefixes; node 0 is a sentinel, so a zero child means no child.
+     */
+    private static final class Trie {
+        int[] children = new int[16 * ALPHABET];
+        int[] zones = new int[16];
+        int size;
+
+        Trie() {
+            newNode();
+        }
+
+        int newNode() {
+            if (size == zones.length) {
+                zones = Arrays.copyOf(zones, size * 2);
+                children = Arrays.copyOf(children, size * 2 * ALPHABET);
+            }
+            zones[size] = NO_ZONE;
+            return size++;
+        }
+
+        void put(int node, String prefix, int zone) {
+            for (int i = 0; i < prefix.length(); i++) {
+                int symbol = symbol(prefix.charAt(i));
+                if (symbol < 0) {
+                    continue;
+                }
+                int child = children[node * ALPHABET + symbol];
+                if (child == 0) {
+                    child = newNode();
+                    children[node * ALPHABET + symbol] = child;
+                }
+                node = child;
+            }
+            zones[node] = zone;
+        }
+    }
+
+    public static final class Builder {
+        private long[] bandLimitsGrams;
+        private final Map<String, long[]> zones = new LinkedHashMap<>();
+        private final Map<String, CountryRules> countries = new HashMap<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Upper weight limits of the bands, in grams and ascending; a parcel falls in the first band it fits.
+         */
+        public Builder weightBands(long... limitsGrams) {
+            if (limitsGrams.length == 0) {
+                throw new IllegalArgumentException("At least one weight band is required");
+            }
+            for (int i = 0; i < limitsGrams.length; i++) {
+                if (limitsGrams[i] <= 0 || (i > 0 && limitsGrams[i] <= limitsGrams[i - 1])) {
+                    throw new IllegalArgumentException("Weight bands must be positive and ascending: "
+                            + Arrays.toString(limitsGrams));
+                }
+            }
+            this.bandLimitsGrams = limitsGrams.clone();
+            return this;
+        }
+
+        /**
+         * Defines a zone with a rate per weight band, in the order of the bands.
+         *
+         * @throws ArithmeticException if a rate has fractional cents
+         */
+        public Builder zone(String name, BigDecimal... rates) {
+            if (bandLimitsGrams == null) {
+                throw new IllegalArgumentException("Weight bands must be defined before zones");
+            }
+            if (rates.length != bandLimitsGrams.length) {
+                throw new IllegalArgumentException("Zone " + name + " needs a rate for each of the "
+                        + bandLimitsGrams.length + " weight bands");
+            }
+            long[] cents = new long[rates.length];
+            for (int i = 0; i < rates.length; i++) {
+                if (rates[i] == null || rates[i].signum() < 0) {
+                    throw new IllegalArgumentException("Shipping rates cannot be null or negative");
+                }
+                cents[i] = Money.toCents(rates[i]);
+            }
+            if (zones.putIfAbsent(name, cents) != null) {
+                throw new IllegalArgumentException("Shipping zone defined twice: " + name);
+            }
+            return this;
+        }
+
+        /**
+         * Ships to the country through the zone unless a state or zip code prefix matches.
+         */
+        public Builder country(String country, String zone) {
+            rules(country).defaultZone = zone;
+            return this;
+        }
+
+        public Builder state(String country, String state, String zone) {
+            rules(country).states.put(state, zone);
+            return this;
+        }
+
+        /**
+         * Ships to zip codes starting with the prefix through the zone; longer prefixes take precedence.
+         */
+        public Builder zipPrefix(String country, String prefix, String zone) {
+            if (prefix == null || prefix.chars().noneMatch(c -> symbol((char) c) >= 0)) {
+                throw new IllegalArgumentException("Zip code prefix needs a letter or digit: " + prefix);
+            }
+            rules(country).zipPrefixes.put(prefix.toUpperCase(Locale.ROOT), zone);
+            return this;
+        }
+
+        private CountryRules rules(String country) {
+            if (country == null) {
+                throw new IllegalArgumentException("Country cannot be null");
+            }
+            return countries.computeIfAbsent(country, c -> new CountryRules());
+        }
+
+        /**
+         * @throws IllegalArgumentException if a rule refers to an undefined zone
+         */
+        public ShippingCalculator build() {
+            if (zones.isEmpty()) {
+                throw new IllegalArgumentException("At least one shipping zone is required");
+            }
+            return new ShippingCalculator(this);
+        }
+
+        private static final class CountryRules {
+            String defaultZone;
+            final Map<String, String> states = new HashMap<>();
+            final Map<String, String> zipPrefixes = new LinkedHashMap<>();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.github.timtebeek.orders;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Calculates tax per order line from the shipping address and the item's product category.
+ * <p>
+ * Tax is rounded half up to cents per line and summed, like the {@link DiscountCalculator} rounds discounts.
+ * The {@link TaxRates} in effect can be replaced at runtime with {@link #updateRates(TaxRates)} without blocking
+ * calculations; every calculation reads a single rates snapshot, so it never mixes old and new rates.
+ */
+public class TaxCalculator {
+
+    private final AtomicReference<TaxRates> rates;
+
+    public TaxCalculator(TaxRates rates) {
+        if (rates == null) {
+            throw new IllegalArgumentException("Tax rates cannot be null");
+        }
+        this.rates = new AtomicReference<>(rates);
+    }
+
+    public TaxRates getRates() {
+        return rates.get();
+    }
+
+    /**
+     * Atomically replaces the rates used for subsequent calculations, returning the previous rates.
+     */
+    public TaxRates updateRates(TaxRates newRates) {
+        if (newRates == null) {
+            throw new IllegalArgumentException("Tax rates cannot be null");
+        }
+        return rates.getAndSet(newRates);
+    }
+
+    /**
+     * Calculates the tax on a single order line.
+     */
+    public BigDecimal calculateTax(Address address, OrderItem item) {
+        if (item == null || item.getLineTotal() == null) {
+            throw new IllegalArgumentException("Item and line total cannot be null");
+        }
+        TaxRates snapshot = rates.get();
+        return tax(snapshot, snapshot.regionCode(address), item);
+    }
+
+    /**
+     * Calculates the tax on all lines of an order shipped to the address.
+     */
+    public BigDecimal calculateTax(Address address, Order order) {
+        if (order == null) {
+            throw new IllegalArgumentException("Order cannot be null");
+        }
+        return calculateTax(address, order.getItems());
+    }
+
+    /**
+     * Calculates the tax on all lines of a cart or order shipped to the address, looking up the region once.
+     */
+    public BigDecimal calculateTax(Address address, Collection<OrderItem> items) {
+        if (items == null) {
+            throw new IllegalArgumentException("Items cannot be null");
+        }
+        TaxRates snapshot = rates.get();
+        int region = snapshot.regionCode(address);
+        BigDecimal total = BigDecimal.ZERO.setScale(2);
+        for (OrderItem item : items) {
+            if (item == null || item.getLineTotal() == null) {
+                throw new IllegalArgumentException("Item and line total cannot be null");
+            }
+            total = total.add(tax(snapshot, region, item));
+        }
+        return total;
+    }
+
+    /**
+     * Line totals in whole cents are taxed in {@code long} arithmetic, others with {@link BigDecimal};
+     * both round half up.
+     */
+    private static BigDecimal tax(TaxRates snapshot, int region, OrderItem item) {
+        long ratePpm = snapshot.rate(region, snapshot.categoryCode(item.getCategory()));
+        BigDecimal lineTotal = item.getLineTotal();
+        if (lineTotal.scale() <= 2) {
+            return Money.fromCents(TaxRates.applyRate(Money.toCents(lineTotal), ratePpm));
+        }
+        return lineTotal.multiply(BigDecimal.valueOf(ratePpm, 6)).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Calculates the tax on an amount in cents for a category shipped to the address.
+     */
+    public long calculateTaxCents(Address address, String category, long lineTotalCents) {
+        TaxRates snapshot = rates.get();
+        return TaxRates.applyRate(lineTotalCents, snapshot.rate(snapshot.regionCode(address), snapshot.categoryCode(category)));
+    }
+
+    /**
+     * Calculates the tax on a batch of lines in cents, writing the tax of line {@code i} to {@code taxCents[i]}.
+     * All lines use the same rates snapshot, and addresses and categories repeated in consecutive positions are
+     * looked up once.
+     *
+     * @throws IllegalArgumentException if the arrays differ in length
+     */
+    public void calculateTaxCents(Address[] addresses, String[] categories, long[] lineTotalCents, long[] taxCents) {
+        int size = addresses.length;
+        if (categories.length != size || lineTotalCents.length != size || taxCents.length != size) {
+            throw new IllegalArgumentException("Addresses, categories, line totals and taxes must have the same length");
+        }
+        TaxRates snapshot = rates.get();
+        Address previousAddress = null;
+        String previousCategory = null;
+        int region = TaxRates.UNKNOWN_REGION;
+        int category = TaxRates.OTHER_CATEGORY;
+        for (int i = 0; i < size; i++) {
+            if (addresses[i] != previousAddress || i == 0) {
+                previousAddress = addresses[i];
+                region = snapshot.regionCode(previousAddress);
+            }
+            if (categories[i] != previousCategory || i == 0) {
+                previousCategory = categories[i];
+                category = snapshot.categoryCode(previousCategory);
+            }
+            taxCents[i] = TaxRates.applyRate(lineTotalCents[i], snapshot.rate(region, category));
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package com.github.timtebeek.orders;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Immutable snapshot of the tax rates used by the {@link TaxCalculator}.
+ * <p>
+ * Rates are configured per country or state, optionally narrowed to a product category, and precomputed into a
+ * dense table of parts per million indexed by region code and category code, so a lookup is two hash lookups and
+ * an array read. The most specific rate applies: state and category, state, country and category, country, and
+ * finally the default rate, which applies to unknown regions too. Country, state and category names must match
+ * exactly; categories without a specific rate share one code. Supported properties:
+ * <pre>
+ * default=0.00              # rate for regions without a configured rate, zero when absent
+ * US=0.00                   # country rate
+ * US.IL=0.0625              # state rate
+ * US.IL/Grocery=0.01        # state rate for a product category
+ * NL/Books=0.09             # country rate for a product category
+ * </pre>
+ */
+public final class TaxRates {
+
+    /**
+     * Region code of addresses without a configured country, taxed at the default rate.
+     */
+    public static final int UNKNOWN_REGION = 0;
+
+    /**
+     * Category code of categories without a specific rate.
+     */
+    public static final int OTHER_CATEGORY = 0;
+
+    static final long PARTS_PER_MILLION = 1_000_000;
+
+    private static final TaxRates NONE = builder().build();
+
+    private final Map<String, Country> countries = new HashMap<>();
+    private final Map<String, Integer> categories = new HashMap<>();
+    private final int categoryCount;
+    private final long[] ratesPpm;
+
+    private TaxRates(Builder builder) {
+        for (Map.Entry<String, BigDecimal> entry : builder.rates.entrySet()) {
+            int slash = entry.getKey().indexOf('/');
+            if (slash >= 0) {
+                categories.putIfAbsent(entry.getKey().substring(slash + 1), categories.size() + 1);
+            }
+        }
+        this.categoryCount = categories.size() + 1;
+
+        int regionCount = 1;
+        for (String key : builder.rates.keySet()) {
+            String region = region(key);
+            if (region.equals(Builder.DEFAULT)) {
+                continue;
+            }
+            int dot = region.indexOf('.');
+            Country country = countries.get(dot < 0 ? region : region.substring(0, dot));
+            if (country == null) {
+                country = new Country(regionCount++);
+                countries.put(dot < 0 ? region : region.substring(0, dot), country);
+            }
+            if (dot >= 0 && !country.states.containsKey(region.substring(dot + 1))) {
+                country.states.put(region.substring(dot + 1), regionCount++);
+            }
+        }
+
+        this.ratesPpm = new long[regionCount * categoryCount];
+        fill(UNKNOWN_REGION, null, null, builder.rates);
+        for (Map.Entry<String, Country> country : countries.entrySet()) {
+            fill(country.getValue().code, country.getKey(), null, builder.rates);
+            for (Map.Entry<String, Integer> state : country.getValue().states.entrySet()) {
+                fill(state.getValue(), country.getKey(), state.getKey(), builder.rates);
+            }
+        }
+    }
+
+    private static String region(String key) {
+        int slash = key.indexOf('/');
+        return slash < 0 ? key : key.substring(0, slash);
+    }
+
+    /**
+     * Resolves every category of one region to its most specific configured rate.
+     */
+    private void fill(int regionCode, String country, String state, Map<String, BigDecimal> rates) {
+        String[] candidates = state != null
+                ? new String[]{country + '.' + state, country, Builder.DEFAULT}
+                : country != null ? new String[]{country, Builder.DEFAULT} : new String[]{Builder.DEFAULT};
+        ratesPpm[regionCode * categoryCount + OTHER_CATEGORY] = resolve(candidates, null, rates);
+        for (Map.Entry<String, Integer> category : categories.entrySet()) {
+            ratesPpm[regionCode * categoryCount + category.getValue()] = resolve(candidates, category.getKey(), rates);
+        }
+    }
+
+    private static long resolve(String[] regions, String category, Map<String, BigDecimal> rates) {
+        for (String region : regions) {
+            BigDecimal rate = category == null || region.equals(Builder.DEFAULT) ? null : rates.get(region + '/' + category);
+            if (rate == null) {
+                rate = rates.get(region);
+            }
+            if (rate != null) {
+                return rate.movePointRight(6).longValueExact();
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Returns rates that tax nothing.
+     */
+    public static TaxRates none() {
+        return NONE;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static TaxRates load(Path file) throws IOException {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            Properties properties = new Properties();
+            properties.load(reader);
+            return load(properties);
+        }
+    }
+
+    public static TaxRates load(Properties properties) {
+        Builder builder = builder();
+        for (String key : properties.stringPropertyNames()) {
+            String value = properties.getProperty(key).trim();
+            BigDecimal rate;
+            try {
+                rate = new BigDecimal(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid decimal for " + key + ": " + value, e);
+            }
+            if (key.equals(Builder.DEFAULT)) {
+                builder.defaultRate(rate);
+                continue;
+            }
+            int slash = key.indexOf('/');
+            String region = slash < 0 ? key : key.substring(0, slash);
+            String category = slash < 0 ? null : key.substring(slash + 1);
+            int dot = region.indexOf('.');
+            if (dot < 0) {
+                builder.country(region, category, rate);
+            } else {
+                builder.state(region.substring(0, dot), region.substring(dot + 1), category, rate);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Returns the region code of the address: its state when that has rates, else its country,
+     * else {@link #UNKNOWN_REGION}.
+     */
+    public int regionCode(Address address) {
+        if (address == null || address.getCountry() == null) {
+            return UNKNOWN_REGION;
+        }
+        Country country = countries.get(address.getCountry());
+        if (country == null) {
+            return UNKNOWN_REGION;
+        }
+        Integer state = address.getState() == null ? null : country.states.get(address.getState());
+        return state == null ? country.code : state;
+    }
+
+    /**
+     * Returns the category code, or {@link #OTHER_CATEGORY} when the category has no specific rate.
+     */
+    public int categoryCode(String category) {
+        if (category == null) {
+            return OTHER_CATEGORY;
+        }
+        Integer code = categories.get(category);
+        return code == null ? OTHER_CATEGORY : code;
+    }
+
+    public BigDecimal getRate(Address address, String category) {
+        return BigDecimal.valueOf(rate(regionCode(address), categoryCode(category)), 6).stripTrailingZeros();
+    }
+
+    long rate(int regionCode, int categoryCode) {
+        return ratesPpm[regionCode * categoryCount + categoryCode];
+    }
+
+    /**
+     * Calculates the tax on an amount in cents, rounding half up like the discount rules do.
+     */
+    static long applyRate(long cents, long ratePpm) {
+        if (cents < 0) {
+            return -applyRate(-cents, ratePpm);
+        }
+        return Math.addExact(Math.multiplyExact(cents, ratePpm), PARTS_PER_MILLION / 2) / PARTS_PER_MILLION;
+    }
+
+    private static final class Country {
+        final int code;
+        final Map<String, Integer> states = new HashMap<>();
+
+        Country(int code) {
+            this.code = code;
+        }
+    }
+
+    public static final class Builder {
+        private static final String DEFAULT = "default";
+
+        private final Map<String, BigDecimal> rates = new LinkedHashMap<>();
+
+        private Builder() {
+        }
+
+        public Builder defaultRate(BigDecimal rate) {
+            return put(DEFAULT, rate);
+        }
+
+        public Builder country(String country, BigDecimal rate) {
+            return country(country, null, rate);
+        }
+
+        /**
+         * @param category the product category the rate applies to, or {@code null} for all categories
+         */
+        public Builder country(String country, String category, BigDecimal rate) {
+            return put(key(country, category), rate);
+        }
+
+        public Builder state(String country, String state, BigDecimal rate) {
+            return state(country, state, null, rate);
+        }
+
+        /**
+         * @param category the product category the rate applies to, or {@code null} for all categories
+         */
+        public Builder state(String country, String state, String category, BigDecimal rate) {
+            if (state == null || state.isEmpty() || state.contains("/")) {
+                throw new IllegalArgumentException("Invalid state: " + state);
+            }
+            String key = key(country, category);
+            return put(country + '.' + state + key.substring(country.length()), rate);
+        }
+
+        private static String key(String country, String category) {
+            if (country == null || country.isEmpty() || country.contains(".") || country.contains("/")
+                    || country.equals(DEFAULT)) {
+                throw new IllegalArgumentException("Invalid country: " + country);
+            }
+            if (category != null && category.isEmpty()) {
+                throw new IllegalArgumentException("Category cannot be empty");
+            }
+            return category == null ? country : country + '/' + category;
+        }
+
+        /**
+         * @throws IllegalArgumentException if the rate is not between 0 and 1, or finer than a millionth
+         */
+        private Builder put(String key, BigDecimal rate) {
+            if (rate == null || rate.signum() < 0 || rate.compareTo(BigDecimal.ONE) > 0) {
+                throw new IllegalArgumentException("Tax rate for " + key + " must be between 0 and 1: " + rate);
+            }
+            if (rate.stripTrailingZeros().scale() > 6) {
+                throw new IllegalArgumentException("Tax rate for " + key + " is finer than a millionth: " + rate);
+            }
+            rates.put(key, rate);
+            return this;
+        }
+
+        public TaxRates build() {
+            return new TaxRates(this);
+        }
+    }
+}
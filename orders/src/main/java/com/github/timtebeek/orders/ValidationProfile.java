@@ -0,0 +1,74 @@
+package com.github.timtebeek.orders;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Named subset of {@link ValidationRule}s enabled in an {@link OrderValidator}. Rules outside the profile are never
+ * evaluated, so they never fail. {@link ValidationRule#ORDER_REQUIRED} is part of every profile.
+ */
+public final class ValidationProfile {
+
+    /**
+     * Every rule; the profile of validators created without one.
+     */
+    public static final ValidationProfile AUDIT = of("audit", EnumSet.allOf(ValidationRule.class));
+
+    /**
+     * The identifiers, items and positive total needed to store and price an incoming order.
+     */
+    public static final ValidationProfile INGEST = of("ingest", List.of(
+            ValidationRule.ORDER_ID_REQUIRED,
+            ValidationRule.CUSTOMER_ID_REQUIRED,
+            ValidationRule.ITEMS_REQUIRED,
+            ValidationRule.TOTAL_REQUIRED,
+            ValidationRule.TOTAL_NOT_POSITIVE));
+
+    private final String name;
+    private final int mask;
+
+    private ValidationProfile(String name, int mask) {
+        this.name = name;
+        this.mask = mask;
+    }
+
+    public static ValidationProfile of(String name, ValidationRule... rules) {
+        return of(name, List.of(rules));
+    }
+
+    public static ValidationProfile of(String name, Collection<ValidationRule> rules) {
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("Profile name cannot be empty");
+        }
+        int mask = ValidationRule.ORDER_REQUIRED.mask();
+        for (ValidationRule rule : rules) {
+            mask |= rule.mask();
+        }
+        return new ValidationProfile(name, mask);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isEnabled(ValidationRule rule) {
+        return (mask & rule.mask()) != 0;
+    }
+
+    public Set<ValidationRule> getRules() {
+        Set<ValidationRule> rules = EnumSet.noneOf(ValidationRule.class);
+        for (ValidationRule rule : ValidationRule.rules()) {
+            if (isEnabled(rule)) {
+                rules.add(rule);
+            }
+        }
+        return rules;
+    }
+
+    @Override
+    public String toString() {
+        return name + getRules();
+    }
+}
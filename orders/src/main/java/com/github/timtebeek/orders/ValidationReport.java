@@ -0,0 +1,135 @@
+package com.github.timtebeek.orders;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Combined outcome of validating a batch of orders: failure counts per rule and a bounded list of failing order IDs.
+ */
+public class ValidationReport {
+
+    public static final int DEFAULT_MAX_FAILED_ORDER_IDS = 1_000;
+
+    private final long ordersValidated;
+    private final long invalidOrders;
+    private final long[] failureCounts;
+    private final List<String> failedOrderIds;
+    private final boolean truncated;
+
+    private ValidationReport(long ordersValidated, long invalidOrders, long[] failureCounts, List<String> failedOrderIds,
+                             boolean truncated) {
+        this.ordersValidated = ordersValidated;
+        this.invalidOrders = invalidOrders;
+        this.failureCounts = failureCounts;
+        this.failedOrderIds = failedOrderIds;
+        this.truncated = truncated;
+    }
+
+    public long getOrdersValidated() {
+        return ordersValidated;
+    }
+
+    public long getInvalidOrders() {
+        return invalidOrders;
+    }
+
+    public long getValidOrders() {
+        return ordersValidated - invalidOrders;
+    }
+
+    public long getFailureCount(ValidationRule rule) {
+        return failureCounts[rule.ordinal()];
+    }
+
+    /**
+     * Returns the failure count for every rule that failed at least once.
+     */
+    public Map<ValidationRule, Long> getFailureCounts() {
+        Map<ValidationRule, Long> counts = new EnumMap<>(ValidationRule.class);
+        for (ValidationRule rule : ValidationRule.rules()) {
+            if (failureCounts[rule.ordinal()] > 0) {
+                counts.put(rule, failureCounts[rule.ordinal()]);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Returns the IDs of failing orders in encounter order, up to the configured maximum.
+     * Failing orders without an ID are counted, but not listed.
+     */
+    public List<String> getFailedOrderIds() {
+        return failedOrderIds;
+    }
+
+    /**
+     * Whether more orders failed than could be listed in {@link #getFailedOrderIds()}.
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    /**
+     * Mutable container used to collect a report; one per fork-join task, combined afterwards.
+     */
+    static class Accumulator {
+        private final int maxFailedOrderIds;
+        private final long[] failureCounts = new long[ValidationRule.rules().length];
+        private final List<String> failedOrderIds = new ArrayList<>();
+        private long ordersValidated;
+        private long invalidOrders;
+        private boolean truncated;
+
+        Accumulator(int maxFailedOrderIds) {
+            if (maxFailedOrderIds < 0) {
+                throw new IllegalArgumentException("Maximum failed order IDs cannot be negative");
+            }
+            this.maxFailedOrderIds = maxFailedOrderIds;
+        }
+
+        void add(Order order, int failures) {
+            ordersValidated++;
+            if (failures == 0) {
+                return;
+            }
+            invalidOrders++;
+            for (ValidationRule rule : ValidationRule.rules()) {
+                if ((failures & rule.mask()) != 0) {
+                    failureCounts[rule.ordinal()]++;
+                }
+            }
+            if (order != null && order.getOrderId() != null) {
+                addFailedOrderId(order.getOrderId());
+            }
+        }
+
+        private void addFailedOrderId(String orderId) {
+            if (failedOrderIds.size() < maxFailedOrderIds) {
+                failedOrderIds.add(orderId);
+            } else {
+                truncated = true;
+            }
+        }
+
+        Accumulator combine(Accumulator other) {
+            ordersValidated += other.ordersValidated;
+            invalidOrders += other.invalidOrders;
+            for (int i = 0; i < failureCounts.length; i++) {
+                failureCounts[i] += other.failureCounts[i];
+            }
+            truncated |= other.truncated;
+            for (String orderId : other.failedOrderIds) {
+                addFailedOrderId(orderId);
+            }
+            return this;
+        }
+
+        ValidationReport toReport() {
+            return new ValidationReport(ordersValidated, invalidOrders, failureCounts.clone(),
+                    Collections.unmodifiableList(new ArrayList<>(failedOrderIds)), truncated);
+        }
+    }
+}
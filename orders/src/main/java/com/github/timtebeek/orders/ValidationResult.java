@@ -0,0 +1,88 @@
+package com.github.timtebeek.orders;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Compact outcome of validating a single order: a bit mask of failed {@link ValidationRule}s.
+ * Messages are only built when requested through {@link #getMessages()}.
+ */
+public final class ValidationResult {
+
+    private static final ValidationResult[] SHARED = new ValidationResult[1 << ValidationRule.rules().length];
+
+    static {
+        for (int mask = 0; mask < SHARED.length; mask++) {
+            SHARED[mask] = new ValidationResult(mask, null);
+        }
+    }
+
+    public static final ValidationResult VALID = SHARED[0];
+
+    private final int failures;
+    private final String status;
+
+    private ValidationResult(int failures, String status) {
+        this.failures = failures;
+        this.status = status;
+    }
+
+    /**
+     * Returns the result for the given failure mask, reusing shared instances unless a message needs the order status.
+     */
+    static ValidationResult of(int failures, Order order) {
+        if ((failures & ValidationRule.STATUS_INVALID.mask()) != 0) {
+            return new ValidationResult(failures, order.getStatus());
+        }
+        return SHARED[failures];
+    }
+
+    public boolean isValid() {
+        return failures == 0;
+    }
+
+    public boolean hasFailed(ValidationRule rule) {
+        return (failures & rule.mask()) != 0;
+    }
+
+    public int getFailureCount() {
+        return Integer.bitCount(failures);
+    }
+
+    /**
+     * Bit mask of failed rules, with bit {@code n} set when the rule with ordinal {@code n} failed.
+     */
+    public int getFailureMask() {
+        return failures;
+    }
+
+    public Set<ValidationRule> getFailedRules() {
+        Set<ValidationRule> rules = EnumSet.noneOf(ValidationRule.class);
+        for (ValidationRule rule : ValidationRule.rules()) {
+            if (hasFailed(rule)) {
+                rules.add(rule);
+            }
+        }
+        return rules;
+    }
+
+    /**
+     * Builds the validation error messages, in rule order.
+     */
+    public List<String> getMessages() {
+        List<String> messages = new ArrayList<>(getFailureCount());
+        for (ValidationRule rule : ValidationRule.rules()) {
+            if (hasFailed(rule)) {
+                messages.add(rule.message(status));
+            }
+        }
+        return messages;
+    }
+
+    @Override
+    public String toString() {
+        return isValid() ? "ValidationResult[valid]" : "ValidationResult" + getMessages();
+    }
+}
@@ -0,0 +1,131 @@
+package com.github.timtebeek.orders;
+
+/**
+ * Business rules checked by the {@link OrderValidator}, in the order their messages are reported.
+ */
+public enum ValidationRule {
+    ORDER_REQUIRED("Order cannot be null"),
+    ORDER_ID_REQUIRED("Order ID is required"),
+    CUSTOMER_ID_REQUIRED("Customer ID is required"),
+    ORDER_DATE_REQUIRED("Order date is required"),
+    ITEMS_REQUIRED("Order must contain at least one item"),
+    TOTAL_REQUIRED("Order total is required"),
+    TOTAL_NOT_POSITIVE("Order total must be greater than zero"),
+    STATUS_REQUIRED("Order status is required"),
+    STATUS_INVALID("Invalid order status: ");
+
+    private static final ValidationRule[] RULES = values();
+
+    private final String message;
+
+    ValidationRule(String message) {
+        this.message = message;
+    }
+
+    /**
+     * Bit representing this rule in a failure mask, such as {@link ValidationResult#getFailureMask()}.
+     */
+    public int mask() {
+        return 1 << ordinal();
+    }
+
+    /**
+     * Returns the validation error message for the given order failing this rule.
+     */
+    public String message(Order order) {
+        return message(order == null ? null : order.getStatus());
+    }
+
+    String message(String status) {
+        if (this == STATUS_INVALID) {
+            return message + status;
+        }
+        return message;
+    }
+
+    /**
+     * Whether the order, which must not be {@code null}, fails this rule.
+     */
+    boolean fails(Order order) {
+        return failures(order, mask(), true) != 0;
+    }
+
+    /**
+     * Returns a bit mask of the rules in {@code rules} that the non-null order fails, checked in declaration order;
+     * with {@code failFast} only the first failure. Rules on the value of a field pass when the field is missing,
+     * so a missing field fails a single rule. The checks are written out rather than looped over, so the JIT can
+     * inline all of them into straight-line code.
+     */
+    static int failures(Order order, int rules, boolean failFast) {
+        int failures = 0;
+
+        if ((rules & ORDER_ID_REQUIRED.mask()) != 0 && isBlank(order.getOrderId())) {
+            failures |= ORDER_ID_REQUIRED.mask();
+            if (failFast) {
+                return failures;
+            }
+        }
+
+        if ((rules & CUSTOMER_ID_REQUIRED.mask()) != 0 && isBlank(order.getCustomerId())) {
+            failures |= CUSTOMER_ID_REQUIRED.mask();
+            if (failFast) {
+                return failures;
+            }
+        }
+
+        if ((rules & ORDER_DATE_REQUIRED.mask()) != 0 && order.getOrderDate() == null) {
+            failures |= ORDER_DATE_REQUIRED.mask();
+            if (failFast) {
+                return failures;
+            }
+        }
+
+        if ((rules & ITEMS_REQUIRED.mask()) != 0 && (order.getItems() == null || order.getItems().isEmpty())) {
+            failures |= ITEMS_REQUIRED.mask();
+            if (failFast) {
+                return failures;
+            }
+        }
+
+        if (order.getTotal() == null) {
+            if ((rules & TOTAL_REQUIRED.mask()) != 0) {
+                failures |= TOTAL_REQUIRED.mask();
+                if (failFast) {
+                    return failures;
+                }
+            }
+        } else if ((rules & TOTAL_NOT_POSITIVE.mask()) != 0 && order.getTotal().signum() <= 0) {
+            failures |= TOTAL_NOT_POSITIVE.mask();
+            if (failFast) {
+                return failures;
+            }
+        }
+
+        if (isBlank(order.getStatus())) {
+            failures |= rules & STATUS_REQUIRED.mask();
+        } else if ((rules & STATUS_INVALID.mask()) != 0 && OrderStatus.parse(order.getStatus()) == null) {
+            failures |= STATUS_INVALID.mask();
+        }
+
+        return failures;
+    }
+
+    /**
+     * Same outcome as {@code value == null || value.trim().isEmpty()}, without allocating a trimmed copy.
+     */
+    private static boolean isBlank(String value) {
+        if (value == null) {
+            return true;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static ValidationRule[] rules() {
+        return RULES;
+    }
+}
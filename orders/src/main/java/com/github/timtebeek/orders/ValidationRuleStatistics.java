@@ -0,0 +1,53 @@
+package com.github.timtebeek.orders;
+
+/**
+ * Cost and failure rate of a {@link ValidationRule}, measured by an {@link OrderValidator} on a sample of orders.
+ */
+public final class ValidationRuleStatistics {
+
+    private final ValidationRule rule;
+    private final long evaluations;
+    private final long failures;
+    private final long nanos;
+
+    ValidationRuleStatistics(ValidationRule rule, long evaluations, long failures, long nanos) {
+        this.rule = rule;
+        this.evaluations = evaluations;
+        this.failures = failures;
+        this.nanos = nanos;
+    }
+
+    public ValidationRule getRule() {
+        return rule;
+    }
+
+    /**
+     * Number of sampled orders the rule was evaluated on.
+     */
+    public long getEvaluations() {
+        return evaluations;
+    }
+
+    public long getFailures() {
+        return failures;
+    }
+
+    /**
+     * Returns the share of sampled orders failing the rule, zero before any order was sampled.
+     */
+    public double getFailureRate() {
+        return evaluations == 0 ? 0 : (double) failures / evaluations;
+    }
+
+    /**
+     * Returns the average time evaluating the rule took, including the overhead of reading the clock.
+     */
+    public double getAverageNanos() {
+        return evaluations == 0 ? 0 : (double) nanos / evaluations;
+    }
+
+    @Override
+    public String toString() {
+        return rule + ": " + failures + "/" + evaluations + " failed, " + Math.round(getAverageNanos()) + " ns";
+    }
+}
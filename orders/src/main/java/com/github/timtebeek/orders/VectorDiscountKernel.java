@@ -0,0 +1,92 @@
+package com.github.timtebeek.orders;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Vector API implementation of the batch discount and total calculations.
+ * <p>
+ * This is the only class referencing the {@code jdk.incubator.vector} module, and it is only loaded by
+ * {@link BatchDiscountCalculator} after checking that module is present. Each method processes whole vectors
+ * and returns the number of elements handled; the caller finishes the tail with scalar code.
+ * <p>
+ * Long division and gathers have no vector instructions, so rates are applied by multiplying with the reciprocal
+ * of {@link CompiledDiscountRules#BASIS_POINTS} and correcting the quotient, and each order's loyalty rate is
+ * blended in per tier instead of looked up by index.
+ */
+final class VectorDiscountKernel {
+
+    private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Integer> TIER_SPECIES =
+            VectorSpecies.of(int.class, VectorShape.forBitSize(SPECIES.vectorBitSize() / 2));
+    private static final double RECIPROCAL = 1.0 / CompiledDiscountRules.BASIS_POINTS;
+
+    private VectorDiscountKernel() {
+    }
+
+    static int totalDiscounts(CompiledDiscountRules rules, int[] tierOrdinals, long[] subtotalCents,
+                              long[] discountCents, int length) {
+        int upperBound = SPECIES.loopBound(length);
+        LongVector zero = LongVector.zero(SPECIES);
+        long[] loyaltyBasisPoints = rules.loyaltyBasisPoints;
+        for (int i = 0; i < upperBound; i += SPECIES.length()) {
+            LongVector subtotal = LongVector.fromArray(SPECIES, subtotalCents, i);
+            LongVector total = zero;
+            for (DiscountRules.Rule rule : rules.chain) {
+                LongVector base = rules.sequential ? subtotal.sub(total) : subtotal;
+                if (rule == DiscountRules.Rule.LOYALTY) {
+                    IntVector tiers = IntVector.fromArray(TIER_SPECIES, tierOrdinals, i);
+                    LongVector rate = LongVector.broadcast(SPECIES, loyaltyBasisPoints[0]);
+                    for (int tier = 1; tier < loyaltyBasisPoints.length; tier++) {
+                        VectorMask<Long> inTier = tiers.compare(VectorOperators.EQ, tier).cast(SPECIES);
+                        rate = rate.blend(loyaltyBasisPoints[tier], inTier);
+                    }
+                    total = total.add(applyRate(base.mul(rate)).min(rules.loyaltyCapCents));
+                } else {
+                    VectorMask<Long> bulk = subtotal.compare(VectorOperators.GE, rules.bulkOrderThresholdCents);
+                    LongVector discount = applyRate(base.mul(rules.bulkOrderBasisPoints)).min(rules.bulkCapCents);
+                    total = total.add(zero.blend(discount, bulk));
+                }
+            }
+            if (rules.maxTotalBasisPoints >= 0) {
+                total = total.min(applyRate(subtotal.mul(rules.maxTotalBasisPoints)));
+            }
+            total.intoArray(discountCents, i);
+        }
+        return upperBound;
+    }
+
+    static int totals(long[] subtotalCents, long[] taxCents, long[] shippingCents, long[] discountCents,
+                      long[] totalCents, int length) {
+        int upperBound = SPECIES.loopBound(length);
+        for (int i = 0; i < upperBound; i += SPECIES.length()) {
+            LongVector.fromArray(SPECIES, subtotalCents, i)
+                    .add(LongVector.fromArray(SPECIES, taxCents, i))
+                    .add(LongVector.fromArray(SPECIES, shippingCents, i))
+                    .sub(LongVector.fromArray(SPECIES, discountCents, i))
+                    .intoArray(totalCents, i);
+        }
+        return upperBound;
+    }
+
+    /**
+     * Same as {@link CompiledDiscountRules#applyRate(long, long)} for a product of cents and basis points. The
+     * quotient estimated in double precision is off by at most one for any non-negative {@code long}, which
+     * comparing the remainder against the divisor corrects.
+     */
+    private static LongVector applyRate(LongVector product) {
+        LongVector dividend = product.add(CompiledDiscountRules.BASIS_POINTS / 2);
+        LongVector quotient = (LongVector) ((DoubleVector) dividend.convert(VectorOperators.L2D, 0))
+                .mul(RECIPROCAL)
+                .convert(VectorOperators.D2L, 0);
+        LongVector remainder = dividend.sub(quotient.mul(CompiledDiscountRules.BASIS_POINTS));
+        return quotient
+                .add(1, remainder.compare(VectorOperators.GE, CompiledDiscountRules.BASIS_POINTS))
+                .sub(1, remainder.compare(VectorOperators.LT, 0));
+    }
+}
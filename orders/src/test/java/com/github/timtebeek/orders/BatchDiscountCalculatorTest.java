@@ -0,0 +1,156 @@
+package com.github.timtebeek.orders;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BatchDiscountCalculatorTest {
+
+    private static final LoyaltyTier[] TIERS = LoyaltyTier.values();
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void matchesSingleOrderCalculation(boolean vectorized) {
+        DiscountRules sequential = DiscountRules.builder()
+          .loyaltyRate(LoyaltyTier.SILVER, new BigDecimal("0.10"))
+          .loyaltyRate(LoyaltyTier.GOLD, new BigDecimal("0.175"))
+          .bulkOrder(new BigDecimal("500.00"), new BigDecimal("0.05"))
+          .order(DiscountRules.Rule.BULK, DiscountRules.Rule.LOYALTY)
+          .stacking(DiscountRules.Stacking.SEQUENTIAL)
+          .cap(DiscountRules.Rule.LOYALTY, new BigDecimal("250.00"))
+          .maxTotalRate(new BigDecimal("0.2"))
+          .build();
+        for (DiscountRules rules : List.of(DiscountRules.defaults(), sequential)) {
+            CentsDiscountCalculator cents = new CentsDiscountCalculator(rules);
+            BatchDiscountCalculator batch = new BatchDiscountCalculator(cents, vectorized);
+            assertThat(batch.isVectorized()).isEqualTo(vectorized);
+            Random random = new Random(7);
+            int length = 10_003;
+            int[] tiers = new int[length];
+            long[] subtotals = new long[length];
+            for (int i = 0; i < length; i++) {
+                tiers[i] = random.nextInt(TIERS.length);
+                subtotals[i] = random.nextInt(300_000);
+            }
+            long[] discounts = new long[length];
+
+            batch.calculateTotalDiscounts(tiers, subtotals, discounts);
+
+            for (int i = 0; i < length; i++) {
+                assertThat(discounts[i]).isEqualTo(cents.calculateTotalDiscount(TIERS[tiers[i]], subtotals[i]));
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void roundsLikeSingleOrderCalculationUpToLargestSubtotal(boolean vectorized) {
+        DiscountRules rules = DiscountRules.builder()
+          .loyaltyRate(LoyaltyTier.BRONZE, new BigDecimal("0.0001"))
+          .loyaltyRate(LoyaltyTier.SILVER, new BigDecimal("0.3333"))
+          .loyaltyRate(LoyaltyTier.GOLD, new BigDecimal("0.9999"))
+          .loyaltyRate(LoyaltyTier.PLATINUM, BigDecimal.ONE)
+          .build();
+        CentsDiscountCalculator cents = new CentsDiscountCalculator(rules);
+        BatchDiscountCalculator batch = new BatchDiscountCalculator(cents, vectorized);
+        assertThat(batch.isVectorized()).isEqualTo(vectorized);
+        Random random = new Random(11);
+        int length = 4_096;
+        int[] tiers = new int[length];
+        long[] subtotals = new long[length];
+        for (int i = 0; i < length; i++) {
+            tiers[i] = random.nextInt(TIERS.length);
+            subtotals[i] = switch (i % 4) {
+                case 0 -> CompiledDiscountRules.MAX_SUBTOTAL_CENTS - random.nextInt(1_000);
+                case 1 -> random.nextLong(CompiledDiscountRules.MAX_SUBTOTAL_CENTS);
+                case 2 -> 5_000L * random.nextInt(1 << 20);
+                default -> random.nextInt(100);
+            };
+        }
+        long[] discounts = new long[length];
+
+        batch.calculateTotalDiscounts(tiers, subtotals, discounts);
+
+        for (int i = 0; i < length; i++) {
+            assertThat(discounts[i]).isEqualTo(cents.calculateTotalDiscount(TIERS[tiers[i]], subtotals[i]));
+        }
+    }
+
+    @Test
+    void vectorKernelMatchesScalarRules() {
+        CompiledDiscountRules rules = new CompiledDiscountRules(DiscountRules.builder()
+          .loyaltyRate(LoyaltyTier.SILVER, new BigDecimal("0.10"))
+          .loyaltyRate(LoyaltyTier.GOLD, new BigDecimal("0.175"))
+          .bulkOrder(new BigDecimal("500.00"), new BigDecimal("0.05"))
+          .stacking(DiscountRules.Stacking.SEQUENTIAL)
+          .cap(DiscountRules.Rule.BULK, new BigDecimal("40.00"))
+          .maxTotalRate(new BigDecimal("0.2"))
+          .build());
+        Random random = new Random(3);
+        int length = 1_000;
+        int[] tiers = new int[length];
+        long[] subtotals = new long[length];
+        for (int i = 0; i < length; i++) {
+            tiers[i] = random.nextInt(TIERS.length);
+            subtotals[i] = random.nextInt(1_000_000);
+        }
+        long[] discounts = new long[length];
+
+        int done = VectorDiscountKernel.totalDiscounts(rules, tiers, subtotals, discounts, length);
+
+        assertThat(done).isGreaterThan(length / 2);
+        for (int i = 0; i < done; i++) {
+            assertThat(discounts[i]).isEqualTo(rules.totalDiscount(tiers[i], subtotals[i]));
+        }
+    }
+
+    @Test
+    void usesScalarLoopsByDefault() {
+        assertThat(new BatchDiscountCalculator().isVectorized()).isFalse();
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void repricesBatch(boolean vectorized) {
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 37; i++) {
+            BigDecimal subtotal = Money.fromCents(10_000L * i);
+            orders.add(new Order("ORD-" + i, "CUST-" + (i % 2), LocalDate.of(2024, 1, 15), "PENDING", List.of(),
+              subtotal, new BigDecimal("8.50"), new BigDecimal("9.99"), BigDecimal.ZERO, subtotal));
+        }
+        OrderBatch batch = OrderBatch.of(orders);
+        DiscountCalculator reference = new DiscountCalculator();
+        Address address = new Address("123 Main St", "Springfield", "IL", "62701", "USA");
+        Customer gold = new Customer("CUST-0", "gold@example.com", "Gold", address, "GOLD");
+        Customer none = new Customer("CUST-1", "none@example.com", "None", address, null);
+
+        BatchDiscountCalculator.Repricing repricing = new BatchDiscountCalculator(new CentsDiscountCalculator(), vectorized)
+          .reprice(batch, new LoyaltyTier[]{LoyaltyTier.GOLD, LoyaltyTier.NONE});
+
+        for (int i = 0; i < orders.size(); i++) {
+            Order order = orders.get(i);
+            BigDecimal discount = reference.calculateTotalDiscount(i % 2 == 0 ? gold : none, order.getSubtotal());
+            assertThat(Money.fromCents(repricing.getDiscountCents(i))).isEqualByComparingTo(discount);
+            assertThat(Money.fromCents(repricing.getTotalCents(i))).isEqualByComparingTo(
+              order.getSubtotal().add(order.getTax()).add(order.getShippingCost()).subtract(discount));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void rejectsNegativeSubtotals(boolean vectorized) {
+        BatchDiscountCalculator batch = new BatchDiscountCalculator(new CentsDiscountCalculator(), vectorized);
+
+        assertThatThrownBy(() -> batch.calculateTotalDiscounts(new int[]{0}, new long[]{-1}, new long[1]))
+          .isInstanceOf(IllegalArgumentException.class);
+    }
+}
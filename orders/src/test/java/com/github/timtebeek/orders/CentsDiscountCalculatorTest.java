@@ -0,0 +1,101 @@
+package com.github.timtebeek.orders;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CentsDiscountCalculatorTest {
+
+    private static final Address ADDRESS = new Address("123 Main St", "Springfield", "IL", "62701", "USA");
+
+    private final DiscountCalculator reference = new DiscountCalculator();
+    private final CentsDiscountCalculator calculator = new CentsDiscountCalculator(reference);
+
+    @Test
+    void matchesBigDecimalEngineForEveryTier() {
+        Random random = new Random(42);
+        for (String tier : new String[]{"BRONZE", "silver", "Gold", "PLATINUM", "UNKNOWN", null}) {
+            Customer customer = customer(tier);
+            for (int i = 0; i < 20_000; i++) {
+                long subtotalCents = i < 10_000 ? i : random.nextInt(10_000_000);
+                BigDecimal subtotal = Money.fromCents(subtotalCents);
+
+                assertThat(Money.fromCents(calculator.calculateTotalDiscount(customer, subtotalCents)))
+                  .as("%s tier, subtotal %s", tier, subtotal)
+                  .isEqualByComparingTo(reference.calculateTotalDiscount(customer, subtotal));
+            }
+        }
+    }
+
+    @Test
+    void roundsHalfUpAtTheBulkThreshold() {
+        assertThat(calculator.calculateBulkDiscount(49_999)).isZero();
+        assertThat(calculator.calculateBulkDiscount(50_000)).isEqualTo(2_500);
+        assertThat(calculator.calculateBulkDiscount(50_010)).isEqualTo(2_501);
+        assertThat(calculator.calculateLoyaltyDiscount(LoyaltyTier.BRONZE, 10)).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsNegativeSubtotal() {
+        assertThatThrownBy(() -> calculator.calculateLoyaltyDiscount(customer("GOLD"), -1))
+          .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void verifierReportsNoDivergenceForMatchingEngines() {
+        DiscountVerifier verifier = new DiscountVerifier(reference, 2);
+
+        for (int i = 0; i < 100; i++) {
+            verifier.calculateTotalDiscount(customer("GOLD"), new BigDecimal(i * 11 + ".99"));
+        }
+        verifier.calculateTotalDiscount(customer("GOLD"), new BigDecimal("10.001"));
+
+        assertThat(verifier.getSampled()).isEqualTo(51);
+        assertThat(verifier.getUnsupported()).isEqualTo(1);
+        assertThat(verifier.getDivergenceCount()).isZero();
+    }
+
+    @Test
+    void verifierReturnsReferenceDiscountWhenCentsEngineCannotPrice() {
+        DiscountCalculator fineRates = new DiscountCalculator();
+        DiscountVerifier fineRatesVerifier = new DiscountVerifier(fineRates, 1);
+        fineRates.updateRules(DiscountRules.builder()
+          .loyaltyRate(LoyaltyTier.GOLD, new BigDecimal("0.12345"))
+          .build());
+        DiscountVerifier verifier = new DiscountVerifier(reference, 1);
+        BigDecimal huge = new BigDecimal("10000000000000000.00");
+
+        assertThat(fineRatesVerifier.calculateTotalDiscount(customer("GOLD"), new BigDecimal("100.00")))
+          .isEqualByComparingTo(fineRates.calculateTotalDiscount(customer("GOLD"), new BigDecimal("100.00")));
+        assertThat(verifier.calculateTotalDiscount(customer("GOLD"), huge))
+          .isEqualByComparingTo(reference.calculateTotalDiscount(customer("GOLD"), huge));
+        assertThat(fineRatesVerifier.getUnsupported()).isEqualTo(1);
+        assertThat(verifier.getUnsupported()).isEqualTo(1);
+        assertThat(verifier.getDivergenceCount()).isZero();
+    }
+
+    @Test
+    void verifierRecordsDivergences() {
+        DiscountRules changedRates = DiscountRules.builder()
+          .loyaltyRate(LoyaltyTier.GOLD, new BigDecimal("0.25"))
+          .bulkOrder(new BigDecimal("500.00"), new BigDecimal("0.05"))
+          .build();
+        DiscountVerifier verifier = new DiscountVerifier(reference, new CentsDiscountCalculator(changedRates), 1, 1);
+
+        BigDecimal discount = verifier.calculateTotalDiscount(customer("GOLD"), new BigDecimal("100.00"));
+        verifier.calculateTotalDiscount(customer("GOLD"), new BigDecimal("200.00"));
+
+        assertThat(discount).isEqualByComparingTo("15.00");
+        assertThat(verifier.getDivergenceCount()).isEqualTo(2);
+        assertThat(verifier.getDivergences()).singleElement()
+          .satisfies(divergence -> assertThat(divergence.getDelta()).isEqualByComparingTo("10.00"));
+    }
+
+    private static Customer customer(String tier) {
+        return new Customer("C001", "customer@example.com", "Customer", ADDRESS, tier);
+    }
+}
@@ -0,0 +1,107 @@
+package com.github.timtebeek.orders;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CustomerDirectoryTest {
+
+    private static final Address ADDRESS = new Address("123 Main St", "Springfield", "IL", "62701", "USA");
+
+    private final List<String> loads = new ArrayList<>();
+
+    @Test
+    void loadsOnceAndCountsHits() {
+        CustomerDirectory directory = CustomerDirectory.builder(this::load).build();
+
+        Customer first = directory.get("CUST-001");
+        Customer second = directory.get("CUST-001");
+
+        assertThat(second).isSameAs(first);
+        assertThat(loads).containsExactly("CUST-001");
+        assertThat(directory.getHits()).isEqualTo(1);
+        assertThat(directory.getMisses()).isEqualTo(1);
+        assertThat(directory.getHitRate()).isEqualTo(0.5);
+    }
+
+    @Test
+    void doesNotCacheUnknownCustomers() {
+        CustomerDirectory directory = CustomerDirectory.builder(this::load).build();
+
+        assertThat(directory.get("UNKNOWN")).isNull();
+        assertThat(directory.get("UNKNOWN")).isNull();
+
+        assertThat(loads).hasSize(2);
+        assertThat(directory.size()).isZero();
+    }
+
+    @Test
+    void evictsLeastRecentlyUsed() {
+        CustomerDirectory directory = CustomerDirectory.builder(this::load).maximumSize(2).segments(1).build();
+
+        directory.get("CUST-001");
+        directory.get("CUST-002");
+        directory.get("CUST-001");
+        directory.get("CUST-003");
+        directory.get("CUST-001");
+        directory.get("CUST-002");
+
+        assertThat(loads).containsExactly("CUST-001", "CUST-002", "CUST-003", "CUST-002");
+        assertThat(directory.getEvictions()).isEqualTo(2);
+        assertThat(directory.size()).isEqualTo(2);
+    }
+
+    @Test
+    void neverHoldsMoreThanMaximumSize() {
+        for (int maximumSize : new int[]{1, 10, 17, 100}) {
+            CustomerDirectory directory = CustomerDirectory.builder(this::load)
+              .maximumSize(maximumSize)
+              .segments(16)
+              .build();
+
+            for (int i = 0; i < 1_000; i++) {
+                directory.get("CUST-" + i);
+            }
+
+            assertThat(directory.size()).isEqualTo(maximumSize);
+            assertThat(directory.getEvictions()).isEqualTo(1_000 - maximumSize);
+        }
+    }
+
+    @Test
+    void expiresEntriesAfterTtl() {
+        AtomicLong now = new AtomicLong();
+        CustomerDirectory directory = CustomerDirectory.builder(this::load)
+          .expireAfter(Duration.ofMinutes(5))
+          .clock(now::get)
+          .build();
+
+        directory.get("CUST-001");
+        now.addAndGet(Duration.ofMinutes(4).toNanos());
+        directory.get("CUST-001");
+        now.addAndGet(Duration.ofMinutes(1).toNanos());
+        directory.get("CUST-001");
+
+        assertThat(loads).containsExactly("CUST-001", "CUST-001");
+        assertThat(directory.getExpirations()).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsSegmentsThatAreNotPowerOfTwo() {
+        assertThatThrownBy(() -> CustomerDirectory.builder(this::load).segments(3))
+          .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private Customer load(String customerId) {
+        loads.add(customerId);
+        return customerId.startsWith("CUST-")
+          ? new Customer(customerId, "customer@example.com", "Customer", ADDRESS, "GOLD")
+          : null;
+    }
+}
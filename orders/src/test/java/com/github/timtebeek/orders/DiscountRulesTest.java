@@ -0,0 +1,115 @@
+package com.github.timtebeek.orders;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DiscountRulesTest {
+
+    private static final Address ADDRESS = new Address("123 Main St", "Springfield", "IL", "62701", "USA");
+    private static final Customer GOLD = new Customer("C003", "gold@example.com", "Gold User", ADDRESS, "gold");
+
+    @Test
+    void loadsRulesFromProperties() throws IOException {
+        DiscountRules rules = load("""
+          tier.GOLD=0.20
+          tier.platinum=0.30
+          bulk.threshold=1000.00
+          bulk.rate=0.10
+          order=BULK,LOYALTY
+          stacking=sequential
+          cap.LOYALTY=150.00
+          cap.total.rate=0.25
+          """);
+
+        assertThat(rules.getLoyaltyRate(LoyaltyTier.GOLD)).isEqualByComparingTo("0.20");
+        assertThat(rules.getLoyaltyRate(LoyaltyTier.SILVER)).isZero();
+        assertThat(rules.getOrder()).containsExactly(DiscountRules.Rule.BULK, DiscountRules.Rule.LOYALTY);
+        assertThat(rules.getStacking()).isEqualTo(DiscountRules.Stacking.SEQUENTIAL);
+        assertThat(rules.getCap(DiscountRules.Rule.LOYALTY)).isEqualByComparingTo("150.00");
+        assertThat(rules.getCap(DiscountRules.Rule.BULK)).isNull();
+    }
+
+    @Test
+    void appliesChainInOrderWithCaps() throws IOException {
+        DiscountCalculator calculator = new DiscountCalculator(load("""
+          tier.GOLD=0.20
+          bulk.threshold=1000.00
+          bulk.rate=0.10
+          order=BULK,LOYALTY
+          stacking=SEQUENTIAL
+          cap.LOYALTY=150.00
+          cap.total.rate=0.25
+          """));
+
+        // bulk 10% of 1000.00 = 100.00, then gold 20% of the remaining 900.00 = 180.00, capped at 150.00
+        assertThat(calculator.calculateTotalDiscount(GOLD, new BigDecimal("1000.00"))).isEqualByComparingTo("250.00");
+        // bulk 10% of 2000.00 = 200.00, gold capped at 150.00, total 350.00 within 25% of 2000.00
+        assertThat(calculator.calculateTotalDiscount(GOLD, new BigDecimal("2000.00"))).isEqualByComparingTo("350.00");
+        // without bulk discount, gold 20% of 500.00 = 100.00
+        assertThat(calculator.calculateTotalDiscount(GOLD, new BigDecimal("500.00"))).isEqualByComparingTo("100.00");
+    }
+
+    @Test
+    void swapsRulesAtomically() {
+        DiscountCalculator calculator = new DiscountCalculator();
+        CentsDiscountCalculator cents = new CentsDiscountCalculator(calculator);
+        assertThat(calculator.calculateTotalDiscount(GOLD, new BigDecimal("600.00"))).isEqualByComparingTo("120.00");
+
+        DiscountRules previous = calculator.updateRules(DiscountRules.builder()
+          .loyaltyRate(LoyaltyTier.GOLD, new BigDecimal("0.50"))
+          .build());
+
+        assertThat(previous).isSameAs(DiscountRules.defaults());
+        assertThat(calculator.calculateTotalDiscount(GOLD, new BigDecimal("600.00"))).isEqualByComparingTo("300.00");
+        assertThat(cents.calculateTotalDiscount(GOLD, 60_000)).isEqualTo(30_000);
+    }
+
+    @Test
+    void centsEngineMatchesConfiguredRules() throws IOException {
+        DiscountRules rules = load("""
+          tier.BRONZE=0.0125
+          tier.GOLD=0.175
+          bulk.threshold=250.50
+          bulk.rate=0.033
+          stacking=SEQUENTIAL
+          cap.BULK=40.00
+          cap.total.rate=0.19
+          """);
+        DiscountCalculator reference = new DiscountCalculator(rules);
+        CentsDiscountCalculator cents = new CentsDiscountCalculator(rules);
+
+        for (String tier : new String[]{"BRONZE", "GOLD", "SILVER"}) {
+            Customer customer = new Customer("C001", "c@example.com", "Customer", ADDRESS, tier);
+            for (long subtotalCents = 0; subtotalCents < 200_000; subtotalCents += 7) {
+                assertThat(Money.fromCents(cents.calculateTotalDiscount(customer, subtotalCents)))
+                  .isEqualByComparingTo(reference.calculateTotalDiscount(customer, Money.fromCents(subtotalCents)));
+            }
+        }
+    }
+
+    @Test
+    void rejectsInvalidConfiguration() {
+        assertThatThrownBy(() -> load("tier.GOLD=1.5"))
+          .isInstanceOf(IllegalArgumentException.class)
+          .hasMessageContaining("between 0 and 1");
+        assertThatThrownBy(() -> load("tier.DIAMOND=0.5"))
+          .isInstanceOf(IllegalArgumentException.class)
+          .hasMessageContaining("DIAMOND");
+        assertThatThrownBy(() -> load("bulk.rate=0.05"))
+          .isInstanceOf(IllegalArgumentException.class)
+          .hasMessageContaining("bulk.threshold");
+    }
+
+    private static DiscountRules load(String properties) throws IOException {
+        Properties loaded = new Properties();
+        loaded.load(new StringReader(properties));
+        return DiscountRules.load(loaded);
+    }
+}
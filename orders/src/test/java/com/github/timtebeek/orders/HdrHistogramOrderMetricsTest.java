@@ -0,0 +1,63 @@
+package com.github.timtebeek.orders;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+class HdrHistogramOrderMetricsTest {
+
+    private static final Address ADDRESS = new Address("123 Main St", "Springfield", "IL", "62701", "USA");
+
+    private final HdrHistogramOrderMetrics metrics = new HdrHistogramOrderMetrics();
+
+    @Test
+    void countsRuleFailuresAndRecordsValidationLatency() {
+        OrderValidator validator = new OrderValidator(metrics);
+        Order valid = order("PENDING", "1085.00");
+        Order invalid = order("UNKNOWN", "0.00");
+
+        validator.validate(valid);
+        validator.validate(invalid);
+        validator.validateAll(IntStream.range(0, 1_000).mapToObj(i -> valid));
+
+        assertThat(metrics.getOrdersValidated()).isEqualTo(1_002);
+        assertThat(metrics.getInvalidOrders()).isEqualTo(1);
+        assertThat(metrics.getFailureCounts()).containsOnly(
+          entry(ValidationRule.STATUS_INVALID, 1L),
+          entry(ValidationRule.TOTAL_NOT_POSITIVE, 1L));
+        assertThat(metrics.getValidationLatency().getTotalCount()).isEqualTo(1_002);
+    }
+
+    @Test
+    void recordsTierDistributionAndPricingLatency() {
+        DiscountCalculator calculator = new DiscountCalculator(DiscountRules.defaults(), metrics);
+
+        calculator.calculateTotalDiscount(customer("GOLD"), new BigDecimal("100.00"));
+        calculator.calculateTotalDiscount(customer("gold"), new BigDecimal("600.00"));
+        calculator.calculateTotalDiscount(customer(null), new BigDecimal("100.00"));
+        calculator.calculateLoyaltyDiscount(customer("SILVER"), new BigDecimal("100.00"));
+
+        assertThat(metrics.getTierDistribution())
+          .containsOnly(entry(LoyaltyTier.GOLD, 2L), entry(LoyaltyTier.NONE, 1L));
+        assertThat(metrics.getPricingLatency().getTotalCount()).isEqualTo(3);
+        // Snapshots are cumulative, not reset by reading
+        assertThat(metrics.getPricingLatency().getTotalCount()).isEqualTo(3);
+    }
+
+    private static Customer customer(String tier) {
+        return new Customer("CUST-001", "customer@example.com", "Customer", ADDRESS, tier);
+    }
+
+    private static Order order(String status, String total) {
+        OrderItem laptop = new OrderItem("P1", "Laptop", "Electronics", 1,
+          new BigDecimal("1000.00"), new BigDecimal("1000.00"));
+        return new Order("ORD-001", "CUST-001", LocalDate.of(2024, 1, 15), status, List.of(laptop),
+          new BigDecimal("1000.00"), new BigDecimal("85.00"), BigDecimal.ZERO, BigDecimal.ZERO, new BigDecimal(total));
+    }
+}
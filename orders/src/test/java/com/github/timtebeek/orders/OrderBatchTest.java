@@ -0,0 +1,84 @@
+package com.github.timtebeek.orders;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OrderBatchTest {
+
+    private List<Order> orders;
+    private OrderBatch batch;
+
+    @BeforeEach
+    void setUp() {
+        OrderItem laptop = new OrderItem("P1", "Laptop", "Electronics", 1,
+          new BigDecimal("1000.00"), new BigDecimal("1000.00"));
+        OrderItem mouse = new OrderItem("P2", "Mouse", "Electronics", 2,
+          new BigDecimal("25.00"), new BigDecimal("50.00"));
+
+        orders = List.of(
+          new Order("ORD-001", "CUST-001", LocalDate.of(2024, 1, 15), "PENDING",
+            List.of(laptop), new BigDecimal("1000.00"), new BigDecimal("85.00"),
+            new BigDecimal("0.00"), new BigDecimal("50.00"), new BigDecimal("1035.00")),
+          new Order("ORD-002", "CUST-002", LocalDate.of(2024, 1, 16), "CONFIRMED",
+            List.of(mouse), new BigDecimal("50.00"), new BigDecimal("4.25"),
+            new BigDecimal("9.99"), new BigDecimal("0"), new BigDecimal("64.24")),
+          new Order("ORD-003", "CUST-001", LocalDate.of(2024, 2, 1), "SHIPPED",
+            List.of(laptop, mouse), new BigDecimal("1050.00"), new BigDecimal("89.25"),
+            new BigDecimal("0.00"), new BigDecimal("52.50"), new BigDecimal("1086.75")));
+        batch = OrderBatch.of(orders);
+    }
+
+    @Test
+    void convertsBackToOrders() {
+        assertThat(batch.toOrders())
+          .usingRecursiveComparison()
+          .withComparatorForType(BigDecimal::compareTo, BigDecimal.class)
+          .isEqualTo(orders);
+    }
+
+    @Test
+    void aggregatesAmountColumns() {
+        assertThat(batch.sum(OrderBatch.Column.TOTAL)).isEqualTo(103_500 + 6_424 + 108_675);
+        assertThat(batch.sumByCustomer(OrderBatch.Column.DISCOUNT)).containsExactly(10_250, 0);
+        assertThat(batch.getCustomerIdForCode(0)).isEqualTo("CUST-001");
+    }
+
+    @Test
+    void combinesFilters() {
+        BitSet selection = batch.whereCustomer("CUST-001");
+        selection.and(batch.whereOrderDateBetween(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31)));
+
+        assertThat(selection.stream()).containsExactly(0);
+        assertThat(batch.sum(OrderBatch.Column.TOTAL, selection)).isEqualTo(103_500);
+        assertThat(batch.whereStatus(OrderStatus.SHIPPED).stream()).containsExactly(2);
+        assertThat(batch.whereStatus(OrderStatus.DELIVERED).isEmpty()).isTrue();
+    }
+
+    @Test
+    void growsBeyondExpectedSize() {
+        OrderBatch.Builder builder = OrderBatch.builder(1);
+        for (int i = 0; i < 100; i++) {
+            builder.add(orders.get(i % orders.size()));
+        }
+
+        assertThat(builder.build().size()).isEqualTo(100);
+    }
+
+    @Test
+    void rejectsOrdersWithoutAmounts() {
+        Order order = new Order("ORD-004", "CUST-001", LocalDate.of(2024, 1, 15), "PENDING",
+          List.of(), null, null, null, null, null);
+
+        assertThatThrownBy(() -> OrderBatch.of(List.of(order)))
+          .isInstanceOf(IllegalArgumentException.class)
+          .hasMessageContaining("ORD-004");
+    }
+}
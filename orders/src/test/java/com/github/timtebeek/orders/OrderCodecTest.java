@@ -0,0 +1,105 @@
+package com.github.timtebeek.orders;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OrderCodecTest {
+
+    private static final Address ADDRESS = new Address("123 Main St", "Springfield", "IL", "62701", "USA");
+
+    private final Order order = new Order("ORD-001", "CUST-001", LocalDate.of(2024, 1, 15), "SHIPPED",
+      List.of(
+        new OrderItem("P1", "Laptop", "Electronics", 1, new BigDecimal("1000.00"), new BigDecimal("1000.00")),
+        new OrderItem("P2", "Kaffeemühle", null, 3, new BigDecimal("12.5"), new BigDecimal("37.5"))),
+      new BigDecimal("1037.50"), new BigDecimal("88.19"), BigDecimal.ZERO, null, new BigDecimal("1125.69"));
+
+    @Test
+    void roundTripsOrder() {
+        ByteBuffer buffer = OrderCodec.encode(order);
+
+        assertThat(buffer.remaining()).isEqualTo(OrderCodec.encodedSize(order));
+        Order decoded = OrderCodec.decodeOrder(buffer);
+
+        assertThat(buffer.hasRemaining()).isFalse();
+        assertThat(decoded).usingRecursiveComparison().isEqualTo(order);
+    }
+
+    @Test
+    void viewReadsFieldsInPlace() {
+        ByteBuffer buffer = OrderCodec.encode(order);
+        OrderView view = new OrderView().wrap(buffer, 0);
+
+        assertThat(view.getTotal()).isEqualTo(new BigDecimal("1125.69"));
+        assertThat(view.getCents(OrderBatch.Column.TOTAL)).isEqualTo(112_569);
+        assertThat(view.getDiscount()).isNull();
+        assertThat(view.getOrderStatus()).isEqualTo(OrderStatus.SHIPPED);
+        assertThat(view.getOrderId()).isEqualTo("ORD-001");
+        assertThat(view.getStatus()).isEqualTo("SHIPPED");
+        OrderItemView item = view.getItem(1, new OrderItemView());
+        assertThat(item.getProductName()).isEqualTo("Kaffeemühle");
+        assertThat(item.getCategory()).isNull();
+        assertThat(item.getLineTotalCents()).isEqualTo(3_750);
+    }
+
+    @Test
+    void convertsAmountsOfAnyScaleToCents() {
+        List<String> amounts = List.of("1125.69", "1125.690000", "1125.7", "1126", "-3.10", "0.000", "92233720368547758.07");
+        for (String amount : amounts) {
+            BigDecimal value = new BigDecimal(amount);
+
+            assertThat(OrderCodec.cents(amount(value.unscaledValue().longValueExact(), value.scale()), 0))
+              .isEqualTo(Money.toCents(value));
+        }
+        assertThat(OrderCodec.cents(amount(5, -3), 0)).isEqualTo(500_000);
+        assertThat(OrderCodec.cents(amount(0, -30), 0)).isZero();
+        assertThatThrownBy(() -> OrderCodec.cents(amount(1_005, 3), 0)).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> OrderCodec.cents(amount(Long.MAX_VALUE, 1), 0)).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> OrderCodec.cents(amount(1, -20), 0)).isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void readsConsecutiveMessages() {
+        Customer customer = new Customer("CUST-001", "gold@example.com", "Gold User", ADDRESS, "gold");
+        Customer withoutAddress = new Customer("CUST-002", null, "No Address", null, null);
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        OrderCodec.encode(customer, buffer);
+        OrderCodec.encode(withoutAddress, buffer);
+        OrderCodec.encode(order, buffer);
+        buffer.flip();
+
+        CustomerView view = new CustomerView().wrap(buffer, 0);
+        assertThat(view.getTier()).isEqualTo(LoyaltyTier.GOLD);
+        assertThat(view.getShippingAddress()).usingRecursiveComparison().isEqualTo(ADDRESS);
+        assertThat(OrderCodec.decodeCustomer(buffer)).usingRecursiveComparison().isEqualTo(customer);
+        assertThat(OrderCodec.decodeCustomer(buffer)).usingRecursiveComparison().isEqualTo(withoutAddress);
+        assertThat(OrderCodec.decodeOrder(buffer).getOrderId()).isEqualTo("ORD-001");
+    }
+
+    @Test
+    void rejectsForeignOrTruncatedMessages() {
+        ByteBuffer customer = OrderCodec.encode(new Customer("CUST-001", null, null, null, null));
+        ByteBuffer truncated = OrderCodec.encode(order).limit(20);
+        ByteBuffer newerVersion = OrderCodec.encode(order).put(2, (byte) 2);
+
+        assertThatThrownBy(() -> new OrderView().wrap(customer, 0))
+          .isInstanceOf(IllegalArgumentException.class)
+          .hasMessageContaining("type");
+        assertThatThrownBy(() -> new OrderView().wrap(truncated, 0))
+          .isInstanceOf(IllegalArgumentException.class)
+          .hasMessageContaining("truncated");
+        assertThatThrownBy(() -> new OrderView().wrap(newerVersion, 0))
+          .isInstanceOf(IllegalArgumentException.class)
+          .hasMessageContaining("version");
+    }
+
+    private static ByteBuffer amount(long unscaled, int scale) {
+        return ByteBuffer.allocate(OrderCodec.AMOUNT_SIZE).putLong(0, unscaled).put(8, (byte) scale);
+    }
+}
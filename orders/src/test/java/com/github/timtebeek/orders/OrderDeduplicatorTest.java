@@ -0,0 +1,105 @@
+package com.github.timtebeek.orders;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OrderDeduplicatorTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void dropsReplayedOrders() {
+        OrderDeduplicator deduplicator = new OrderDeduplicator();
+
+        List<String> unique = Stream.of(order("ORD-001"), order("ORD-002"), order("ORD-001"), order("ORD-ü"), order("ORD-ü"))
+          .filter(deduplicator::markSeen)
+          .map(Order::getOrderId)
+          .toList();
+
+        assertThat(unique).containsExactly("ORD-001", "ORD-002", "ORD-ü");
+        assertThat(deduplicator.size()).isEqualTo(3);
+        assertThat(deduplicator.getDuplicates()).isEqualTo(2);
+        assertThat(deduplicator.contains("ORD-002")).isTrue();
+        assertThat(deduplicator.contains("ORD-003")).isFalse();
+    }
+
+    @Test
+    void neverDropsNewIdsBeyondExpectedSize() {
+        OrderDeduplicator deduplicator = new OrderDeduplicator(1_000, 0.01);
+
+        for (int i = 0; i < 200_000; i++) {
+            assertThat(deduplicator.markSeen("ORD-" + i)).isTrue();
+        }
+        for (int i = 0; i < 200_000; i += 1_000) {
+            assertThat(deduplicator.markSeen("ORD-" + i)).isFalse();
+        }
+
+        assertThat(deduplicator.size()).isEqualTo(200_000);
+        assertThat(deduplicator.getDuplicates()).isEqualTo(200);
+        assertThat(deduplicator.getFilterRejections() + deduplicator.getFalsePositives()).isEqualTo(200_000);
+        assertThat(deduplicator.getFalsePositives()).isLessThan(3_000);
+    }
+
+    @Test
+    void lowerFalsePositiveRateUsesMoreBits() {
+        OrderDeduplicator loose = new OrderDeduplicator(100_000, 0.05);
+        OrderDeduplicator strict = new OrderDeduplicator(100_000, 0.001);
+
+        assertThat(strict.getFilterBits()).isGreaterThan(loose.getFilterBits() * 2);
+    }
+
+    @Test
+    void restoresSavedState() throws IOException {
+        OrderDeduplicator deduplicator = new OrderDeduplicator(100, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            deduplicator.markSeen("ORD-" + i);
+        }
+        Path file = tempDir.resolve("orders.dedup");
+
+        deduplicator.save(file);
+        OrderDeduplicator restored = OrderDeduplicator.load(file);
+
+        assertThat(restored.size()).isEqualTo(10_000);
+        assertThat(restored.getFalsePositiveRate()).isEqualTo(0.01);
+        assertThat(restored.getFilterBits()).isEqualTo(deduplicator.getFilterBits());
+        assertThat(restored.markSeen("ORD-9999")).isFalse();
+        assertThat(restored.markSeen("ORD-10000")).isTrue();
+        assertThat(tempDir).isDirectoryContaining(path -> path.equals(file))
+          .isDirectoryNotContaining("glob:**.tmp");
+    }
+
+    @Test
+    void rejectsForeignFiles() throws IOException {
+        Path file = Files.writeString(tempDir.resolve("orders.csv"), "orderId,customerId\n");
+
+        assertThatThrownBy(() -> OrderDeduplicator.load(file))
+          .isInstanceOf(IOException.class)
+          .hasMessageContaining("not a saved order deduplicator");
+    }
+
+    @Test
+    void rejectsInvalidConfiguration() {
+        assertThatThrownBy(() -> new OrderDeduplicator(1_000, 1.0))
+          .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new OrderDeduplicator(0, 0.01))
+          .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new OrderDeduplicator().markSeen((String) null))
+          .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static Order order(String orderId) {
+        return new Order(orderId, "CUST-001", LocalDate.of(2024, 1, 15), "PENDING", List.of(),
+          null, null, null, null, null);
+    }
+}
@@ -0,0 +1,147 @@
+package com.github.timtebeek.orders;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+class OrderFileReaderTest {
+
+    private static final String HEADER = "orderId,customerId,orderDate,status,subtotal,tax,shippingCost,discount,total,"
+      + "productId,productName,category,quantity,unitPrice,lineTotal\n";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void groupsConsecutiveLinesIntoOrders() throws IOException {
+        Path file = write(HEADER
+          + "ORD-001,CUST-001,2024-01-15,PENDING,1000.00,85.00,0.00,50.00,1035.00,P1,Laptop,Electronics,1,1000.00,1000.00\n"
+          + "ORD-002,CUST-002,2024-01-16,CONFIRMED,125.00,10.63,9.99,12.50,133.12,P2,Mouse,Electronics,2,25.00,50.00\n"
+          + "ORD-002,CUST-002,2024-01-16,CONFIRMED,125.00,10.63,9.99,12.50,133.12,P3,\"Keyboard, wireless\",Electronics,1,75.00,75.00\r\n"
+          + "ORD-003,,,,,,,,,,,,,,");
+
+        List<Order> orders = readAll(file, OrderFileReader.DEFAULT_WINDOW_SIZE);
+
+        assertThat(orders).extracting(Order::getOrderId).containsExactly("ORD-001", "ORD-002", "ORD-003");
+        Order second = orders.get(1);
+        assertThat(second.getOrderDate()).isEqualTo(LocalDate.of(2024, 1, 16));
+        assertThat(second.getTax()).isEqualByComparingTo("10.63");
+        assertThat(second.getItems())
+          .extracting(OrderItem::getProductName, OrderItem::getQuantity, OrderItem::getLineTotal)
+          .containsExactly(
+            tuple("Mouse", 2, new BigDecimal("50.00")),
+            tuple("Keyboard, wireless", 1, new BigDecimal("75.00")));
+        assertThat(second.getItems().get(0).getCategory())
+          .isSameAs(orders.get(0).getItems().get(0).getCategory());
+        assertThat(orders.get(2).getCustomerId()).isNull();
+        assertThat(orders.get(2).getTotal()).isNull();
+        assertThat(orders.get(2).getItems()).isEmpty();
+    }
+
+    @Test
+    void remapsWindowWhenLinesCrossItsEnd() throws IOException {
+        StringBuilder csv = new StringBuilder(HEADER);
+        for (int i = 0; i < 500; i++) {
+            csv.append("ORD-").append(i).append(",CUST-001,2024-01-15,PENDING,50.00,4.25,9.99,0.00,64.24,")
+              .append("P1,Laptop,Electronics,1,50.00,50.00\n");
+        }
+        Path file = write(csv.toString());
+
+        List<Order> orders = readAll(file, 256);
+
+        assertThat(orders).hasSize(500);
+        assertThat(orders.get(499).getOrderId()).isEqualTo("ORD-499");
+    }
+
+    @Test
+    void rejectsLinesWithMissingColumns() throws IOException {
+        Path file = write("ORD-001,CUST-001,2024-01-15\n");
+
+        assertThatThrownBy(() -> readAll(file, OrderFileReader.DEFAULT_WINDOW_SIZE))
+          .isInstanceOf(IOException.class)
+          .hasMessageContaining("Line 1");
+    }
+
+    @Test
+    void rejectsImpossibleDates() throws IOException {
+        for (String date : List.of("2024-02-30", "2024-13-01")) {
+            Path file = write(HEADER
+              + "ORD-001,CUST-001,2024-01-15,PENDING,1000.00,85.00,0.00,50.00,1035.00,P1,Laptop,Electronics,1,1000.00,1000.00\n"
+              + "ORD-002,CUST-002," + date + ",PENDING,50.00,4.25,9.99,0.00,64.24,P2,Mouse,Electronics,2,25.00,50.00\n");
+
+            assertThatThrownBy(() -> readAll(file, OrderFileReader.DEFAULT_WINDOW_SIZE))
+              .isInstanceOf(IOException.class)
+              .hasMessage("Line 3 has an invalid date in column 3");
+        }
+    }
+
+    @Test
+    void ingestionValidatesAndPricesInChunks() throws IOException {
+        Path file = write(HEADER
+          + "ORD-001,CUST-001,2024-01-15,PENDING,600.00,51.00,0.00,0.00,651.00,P1,Laptop,Electronics,1,600.00,600.00\n"
+          + "ORD-002,CUST-002,2024-01-16,UNKNOWN,125.00,10.63,9.99,0.00,145.62,P2,Mouse,Electronics,5,25.00,125.00\n"
+          + "ORD-003,CUST-003,2024-01-17,PENDING,100.00,8.50,9.99,0.00,118.49,P2,Mouse,Electronics,4,25.00,100.00\n");
+        Address address = new Address("123 Main St", "Springfield", "IL", "62701", "USA");
+        Map<String, Customer> customers = Map.of(
+          "CUST-001", new Customer("CUST-001", "gold@example.com", "Gold User", address, "GOLD"));
+        OrderIngestion ingestion = new OrderIngestion(new OrderValidator(), new DiscountCalculator(), customers::get);
+        List<String> priced = new ArrayList<>();
+
+        IngestionSummary summary;
+        try (OrderFileReader reader = new OrderFileReader(file)) {
+            summary = ingestion.ingest(reader, 2, (order, discount) -> priced.add(order.getOrderId()));
+        }
+
+        assertThat(priced).containsExactly("ORD-001");
+        assertThat(summary.getTotalDiscount()).isEqualByComparingTo("120.00");
+        assertThat(summary.getUnpricedOrders()).isEqualTo(1);
+        assertThat(summary.getValidation().getFailedOrderIds()).containsExactly("ORD-002");
+        assertThat(summary.getThroughput().getOrders()).isEqualTo(3);
+        assertThat(summary.getThroughput().getBytes()).isEqualTo(Files.size(file));
+    }
+
+    @Test
+    void ingestionCountsOrdersWithoutSubtotalAsUnpriced() throws IOException {
+        Path file = write(HEADER
+          + "ORD-001,CUST-001,2024-01-15,PENDING,,51.00,0.00,0.00,651.00,P1,Laptop,Electronics,1,600.00,600.00\n"
+          + "ORD-002,CUST-001,2024-01-16,PENDING,-5.00,0.00,9.99,0.00,4.99,P2,Mouse,Electronics,1,25.00,25.00\n"
+          + "ORD-003,CUST-001,2024-01-17,PENDING,100.00,8.50,9.99,0.00,118.49,P2,Mouse,Electronics,4,25.00,100.00\n");
+        Address address = new Address("123 Main St", "Springfield", "IL", "62701", "USA");
+        Map<String, Customer> customers = Map.of(
+          "CUST-001", new Customer("CUST-001", "gold@example.com", "Gold User", address, "GOLD"));
+        OrderIngestion ingestion = new OrderIngestion(new OrderValidator(), new DiscountCalculator(), customers::get);
+        List<String> priced = new ArrayList<>();
+
+        IngestionSummary summary;
+        try (OrderFileReader reader = new OrderFileReader(file)) {
+            summary = ingestion.ingest(reader, 2, (order, discount) -> priced.add(order.getOrderId()));
+        }
+
+        assertThat(priced).containsExactly("ORD-003");
+        assertThat(summary.getUnpricedOrders()).isEqualTo(2);
+    }
+
+    private Path write(String content) throws IOException {
+        return Files.writeString(tempDir.resolve("orders.csv"), content);
+    }
+
+    private static List<Order> readAll(Path file, int windowSize) throws IOException {
+        List<Order> orders = new ArrayList<>();
+        try (OrderFileReader reader = new OrderFileReader(file, windowSize, new IngestThroughput())) {
+            reader.forEachChunk(2, orders::addAll);
+        }
+        return orders;
+    }
+}
@@ -0,0 +1,228 @@
+package com.github.timtebeek.orders;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+class OrderJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replaysOrdersInTheirLastState() throws IOException {
+        try (OrderJournal journal = OrderJournal.open(directory)) {
+            journal.orderCreated(order("ORD-001"));
+            journal.orderCreated(order("ORD-002"));
+            journal.orderCreated(order("ORD-003"));
+            journal.statusChanged("ORD-001", OrderStatus.PENDING, OrderStatus.CONFIRMED);
+            journal.statusChanged("ORD-001", OrderStatus.CONFIRMED, OrderStatus.SHIPPED);
+            journal.orderCancelled("ORD-002", OrderStatus.PENDING);
+        }
+
+        try (OrderJournal journal = OrderJournal.open(directory)) {
+            assertThat(journal.getRecoveredEvents()).isEqualTo(6);
+            assertThat(journal.getSequence()).isEqualTo(6);
+            assertThat(journal.getOrders())
+              .extracting(Order::getOrderId, Order::getOrderStatus)
+              .containsExactlyInAnyOrder(
+                tuple("ORD-001", OrderStatus.SHIPPED),
+                tuple("ORD-002", OrderStatus.CANCELLED),
+                tuple("ORD-003", OrderStatus.PENDING));
+            Order restored = journal.get("ORD-003").orElseThrow();
+            assertThat(restored.getTotal()).isEqualTo(new BigDecimal("10.85"));
+            assertThat(restored.getItems()).singleElement()
+              .extracting(OrderItem::getProductName).isEqualTo("Widget");
+            assertThat(journal.orderCreated(order("ORD-004"))).isEqualTo(7);
+        }
+    }
+
+    @Test
+    void rejectsInvalidEventsWithoutJournalingThem() throws IOException {
+        try (OrderJournal journal = OrderJournal.open(directory)) {
+            journal.orderCreated(order("ORD-001"));
+
+            assertThatThrownBy(() -> journal.orderCreated(order("ORD-001")))
+              .isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> journal.statusChanged("ORD-001", OrderStatus.CONFIRMED, OrderStatus.SHIPPED))
+              .isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> journal.statusChanged("ORD-001", OrderStatus.PENDING, OrderStatus.DELIVERED))
+              .isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> journal.orderCancelled("ORD-404", OrderStatus.PENDING))
+              .isInstanceOf(IllegalArgumentException.class);
+            journal.statusChanged("ORD-001", OrderStatus.PENDING, OrderStatus.CONFIRMED);
+        }
+
+        try (OrderJournal journal = OrderJournal.open(directory)) {
+            assertThat(journal.getRecoveredEvents()).isEqualTo(2);
+            assertThat(journal.get("ORD-001")).get().extracting(Order::getOrderStatus).isEqualTo(OrderStatus.CONFIRMED);
+        }
+    }
+
+    @Test
+    void rollsSegmentsAndRestartsFromTheLatestSnapshot() throws IOException {
+        try (OrderJournal journal = OrderJournal.builder(directory).segmentSize(4096).open()) {
+            for (int i = 0; i < 100; i++) {
+                journal.orderCreated(order("ORD-" + i));
+            }
+            assertThat(files(".journal")).hasSizeGreaterThan(1);
+
+            journal.snapshot();
+            assertThat(files(".journal")).hasSize(1);
+            assertThat(files(".snapshot")).hasSize(1);
+
+            journal.statusChanged("ORD-7", OrderStatus.PENDING, OrderStatus.CONFIRMED);
+            journal.orderCreated(order("ORD-100"));
+        }
+
+        try (OrderJournal journal = OrderJournal.builder(directory).segmentSize(4096).open()) {
+            assertThat(journal.getSnapshotSequence()).isEqualTo(100);
+            assertThat(journal.getRecoveredEvents()).isEqualTo(2);
+            assertThat(journal.size()).isEqualTo(101);
+            assertThat(journal.get("ORD-7")).get().extracting(Order::getOrderStatus).isEqualTo(OrderStatus.CONFIRMED);
+        }
+    }
+
+    @Test
+    void takesSnapshotsAutomatically() throws IOException {
+        try (OrderJournal journal = OrderJournal.builder(directory).snapshotInterval(10).segmentSize(1 << 16).open()) {
+            for (int i = 0; i < 25; i++) {
+                journal.orderCreated(order("ORD-" + i));
+            }
+            assertThat(journal.getSnapshotSequence()).isEqualTo(20);
+        }
+
+        try (OrderJournal journal = OrderJournal.builder(directory).segmentSize(1 << 16).open()) {
+            assertThat(journal.getRecoveredEvents()).isEqualTo(5);
+            assertThat(journal.size()).isEqualTo(25);
+        }
+    }
+
+    @Test
+    void keepsAppendingWhenAnAutomaticSnapshotFails() throws IOException {
+        try (OrderJournal journal = OrderJournal.builder(directory).snapshotInterval(10).segmentSize(1 << 16).open()) {
+            // A non-empty directory where the first snapshot goes makes moving it into place fail
+            Path blocked = Files.createDirectories(directory.resolve(String.format("%020d.snapshot", 10)));
+            Path occupied = Files.createFile(blocked.resolve("occupied"));
+            for (int i = 0; i < 15; i++) {
+                assertThat(journal.orderCreated(order("ORD-" + i))).isEqualTo(i + 1);
+            }
+            assertThat(journal.getSnapshotSequence()).isZero();
+            assertThat(journal.getSnapshotFailure()).isPresent();
+            Files.delete(occupied);
+            Files.delete(blocked);
+
+            for (int i = 15; i < 25; i++) {
+                journal.orderCreated(order("ORD-" + i));
+            }
+            assertThat(journal.getSnapshotSequence()).isEqualTo(20);
+            assertThat(journal.getSnapshotFailure()).isEmpty();
+        }
+
+        try (OrderJournal journal = OrderJournal.builder(directory).segmentSize(1 << 16).open()) {
+            assertThat(journal.size()).isEqualTo(25);
+        }
+    }
+
+    @Test
+    void stopsReplayAtCorruptRecordAndOverwritesIt() throws IOException {
+        try (OrderJournal journal = OrderJournal.builder(directory).segmentSize(1 << 16).open()) {
+            journal.orderCreated(order("ORD-001"));
+            journal.orderCreated(order("ORD-002"));
+        }
+        Path segment = files(".journal").get(0);
+        int secondRecord = ByteBuffer.wrap(Files.readAllBytes(segment)).getInt(OrderJournal.RECORD_LENGTH);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{42}), secondRecord + OrderJournal.RECORD_HEADER_SIZE + 20);
+        }
+
+        try (OrderJournal journal = OrderJournal.builder(directory).segmentSize(1 << 16).open()) {
+            assertThat(journal.getRecoveredEvents()).isEqualTo(1);
+            assertThat(journal.orderCreated(order("ORD-003"))).isEqualTo(2);
+        }
+        try (OrderJournal journal = OrderJournal.builder(directory).segmentSize(1 << 16).open()) {
+            assertThat(journal.getOrders()).extracting(Order::getOrderId).containsExactlyInAnyOrder("ORD-001", "ORD-003");
+        }
+    }
+
+    @Test
+    void concurrentAppendsShareFlushes() throws Exception {
+        int appenders = 16;
+        AtomicReference<OrderJournal> opened = new AtomicReference<>();
+        AtomicBoolean first = new AtomicBoolean(true);
+        Runnable awaitAllAppends = () -> {
+            if (first.getAndSet(false)) {
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+                while (opened.get().getSequence() < appenders && System.nanoTime() < deadline) {
+                    Thread.onSpinWait();
+                }
+            }
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(appenders);
+        try (OrderJournal journal = OrderJournal.builder(directory)
+          .segmentSize(1 << 20)
+          .beforeFlush(awaitAllAppends)
+          .open()) {
+            opened.set(journal);
+            List<Future<Long>> appends = new ArrayList<>();
+            for (int i = 0; i < appenders; i++) {
+                Order order = order("ORD-" + i);
+                appends.add(executor.submit(() -> journal.orderCreated(order)));
+            }
+            for (Future<Long> append : appends) {
+                append.get();
+            }
+
+            assertThat(journal.getSequence()).isEqualTo(appenders);
+            assertThat(journal.getFlushes()).isOne();
+        } finally {
+            executor.shutdown();
+        }
+
+        try (OrderJournal journal = OrderJournal.builder(directory).segmentSize(1 << 20).open()) {
+            assertThat(journal.size()).isEqualTo(appenders);
+        }
+    }
+
+    @Test
+    void rejectsAppendsAfterClose() throws IOException {
+        OrderJournal journal = OrderJournal.open(directory);
+        journal.close();
+
+        assertThatThrownBy(() -> journal.orderCreated(order("ORD-001")))
+          .isInstanceOf(IllegalStateException.class);
+    }
+
+    private List<Path> files(String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.toString().endsWith(suffix)).sorted().toList();
+        }
+    }
+
+    private static Order order(String orderId) {
+        OrderItem item = new OrderItem("P1", "Widget", "Gadgets", 1, new BigDecimal("10.00"), new BigDecimal("10.00"));
+        return new Order(orderId, "CUST-001", LocalDate.of(2024, 1, 15), "PENDING", List.of(item),
+          new BigDecimal("10.00"), new BigDecimal("0.85"), BigDecimal.ZERO, BigDecimal.ZERO, new BigDecimal("10.85"));
+    }
+}
@@ -0,0 +1,192 @@
+package com.github.timtebeek.orders;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OrderPipelineTest {
+
+    private static final Address ADDRESS = new Address("123 Main St", "Springfield", "IL", "62701", "USA");
+
+    private final Map<String, Customer> customers = Map.of(
+      "CUST-001", new Customer("CUST-001", "gold@example.com", "Gold User", ADDRESS, "GOLD"));
+    private final Map<String, BigDecimal> finalized = new ConcurrentHashMap<>();
+    private final Set<String> rejected = ConcurrentHashMap.newKeySet();
+
+    @Test
+    void validatesPricesAndFinalizesOrders() throws InterruptedException {
+        OrderPipeline pipeline = OrderPipeline.builder(new OrderValidator(), new DiscountCalculator(), customers::get,
+            (order, discount) -> finalized.put(order.getOrderId(), discount))
+          .rejections((order, result) -> rejected.add(order.getOrderId()))
+          .concurrency(OrderPipeline.Stage.PRICE, 8)
+          .queueCapacity(4)
+          .build();
+
+        for (int i = 0; i < 1_000; i++) {
+            pipeline.submit(order("ORD-" + i, i % 10 == 0 ? "UNKNOWN" : "PENDING", i % 2 == 0 ? "CUST-001" : "CUST-002"));
+        }
+        pipeline.close();
+
+        assertThat(pipeline.usesVirtualThreads()).isEqualTo(Runtime.version().feature() >= 21);
+        assertThat(pipeline.getSubmitted()).isEqualTo(1_000);
+        assertThat(pipeline.getRejected()).isEqualTo(100);
+        assertThat(rejected).hasSize(100).contains("ORD-0");
+        assertThat(pipeline.getUnpriced()).isEqualTo(500);
+        assertThat(pipeline.getCompleted()).isEqualTo(400);
+        assertThat(finalized).hasSize(400).containsEntry("ORD-2", new BigDecimal("200.00"));
+        assertThat(pipeline.getProcessed(OrderPipeline.Stage.PRICE)).isEqualTo(900);
+        assertThat(pipeline.getQueueDepth(OrderPipeline.Stage.VALIDATE)).isZero();
+    }
+
+    @Test
+    void blocksSubmitterWhenQueuesAreFull() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        OrderPipeline pipeline = OrderPipeline.builder(new OrderValidator(), new DiscountCalculator(), customers::get,
+            (order, discount) -> awaitUninterruptibly(release))
+          .queueCapacity(1)
+          .build();
+        Thread submitter = new Thread(() -> {
+            try {
+                for (int i = 0; i < 10; i++) {
+                    pipeline.submit(order("ORD-" + i, "PENDING", "CUST-001"));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        submitter.start();
+
+        // One order in the finalizer, one held by each upstream worker and one in each queue, one being submitted
+        awaitUntil(() -> pipeline.getSubmitted() == 7 && submitter.getState() == Thread.State.WAITING);
+        assertThat(pipeline.getQueueDepth(OrderPipeline.Stage.VALIDATE)).isEqualTo(1);
+        assertThat(pipeline.getQueueDepth(OrderPipeline.Stage.PRICE)).isEqualTo(1);
+        assertThat(pipeline.getQueueDepth(OrderPipeline.Stage.FINALIZE)).isEqualTo(1);
+        assertThat(pipeline.getSubmitted()).isEqualTo(7);
+
+        release.countDown();
+        submitter.join();
+        pipeline.close();
+        assertThat(pipeline.getCompleted()).isEqualTo(10);
+        assertThat(pipeline.getMaxLatency(OrderPipeline.Stage.FINALIZE)).isPositive();
+    }
+
+    @Test
+    void rethrowsFirstStageFailureOnClose() throws InterruptedException {
+        OrderPipeline pipeline = OrderPipeline.builder(new OrderValidator(), new DiscountCalculator(),
+            customerId -> {
+                throw new IllegalStateException("Customer service unavailable");
+            }, (order, discount) -> finalized.put(order.getOrderId(), discount))
+          .build();
+
+        pipeline.submit(order("ORD-1", "PENDING", "CUST-001"));
+
+        assertThatThrownBy(pipeline::close)
+          .isInstanceOf(IllegalStateException.class)
+          .hasRootCauseMessage("Customer service unavailable");
+        assertThat(pipeline.getFailed(OrderPipeline.Stage.PRICE)).isEqualTo(1);
+        assertThatThrownBy(() -> pipeline.submit(order("ORD-2", "PENDING", "CUST-001")))
+          .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    @Timeout(value = 10, threadMode = Timeout.ThreadMode.SEPARATE_THREAD)
+    void keepsDrainingAfterStageErrors() throws InterruptedException {
+        OrderPipeline pipeline = OrderPipeline.builder(new OrderValidator(), new DiscountCalculator(),
+            customerId -> {
+                throw new StackOverflowError("Customer lookup recursed");
+            }, (order, discount) -> finalized.put(order.getOrderId(), discount))
+          .queueCapacity(1)
+          .build();
+
+        for (int i = 0; i < 10; i++) {
+            pipeline.submit(order("ORD-" + i, "PENDING", "CUST-001"));
+        }
+
+        assertThatThrownBy(pipeline::close)
+          .isInstanceOf(IllegalStateException.class)
+          .hasCauseInstanceOf(StackOverflowError.class);
+        assertThat(pipeline.getFailed(OrderPipeline.Stage.PRICE)).isEqualTo(10);
+        assertThat(finalized).isEmpty();
+    }
+
+    @Test
+    @Timeout(value = 10, threadMode = Timeout.ThreadMode.SEPARATE_THREAD)
+    void keepsProcessingWhenWorkersAreInterrupted() throws InterruptedException {
+        List<Thread> workers = new CopyOnWriteArrayList<>();
+        CountDownLatch release = new CountDownLatch(1);
+        OrderPipeline pipeline = OrderPipeline.builder(new OrderValidator(), new DiscountCalculator(), customers::get,
+            (order, discount) -> {
+                awaitUninterruptibly(release);
+                finalized.put(order.getOrderId(), discount);
+            })
+          .queueCapacity(1)
+          .threadFactory(runnable -> {
+              Thread thread = new Thread(runnable);
+              thread.setDaemon(true);
+              workers.add(thread);
+              return thread;
+          })
+          .build();
+        Thread submitter = new Thread(() -> {
+            try {
+                for (int i = 0; i < 10; i++) {
+                    pipeline.submit(order("ORD-" + i, "PENDING", "CUST-001"));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        submitter.start();
+
+        awaitUntil(() -> pipeline.getSubmitted() == 7 && submitter.getState() == Thread.State.WAITING);
+        workers.forEach(Thread::interrupt);
+        release.countDown();
+        submitter.join();
+        awaitUntil(() -> pipeline.getCompleted() == 10);
+        workers.forEach(Thread::interrupt);
+        pipeline.close();
+
+        assertThat(finalized).hasSize(10);
+        assertThat(pipeline.getProcessed(OrderPipeline.Stage.VALIDATE)).isEqualTo(10);
+        for (Thread worker : workers) {
+            worker.join();
+        }
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition met in time").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Order order(String orderId, String status, String customerId) {
+        OrderItem laptop = new OrderItem("P1", "Laptop", "Electronics", 1,
+          new BigDecimal("1000.00"), new BigDecimal("1000.00"));
+        return new Order(orderId, customerId, LocalDate.of(2024, 1, 15), status, List.of(laptop),
+          new BigDecimal("1000.00"), new BigDecimal("85.00"), BigDecimal.ZERO, BigDecimal.ZERO,
+          new BigDecimal("1085.00"));
+    }
+}
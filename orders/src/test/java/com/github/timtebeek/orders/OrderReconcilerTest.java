@@ -0,0 +1,116 @@
+package com.github.timtebeek.orders;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+class OrderReconcilerTest {
+
+    private static final Address ADDRESS = new Address("123 Main St", "Springfield", "IL", "62701", "USA");
+
+    private final OrderItem laptop = new OrderItem("P1", "Laptop", "Electronics", 1,
+      new BigDecimal("1000.00"), new BigDecimal("1000.00"));
+    private final OrderItem mice = new OrderItem("P2", "Mouse", "Electronics", 2,
+      new BigDecimal("25.00"), new BigDecimal("50.00"));
+
+    @Test
+    void consistentOrdersHaveNoMismatches() {
+        ReconciliationReport report = new OrderReconciler().reconcile(List.of(
+          order("ORD-001", List.of(laptop, mice), "1050.00", "89.25", "0.00", "1139.25")));
+
+        assertThat(report.getOrdersReconciled()).isEqualTo(1);
+        assertThat(report.getOrdersWithMismatches()).isZero();
+        assertThat(report.getMismatches()).isEmpty();
+        assertThat(report.getSkippedCount(ReconciliationCheck.DISCOUNT)).isZero();
+    }
+
+    @Test
+    void reportsMismatchesWithDeltas() {
+        OrderItem wrongLine = new OrderItem("P2", "Mouse", "Electronics", 2,
+          new BigDecimal("25.00"), new BigDecimal("55.00"));
+
+        ReconciliationReport report = new OrderReconciler().reconcile(List.of(
+          order("ORD-001", List.of(laptop, wrongLine), "1050.00", "89.25", "0.00", "1139.25"),
+          order("ORD-002", List.of(laptop), "1000.00", "85.00", "10.00", "1074.99")));
+
+        assertThat(report.getOrdersWithMismatches()).isEqualTo(2);
+        assertThat(report.getMismatchCounts()).containsOnly(
+          entry(ReconciliationCheck.LINE_TOTAL, 1L),
+          entry(ReconciliationCheck.SUBTOTAL, 1L),
+          entry(ReconciliationCheck.ORDER_TOTAL, 1L));
+        assertThat(report.getAbsoluteDelta(ReconciliationCheck.LINE_TOTAL)).isEqualByComparingTo("5.00");
+        assertThat(report.getMismatches())
+          .filteredOn(mismatch -> mismatch.getCheck() == ReconciliationCheck.ORDER_TOTAL)
+          .singleElement()
+          .satisfies(mismatch -> {
+              assertThat(mismatch.getOrderId()).isEqualTo("ORD-002");
+              assertThat(mismatch.getExpected()).isEqualByComparingTo("1075.00");
+              assertThat(mismatch.getDelta()).isEqualByComparingTo("-0.01");
+          });
+    }
+
+    @Test
+    void recomputesDiscountForKnownCustomers() {
+        Map<String, Customer> customers = Map.of(
+          "CUST-001", new Customer("CUST-001", "gold@example.com", "Gold User", ADDRESS, "GOLD"));
+        OrderReconciler reconciler = new OrderReconciler(new DiscountCalculator(), customers::get);
+
+        ReconciliationReport report = reconciler.reconcile(List.of(
+          order("ORD-001", List.of(laptop), "1000.00", "85.00", "150.00", "935.00"),
+          new Order("ORD-002", "CUST-404", LocalDate.of(2024, 1, 15), "PENDING", List.of(laptop),
+            new BigDecimal("1000.00"), new BigDecimal("85.00"), BigDecimal.ZERO, BigDecimal.ZERO,
+            new BigDecimal("1085.00"))));
+
+        assertThat(report.getMismatchCount(ReconciliationCheck.DISCOUNT)).isEqualTo(1);
+        assertThat(report.getMismatches()).singleElement()
+          .satisfies(mismatch -> assertThat(mismatch.getExpected()).isEqualByComparingTo("200.00"));
+        assertThat(report.getSkippedCount(ReconciliationCheck.DISCOUNT)).isEqualTo(1);
+    }
+
+    @Test
+    void boundsListedMismatches() {
+        ReconciliationReport report = new OrderReconciler().reconcile(IntStream.range(0, 10_000)
+          .mapToObj(i -> order("ORD-" + i, List.of(laptop), "1000.00", "85.00", "0.00", "1000.00")), 10);
+
+        assertThat(report.getMismatchCount(ReconciliationCheck.ORDER_TOTAL)).isEqualTo(10_000);
+        assertThat(report.getAbsoluteDelta(ReconciliationCheck.ORDER_TOTAL)).isEqualByComparingTo("850000.00");
+        assertThat(report.getMismatches()).hasSize(10);
+        assertThat(report.isTruncated()).isTrue();
+    }
+
+    @Test
+    void reconcilesFileInChunks(@TempDir Path tempDir) throws IOException {
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 250; i++) {
+            String total = i == 42 ? "64.00" : "64.24";
+            csv.append("ORD-").append(i).append(",CUST-001,2024-01-15,PENDING,50.00,4.25,9.99,0.00,").append(total)
+              .append(",P1,Laptop,Electronics,1,50.00,50.00\n");
+        }
+        Path file = Files.writeString(tempDir.resolve("orders.csv"), csv);
+
+        ReconciliationReport report;
+        try (OrderFileReader reader = new OrderFileReader(file)) {
+            report = new OrderReconciler().reconcile(reader, 16, 100);
+        }
+
+        assertThat(report.getOrdersReconciled()).isEqualTo(250);
+        assertThat(report.getMismatches()).extracting(Mismatch::getOrderId).containsExactly("ORD-42");
+    }
+
+    private static Order order(String orderId, List<OrderItem> items, String subtotal, String tax, String discount,
+                               String total) {
+        return new Order(orderId, "CUST-001", LocalDate.of(2024, 1, 15), "PENDING", items, new BigDecimal(subtotal),
+          new BigDecimal(tax), BigDecimal.ZERO, new BigDecimal(discount), new BigDecimal(total));
+    }
+}
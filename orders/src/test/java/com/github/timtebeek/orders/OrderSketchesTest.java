@@ -0,0 +1,170 @@
+package com.github.timtebeek.orders;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.assertj.core.api.Assertions.within;
+
+class OrderSketchesTest {
+
+    @Test
+    void countMinSketchNeverUndercountsAndMerges() {
+        CountMinSketch left = new CountMinSketch(0.001, 0.01);
+        CountMinSketch right = new CountMinSketch(0.001, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            (i % 2 == 0 ? left : right).add("CUST-" + (i % 1_000), i % 1_000 + 1);
+        }
+
+        left.merge(right);
+        CountMinSketch restored = CountMinSketch.fromBytes(left.toBytes());
+
+        for (int customer = 0; customer < 1_000; customer++) {
+            long actual = 10L * (customer + 1);
+            assertThat(restored.estimate("CUST-" + customer))
+              .isGreaterThanOrEqualTo(actual)
+              .isLessThanOrEqualTo(actual + (long) (0.001 * restored.getTotalWeight()));
+        }
+        assertThat(restored.getTotalWeight()).isEqualTo(left.getTotalWeight());
+        assertThatThrownBy(() -> left.merge(new CountMinSketch(0.01, 0.01)))
+          .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void findsTopCustomersBySpend() {
+        List<Order> orders = new ArrayList<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 50_000; i++) {
+            orders.add(order("CUST-" + random.nextInt(10_000), "10.00", "Books"));
+        }
+        for (int i = 0; i < 500; i++) {
+            orders.add(order("WHALE-" + i % 3, (i % 3 + 1) + "000.00", "Electronics"));
+        }
+
+        OrderSketches sketches = orders.parallelStream()
+          .collect(OrderSketches.builder().topCustomers(3).collector());
+
+        assertThat(sketches.getOrders()).isEqualTo(50_500);
+        assertThat(sketches.getTopCustomers())
+          .extracting(HeavyHitter::getKey)
+          .containsExactly("WHALE-2", "WHALE-1", "WHALE-0");
+        assertThat(sketches.getTopCustomers().get(0).getEstimate()).isGreaterThanOrEqualTo(166L * 300_000);
+    }
+
+    @Test
+    void tracksPercentilesOfTotalsAndLineTotalsPerCategory() {
+        OrderSketches sketches = OrderSketches.builder().maxCategories(2).build();
+        IntStream.rangeClosed(1, 1_000).forEach(i -> sketches.accept(order("CUST-1", i + ".00", "Books")));
+        sketches.accept(order("CUST-1", "5.00", "Garden"));
+        sketches.accept(order("CUST-1", "7.00", "Toys"));
+        sketches.accept(order("CUST-1", "9.00", null));
+
+        assertThat(sketches.getTotalPercentile(50).doubleValue()).isCloseTo(500, within(5.0));
+        assertThat(sketches.getTotalPercentile(99).doubleValue()).isCloseTo(990, within(10.0));
+        assertThat(sketches.getLineTotalPercentile("Books", 95).doubleValue()).isCloseTo(950, within(10.0));
+        assertThat(sketches.getCategories()).containsExactlyInAnyOrder("Books", "Garden", OrderSketches.OTHER_CATEGORY);
+        assertThat(sketches.getLineTotalPercentile(OrderSketches.OTHER_CATEGORY, 100).doubleValue()).isCloseTo(9, within(0.1));
+        assertThat(sketches.getLineTotalPercentile("Toys", 50)).isNull();
+    }
+
+    @Test
+    void serializesAndMergesAcrossNodes() {
+        OrderSketches.Builder builder = OrderSketches.builder().topCustomers(2);
+        OrderSketches first = builder.build();
+        OrderSketches second = builder.build();
+        first.accept(order("CUST-1", "100.00", "Books"));
+        first.accept(order("CUST-2", "50.00", "Books"));
+        second.accept(order("CUST-3", "120.00", "Garden"));
+        second.accept(order("CUST-2", "80.00", "Books"));
+
+        OrderSketches merged = OrderSketches.fromBytes(first.toBytes());
+        merged.merge(OrderSketches.fromBytes(second.toBytes()));
+
+        assertThat(merged.getOrders()).isEqualTo(4);
+        assertThat(merged.getTopCustomers()).extracting(HeavyHitter::getKey).containsExactly("CUST-2", "CUST-3");
+        assertThat(merged.estimateSpendCents("CUST-1")).isEqualTo(10_000);
+        assertThat(merged.getTotalPercentile(100).doubleValue()).isCloseTo(120, within(1.2));
+        assertThat(merged.getCategories()).containsExactlyInAnyOrder("Books", "Garden");
+        assertThatThrownBy(() -> OrderSketches.fromBytes(new byte[]{1, 2, 3}))
+          .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsTruncatedAndCorruptBytes() {
+        OrderSketches sketches = OrderSketches.builder().topCustomers(2).spendAccuracy(0.1, 0.1).build();
+        sketches.accept(order("CUST-1", "100.00", "Books"));
+        sketches.accept(order("CUST-2", "50.00", "Garden"));
+        byte[] bytes = sketches.toBytes();
+
+        for (int length = 0; length < bytes.length; length++) {
+            byte[] truncated = Arrays.copyOf(bytes, length);
+            assertThatThrownBy(() -> OrderSketches.fromBytes(truncated)).isInstanceOf(IllegalArgumentException.class);
+        }
+        for (int i = 0; i < bytes.length; i++) {
+            for (byte value : new byte[]{(byte) 0x80, (byte) 0xFF, 0x7F}) {
+                byte[] corrupt = bytes.clone();
+                corrupt[i] = value;
+                Throwable thrown = catchThrowable(() -> OrderSketches.fromBytes(corrupt));
+                if (thrown != null) {
+                    assertThat(thrown).isInstanceOf(IllegalArgumentException.class);
+                }
+            }
+        }
+    }
+
+    @Test
+    void leavesSketchesUnchangedWhenSettingsDiffer() {
+        OrderSketches sketches = OrderSketches.builder().topCustomers(2).build();
+        sketches.accept(order("CUST-1", "100.00", "Books"));
+        OrderSketches other = OrderSketches.builder().topCustomers(2).build();
+        other.accept(order("CUST-2", "50.00", "Books"));
+
+        for (OrderSketches.Builder settings : List.of(
+          OrderSketches.builder().topCustomers(3),
+          OrderSketches.builder().topCustomers(2).spendAccuracy(0.01, 0.001),
+          OrderSketches.builder().topCustomers(2).maxCategories(1),
+          OrderSketches.builder().topCustomers(2).histogram(new BigDecimal("1000.00"), 2))) {
+            OrderSketches different = settings.build();
+            different.accept(order("CUST-3", "80.00", "Garden"));
+
+            assertThatThrownBy(() -> sketches.merge(different)).isInstanceOf(IllegalArgumentException.class);
+        }
+        sketches.merge(other);
+
+        assertThat(sketches.getOrders()).isEqualTo(2);
+        assertThat(sketches.estimateSpendCents("CUST-3")).isZero();
+        assertThat(sketches.getCategories()).containsExactly("Books");
+    }
+
+    @Test
+    void skipsAndCountsAmountsWithFractionalCents() {
+        OrderSketches.Builder builder = OrderSketches.builder();
+        OrderSketches sketches = Stream.of(order("CUST-1", "10.00", "Books"), order("CUST-2", "1.005", "Books"))
+          .parallel()
+          .collect(builder.collector());
+
+        assertThat(sketches.getOrders()).isEqualTo(2);
+        assertThat(sketches.getSkippedAmounts()).isEqualTo(2);
+        assertThat(sketches.estimateSpendCents("CUST-2")).isZero();
+        assertThat(sketches.getTotalPercentile(100).doubleValue()).isCloseTo(10, within(0.1));
+        assertThat(sketches.getLineTotalPercentile("Books", 0).doubleValue()).isCloseTo(10, within(0.1));
+        assertThat(OrderSketches.fromBytes(sketches.toBytes()).getSkippedAmounts()).isEqualTo(2);
+    }
+
+    private static Order order(String customerId, String total, String category) {
+        BigDecimal amount = new BigDecimal(total);
+        OrderItem item = new OrderItem("P1", "Product", category, 1, amount, amount);
+        return new Order("ORD-1", customerId, LocalDate.of(2024, 1, 15), "CONFIRMED", List.of(item),
+          amount, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, amount);
+    }
+}
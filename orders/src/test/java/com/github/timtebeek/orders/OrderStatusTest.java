@@ -0,0 +1,77 @@
+package com.github.timtebeek.orders;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OrderStatusTest {
+
+    @Test
+    void allowsOnlyForwardTransitions() {
+        assertThat(OrderStatus.PENDING.canTransitionTo(OrderStatus.CONFIRMED)).isTrue();
+        assertThat(OrderStatus.CONFIRMED.canTransitionTo(OrderStatus.CANCELLED)).isTrue();
+        assertThat(OrderStatus.SHIPPED.canTransitionTo(OrderStatus.CANCELLED)).isFalse();
+        assertThat(OrderStatus.SHIPPED.canTransitionTo(OrderStatus.PENDING)).isFalse();
+        assertThat(OrderStatus.DELIVERED.isTerminal()).isTrue();
+        assertThat(OrderStatus.CANCELLED.isTerminal()).isTrue();
+    }
+
+    @Test
+    void parsesExactNamesAndCodes() {
+        assertThat(OrderStatus.parse("SHIPPED")).isEqualTo(OrderStatus.SHIPPED);
+        assertThat(OrderStatus.parse("shipped")).isNull();
+        assertThat(OrderStatus.parse(null)).isNull();
+        for (OrderStatus status : OrderStatus.values()) {
+            assertThat(OrderStatus.fromCode(status.code())).isEqualTo(status);
+        }
+    }
+
+    @Test
+    void rejectsDisallowedTransition() {
+        Order order = order("DELIVERED");
+
+        assertThatThrownBy(() -> order.transitionStatus(OrderStatus.DELIVERED, OrderStatus.PENDING))
+          .isInstanceOf(IllegalArgumentException.class);
+        assertThat(order.transitionStatus(OrderStatus.PENDING, OrderStatus.CONFIRMED)).isFalse();
+        assertThat(order.getOrderStatus()).isEqualTo(OrderStatus.DELIVERED);
+    }
+
+    @Test
+    void exactlyOneConcurrentTransitionWins() throws Exception {
+        Order order = order("PENDING");
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<Boolean>> attempts = IntStream.range(0, 64)
+              .mapToObj(i -> (Callable<Boolean>) () -> order.transitionStatus(OrderStatus.PENDING,
+                i % 2 == 0 ? OrderStatus.CONFIRMED : OrderStatus.CANCELLED))
+              .collect(Collectors.toList());
+            long wins = 0;
+            for (Future<Boolean> attempt : executor.invokeAll(attempts)) {
+                if (attempt.get()) {
+                    wins++;
+                }
+            }
+
+            assertThat(wins).isEqualTo(1);
+            assertThat(order.getOrderStatus()).isIn(OrderStatus.CONFIRMED, OrderStatus.CANCELLED);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Order order(String status) {
+        return new Order("ORD-001", "CUST-001", LocalDate.of(2024, 1, 15), status, List.of(),
+          null, null, null, null, new BigDecimal("10.00"));
+    }
+}
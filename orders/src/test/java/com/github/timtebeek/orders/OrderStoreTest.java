@@ -0,0 +1,108 @@
+package com.github.timtebeek.orders;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderStoreTest {
+
+    private OrderStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new OrderStore();
+        store.putAll(List.of(
+          order("ORD-001", "CUST-001", LocalDate.of(2024, 1, 15), "SHIPPED"),
+          order("ORD-002", "CUST-002", LocalDate.of(2024, 1, 16), "SHIPPED"),
+          order("ORD-003", "CUST-001", LocalDate.of(2024, 1, 5), "SHIPPED"),
+          order("ORD-004", "CUST-001", LocalDate.of(2024, 2, 1), "SHIPPED"),
+          order("ORD-005", "CUST-001", LocalDate.of(2024, 1, 20), "PENDING")));
+    }
+
+    @Test
+    void findsShippedOrdersOfCustomerInJanuary() {
+        List<Order> orders = store.find(OrderQuery.all()
+          .customer("CUST-001")
+          .status(OrderStatus.SHIPPED)
+          .orderedBetween(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31)));
+
+        assertThat(orders).extracting(Order::getOrderId).containsExactly("ORD-003", "ORD-001");
+    }
+
+    @Test
+    void findsBySingleIndex() {
+        assertThat(store.findByCustomer("CUST-002")).extracting(Order::getOrderId).containsExactly("ORD-002");
+        assertThat(store.findByStatus(OrderStatus.PENDING)).extracting(Order::getOrderId).containsExactly("ORD-005");
+        assertThat(store.findByOrderDateBetween(LocalDate.of(2024, 1, 16), LocalDate.of(2024, 2, 1)))
+          .extracting(Order::getOrderId)
+          .containsExactly("ORD-002", "ORD-005", "ORD-004");
+        assertThat(store.find(OrderQuery.all())).hasSize(5);
+    }
+
+    @Test
+    void replacingOrderUpdatesIndexes() {
+        Order delivered = order("ORD-005", "CUST-001", LocalDate.of(2024, 1, 20), "DELIVERED");
+
+        assertThat(store.put(delivered)).isPresent();
+
+        assertThat(store.findByStatus(OrderStatus.PENDING)).isEmpty();
+        assertThat(store.findByStatus(OrderStatus.DELIVERED)).containsExactly(delivered);
+        assertThat(store.size()).isEqualTo(5);
+    }
+
+    @Test
+    void transitioningStatusUpdatesIndex() {
+        assertThat(store.transitionStatus("ORD-005", OrderStatus.PENDING, OrderStatus.CONFIRMED)).isTrue();
+        assertThat(store.transitionStatus("ORD-005", OrderStatus.PENDING, OrderStatus.CANCELLED)).isFalse();
+        assertThat(store.transitionStatus("ORD-999", OrderStatus.PENDING, OrderStatus.CONFIRMED)).isFalse();
+
+        assertThat(store.findByStatus(OrderStatus.PENDING)).isEmpty();
+        assertThat(store.findByStatus(OrderStatus.CONFIRMED)).extracting(Order::getOrderId).containsExactly("ORD-005");
+    }
+
+    @Test
+    void removingOrderUpdatesIndexes() {
+        assertThat(store.remove("ORD-002")).isPresent();
+
+        assertThat(store.get("ORD-002")).isEmpty();
+        assertThat(store.findByCustomer("CUST-002")).isEmpty();
+    }
+
+    @Test
+    void readsStayConsistentDuringWrites() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> writer = executor.submit(() -> {
+                for (int i = 0; i < 5_000; i++) {
+                    store.put(order("ORD-005", "CUST-001", LocalDate.of(2024, 1, 20), i % 2 == 0 ? "CONFIRMED" : "PENDING"));
+                }
+            });
+            Future<?> reader = executor.submit(() -> {
+                while (!writer.isDone()) {
+                    assertThat(store.findByStatus(OrderStatus.SHIPPED)).hasSize(4);
+                    assertThat(store.findByCustomer("CUST-001")).hasSize(4);
+                }
+            });
+            writer.get(10, TimeUnit.SECONDS);
+            reader.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static Order order(String orderId, String customerId, LocalDate orderDate, String status) {
+        OrderItem item = new OrderItem("P1", "Laptop", "Electronics", 1,
+          new BigDecimal("1000.00"), new BigDecimal("1000.00"));
+        return new Order(orderId, customerId, orderDate, status, List.of(item), new BigDecimal("1000.00"),
+          new BigDecimal("85.00"), BigDecimal.ZERO, BigDecimal.ZERO, new BigDecimal("1085.00"));
+    }
+}
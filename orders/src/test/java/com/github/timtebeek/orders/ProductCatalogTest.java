@@ -0,0 +1,48 @@
+package com.github.timtebeek.orders;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProductCatalogTest {
+
+    private final ProductCatalog catalog = new ProductCatalog();
+
+    @Test
+    void internsEqualProductsOnce() {
+        Product laptop = catalog.intern("P1", "Laptop", "Electronics");
+        Product mouse = catalog.intern("P2", "Mouse", new String("Electronics"));
+
+        assertThat(catalog.intern("P1", new String("Laptop"), "Electronics")).isSameAs(laptop);
+        assertThat(mouse.getCategory()).isSameAs(laptop.getCategory());
+        assertThat(laptop.getId()).isZero();
+        assertThat(mouse.getId()).isEqualTo(1);
+        assertThat(catalog.get(1)).isSameAs(mouse);
+        assertThat(catalog.size()).isEqualTo(2);
+    }
+
+    @Test
+    void internsRenamedProductSeparately() {
+        Product laptop = catalog.intern("P1", "Laptop", "Electronics");
+
+        assertThat(catalog.intern("P1", "Laptop Pro", "Electronics")).isNotSameAs(laptop);
+        assertThatThrownBy(() -> catalog.get(2)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void dedupesItemsAgainstCatalog() {
+        OrderItem item = new OrderItem("P1", "Laptop", "Electronics", 2,
+          new BigDecimal("1000.00"), new BigDecimal("2000.00"));
+
+        OrderItem deduped = catalog.dedupe(item);
+
+        assertThat(item.getProduct().getId()).isEqualTo(Product.UNCATALOGED);
+        assertThat(deduped.getProduct()).isSameAs(catalog.intern("P1", "Laptop", "Electronics"));
+        assertThat(deduped.getQuantity()).isEqualTo(2);
+        assertThat(deduped.getLineTotal()).isEqualByComparingTo("2000.00");
+        assertThat(catalog.dedupe(deduped)).isSameAs(deduped);
+    }
+}
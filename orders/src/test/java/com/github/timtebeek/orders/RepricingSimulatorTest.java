@@ -0,0 +1,166 @@
+package com.github.timtebeek.orders;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+class RepricingSimulatorTest {
+
+    private static final Address ADDRESS = new Address("123 Main St", "Springfield", "IL", "62701", "USA");
+    private static final Map<String, Customer> CUSTOMERS = Map.of(
+      "CUST-G", new Customer("CUST-G", "gold@example.com", "Gold User", ADDRESS, "GOLD"),
+      "CUST-S", new Customer("CUST-S", "silver@example.com", "Silver User", ADDRESS, "SILVER"),
+      "CUST-B", new Customer("CUST-B", "bronze@example.com", "Bronze User", ADDRESS, "BRONZE"));
+
+    private final DiscountRules gold18 = tiers()
+      .loyaltyRate(LoyaltyTier.GOLD, new BigDecimal("0.18"))
+      .bulkOrder(new BigDecimal("500.00"), new BigDecimal("0.05"))
+      .build();
+    private final DiscountRules bulk1000 = tiers()
+      .bulkOrder(new BigDecimal("1000.00"), new BigDecimal("0.05"))
+      .build();
+
+    @Test
+    void comparesScenariosWithBaselinePerTier() {
+        RepricingReport report = simulator().simulate(List.of(
+          order("ORD-1", "CUST-G", "1000.00"),
+          order("ORD-2", "CUST-S", "600.00"),
+          order("ORD-3", "CUST-B", "100.00"),
+          order("ORD-4", "CUST-X", "800.00"),
+          order("ORD-5", "CUST-G", null),
+          order("ORD-6", "CUST-G", "10.001")));
+
+        assertThat(report.getScenarios()).containsExactly(RepricingSimulator.BASELINE, "gold-18", "bulk-1000");
+        assertThat(report.getOrdersSimulated()).isEqualTo(4);
+        assertThat(report.getOrdersSkipped()).isEqualTo(2);
+        assertThat(report.getUnknownCustomerOrders()).isOne();
+        assertThat(report.getOrderCount(LoyaltyTier.NONE)).isOne();
+        assertThat(report.getSubtotalCents(LoyaltyTier.SILVER)).isEqualTo(60_000);
+
+        assertThat(report.getDiscountCents(RepricingSimulator.BASELINE)).isEqualTo(33_500);
+        assertThat(report.getDeltaCents("gold-18")).isEqualTo(3_000);
+        assertThat(report.getDeltaCents("gold-18", LoyaltyTier.GOLD)).isEqualTo(3_000);
+        assertThat(report.getOrdersChanged("gold-18")).isOne();
+        assertThat(report.getDiscountCents("bulk-1000")).isEqualTo(26_500);
+        assertThat(report.getDeltaCents("bulk-1000", LoyaltyTier.SILVER)).isEqualTo(-3_000);
+        assertThat(report.getDeltaCents("bulk-1000", LoyaltyTier.GOLD)).isZero();
+        assertThat(report.getOrdersChanged("bulk-1000")).isEqualTo(2);
+
+        assertThat(report.getCustomerDiscountCents("gold-18", "CUST-G")).isEqualTo(23_000);
+        assertThat(report.getLargestChanges("bulk-1000", 10))
+          .extracting(CustomerRepricing::getCustomerId, CustomerRepricing::getTier, CustomerRepricing::getDeltaCents)
+          .containsExactly(
+            tuple("CUST-X", LoyaltyTier.NONE, -4_000L),
+            tuple("CUST-S", LoyaltyTier.SILVER, -3_000L));
+        assertThatThrownBy(() -> report.getDiscountCents("missing"))
+          .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void parallelPassMatchesCentsCalculatorForEveryScenario() {
+        List<Order> orders = IntStream.range(0, 100_000)
+          .mapToObj(i -> order("ORD-" + i, List.of("CUST-G", "CUST-S", "CUST-B", "CUST-X").get(i % 4),
+            BigDecimal.valueOf(i % 150_000, 2).toPlainString()))
+          .toList();
+
+        RepricingReport report = simulator().simulate(orders);
+
+        for (Map.Entry<String, DiscountRules> scenario : Map.of(RepricingSimulator.BASELINE, DiscountRules.defaults(),
+          "gold-18", gold18, "bulk-1000", bulk1000).entrySet()) {
+            CentsDiscountCalculator calculator = new CentsDiscountCalculator(scenario.getValue());
+            long expected = orders.stream()
+              .mapToLong(order -> calculator.calculateTotalDiscount(
+                LoyaltyTier.of(tier(order.getCustomerId())), Money.toCents(order.getSubtotal())))
+              .sum();
+            assertThat(report.getDiscountCents(scenario.getKey())).isEqualTo(expected);
+            assertThat(Arrays.stream(LoyaltyTier.values())
+              .mapToLong(tier -> report.getDiscountCents(scenario.getKey(), tier)).sum()).isEqualTo(expected);
+        }
+        assertThat(report.getCustomerCount()).isEqualTo(4);
+    }
+
+    @Test
+    void keepsConstantMemoryWithoutCustomerTotals() {
+        RepricingReport report = RepricingSimulator.builder(DiscountRules.defaults(), CUSTOMERS::get)
+          .scenario("gold-18", gold18)
+          .perCustomer(false)
+          .build()
+          .simulate(List.of(order("ORD-1", "CUST-G", "1000.00")));
+
+        assertThat(report.getDeltaCents("gold-18")).isEqualTo(3_000);
+        assertThat(report.hasCustomerTotals()).isFalse();
+        assertThatThrownBy(() -> report.getLargestChanges("gold-18", 10))
+          .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void simulatesFileInChunks(@TempDir Path tempDir) throws IOException {
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 250; i++) {
+            csv.append("ORD-").append(i).append(",CUST-G,2024-01-15,PENDING,600.00,51.00,0.00,120.00,531.00")
+              .append(",P1,Laptop,Electronics,1,600.00,600.00\n");
+        }
+        Path file = Files.writeString(tempDir.resolve("orders.csv"), csv);
+
+        RepricingReport report;
+        try (OrderFileReader reader = new OrderFileReader(file)) {
+            report = simulator().simulate(reader, 16);
+        }
+
+        assertThat(report.getOrdersSimulated()).isEqualTo(250);
+        assertThat(report.getDiscountCents(RepricingSimulator.BASELINE, LoyaltyTier.GOLD)).isEqualTo(250 * 12_000);
+        assertThat(report.getCustomerDiscountCents("gold-18", "CUST-G")).isEqualTo(250 * 13_800);
+    }
+
+    @Test
+    void rejectsDuplicateOrMissingScenarios() {
+        RepricingSimulator.Builder builder = RepricingSimulator.builder(DiscountRules.defaults(), CUSTOMERS::get);
+
+        assertThatThrownBy(builder::build)
+          .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> builder.scenario(RepricingSimulator.BASELINE, gold18))
+          .isInstanceOf(IllegalArgumentException.class);
+        builder.scenario("gold-18", gold18);
+        assertThatThrownBy(() -> builder.scenario("gold-18", bulk1000))
+          .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private RepricingSimulator simulator() {
+        return RepricingSimulator.builder(DiscountRules.defaults(), CUSTOMERS::get)
+          .scenario("gold-18", gold18)
+          .scenario("bulk-1000", bulk1000)
+          .build();
+    }
+
+    private static String tier(String customerId) {
+        Customer customer = CUSTOMERS.get(customerId);
+        return customer == null ? null : customer.getLoyaltyTier();
+    }
+
+    private static DiscountRules.Builder tiers() {
+        return DiscountRules.builder()
+          .loyaltyRate(LoyaltyTier.BRONZE, new BigDecimal("0.05"))
+          .loyaltyRate(LoyaltyTier.SILVER, new BigDecimal("0.10"))
+          .loyaltyRate(LoyaltyTier.GOLD, new BigDecimal("0.15"))
+          .loyaltyRate(LoyaltyTier.PLATINUM, new BigDecimal("0.20"));
+    }
+
+    private static Order order(String orderId, String customerId, String subtotal) {
+        BigDecimal amount = subtotal == null ? null : new BigDecimal(subtotal);
+        return new Order(orderId, customerId, LocalDate.of(2024, 1, 15), "PENDING", List.of(), amount,
+          BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, amount);
+    }
+}
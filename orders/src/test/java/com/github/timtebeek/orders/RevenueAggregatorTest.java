@@ -0,0 +1,84 @@
+package com.github.timtebeek.orders;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+class RevenueAggregatorTest {
+
+    private static final LocalDate JAN_15 = LocalDate.of(2024, 1, 15);
+    private static final LocalDate JAN_16 = LocalDate.of(2024, 1, 16);
+
+    private final OrderItem laptop = new OrderItem("P1", "Laptop", "Electronics", 1,
+      new BigDecimal("1000.00"), new BigDecimal("1000.00"));
+    private final OrderItem book = new OrderItem("P2", "Book", "Books", 2,
+      new BigDecimal("12.50"), new BigDecimal("25.00"));
+
+    private OrderStore store;
+    private RevenueAggregator aggregator;
+
+    @BeforeEach
+    void setUp() {
+        store = new OrderStore();
+        store.put(order("ORD-001", "CUST-001", JAN_15, "PENDING", List.of(laptop), "1085.00"));
+        aggregator = RevenueAggregator.attachTo(store);
+    }
+
+    @Test
+    void startsFromExistingOrders() {
+        assertThat(aggregator.getTotalRevenue()).isEqualByComparingTo("1085.00");
+        assertThat(aggregator.getCategoryRevenue("Electronics")).isEqualByComparingTo("1000.00");
+    }
+
+    @Test
+    void addsInsertedOrders() {
+        store.put(order("ORD-002", "CUST-001", JAN_16, "CONFIRMED", List.of(laptop, book), "1110.00"));
+        store.put(order("ORD-003", "CUST-002", JAN_16, "PENDING", List.of(book), "30.00"));
+
+        assertThat(aggregator.getRevenueByCustomer())
+          .containsOnly(entry("CUST-001", new BigDecimal("2195.00")), entry("CUST-002", new BigDecimal("30.00")));
+        assertThat(aggregator.getRevenueByCategory())
+          .containsOnly(entry("Electronics", new BigDecimal("2000.00")), entry("Books", new BigDecimal("50.00")));
+        assertThat(aggregator.getRevenueByDay())
+          .containsExactly(entry(JAN_15, new BigDecimal("1085.00")), entry(JAN_16, new BigDecimal("1140.00")));
+        assertThat(aggregator.getRevenueBetween(JAN_16, JAN_16)).isEqualByComparingTo("1140.00");
+    }
+
+    @Test
+    void cancellingReversesRevenue() {
+        store.put(order("ORD-001", "CUST-001", JAN_15, "CANCELLED", List.of(laptop), "1085.00"));
+
+        assertThat(aggregator.getTotalRevenue()).isZero();
+        assertThat(aggregator.getCustomerRevenue("CUST-001")).isZero();
+        assertThat(aggregator.getRevenueByCategory()).isEmpty();
+    }
+
+    @Test
+    void cancellingTransitionReversesRevenueOnce() {
+        store.transitionStatus("ORD-001", OrderStatus.PENDING, OrderStatus.CANCELLED);
+        store.remove("ORD-001");
+
+        assertThat(aggregator.getTotalRevenue()).isZero();
+        assertThat(aggregator.getCategoryRevenue("Electronics")).isZero();
+    }
+
+    @Test
+    void removingReversesRevenue() {
+        store.put(order("ORD-002", "CUST-002", JAN_16, "PENDING", List.of(book), "30.00"));
+        store.remove("ORD-001");
+
+        assertThat(aggregator.getRevenueByCustomer()).containsOnly(entry("CUST-002", new BigDecimal("30.00")));
+        assertThat(aggregator.getDailyRevenue(JAN_15)).isZero();
+    }
+
+    private static Order order(String orderId, String customerId, LocalDate orderDate, String status,
+                               List<OrderItem> items, String total) {
+        return new Order(orderId, customerId, orderDate, status, items, null, null, null, null, new BigDecimal(total));
+    }
+}
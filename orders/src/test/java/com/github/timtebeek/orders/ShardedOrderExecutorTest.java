@@ -0,0 +1,186 @@
+package com.github.timtebeek.orders;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ShardedOrderExecutorTest {
+
+    @Test
+    void aggregatesPerCustomerWithoutLocks() throws Exception {
+        ShardedOrderExecutor<Map<String, Long>> executor = ShardedOrderExecutor.<Map<String, Long>>builder(4,
+            shard -> new HashMap<>(),
+            (spend, order) -> spend.merge(order.getCustomerId(), Money.toCents(order.getTotal()), Long::sum))
+          .queueCapacity(16)
+          .build();
+
+        List<Thread> submitters = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread submitter = new Thread(() -> {
+                for (int i = 0; i < 25_000; i++) {
+                    executor.submit(order("ORD-" + i, "CUST-" + i % 100, "1.00"));
+                }
+            });
+            submitters.add(submitter);
+            submitter.start();
+        }
+        for (Thread submitter : submitters) {
+            submitter.join();
+        }
+        long queried = executor.query("CUST-7", spend -> spend.get("CUST-7")).get(10, TimeUnit.SECONDS);
+        executor.close();
+
+        assertThat(queried).isPositive();
+        List<Map<String, Long>> states = executor.getStates();
+        assertThat(states).hasSize(4);
+        Map<String, Long> total = new HashMap<>();
+        for (int shard = 0; shard < states.size(); shard++) {
+            for (Map.Entry<String, Long> entry : states.get(shard).entrySet()) {
+                assertThat(executor.shardOf(entry.getKey())).isEqualTo(shard);
+                total.put(entry.getKey(), entry.getValue());
+            }
+        }
+        assertThat(total).hasSize(100).containsEntry("CUST-7", 100_000L);
+        assertThat(executor.getProcessed(0) + executor.getProcessed(1) + executor.getProcessed(2)
+          + executor.getProcessed(3)).isEqualTo(100_001);
+    }
+
+    @Test
+    void shardsSendingToEachOtherDrainBeforeClose() {
+        // Forwards every order to the shard of the next customer, with inboxes small enough for shards to wait on each other
+        AtomicReference<ShardedOrderExecutor<List<String>>> self = new AtomicReference<>();
+        ShardedOrderExecutor<List<String>> executor = ShardedOrderExecutor.<List<String>>builder(3, shard -> new ArrayList<>(),
+            (orders, order) -> {
+                String next = "CUST-" + (Integer.parseInt(order.getCustomerId().substring(5)) + 1);
+                self.get().execute(next, forwarded -> forwarded.add(order.getOrderId()));
+            })
+          .queueCapacity(2)
+          .build();
+        self.set(executor);
+        for (int i = 0; i < 10_000; i++) {
+            executor.submit(order("ORD-" + i, "CUST-" + i % 50, "1.00"));
+        }
+        executor.close();
+
+        assertThat(executor.getStates().stream().mapToInt(List::size).sum()).isEqualTo(10_000);
+        assertThat(executor.getFailed()).isZero();
+    }
+
+    @Test
+    void rethrowsFirstHandlerFailureOnClose() {
+        ShardedOrderExecutor<Object> executor = ShardedOrderExecutor.builder(2, shard -> new Object(),
+            (state, order) -> {
+                if (order.getOrderId().equals("ORD-3")) {
+                    throw new IllegalStateException("boom");
+                }
+            })
+          .build();
+        for (int i = 0; i < 10; i++) {
+            executor.submit(order("ORD-" + i, "CUST-" + i, "1.00"));
+        }
+
+        assertThatThrownBy(executor::close)
+          .isInstanceOf(IllegalStateException.class)
+          .hasRootCauseMessage("boom");
+        assertThat(executor.getFailed()).isOne();
+        assertThatThrownBy(() -> executor.submit(order("ORD-11", "CUST-1", "1.00")))
+          .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void neverOverlapsHandlersOfAShardWhenInboxesAreFull() {
+        AtomicReference<ShardedOrderExecutor<AtomicInteger[]>> self = new AtomicReference<>();
+        ShardedOrderExecutor<AtomicInteger[]> executor = ShardedOrderExecutor.<AtomicInteger[]>builder(2,
+            shard -> new AtomicInteger[]{new AtomicInteger(), new AtomicInteger()},
+            (running, order) -> {
+                int active = running[0].incrementAndGet();
+                running[1].accumulateAndGet(active, Math::max);
+                for (int i = 0; i < 4; i++) {
+                    self.get().execute("CUST-" + i, other -> other[1].accumulateAndGet(other[0].get() + 1, Math::max));
+                }
+                running[0].decrementAndGet();
+            })
+          .queueCapacity(2)
+          .build();
+        self.set(executor);
+        for (int i = 0; i < 5_000; i++) {
+            executor.submit(order("ORD-" + i, "CUST-" + i % 10, "1.00"));
+        }
+        executor.close();
+
+        assertThat(executor.getStates()).allSatisfy(running -> assertThat(running[1]).hasValue(1));
+        assertThat(executor.getFailed()).isZero();
+    }
+
+    @Test
+    @Timeout(value = 10, threadMode = Timeout.ThreadMode.SEPARATE_THREAD)
+    void countsErrorsAndStillCloses() {
+        ShardedOrderExecutor<Object> executor = ShardedOrderExecutor.builder(2, shard -> new Object(),
+            (state, order) -> {
+                throw new StackOverflowError();
+            })
+          .build();
+        executor.submit(order("ORD-1", "CUST-1", "1.00"));
+        executor.submit(order("ORD-2", "CUST-2", "1.00"));
+
+        assertThatThrownBy(executor::close)
+          .isInstanceOf(IllegalStateException.class)
+          .hasCauseInstanceOf(StackOverflowError.class);
+        assertThat(executor.getFailed()).isEqualTo(2);
+    }
+
+    @Test
+    @Timeout(value = 10, threadMode = Timeout.ThreadMode.SEPARATE_THREAD)
+    void completesQueriesThatThrowErrors() {
+        ShardedOrderExecutor<Object> executor = ShardedOrderExecutor.builder(2, shard -> new Object(),
+            (state, order) -> {
+            })
+          .build();
+
+        CompletableFuture<Object> result = executor.query("CUST-1", state -> {
+            throw new AssertionError("Broken query");
+        });
+
+        assertThatThrownBy(result::join)
+          .isInstanceOf(CompletionException.class)
+          .hasCauseInstanceOf(AssertionError.class);
+        executor.close();
+    }
+
+    @Test
+    void mpscQueueIsBoundedAndFifo() {
+        MpscQueue<Integer> queue = new MpscQueue<>(3);
+
+        assertThat(queue.capacity()).isEqualTo(4);
+        for (int i = 0; i < 4; i++) {
+            assertThat(queue.offer(i)).isTrue();
+        }
+        assertThat(queue.offer(4)).isFalse();
+        assertThat(queue.poll()).isZero();
+        assertThat(queue.offer(4)).isTrue();
+        assertThat(queue.size()).isEqualTo(4);
+        for (int i = 1; i <= 4; i++) {
+            assertThat(queue.poll()).isEqualTo(i);
+        }
+        assertThat(queue.poll()).isNull();
+    }
+
+    private static Order order(String orderId, String customerId, String total) {
+        return new Order(orderId, customerId, LocalDate.of(2024, 1, 15), "PENDING", List.of(),
+          new BigDecimal(total), BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, new BigDecimal(total));
+    }
+}
@@ -0,0 +1,81 @@
+package com.github.timtebeek.orders;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ShippingCalculatorTest {
+
+    private final ShippingCalculator calculator = ShippingCalculator.builder()
+      .weightBands(500, 2_000, 10_000)
+      .zone("LOCAL", new BigDecimal("4.99"), new BigDecimal("6.99"), new BigDecimal("12.99"))
+      .zone("REGIONAL", new BigDecimal("7.99"), new BigDecimal("9.99"), new BigDecimal("19.99"))
+      .zone("NATIONAL", new BigDecimal("9.99"), new BigDecimal("14.99"), new BigDecimal("29.99"))
+      .zone("UK", new BigDecimal("14.99"), new BigDecimal("24.99"), new BigDecimal("49.99"))
+      .country("USA", "NATIONAL")
+      .state("USA", "IL", "REGIONAL")
+      .zipPrefix("USA", "606", "LOCAL")
+      .zipPrefix("USA", "6060", "REGIONAL")
+      .zipPrefix("GBR", "SW1", "UK")
+      .build();
+
+    @Test
+    void prefersLongestZipPrefixThenStateThenCountry() {
+        assertThat(zoneName(address("IL", "60601", "USA"))).isEqualTo("REGIONAL");
+        assertThat(zoneName(address("IL", "60611-2345", "USA"))).isEqualTo("LOCAL");
+        assertThat(zoneName(address("IL", "62701", "USA"))).isEqualTo("REGIONAL");
+        assertThat(zoneName(address("CA", "94105", "USA"))).isEqualTo("NATIONAL");
+        assertThat(zoneName(address(null, "sw1a 1aa", "GBR"))).isEqualTo("UK");
+        assertThat(calculator.zone(address(null, "EC1A 1BB", "GBR"))).isEqualTo(ShippingCalculator.NO_ZONE);
+        assertThat(calculator.zone(address("ON", "M5V", "CAN"))).isEqualTo(ShippingCalculator.NO_ZONE);
+    }
+
+    @Test
+    void quotesRateOfWeightBand() {
+        Address chicago = address("IL", "60611", "USA");
+
+        assertThat(calculator.quoteCents(chicago, 0)).isEqualTo(499);
+        assertThat(calculator.quoteCents(chicago, 500)).isEqualTo(499);
+        assertThat(calculator.quoteCents(chicago, 501)).isEqualTo(699);
+        assertThat(calculator.quote(chicago, 10_000)).isEqualByComparingTo("12.99");
+        assertThatThrownBy(() -> calculator.quoteCents(chicago, 10_001))
+          .isInstanceOf(IllegalArgumentException.class)
+          .hasMessageContaining("heaviest band");
+        assertThatThrownBy(() -> calculator.quoteCents(address("ON", "M5V", "CAN"), 100))
+          .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void quotesBatch() {
+        Address chicago = address("IL", "60611", "USA");
+        Address london = address(null, "SW1A 1AA", "GBR");
+        long[] costs = new long[4];
+
+        calculator.quoteCents(new Address[]{chicago, chicago, london, chicago}, new long[]{100, 1_000, 100, 5_000}, costs);
+
+        assertThat(costs).containsExactly(499, 699, 1499, 1299);
+    }
+
+    @Test
+    void rejectsUndefinedZone() {
+        ShippingCalculator.Builder builder = ShippingCalculator.builder()
+          .weightBands(1_000)
+          .zone("LOCAL", new BigDecimal("4.99"))
+          .country("USA", "NATIONAL");
+
+        assertThatThrownBy(builder::build)
+          .isInstanceOf(IllegalArgumentException.class)
+          .hasMessageContaining("NATIONAL");
+    }
+
+    private String zoneName(Address address) {
+        return calculator.getZoneName(calculator.zone(address));
+    }
+
+    private static Address address(String state, String zipCode, String country) {
+        return new Address("1 Main St", "City", state, zipCode, country);
+    }
+}
@@ -0,0 +1,126 @@
+package com.github.timtebeek.orders;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TaxCalculatorTest {
+
+    private static final Address SPRINGFIELD = new Address("123 Main St", "Springfield", "IL", "62701", "USA");
+    private static final Address PORTLAND = new Address("1 Pine St", "Portland", "OR", "97201", "USA");
+    private static final Address AMSTERDAM = new Address("Dam 1", "Amsterdam", null, "1012 JS", "NL");
+    private static final Address NOWHERE = new Address("1 Unknown Rd", "Atlantis", null, "00000", "XX");
+
+    private static final TaxRates RATES = TaxRates.builder()
+      .defaultRate(new BigDecimal("0.05"))
+      .country("USA", BigDecimal.ZERO)
+      .state("USA", "IL", new BigDecimal("0.0625"))
+      .state("USA", "IL", "Grocery", new BigDecimal("0.01"))
+      .country("NL", new BigDecimal("0.21"))
+      .country("NL", "Books", new BigDecimal("0.09"))
+      .build();
+
+    private final TaxCalculator calculator = new TaxCalculator(RATES);
+
+    @Test
+    void appliesMostSpecificRate() {
+        assertThat(RATES.getRate(SPRINGFIELD, "Grocery")).isEqualByComparingTo("0.01");
+        assertThat(RATES.getRate(SPRINGFIELD, "Books")).isEqualByComparingTo("0.0625");
+        assertThat(RATES.getRate(PORTLAND, "Grocery")).isEqualByComparingTo("0");
+        assertThat(RATES.getRate(AMSTERDAM, "Books")).isEqualByComparingTo("0.09");
+        assertThat(RATES.getRate(AMSTERDAM, "Electronics")).isEqualByComparingTo("0.21");
+        assertThat(RATES.getRate(NOWHERE, "Books")).isEqualByComparingTo("0.05");
+        assertThat(RATES.regionCode(NOWHERE)).isEqualTo(TaxRates.UNKNOWN_REGION);
+        assertThat(RATES.categoryCode("Electronics")).isEqualTo(TaxRates.OTHER_CATEGORY);
+    }
+
+    @Test
+    void roundsEachLineHalfUp() {
+        Order order = order(
+          item("Electronics", "10.00"),
+          item("Grocery", "0.50"),
+          item("Electronics", "0.08"));
+
+        // 0.625 rounds to 0.63, 0.005 to 0.01 and 0.005 to 0.01
+        assertThat(calculator.calculateTax(SPRINGFIELD, order)).isEqualByComparingTo("0.65");
+        assertThat(calculator.calculateTax(SPRINGFIELD, order.getItems().get(0))).isEqualTo(new BigDecimal("0.63"));
+        assertThat(calculator.calculateTax(SPRINGFIELD, item("Electronics", "0.079"))).isEqualTo(new BigDecimal("0.00"));
+        assertThat(calculator.calculateTaxCents(SPRINGFIELD, "Electronics", -8)).isEqualTo(-1);
+    }
+
+    @Test
+    void centsMatchBigDecimalRounding() {
+        Random random = new Random(42);
+        for (int i = 0; i < 20_000; i++) {
+            long cents = random.nextInt(10_000_000);
+            BigDecimal expected = Money.fromCents(cents).multiply(new BigDecimal("0.0625")).setScale(2, RoundingMode.HALF_UP);
+
+            assertThat(Money.fromCents(calculator.calculateTaxCents(SPRINGFIELD, "Electronics", cents)))
+              .as("line total %s", Money.fromCents(cents))
+              .isEqualByComparingTo(expected);
+        }
+    }
+
+    @Test
+    void batchMatchesSingleLineCalculation() {
+        Address[] addresses = {SPRINGFIELD, SPRINGFIELD, AMSTERDAM, AMSTERDAM, NOWHERE, null};
+        String[] categories = {"Grocery", "Books", "Books", "Books", null, "Books"};
+        long[] lineTotals = {1_000, 1_000, 1_000, 2_550, 1_000, 1_000};
+        long[] taxes = new long[addresses.length];
+
+        calculator.calculateTaxCents(addresses, categories, lineTotals, taxes);
+
+        assertThat(taxes).containsExactly(10, 63, 90, 230, 50, 50);
+        for (int i = 0; i < addresses.length; i++) {
+            assertThat(taxes[i]).isEqualTo(calculator.calculateTaxCents(addresses[i], categories[i], lineTotals[i]));
+        }
+        assertThatThrownBy(() -> calculator.calculateTaxCents(addresses, categories, lineTotals, new long[1]))
+          .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void reloadsRatesFromProperties() {
+        Properties properties = new Properties();
+        properties.setProperty("USA.IL", "0.07");
+        properties.setProperty("USA.IL/Grocery", "0");
+
+        TaxRates previous = calculator.updateRates(TaxRates.load(properties));
+
+        assertThat(previous).isSameAs(RATES);
+        assertThat(calculator.calculateTaxCents(SPRINGFIELD, "Electronics", 1_000)).isEqualTo(70);
+        assertThat(calculator.calculateTaxCents(SPRINGFIELD, "Grocery", 1_000)).isZero();
+        assertThat(calculator.calculateTaxCents(AMSTERDAM, "Books", 1_000)).isZero();
+    }
+
+    @Test
+    void rejectsInvalidRates() {
+        assertThatThrownBy(() -> TaxRates.builder().country("USA", new BigDecimal("1.5")))
+          .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> TaxRates.builder().country("USA", new BigDecimal("0.0000001")))
+          .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> TaxRates.builder().state("USA", null, BigDecimal.ONE))
+          .isInstanceOf(IllegalArgumentException.class);
+        Properties properties = new Properties();
+        properties.setProperty("USA", "seven percent");
+        assertThatThrownBy(() -> TaxRates.load(properties))
+          .isInstanceOf(IllegalArgumentException.class)
+          .hasMessageContaining("USA");
+    }
+
+    private static Order order(OrderItem... items) {
+        return new Order("ORD-001", "CUST-001", LocalDate.of(2024, 1, 15), "PENDING", List.of(items),
+          null, null, null, null, null);
+    }
+
+    private static OrderItem item(String category, String lineTotal) {
+        return new OrderItem("P1", "Product", category, 1, new BigDecimal(lineTotal), new BigDecimal(lineTotal));
+    }
+}
@@ -0,0 +1,81 @@
+package com.github.timtebeek.orders;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ValidationProfileTest {
+
+    @Test
+    void ingestProfileOnlyEvaluatesItsRules() {
+        OrderValidator ingest = new OrderValidator(ValidationProfile.INGEST);
+        OrderValidator audit = new OrderValidator();
+        Order order = order("ORD-001", null, null, new BigDecimal("64.24"));
+
+        assertThat(ingest.isValid(order)).isTrue();
+        assertThat(ingest.check(null).getFailedRules()).containsExactly(ValidationRule.ORDER_REQUIRED);
+        assertThat(audit.check(order).getFailedRules())
+          .containsExactly(ValidationRule.ORDER_DATE_REQUIRED, ValidationRule.STATUS_REQUIRED);
+        assertThat(ingest.getRuleStatistics())
+          .extracting(ValidationRuleStatistics::getRule)
+          .doesNotContain(ValidationRule.ORDER_DATE_REQUIRED, ValidationRule.STATUS_REQUIRED, ValidationRule.STATUS_INVALID);
+    }
+
+    @Test
+    void customProfileAlwaysChecksForMissingOrder() {
+        ValidationProfile profile = ValidationProfile.of("status", ValidationRule.STATUS_INVALID);
+
+        assertThat(profile.getName()).isEqualTo("status");
+        assertThat(profile.getRules()).containsExactly(ValidationRule.ORDER_REQUIRED, ValidationRule.STATUS_INVALID);
+        assertThat(new OrderValidator(profile).getRuleOrder()).containsExactly(ValidationRule.STATUS_INVALID);
+    }
+
+    @Test
+    void movesRulesThatOftenFailToTheFront() {
+        OrderValidator validator = new OrderValidator(ValidationProfile.AUDIT, OrderMetrics.NOOP, 1, 100);
+        assertThat(validator.getRuleOrder()).startsWith(ValidationRule.ORDER_ID_REQUIRED);
+
+        for (int i = 0; i < 1_000; i++) {
+            assertThat(validator.isValid(order("ORD-" + i, LocalDate.of(2024, 1, 15), "UNKNOWN", new BigDecimal("64.24"))))
+              .isFalse();
+        }
+
+        assertThat(validator.getRuleOrder()).startsWith(ValidationRule.STATUS_INVALID)
+          .containsExactlyInAnyOrder(ValidationRule.ORDER_ID_REQUIRED, ValidationRule.CUSTOMER_ID_REQUIRED,
+            ValidationRule.ORDER_DATE_REQUIRED, ValidationRule.ITEMS_REQUIRED, ValidationRule.TOTAL_REQUIRED,
+            ValidationRule.TOTAL_NOT_POSITIVE, ValidationRule.STATUS_REQUIRED, ValidationRule.STATUS_INVALID);
+        assertThat(validator.getRuleStatistics())
+          .filteredOn(statistics -> statistics.getRule() == ValidationRule.STATUS_INVALID)
+          .singleElement()
+          .satisfies(statistics -> {
+              assertThat(statistics.getEvaluations()).isEqualTo(1_000);
+              assertThat(statistics.getFailureRate()).isEqualTo(1.0);
+          });
+    }
+
+    @Test
+    void failureMaskDoesNotDependOnRuleOrder() {
+        OrderValidator validator = new OrderValidator(ValidationProfile.AUDIT, OrderMetrics.NOOP, 1, 10);
+        for (int i = 0; i < 100; i++) {
+            validator.isValid(order("ORD-" + i, LocalDate.of(2024, 1, 15), "UNKNOWN", new BigDecimal("64.24")));
+        }
+        Order order = order(" ", null, "UNKNOWN", BigDecimal.ZERO);
+
+        assertThat(validator.getRuleOrder().get(0)).isEqualTo(ValidationRule.STATUS_INVALID);
+        assertThat(validator.validate(order)).isEqualTo(new OrderValidator().validate(order)).containsExactly(
+          "Order ID is required",
+          "Order date is required",
+          "Order total must be greater than zero",
+          "Invalid order status: UNKNOWN");
+    }
+
+    private static Order order(String orderId, LocalDate orderDate, String status, BigDecimal total) {
+        OrderItem item = new OrderItem("P1", "Widget", "Gadgets", 1, new BigDecimal("64.24"), new BigDecimal("64.24"));
+        return new Order(orderId, "CUST-001", orderDate, status, List.of(item), total, BigDecimal.ZERO,
+          BigDecimal.ZERO, BigDecimal.ZERO, total);
+    }
+}
@@ -0,0 +1,68 @@
+package com.github.timtebeek.orders;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ValidationReportTest {
+
+    private final OrderValidator validator = new OrderValidator();
+
+    @Test
+    void countsFailuresPerRuleAcrossOrders() {
+        List<Order> orders = new ArrayList<>();
+        IntStream.range(0, 10_000).forEach(i -> orders.add(order("ORD-" + i, i % 3 == 0 ? "UNKNOWN" : "PENDING")));
+
+        ValidationReport report = validator.validateAll(orders);
+
+        assertThat(report.getOrdersValidated()).isEqualTo(10_000);
+        assertThat(report.getInvalidOrders()).isEqualTo(3_334);
+        assertThat(report.getFailureCounts()).containsOnlyKeys(ValidationRule.STATUS_INVALID);
+        assertThat(report.getFailureCount(ValidationRule.STATUS_INVALID)).isEqualTo(3_334);
+    }
+
+    @Test
+    void matchesSingleOrderValidation() {
+        List<Order> orders = List.of(
+          order("ORD-1", "PENDING"),
+          order(null, null),
+          order("ORD-3", ""));
+
+        ValidationReport report = validator.validateAll(orders);
+
+        long expectedErrors = orders.stream().mapToLong(order -> validator.validate(order).size()).sum();
+        assertThat(report.getFailureCounts().values().stream().mapToLong(Long::longValue).sum())
+          .isEqualTo(expectedErrors);
+        assertThat(report.getFailureCounts()).containsOnlyKeys(
+          ValidationRule.ORDER_ID_REQUIRED, ValidationRule.STATUS_REQUIRED);
+        assertThat(report.getFailedOrderIds()).containsExactly("ORD-3");
+    }
+
+    @Test
+    void boundsFailedOrderIdsInEncounterOrder() {
+        List<Order> orders = IntStream.range(0, 5_000)
+          .mapToObj(i -> order("ORD-" + i, "UNKNOWN"))
+          .toList();
+
+        ValidationReport report = validator.validateAll(orders.stream(), 10);
+
+        assertThat(report.getInvalidOrders()).isEqualTo(5_000);
+        assertThat(report.getFailedOrderIds())
+          .containsExactly("ORD-0", "ORD-1", "ORD-2", "ORD-3", "ORD-4", "ORD-5", "ORD-6", "ORD-7", "ORD-8", "ORD-9");
+        assertThat(report.isTruncated()).isTrue();
+    }
+
+    private static Order order(String orderId, String status) {
+        OrderItem item = new OrderItem("PROD-001", "Test Product", "Electronics", 1,
+          new BigDecimal("50.00"), new BigDecimal("50.00"));
+        return new Order(orderId, "CUST-001", LocalDate.of(2024, 1, 15), status, List.of(item),
+          new BigDecimal("50.00"), new BigDecimal("4.25"), new BigDecimal("9.99"), BigDecimal.ZERO,
+          new BigDecimal("64.24"));
+    }
+}
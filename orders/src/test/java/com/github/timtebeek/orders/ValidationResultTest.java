@@ -0,0 +1,60 @@
+package com.github.timtebeek.orders;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ValidationResultTest {
+
+    private final OrderValidator validator = new OrderValidator();
+
+    @Test
+    void validOrderSharesValidResult() {
+        ValidationResult result = validator.check(order("PENDING", new BigDecimal("64.24")));
+
+        assertThat(result).isSameAs(ValidationResult.VALID);
+        assertThat(result.isValid()).isTrue();
+        assertThat(result.getMessages()).isEmpty();
+    }
+
+    @Test
+    void recordsFailedRulesAndBuildsMessagesOnRequest() {
+        Order order = order("UNKNOWN", BigDecimal.ZERO);
+
+        ValidationResult result = validator.check(order);
+
+        assertThat(result.getFailedRules())
+          .containsExactly(ValidationRule.TOTAL_NOT_POSITIVE, ValidationRule.STATUS_INVALID);
+        assertThat(result.getMessages())
+          .containsExactly("Order total must be greater than zero", "Invalid order status: UNKNOWN")
+          .isEqualTo(validator.validate(order));
+        assertThat(validator.isValid(order)).isFalse();
+    }
+
+    @Test
+    void reusesResultsWithoutStatusMessage() {
+        assertThat(validator.check(order(" ", null)))
+          .isSameAs(validator.check(order("", null)))
+          .satisfies(result -> assertThat(result.getFailedRules())
+            .containsExactly(ValidationRule.TOTAL_REQUIRED, ValidationRule.STATUS_REQUIRED));
+    }
+
+    @Test
+    void nullOrderFailsSingleRule() {
+        ValidationResult result = validator.check(null);
+
+        assertThat(result.hasFailed(ValidationRule.ORDER_REQUIRED)).isTrue();
+        assertThat(result.getMessages()).containsExactly("Order cannot be null");
+    }
+
+    private static Order order(String status, BigDecimal total) {
+        OrderItem item = new OrderItem("PROD-001", "Test Product", "Electronics", 1,
+          new BigDecimal("50.00"), new BigDecimal("50.00"));
+        return new Order("ORD-001", "CUST-001", LocalDate.of(2024, 1, 15), status, List.of(item),
+          new BigDecimal("50.00"), new BigDecimal("4.25"), new BigDecimal("9.99"), BigDecimal.ZERO, total);
+    }
+}